@@ -38,7 +38,8 @@ public class SecurityConfig {
                     "/actuator/health",
                     "/actuator/info",
                     "/swagger-ui/**",
-                    "/v3/api-docs/**"
+                    "/v3/api-docs/**",
+                    "/api/v1/public/**"
                 ).permitAll()
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
@@ -2,6 +2,7 @@ package com.ecom.fulfillment.consumer;
 
 import com.ecom.fulfillment.entity.Fulfillment;
 import com.ecom.fulfillment.repository.FulfillmentRepository;
+import com.ecom.fulfillment.service.DriverCapacityTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -22,6 +23,7 @@ import java.util.UUID;
 public class OrderStatusUpdatedEventConsumer {
     
     private final FulfillmentRepository fulfillmentRepository;
+    private final DriverCapacityTracker capacityTracker;
     
     @KafkaListener(topics = "order-status-updated", groupId = "fulfillment-service-group")
     @Transactional
@@ -43,6 +45,8 @@ public class OrderStatusUpdatedEventConsumer {
                         Fulfillment.FulfillmentStatus fulfillmentStatus = mapOrderStatusToFulfillmentStatus(status);
                         
                         if (fulfillmentStatus != null && fulfillment.getStatus() != fulfillmentStatus) {
+                            capacityTracker.onStatusChange(
+                                fulfillment.getAssignedDriverId(), fulfillment.getStatus(), fulfillmentStatus);
                             fulfillment.setStatus(fulfillmentStatus);
                             fulfillment.setUpdatedAt(LocalDateTime.now());
                             
@@ -3,11 +3,14 @@ package com.ecom.fulfillment.controller;
 import com.ecom.fulfillment.model.request.SearchFulfillmentsRequest;
 import com.ecom.fulfillment.model.response.DashboardMetricsResponse;
 import com.ecom.fulfillment.model.response.DriverPerformanceResponse;
+import com.ecom.fulfillment.model.response.FleetSnapshotResponse;
 import com.ecom.fulfillment.model.response.FulfillmentResponse;
 import com.ecom.fulfillment.model.response.ProviderPerformanceResponse;
 import com.ecom.fulfillment.security.JwtAuthenticationToken;
 import com.ecom.fulfillment.service.AnalyticsService;
+import com.ecom.fulfillment.service.FleetSnapshotView;
 import com.ecom.fulfillment.service.FulfillmentService;
+import com.ecom.fulfillment.util.FleetSnapshotCodec;
 import com.ecom.response.dto.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -15,6 +18,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -34,6 +39,7 @@ public class AdminDashboardController {
     
     private final AnalyticsService analyticsService;
     private final FulfillmentService fulfillmentService;
+    private final FleetSnapshotView fleetSnapshotView;
     
     @GetMapping("/dashboard")
     @Operation(summary = "Get dashboard metrics", description = "Gets admin dashboard metrics")
@@ -97,6 +103,30 @@ public class AdminDashboardController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
     
+    @GetMapping("/fleet/snapshot")
+    @Operation(summary = "Get fleet live map", description = "Gets position, status and heading of all drivers and active deliveries; " +
+        "pass the returned version as since to get only changes, format=binary (or Accept: application/octet-stream) for the binary encoding; " +
+        "the view only covers drivers and deliveries handled by the serving instance")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+    public ResponseEntity<?> getFleetSnapshot(
+        @RequestParam(required = false) Long since,
+        @RequestParam(defaultValue = "json") String format,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        Authentication authentication
+    ) {
+        UUID tenantId = getTenantId(authentication);
+        FleetSnapshotResponse response = fleetSnapshotView.snapshot(tenantId, since);
+        
+        boolean binary = "binary".equalsIgnoreCase(format)
+            || (accept != null && accept.contains(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        if (binary) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(FleetSnapshotCodec.encode(response));
+        }
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+    
     private UUID getTenantId(Authentication auth) {
         if (auth instanceof JwtAuthenticationToken token) {
             return UUID.fromString(token.getTenantId());
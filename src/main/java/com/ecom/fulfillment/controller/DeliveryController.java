@@ -1,10 +1,17 @@
 package com.ecom.fulfillment.controller;
 
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.model.request.TrackDeliveryBatchRequest;
 import com.ecom.fulfillment.model.request.TrackDeliveryRequest;
 import com.ecom.fulfillment.model.response.DeliveryResponse;
+import com.ecom.fulfillment.model.response.NearbyDeliveryResponse;
+import com.ecom.fulfillment.model.response.TrackingHistoryPageResponse;
 import com.ecom.fulfillment.model.response.TrackingResponse;
 import com.ecom.fulfillment.security.JwtAuthenticationToken;
 import com.ecom.fulfillment.service.DeliveryService;
+import com.ecom.fulfillment.service.TrackingNumberIndex;
+import com.ecom.fulfillment.service.TrackingService;
+import com.ecom.fulfillment.util.ETags;
 import com.ecom.response.dto.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -12,12 +19,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -32,6 +43,8 @@ import java.util.UUID;
 public class DeliveryController {
     
     private final DeliveryService deliveryService;
+    private final TrackingService trackingService;
+    private final TrackingNumberIndex trackingNumberIndex;
     
     @PostMapping("/{deliveryId}/track")
     @Operation(summary = "Track delivery location", description = "Updates delivery location (DRIVER only)")
@@ -47,6 +60,20 @@ public class DeliveryController {
         return ResponseEntity.ok(ApiResponse.success(response, "Location updated successfully"));
     }
     
+    @PostMapping("/{deliveryId}/track/batch")
+    @Operation(summary = "Track delivery locations in batch", description = "Records buffered location updates in one call (DRIVER only)")
+    @PreAuthorize("hasRole('DRIVER')")
+    public ResponseEntity<ApiResponse<DeliveryResponse>> trackDeliveryBatch(
+            @PathVariable UUID deliveryId,
+            @Valid @RequestBody TrackDeliveryBatchRequest request,
+            Authentication authentication) {
+        
+        UUID driverId = getUserIdFromAuthentication(authentication);
+        UUID tenantId = getTenantIdFromAuthentication(authentication);
+        DeliveryResponse response = deliveryService.trackDeliveryBatch(deliveryId, driverId, tenantId, request);
+        return ResponseEntity.ok(ApiResponse.success(response, "Locations updated successfully"));
+    }
+    
     /**
      * Public tracking endpoint (no authentication required)
      * Customer can track using just tracking number
@@ -55,19 +82,26 @@ public class DeliveryController {
     @Operation(summary = "Public tracking", description = "Track delivery using tracking number (no auth required)")
     public ResponseEntity<ApiResponse<TrackingResponse>> publicTracking(
             @PathVariable String trackingNumber,
-            @RequestHeader(value = "X-Tenant-Id", required = false) UUID tenantId) {
+            @RequestHeader(value = "X-Tenant-Id", required = false) UUID tenantId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        // If tenantId not provided, try to find from tracking number
-        // For now, require tenantId - throw exception if missing
+        // If tenantId not provided, resolve it from the tracking number
         if (tenantId == null) {
-            throw new com.ecom.error.exception.BusinessException(
-                com.ecom.error.model.ErrorCode.INVALID_REQUEST,
-                "Tenant ID is required"
-            );
+            tenantId = trackingNumberIndex.resolve(trackingNumber)
+                .map(TrackingNumberIndex.Entry::tenantId)
+                .orElseThrow(() -> new com.ecom.error.exception.BusinessException(
+                    com.ecom.error.model.ErrorCode.RESOURCE_NOT_FOUND,
+                    "Tracking not found for number: " + trackingNumber
+                ));
+        }
+        
+        Optional<LocalDateTime> version = deliveryService.getTrackingVersion(trackingNumber, tenantId);
+        if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+            return ETags.notModified(ETags.of(version.get()));
         }
         
         TrackingResponse response = deliveryService.getTracking(trackingNumber, tenantId);
-        return ResponseEntity.ok(ApiResponse.success(response, "Tracking information retrieved"));
+        return ETags.ok(ApiResponse.success(response, "Tracking information retrieved"), version);
     }
     
     @GetMapping("/{deliveryId}/tracking")
@@ -75,23 +109,56 @@ public class DeliveryController {
     public ResponseEntity<ApiResponse<TrackingResponse>> getTracking(
             @PathVariable UUID deliveryId,
             @RequestParam String trackingNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication) {
         
         UUID tenantId = getTenantIdFromAuthentication(authentication);
+        Optional<LocalDateTime> version = deliveryService.getTrackingVersion(trackingNumber, tenantId);
+        if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+            return ETags.notModified(ETags.of(version.get()));
+        }
+        
         TrackingResponse response = deliveryService.getTracking(trackingNumber, tenantId);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ETags.ok(ApiResponse.success(response), version);
+    }
+    
+    @GetMapping("/{deliveryId}/tracking/history")
+    @Operation(summary = "Get tracking history page", description = "Gets tracking history newest first, paginated with a before/before_id cursor")
+    public ResponseEntity<ApiResponse<TrackingHistoryPageResponse>> getTrackingHistory(
+            @PathVariable UUID deliveryId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(name = "before_id", required = false) UUID beforeId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication) {
+        
+        UUID tenantId = getTenantIdFromAuthentication(authentication);
+        Optional<LocalDateTime> version = deliveryService.getDeliveryVersion(deliveryId, tenantId);
+        if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+            return ETags.notModified(ETags.of(version.get()));
+        }
+        
+        TrackingHistoryPageResponse response = trackingService.getTrackingHistoryPage(
+            deliveryId, tenantId, before, beforeId, limit);
+        return ETags.ok(ApiResponse.success(response), version);
     }
     
     @GetMapping("/{deliveryId}")
     @Operation(summary = "Get delivery by ID", description = "Retrieves delivery details")
     public ResponseEntity<ApiResponse<DeliveryResponse>> getDelivery(
             @PathVariable UUID deliveryId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication) {
         
         UUID tenantId = getTenantIdFromAuthentication(authentication);
+        Optional<LocalDateTime> version = deliveryService.getDeliveryVersion(deliveryId, tenantId);
+        if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+            return ETags.notModified(ETags.of(version.get()));
+        }
+        
         List<String> roles = getRolesFromAuthentication(authentication);
         DeliveryResponse response = deliveryService.getDeliveryById(deliveryId, tenantId, roles);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ETags.ok(ApiResponse.success(response), version);
     }
     
     @PutMapping("/{deliveryId}/complete")
@@ -107,6 +174,26 @@ public class DeliveryController {
         return ResponseEntity.ok(ApiResponse.success(response, "Delivery completed successfully"));
     }
     
+    @GetMapping("/nearby")
+    @Operation(
+        summary = "Get nearby deliveries",
+        description = "Deliveries whose current position is within radius meters of a point, nearest first"
+    )
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+    public ResponseEntity<ApiResponse<List<NearbyDeliveryResponse>>> getNearbyDeliveries(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Delivery.DeliveryStatus status,
+            Authentication authentication) {
+        
+        UUID tenantId = getTenantIdFromAuthentication(authentication);
+        List<NearbyDeliveryResponse> response = deliveryService.getNearbyDeliveries(
+            tenantId, lat, lon, radius, limit, status);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+    
     @GetMapping("/driver/{driverId}")
     @Operation(summary = "Get deliveries by driver", description = "Gets all deliveries for a driver")
     @PreAuthorize("hasRole('DRIVER') or hasRole('ADMIN') or hasRole('STAFF')")
@@ -1,10 +1,15 @@
 package com.ecom.fulfillment.controller;
 
+import com.ecom.fulfillment.entity.Driver;
 import com.ecom.fulfillment.model.request.CreateDriverRequest;
+import com.ecom.fulfillment.model.request.DriverHeartbeatRequest;
 import com.ecom.fulfillment.model.request.UpdateDriverRequest;
 import com.ecom.fulfillment.model.response.DriverResponse;
+import com.ecom.fulfillment.model.response.DriverRouteResponse;
+import com.ecom.fulfillment.model.response.NearbyDriverResponse;
 import com.ecom.fulfillment.security.JwtAuthenticationToken;
 import com.ecom.fulfillment.service.DriverService;
+import com.ecom.fulfillment.service.RouteService;
 import com.ecom.response.dto.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -33,6 +38,7 @@ import java.util.UUID;
 public class DriverController {
     
     private final DriverService driverService;
+    private final RouteService routeService;
     
     @PostMapping
     @Operation(summary = "Create driver", description = "Creates a new driver (ADMIN only)")
@@ -81,6 +87,52 @@ public class DriverController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
     
+    @GetMapping("/nearby")
+    @Operation(
+        summary = "Get nearby drivers",
+        description = "Up to k drivers within radius meters of a point, nearest first (default status AVAILABLE)"
+    )
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+    public ResponseEntity<ApiResponse<List<NearbyDriverResponse>>> getNearbyDrivers(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(required = false) Driver.DriverStatus status,
+            Authentication authentication) {
+        
+        UUID tenantId = getTenantIdFromAuthentication(authentication);
+        List<NearbyDriverResponse> response = driverService.getNearbyDrivers(tenantId, lat, lon, radius, k, status);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+    
+    @PostMapping("/heartbeat")
+    @Operation(summary = "Driver heartbeat", description = "Reports the calling driver's current position (DRIVER only)")
+    @PreAuthorize("hasRole('DRIVER')")
+    public ResponseEntity<Void> heartbeat(
+            @Valid @RequestBody DriverHeartbeatRequest request,
+            Authentication authentication) {
+        
+        UUID tenantId = getTenantIdFromAuthentication(authentication);
+        UUID driverId = getUserIdFromAuthentication(authentication);
+        driverService.recordHeartbeat(driverId, tenantId, request);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @GetMapping("/{driverId}/route")
+    @Operation(summary = "Get driver route", description = "Optimized stop order of a driver's open deliveries")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+    public ResponseEntity<ApiResponse<DriverRouteResponse>> getDriverRoute(
+            @PathVariable UUID driverId,
+            Authentication authentication) {
+        
+        UUID tenantId = getTenantIdFromAuthentication(authentication);
+        // Tenant check
+        driverService.getDriverById(driverId, tenantId);
+        DriverRouteResponse response = routeService.getOptimizedRoute(driverId, tenantId);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+    
     @PutMapping("/{driverId}")
     @Operation(summary = "Update driver", description = "Updates driver information (ADMIN only)")
     @PreAuthorize("hasRole('ADMIN')")
@@ -94,6 +146,13 @@ public class DriverController {
         return ResponseEntity.ok(ApiResponse.success(response, "Driver updated successfully"));
     }
     
+    private UUID getUserIdFromAuthentication(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken jwtToken) {
+            return UUID.fromString(jwtToken.getUserId());
+        }
+        throw new IllegalStateException("Invalid authentication token");
+    }
+    
     private UUID getTenantIdFromAuthentication(Authentication authentication) {
         if (authentication instanceof JwtAuthenticationToken jwtToken) {
             return UUID.fromString(jwtToken.getTenantId());
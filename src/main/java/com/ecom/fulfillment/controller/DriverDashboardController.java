@@ -2,8 +2,10 @@ package com.ecom.fulfillment.controller;
 
 import com.ecom.fulfillment.model.response.DeliveryResponse;
 import com.ecom.fulfillment.model.response.DriverDashboardResponse;
+import com.ecom.fulfillment.model.response.DriverRouteResponse;
 import com.ecom.fulfillment.security.JwtAuthenticationToken;
 import com.ecom.fulfillment.service.DeliveryService;
+import com.ecom.fulfillment.service.RouteService;
 import com.ecom.response.dto.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -26,6 +28,7 @@ import java.util.UUID;
 public class DriverDashboardController {
     
     private final DeliveryService deliveryService;
+    private final RouteService routeService;
     
     @GetMapping("/dashboard")
     @Operation(summary = "Get driver dashboard", description = "Gets driver dashboard with today's deliveries")
@@ -51,7 +54,9 @@ public class DriverDashboardController {
                 d.currentLocation(),
                 d.latitude(),
                 d.longitude(),
-                null, // estimated arrival - not in DeliveryResponse
+                d.eta() != null ? d.eta().estimatedArrival() : null,
+                d.eta() != null ? d.eta().timeWindow() : null,
+                d.eta() != null ? d.eta().minutesRemaining() : null,
                 0, // attempt count
                 "NORMAL" // priority
             )).toList(),
@@ -84,6 +89,21 @@ public class DriverDashboardController {
         return ResponseEntity.ok(ApiResponse.success(deliveries));
     }
     
+    @GetMapping("/route")
+    @Operation(
+        summary = "Get optimized route",
+        description = "Orders the driver's open deliveries into a route from their current position, with distance and ETA per stop"
+    )
+    public ResponseEntity<ApiResponse<DriverRouteResponse>> getRoute(
+        Authentication authentication
+    ) {
+        UUID tenantId = getTenantId(authentication);
+        UUID driverId = getUserId(authentication);
+        
+        DriverRouteResponse route = routeService.getOptimizedRoute(driverId, tenantId);
+        return ResponseEntity.ok(ApiResponse.success(route));
+    }
+    
     private UUID getTenantId(Authentication auth) {
         if (auth instanceof JwtAuthenticationToken token) {
             return UUID.fromString(token.getTenantId());
@@ -1,15 +1,25 @@
 package com.ecom.fulfillment.controller;
 
+import com.ecom.error.exception.BusinessException;
+import com.ecom.error.model.ErrorCode;
 import com.ecom.fulfillment.model.response.TrackingResponse;
 import com.ecom.fulfillment.service.DeliveryService;
+import com.ecom.fulfillment.service.TrackingNumberIndex;
+import com.ecom.fulfillment.service.TrackingStreamService;
+import com.ecom.fulfillment.util.ETags;
 import com.ecom.response.dto.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -24,21 +34,54 @@ import java.util.UUID;
 public class PublicTrackingController {
     
     private final DeliveryService deliveryService;
+    private final TrackingStreamService trackingStreamService;
+    private final TrackingNumberIndex trackingNumberIndex;
     
     @GetMapping("/{trackingNumber}")
-    @Operation(summary = "Track delivery", description = "Public tracking endpoint (no authentication required)")
+    @Operation(
+        summary = "Track delivery",
+        description = "Public tracking endpoint (no authentication required). " +
+            "Send the previous ETag in If-None-Match to get 304 Not Modified while nothing changed."
+    )
     public ResponseEntity<ApiResponse<TrackingResponse>> trackDelivery(
-        @PathVariable String trackingNumber
+        @PathVariable String trackingNumber,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        // For public tracking, we need tenantId - in real implementation,
-        // tracking number should encode tenant info or we query all tenants
-        // For now, we'll need to find tenant from tracking number or allow null
-        // This is a simplified implementation
-        // For public tracking, we need tenantId - in real implementation,
-        // tracking number should encode tenant info or we query all tenants
-        // This is a simplified implementation - would need proper tenant lookup
-        TrackingResponse response = deliveryService.getTracking(trackingNumber, null);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        // Tracking numbers are globally unique; the index yields the owning tenant
+        // (unknown numbers are rejected in memory, before any database access)
+        TrackingNumberIndex.Entry entry = resolve(trackingNumber);
+        
+        // Unchanged since the client's last poll: answer from the version alone
+        Optional<LocalDateTime> version = deliveryService.getTrackingVersion(trackingNumber, entry.tenantId());
+        if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+            return ETags.notModified(ETags.of(version.get()));
+        }
+        
+        TrackingResponse response = deliveryService.getTracking(trackingNumber, entry.tenantId());
+        return ETags.ok(ApiResponse.success(response), version);
+    }
+    
+    @GetMapping(value = "/{trackingNumber}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream live tracking",
+        description = "Server-Sent Events: a snapshot followed by location/status updates (no authentication required). " +
+            "Reconnect with Last-Event-ID to receive only missed updates."
+    )
+    public SseEmitter streamTracking(
+        @PathVariable String trackingNumber,
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        TrackingNumberIndex.Entry entry = resolve(trackingNumber);
+        TrackingResponse snapshot = deliveryService.getTracking(trackingNumber, entry.tenantId());
+        return trackingStreamService.subscribe(entry.deliveryId(), snapshot, lastEventId);
+    }
+    
+    private TrackingNumberIndex.Entry resolve(String trackingNumber) {
+        return trackingNumberIndex.resolve(trackingNumber)
+            .orElseThrow(() -> new BusinessException(
+                ErrorCode.RESOURCE_NOT_FOUND,
+                "Tracking not found for number: " + trackingNumber
+            ));
     }
 }
 
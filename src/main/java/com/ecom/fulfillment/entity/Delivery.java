@@ -122,6 +122,8 @@ public class Delivery {
     @Column(name = "estimated_arrival")
     private LocalDateTime estimatedArrival;
     
+    // Can hold thousands of rows on long routes: read it through TrackingHistoryRepository
+    // (latest N / paginated), never load or append to it on the tracking write path
     @OneToMany(mappedBy = "delivery", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<TrackingHistory> trackingHistory = new ArrayList<>();
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +50,13 @@ public class Fulfillment {
     @Column(name = "pickup_location", length = 500)
     private String pickupLocation;
     
+    // Pickup coordinates (pickup distance for auto-dispatch)
+    @Column(name = "pickup_latitude", precision = 10, scale = 8)
+    private BigDecimal pickupLatitude;
+    
+    @Column(name = "pickup_longitude", precision = 11, scale = 8)
+    private BigDecimal pickupLongitude;
+    
     @Column(name = "delivery_address_id", nullable = false)
     private UUID deliveryAddressId;
     
@@ -12,11 +12,13 @@ import java.util.UUID;
 
 /**
  * Tracking History Entity
+ * The table is range-partitioned by day on created_at; its primary key is (id, created_at)
+ * because PostgreSQL requires the partition key in unique constraints. id alone is still
+ * unique (random UUID), so it remains the JPA identifier.
  */
 @Entity
 @Table(name = "tracking_history", indexes = {
-    @Index(name = "idx_tracking_history_delivery_id", columnList = "delivery_id"),
-    @Index(name = "idx_tracking_history_created_at", columnList = "created_at")
+    @Index(name = "idx_tracking_history_delivery_created_id", columnList = "delivery_id, created_at DESC, id DESC")
 })
 @Data
 @Builder
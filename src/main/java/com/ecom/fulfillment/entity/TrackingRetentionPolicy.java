@@ -0,0 +1,42 @@
+package com.ecom.fulfillment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Tracking Retention Policy Entity
+ * How long a tenant's tracking history is kept before the retention job removes it
+ */
+@Entity
+@Table(name = "tracking_retention_policies")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingRetentionPolicy {
+    
+    @Id
+    @Column(name = "tenant_id")
+    private UUID tenantId;
+    
+    @Column(name = "retention_days", nullable = false)
+    private Integer retentionDays;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
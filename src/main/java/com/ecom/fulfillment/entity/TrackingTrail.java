@@ -0,0 +1,55 @@
+package com.ecom.fulfillment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Tracking Trail Entity
+ * Compacted tracking history of a completed delivery, encoded by TrackingTrailCodec
+ */
+@Entity
+@Table(name = "tracking_trails", indexes = {
+    @Index(name = "idx_tracking_trail_tenant_last_point", columnList = "tenant_id, last_point_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingTrail {
+    
+    @Id
+    @Column(name = "delivery_id")
+    private UUID deliveryId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Column(name = "encoding_version", nullable = false)
+    private Short encodingVersion;
+    
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;
+    
+    @Column(name = "first_point_at")
+    private LocalDateTime firstPointAt;
+    
+    @Column(name = "last_point_at")
+    private LocalDateTime lastPointAt;
+    
+    @Column(name = "points", nullable = false)
+    private byte[] points;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Late rows make deliveries.updated_at newer than this, which queues a re-merge
+    @Column(name = "compacted_at", nullable = false)
+    private LocalDateTime compactedAt;
+}
@@ -0,0 +1,60 @@
+package com.ecom.fulfillment.event;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.service.GeofenceEngine;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Delivery Geofence Event (Published to Kafka)
+ * Raised when a driver enters or leaves the pickup or delivery address fence;
+ * a DROPOFF/ENTER is the "driver has arrived" customer notification
+ */
+public record DeliveryGeofenceEvent(
+    @JsonProperty("delivery_id")
+    UUID deliveryId,
+    
+    @JsonProperty("fulfillment_id")
+    UUID fulfillmentId,
+    
+    @JsonProperty("tenant_id")
+    UUID tenantId,
+    
+    @JsonProperty("driver_id")
+    UUID driverId,
+    
+    @JsonProperty("tracking_number")
+    String trackingNumber,
+    
+    GeofenceEngine.FenceType fence,
+    
+    GeofenceEngine.Direction direction,
+    
+    Delivery.DeliveryStatus status,
+    
+    BigDecimal latitude,
+    
+    BigDecimal longitude,
+    
+    @JsonProperty("occurred_at")
+    LocalDateTime occurredAt
+) {
+    public static DeliveryGeofenceEvent of(Delivery delivery, GeofenceEngine.Transition transition) {
+        return new DeliveryGeofenceEvent(
+            delivery.getId(),
+            delivery.getFulfillmentId(),
+            delivery.getTenantId(),
+            delivery.getDriverId(),
+            delivery.getTrackingNumber(),
+            transition.fence(),
+            transition.direction(),
+            delivery.getStatus(),
+            delivery.getLatitude(),
+            delivery.getLongitude(),
+            transition.at()
+        );
+    }
+}
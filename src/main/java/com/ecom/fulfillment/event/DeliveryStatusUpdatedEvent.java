@@ -9,6 +9,8 @@ import java.util.UUID;
 
 /**
  * Delivery Status Updated Event (Published to Kafka)
+ * For batched location updates, latitude/longitude are the newest point and
+ * point_count/first_point_at summarize the batch
  */
 public record DeliveryStatusUpdatedEvent(
     @JsonProperty("delivery_id")
@@ -27,7 +29,13 @@ public record DeliveryStatusUpdatedEvent(
     BigDecimal longitude,
     
     @JsonProperty("updated_at")
-    LocalDateTime updatedAt
+    LocalDateTime updatedAt,
+    
+    @JsonProperty("point_count")
+    int pointCount,
+    
+    @JsonProperty("first_point_at")
+    LocalDateTime firstPointAt
 ) {
     public static DeliveryStatusUpdatedEvent of(
         UUID deliveryId,
@@ -45,8 +53,33 @@ public record DeliveryStatusUpdatedEvent(
             status,
             latitude,
             longitude,
+            updatedAt,
+            1,
             updatedAt
         );
     }
+    
+    public static DeliveryStatusUpdatedEvent ofBatch(
+        UUID deliveryId,
+        UUID fulfillmentId,
+        UUID driverId,
+        Delivery.DeliveryStatus status,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime updatedAt,
+        int pointCount,
+        LocalDateTime firstPointAt
+    ) {
+        return new DeliveryStatusUpdatedEvent(
+            deliveryId,
+            fulfillmentId,
+            driverId,
+            status,
+            latitude,
+            longitude,
+            updatedAt,
+            pointCount,
+            firstPointAt
+        );
+    }
 }
-
@@ -0,0 +1,52 @@
+package com.ecom.fulfillment.event;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Delivery Tracking Changed Event (in-process only, not published to Kafka)
+ * Raised on every location or status change; feeds the live tracking streams after commit
+ */
+public record DeliveryTrackingChangedEvent(
+    @JsonProperty("delivery_id")
+    UUID deliveryId,
+    
+    @JsonProperty("tenant_id")
+    UUID tenantId,
+    
+    @JsonProperty("driver_id")
+    UUID driverId,
+    
+    @JsonProperty("tracking_number")
+    String trackingNumber,
+    
+    Delivery.DeliveryStatus status,
+    
+    @JsonProperty("current_location")
+    String currentLocation,
+    
+    BigDecimal latitude,
+    
+    BigDecimal longitude,
+    
+    @JsonProperty("updated_at")
+    LocalDateTime updatedAt
+) {
+    public static DeliveryTrackingChangedEvent of(Delivery delivery) {
+        return new DeliveryTrackingChangedEvent(
+            delivery.getId(),
+            delivery.getTenantId(),
+            delivery.getDriverId(),
+            delivery.getTrackingNumber(),
+            delivery.getStatus(),
+            delivery.getCurrentLocation(),
+            delivery.getLatitude(),
+            delivery.getLongitude(),
+            delivery.getUpdatedAt() != null ? delivery.getUpdatedAt() : delivery.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecom.fulfillment.event;
+
+import com.ecom.fulfillment.entity.Driver;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Driver State Changed Event (in-process only, not published to Kafka)
+ * Raised when a driver is created or their status/position changes; feeds the driver location index after commit
+ */
+public record DriverStateChangedEvent(
+    @JsonProperty("driver_id")
+    UUID driverId,
+    
+    @JsonProperty("tenant_id")
+    UUID tenantId,
+    
+    Driver.DriverStatus status,
+    
+    BigDecimal latitude,
+    
+    BigDecimal longitude,
+    
+    @JsonProperty("updated_at")
+    LocalDateTime updatedAt
+) {
+    public static DriverStateChangedEvent of(Driver driver) {
+        return new DriverStateChangedEvent(
+            driver.getId(),
+            driver.getTenantId(),
+            driver.getStatus(),
+            driver.getCurrentLatitude(),
+            driver.getCurrentLongitude(),
+            driver.getLastLocationUpdate()
+        );
+    }
+}
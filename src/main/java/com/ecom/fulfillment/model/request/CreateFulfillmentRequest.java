@@ -1,8 +1,11 @@
 package com.ecom.fulfillment.model.request;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -17,6 +20,16 @@ public record CreateFulfillmentRequest(
     @JsonProperty("pickup_location")
     String pickupLocation,
     
+    @DecimalMin(value = "-90", message = "Pickup latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "Pickup latitude must be between -90 and 90")
+    @JsonProperty("pickup_latitude")
+    BigDecimal pickupLatitude,
+    
+    @DecimalMin(value = "-180", message = "Pickup longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "Pickup longitude must be between -180 and 180")
+    @JsonProperty("pickup_longitude")
+    BigDecimal pickupLongitude,
+    
     @NotNull(message = "Delivery address ID is required")
     @JsonProperty("delivery_address_id")
     UUID deliveryAddressId,
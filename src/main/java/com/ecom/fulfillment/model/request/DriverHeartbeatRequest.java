@@ -0,0 +1,22 @@
+package com.ecom.fulfillment.model.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Request DTO for a driver heartbeat (current position)
+ */
+public record DriverHeartbeatRequest(
+    @NotNull(message = "Latitude is required")
+    @DecimalMin(value = "-90", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "Latitude must be between -90 and 90")
+    BigDecimal latitude,
+    
+    @NotNull(message = "Longitude is required")
+    @DecimalMin(value = "-180", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "Longitude must be between -180 and 180")
+    BigDecimal longitude
+) {}
@@ -0,0 +1,37 @@
+package com.ecom.fulfillment.model.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Request DTO for tracking a batch of buffered delivery locations
+ * Points must be ordered oldest first; the last point becomes the current location
+ */
+public record TrackDeliveryBatchRequest(
+    @NotEmpty(message = "At least one point is required")
+    @Size(max = 500, message = "At most 500 points per batch")
+    List<@Valid @NotNull TrackingPoint> points
+) {
+    public record TrackingPoint(
+        @NotNull(message = "Latitude is required")
+        BigDecimal latitude,
+        
+        @NotNull(message = "Longitude is required")
+        BigDecimal longitude,
+        
+        @JsonProperty("location_description")
+        String locationDescription,
+        
+        String status,
+        
+        @JsonProperty("recorded_at")
+        LocalDateTime recordedAt // Device time of the ping, defaults to server time
+    ) {}
+}
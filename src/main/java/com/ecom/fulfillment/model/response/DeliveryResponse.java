@@ -42,6 +42,9 @@ public record DeliveryResponse(
     LocalDateTime createdAt,
     
     @JsonProperty("updated_at")
-    LocalDateTime updatedAt
+    LocalDateTime updatedAt,
+    
+    // Live estimate for in-flight deliveries, null otherwise
+    EtaResponse eta
 ) {}
 
@@ -43,6 +43,8 @@ public record DriverDashboardResponse(
         BigDecimal deliveryLatitude,
         BigDecimal deliveryLongitude,
         LocalDateTime estimatedArrival,
+        String timeWindow,
+        Integer minutesRemaining,
         Integer attemptCount,
         String priority
     ) {}
@@ -3,6 +3,7 @@ package com.ecom.fulfillment.model.response;
 import com.ecom.fulfillment.entity.Driver;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -29,6 +30,15 @@ public record DriverResponse(
     
     Driver.DriverStatus status,
     
+    @JsonProperty("current_latitude")
+    BigDecimal currentLatitude,
+    
+    @JsonProperty("current_longitude")
+    BigDecimal currentLongitude,
+    
+    @JsonProperty("last_location_update")
+    LocalDateTime lastLocationUpdate,
+    
     @JsonProperty("created_at")
     LocalDateTime createdAt,
     
@@ -0,0 +1,68 @@
+package com.ecom.fulfillment.model.response;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response for a driver's optimized stop order
+ */
+public record DriverRouteResponse(
+    @JsonProperty("driver_id")
+    UUID driverId,
+    
+    @JsonProperty("start_latitude")
+    Double startLatitude,
+    
+    @JsonProperty("start_longitude")
+    Double startLongitude,
+    
+    List<RouteStop> stops,
+    
+    @JsonProperty("total_distance_meters")
+    double totalDistanceMeters,
+    
+    @JsonProperty("estimated_completion")
+    LocalDateTime estimatedCompletion,
+    
+    // Open deliveries without delivery address coordinates
+    @JsonProperty("unrouted_delivery_ids")
+    List<UUID> unroutedDeliveryIds,
+    
+    @JsonProperty("optimized_at")
+    LocalDateTime optimizedAt
+) {
+    public record RouteStop(
+        int sequence,
+        
+        @JsonProperty("delivery_id")
+        UUID deliveryId,
+        
+        @JsonProperty("tracking_number")
+        String trackingNumber,
+        
+        Delivery.DeliveryStatus status,
+        
+        double latitude,
+        
+        double longitude,
+        
+        @JsonProperty("cumulative_distance_meters")
+        double cumulativeDistanceMeters,
+        
+        @JsonProperty("estimated_arrival")
+        LocalDateTime estimatedArrival,
+        
+        @JsonProperty("window_start")
+        LocalDateTime windowStart,
+        
+        @JsonProperty("window_end")
+        LocalDateTime windowEnd,
+        
+        // Estimated arrival is after the time window ends
+        boolean late
+    ) {}
+}
@@ -0,0 +1,25 @@
+package com.ecom.fulfillment.model.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for a delivery's estimated arrival and the window shown to the customer
+ */
+public record EtaResponse(
+    @JsonProperty("estimated_arrival")
+    LocalDateTime estimatedArrival,
+    
+    @JsonProperty("window_start")
+    LocalDateTime windowStart,
+    
+    @JsonProperty("window_end")
+    LocalDateTime windowEnd,
+    
+    @JsonProperty("time_window")
+    String timeWindow, // "2-4 PM"
+    
+    @JsonProperty("minutes_remaining")
+    Integer minutesRemaining
+) {}
@@ -0,0 +1,53 @@
+package com.ecom.fulfillment.model.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response for the fleet live map: drivers and active deliveries as compact rows
+ *
+ * <p>Pass {@code version} back as {@code since} to get only what changed. When {@code full} is
+ * true the rows are the complete view and replace everything the client holds; otherwise they
+ * are upserts and {@code removed_delivery_ids} lists deliveries that are no longer active.
+ */
+public record FleetSnapshotResponse(
+    long version,
+    
+    boolean full,
+    
+    List<Row> drivers,
+    
+    List<Row> deliveries,
+    
+    @JsonProperty("removed_delivery_ids")
+    List<UUID> removedDeliveryIds,
+    
+    // Epoch milliseconds
+    @JsonProperty("generated_at")
+    long generatedAt
+) {
+    /**
+     * [id, lat, lon, status, heading, lastUpdate] with heading in whole degrees (null if unknown)
+     * and lastUpdate the epoch milliseconds of the last position fix that moved the entry
+     *
+     * <p>ref and introduced are only used by the binary encoding: the entry's per-tenant ref and
+     * whether the client may not know it yet (so the id has to be sent along)
+     */
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    public record Row(
+        UUID id,
+        double lat,
+        double lon,
+        String status,
+        Integer heading,
+        long lastUpdate,
+        @JsonIgnore
+        int ref,
+        @JsonIgnore
+        boolean introduced
+    ) {}
+}
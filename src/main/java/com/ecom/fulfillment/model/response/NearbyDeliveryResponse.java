@@ -0,0 +1,33 @@
+package com.ecom.fulfillment.model.response;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for a delivery whose current position is near a point (nearest first)
+ */
+public record NearbyDeliveryResponse(
+    @JsonProperty("delivery_id")
+    UUID deliveryId,
+    
+    @JsonProperty("tracking_number")
+    String trackingNumber,
+    
+    @JsonProperty("driver_id")
+    UUID driverId,
+    
+    Delivery.DeliveryStatus status,
+    
+    double latitude,
+    
+    double longitude,
+    
+    @JsonProperty("distance_meters")
+    double distanceMeters,
+    
+    @JsonProperty("updated_at")
+    LocalDateTime updatedAt
+) {}
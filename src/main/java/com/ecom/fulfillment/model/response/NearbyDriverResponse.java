@@ -0,0 +1,27 @@
+package com.ecom.fulfillment.model.response;
+
+import com.ecom.fulfillment.entity.Driver;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for a driver near a point (nearest first)
+ */
+public record NearbyDriverResponse(
+    @JsonProperty("driver_id")
+    UUID driverId,
+    
+    Driver.DriverStatus status,
+    
+    double latitude,
+    
+    double longitude,
+    
+    @JsonProperty("distance_meters")
+    double distanceMeters,
+    
+    @JsonProperty("last_location_update")
+    LocalDateTime lastLocationUpdate
+) {}
@@ -0,0 +1,24 @@
+package com.ecom.fulfillment.model.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a page of tracking history (newest first)
+ * Pass next_before/next_before_id back as before/before_id to fetch the next page
+ */
+public record TrackingHistoryPageResponse(
+    List<TrackingHistoryResponse> items,
+    
+    @JsonProperty("has_more")
+    boolean hasMore,
+    
+    @JsonProperty("next_before")
+    LocalDateTime nextBefore,
+    
+    @JsonProperty("next_before_id")
+    UUID nextBeforeId
+) {}
@@ -34,6 +34,9 @@ public record TrackingResponse(
     List<TrackingHistoryResponse> trackingHistory,
     
     @JsonProperty("updated_at")
-    LocalDateTime updatedAt
+    LocalDateTime updatedAt,
+    
+    // Live estimate for in-flight deliveries, null otherwise
+    EtaResponse eta
 ) {}
 
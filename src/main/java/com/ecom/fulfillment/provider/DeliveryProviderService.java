@@ -4,6 +4,8 @@ import com.ecom.fulfillment.provider.dto.CreateShipmentRequest;
 import com.ecom.fulfillment.provider.dto.CreateShipmentResponse;
 import com.ecom.fulfillment.provider.dto.TrackingResponse;
 import com.ecom.fulfillment.provider.dto.CancelShipmentResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.UUID;
 
@@ -42,6 +44,30 @@ public interface DeliveryProviderService {
      */
     CancelShipmentResponse cancelShipment(String providerTrackingId);
     
+    /**
+     * Non-blocking {@link #createShipment}
+     * 
+     * <p>The default runs the blocking call on a bounded elastic worker; HTTP-based providers
+     * should override it with a WebClient call.
+     */
+    default Mono<CreateShipmentResponse> createShipmentAsync(CreateShipmentRequest request) {
+        return Mono.fromCallable(() -> createShipment(request)).subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    /**
+     * Non-blocking {@link #getTracking}, see {@link #createShipmentAsync}
+     */
+    default Mono<TrackingResponse> getTrackingAsync(String providerTrackingId) {
+        return Mono.fromCallable(() -> getTracking(providerTrackingId)).subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    /**
+     * Non-blocking {@link #cancelShipment}, see {@link #createShipmentAsync}
+     */
+    default Mono<CancelShipmentResponse> cancelShipmentAsync(String providerTrackingId) {
+        return Mono.fromCallable(() -> cancelShipment(providerTrackingId)).subscribeOn(Schedulers.boundedElastic());
+    }
+    
     /**
      * Verify webhook signature from provider
      * 
@@ -0,0 +1,144 @@
+package com.ecom.fulfillment.provider;
+
+import com.ecom.error.exception.BusinessException;
+import com.ecom.error.model.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to external delivery providers with a per-provider timeout and concurrency limit
+ *
+ * <p>Calls are refused inside a database transaction so a slow provider never pins a pooled
+ * connection. When a provider already has max-concurrent-calls in flight, further calls fail
+ * fast instead of queueing behind it.
+ *
+ * <p>A timeout only gives up waiting: the provider call is not cancelled (a blocking adapter
+ * would keep running on its worker anyway) and keeps its permit until it really finishes, so the
+ * limit counts every call still in flight at the provider. A call that finishes after its caller
+ * timed out is logged.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderCallExecutor {
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.providers.default-timeout-ms:5000}")
+    private long defaultTimeoutMs;
+    
+    @Value("#{${fulfillment.providers.timeout-ms:{:}}}")
+    private Map<String, Long> timeoutMs;
+    
+    @Value("${fulfillment.providers.default-max-concurrent-calls:20}")
+    private int defaultMaxConcurrentCalls;
+    
+    @Value("#{${fulfillment.providers.max-concurrent-calls:{:}}}")
+    private Map<String, Integer> maxConcurrentCalls;
+    
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    
+    /**
+     * Start a provider call; the future fails with a BusinessException when the provider is
+     * saturated, times out or errors
+     *
+     * @param providerCode Provider code (e.g., "BLUEDART")
+     * @param operation Operation name used in logs and metrics (e.g., "create_shipment")
+     * @param call Supplies the provider's Mono; subscribed once a permit is held
+     */
+    public <T> CompletableFuture<T> call(String providerCode, String operation, Supplier<Mono<T>> call) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(
+                "Provider call " + providerCode + "/" + operation + " must not run inside a database transaction");
+        }
+        
+        String provider = providerCode.toUpperCase(Locale.ROOT);
+        Semaphore semaphore = permits.computeIfAbsent(provider,
+            code -> new Semaphore(maxConcurrentCalls.getOrDefault(code, defaultMaxConcurrentCalls)));
+        if (!semaphore.tryAcquire()) {
+            record(provider, operation, "rejected", 0);
+            return CompletableFuture.failedFuture(new BusinessException(
+                ErrorCode.INVALID_OPERATION,
+                "Provider " + provider + " is busy, retry later"
+            ));
+        }
+        
+        Duration timeout = Duration.ofMillis(timeoutMs.getOrDefault(provider, defaultTimeoutMs));
+        long started = System.nanoTime();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        // Subscribed on its own so the caller's timeout cannot cancel it; the permit follows the call
+        CompletableFuture<T> inFlight = Mono.defer(call)
+            .doOnEach(signal -> {
+                if ((signal.isOnComplete() || signal.isOnError()) && abandoned.get()) {
+                    log.warn("Provider call finished after its caller timed out: provider={}, operation={}, outcome={}, tookMs={}",
+                        provider, operation, signal.isOnError() ? "error" : "success",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                }
+            })
+            .doFinally(signal -> semaphore.release())
+            .toFuture();
+        return Mono.fromFuture(inFlight, true)
+            .timeout(timeout)
+            .doOnSuccess(result -> record(provider, operation, "success", System.nanoTime() - started))
+            .onErrorMap(e -> {
+                boolean timedOut = e instanceof TimeoutException;
+                if (timedOut) {
+                    abandoned.set(true);
+                }
+                record(provider, operation, timedOut ? "timeout" : "error", System.nanoTime() - started);
+                if (e instanceof BusinessException) {
+                    return e;
+                }
+                log.warn("Provider call failed: provider={}, operation={}, error={}", provider, operation, e.toString());
+                return new BusinessException(
+                    ErrorCode.INVALID_OPERATION,
+                    timedOut
+                        ? "Provider " + provider + " did not respond within " + timeout.toMillis() + " ms"
+                        : "Provider " + provider + " call failed: " + e.getMessage()
+                );
+            })
+            .toFuture();
+    }
+    
+    /**
+     * Wait for a call started with {@link #call} and rethrow its failure unwrapped
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private void record(String provider, String operation, String outcome, long nanos) {
+        Timer.builder("provider.call")
+            .description("Calls to external delivery providers")
+            .tag("provider", provider.toLowerCase(Locale.ROOT))
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,6 +24,13 @@ public interface DeliveryPreferenceRepository extends JpaRepository<DeliveryPref
         Boolean isActive
     );
     
+    @Query("SELECT dp FROM DeliveryPreference dp WHERE dp.isActive = true " +
+           "AND (dp.deliveryId IN :deliveryIds OR dp.fulfillmentId IN :fulfillmentIds)")
+    List<DeliveryPreference> findActiveForDeliveries(
+        @Param("deliveryIds") Collection<UUID> deliveryIds,
+        @Param("fulfillmentIds") Collection<UUID> fulfillmentIds
+    );
+    
     @Query("SELECT dp FROM DeliveryPreference dp WHERE dp.tenantId = :tenantId " +
            "AND dp.scheduledDeliveryDate = :date AND dp.isActive = true")
     List<DeliveryPreference> findScheduledForDate(
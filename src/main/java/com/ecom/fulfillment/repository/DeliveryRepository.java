@@ -1,11 +1,16 @@
 package com.ecom.fulfillment.repository;
 
 import com.ecom.fulfillment.entity.Delivery;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,10 +19,18 @@ import java.util.UUID;
  * Delivery Repository
  */
 @Repository
-public interface DeliveryRepository extends JpaRepository<Delivery, UUID> {
+public interface DeliveryRepository extends JpaRepository<Delivery, UUID>,
+        DeliveryRepositoryCustom {
     
     Optional<Delivery> findByTrackingNumberAndTenantId(String trackingNumber, UUID tenantId);
     
+    /**
+     * Tracking numbers are globally unique, so public endpoints can resolve them without a tenant
+     */
+    Optional<Delivery> findByTrackingNumber(String trackingNumber);
+    
+    List<Delivery> findByStatusIn(Collection<Delivery.DeliveryStatus> statuses);
+    
     @Query("SELECT d FROM Delivery d WHERE d.driverId = :driverId " +
            "AND d.tenantId = :tenantId " +
            "AND (:status IS NULL OR d.status = :status)")
@@ -33,5 +46,33 @@ public interface DeliveryRepository extends JpaRepository<Delivery, UUID> {
         @Param("fulfillmentId") UUID fulfillmentId,
         @Param("tenantId") UUID tenantId
     );
+    
+    /**
+     * Move the current position forward without loading the entity.
+     * Skipped when the row already reflects a newer update (e.g. a synchronous status change).
+     */
+    @Modifying
+    @Query("UPDATE Delivery d SET d.latitude = :latitude, d.longitude = :longitude, " +
+           "d.currentLocation = :currentLocation, d.updatedAt = :recordedAt " +
+           "WHERE d.id = :deliveryId AND (d.updatedAt IS NULL OR d.updatedAt <= :recordedAt)")
+    int updateLatestPosition(
+        @Param("deliveryId") UUID deliveryId,
+        @Param("latitude") BigDecimal latitude,
+        @Param("longitude") BigDecimal longitude,
+        @Param("currentLocation") String currentLocation,
+        @Param("recordedAt") LocalDateTime recordedAt
+    );
+    
+    /**
+     * Completed deliveries without a trail, or updated (e.g. late rows) since their trail was compacted
+     */
+    @Query("SELECT d.id FROM Delivery d WHERE d.status IN :statuses " +
+           "AND d.updatedAt < :completedBefore " +
+           "AND NOT EXISTS (SELECT 1 FROM TrackingTrail t WHERE t.deliveryId = d.id AND t.compactedAt >= d.updatedAt) " +
+           "ORDER BY d.updatedAt")
+    List<UUID> findIdsPendingTrailCompaction(
+        @Param("statuses") Collection<Delivery.DeliveryStatus> statuses,
+        @Param("completedBefore") LocalDateTime completedBefore,
+        Pageable pageable
+    );
 }
-
@@ -0,0 +1,92 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.model.response.TrackingHistoryResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Custom Delivery Repository read paths that map straight into DTOs
+ */
+public interface DeliveryRepositoryCustom {
+    
+    /**
+     * Delivery, fulfillment and the latest tracking points in one round trip
+     * (LEFT JOIN LATERAL over tracking_history, pruned to the delivery's partitions)
+     */
+    Optional<TrackingView> findTrackingView(String trackingNumber, UUID tenantId, int historyLimit);
+    
+    /**
+     * Tracking numbers in (created_at, id) order after the given keyset position
+     */
+    List<TrackingNumberRow> findTrackingNumbersAfter(LocalDateTime createdAt, UUID id, int limit);
+    
+    /**
+     * Owner of a tracking number across all tenants (unique index lookup, no entity load)
+     */
+    Optional<TrackingNumberRow> findTrackingNumber(String trackingNumber);
+    
+    /**
+     * Version of a delivery (updated_at, or created_at if never updated) for conditional GETs
+     */
+    Optional<LocalDateTime> findVersion(UUID deliveryId, UUID tenantId);
+    
+    /**
+     * Same as {@link #findVersion(UUID, UUID)}, by tracking number
+     */
+    Optional<LocalDateTime> findVersionByTrackingNumber(String trackingNumber, UUID tenantId);
+    
+    /**
+     * Store a delivery's ETA without touching updated_at (not a tracking change)
+     */
+    void updateEstimatedArrival(UUID deliveryId, LocalDateTime estimatedArrival);
+    
+    /**
+     * Deliveries whose current position is within radiusMeters of a point, nearest first
+     * (geohash index prefilter, Haversine refinement)
+     */
+    List<NearbyDeliveryRow> findNearby(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        double radiusMeters,
+        Set<Delivery.DeliveryStatus> statuses,
+        int limit
+    );
+    
+    record NearbyDeliveryRow(
+        UUID id,
+        String trackingNumber,
+        UUID driverId,
+        Delivery.DeliveryStatus status,
+        double latitude,
+        double longitude,
+        double distanceMeters,
+        LocalDateTime updatedAt
+    ) {}
+    
+    record TrackingNumberRow(String trackingNumber, UUID tenantId, UUID deliveryId, LocalDateTime createdAt) {}
+    
+    /**
+     * Flat projection behind public/customer tracking
+     */
+    record TrackingView(
+        UUID deliveryId,
+        UUID tenantId,
+        String trackingNumber,
+        UUID orderId,
+        Delivery.DeliveryStatus status,
+        String currentLocation,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime estimatedDelivery,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        List<TrackingHistoryResponse> recentHistory
+    ) {}
+}
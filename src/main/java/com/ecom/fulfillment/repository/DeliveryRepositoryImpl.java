@@ -0,0 +1,188 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.model.response.TrackingHistoryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link DeliveryRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class DeliveryRepositoryImpl implements DeliveryRepositoryCustom {
+    
+    // The created_at bound lets PostgreSQL prune tracking_history partitions older than the delivery
+    private static final String TRACKING_VIEW_SQL =
+        "SELECT d.id, d.tenant_id, d.tracking_number, d.status, d.current_location, d.latitude, d.longitude, " +
+        "       d.created_at, d.updated_at, f.order_id, f.estimated_delivery, " +
+        "       th.id AS th_id, th.latitude AS th_latitude, th.longitude AS th_longitude, " +
+        "       th.location_description AS th_location_description, th.status AS th_status, " +
+        "       th.updated_by AS th_updated_by, th.created_at AS th_created_at " +
+        "FROM deliveries d " +
+        "JOIN fulfillments f ON f.id = d.fulfillment_id " +
+        "LEFT JOIN LATERAL ( " +
+        "    SELECT h.id, h.latitude, h.longitude, h.location_description, h.status, h.updated_by, h.created_at " +
+        "    FROM tracking_history h " +
+        "    WHERE h.delivery_id = d.id AND h.created_at >= d.created_at - INTERVAL '1 day' " +
+        "    ORDER BY h.created_at DESC, h.id DESC " +
+        "    LIMIT ? " +
+        ") th ON TRUE " +
+        "WHERE d.tracking_number = ? AND d.tenant_id = ? " +
+        "ORDER BY th.created_at DESC, th.id DESC";
+    
+    private static final String TRACKING_NUMBERS_SQL =
+        "SELECT tracking_number, tenant_id, id, created_at FROM deliveries " +
+        "WHERE (created_at, id) > (?, ?) AND tracking_number IS NOT NULL " +
+        "ORDER BY created_at, id " +
+        "LIMIT ?";
+    
+    private static final String TRACKING_NUMBER_SQL =
+        "SELECT tracking_number, tenant_id, id, created_at FROM deliveries WHERE tracking_number = ?";
+    
+    private static final String VERSION_SQL =
+        "SELECT COALESCE(updated_at, created_at) FROM deliveries WHERE id = ? AND tenant_id = ?";
+    
+    private static final String VERSION_BY_TRACKING_NUMBER_SQL =
+        "SELECT COALESCE(updated_at, created_at) FROM deliveries WHERE tracking_number = ? AND tenant_id = ?";
+    
+    private static final String UPDATE_ESTIMATED_ARRIVAL_SQL =
+        "UPDATE deliveries SET estimated_arrival = ? WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public List<TrackingNumberRow> findTrackingNumbersAfter(LocalDateTime createdAt, UUID id, int limit) {
+        return jdbcTemplate.query(TRACKING_NUMBERS_SQL, (rs, rowNum) -> mapTrackingNumber(rs),
+            Timestamp.valueOf(createdAt), id, limit);
+    }
+    
+    @Override
+    public Optional<TrackingNumberRow> findTrackingNumber(String trackingNumber) {
+        return jdbcTemplate.query(TRACKING_NUMBER_SQL, (rs, rowNum) -> mapTrackingNumber(rs), trackingNumber)
+            .stream()
+            .findFirst();
+    }
+    
+    @Override
+    public Optional<TrackingView> findTrackingView(String trackingNumber, UUID tenantId, int historyLimit) {
+        return Optional.ofNullable(jdbcTemplate.query(TRACKING_VIEW_SQL, (ResultSetExtractor<TrackingView>) rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            
+            UUID deliveryId = rs.getObject("id", UUID.class);
+            List<TrackingHistoryResponse> history = new ArrayList<>(historyLimit);
+            TrackingView view = new TrackingView(
+                deliveryId,
+                rs.getObject("tenant_id", UUID.class),
+                rs.getString("tracking_number"),
+                rs.getObject("order_id", UUID.class),
+                Delivery.DeliveryStatus.valueOf(rs.getString("status")),
+                rs.getString("current_location"),
+                rs.getBigDecimal("latitude"),
+                rs.getBigDecimal("longitude"),
+                toLocalDateTime(rs.getTimestamp("estimated_delivery")),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")),
+                history
+            );
+            
+            do {
+                UUID historyId = rs.getObject("th_id", UUID.class);
+                if (historyId != null) {
+                    history.add(toHistory(rs, historyId, deliveryId));
+                }
+            } while (rs.next());
+            
+            return view;
+        }, historyLimit, trackingNumber, tenantId));
+    }
+    
+    private static TrackingHistoryResponse toHistory(ResultSet rs, UUID historyId, UUID deliveryId) throws SQLException {
+        return new TrackingHistoryResponse(
+            historyId,
+            deliveryId,
+            rs.getBigDecimal("th_latitude"),
+            rs.getBigDecimal("th_longitude"),
+            rs.getString("th_location_description"),
+            rs.getString("th_status"),
+            rs.getObject("th_updated_by", UUID.class),
+            toLocalDateTime(rs.getTimestamp("th_created_at"))
+        );
+    }
+    
+    @Override
+    public List<NearbyDeliveryRow> findNearby(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        double radiusMeters,
+        Set<Delivery.DeliveryStatus> statuses,
+        int limit
+    ) {
+        SpatialQuery query = new SpatialQuery("latitude", "longitude", latitude, longitude)
+            .tenant("tenant_id", tenantId)
+            .in("status", statuses)
+            .near("geohash", latitude, longitude, radiusMeters);
+        String sql = query.sql(
+            "id, tracking_number, driver_id, status, latitude, longitude, updated_at", "deliveries", radiusMeters, limit);
+        
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new NearbyDeliveryRow(
+            rs.getObject("id", UUID.class),
+            rs.getString("tracking_number"),
+            rs.getObject("driver_id", UUID.class),
+            Delivery.DeliveryStatus.valueOf(rs.getString("status")),
+            rs.getDouble("latitude"),
+            rs.getDouble("longitude"),
+            rs.getDouble("distance_meters"),
+            toLocalDateTime(rs.getTimestamp("updated_at"))
+        ), query.args());
+    }
+    
+    @Override
+    public Optional<LocalDateTime> findVersion(UUID deliveryId, UUID tenantId) {
+        return queryVersion(VERSION_SQL, deliveryId, tenantId);
+    }
+    
+    @Override
+    public Optional<LocalDateTime> findVersionByTrackingNumber(String trackingNumber, UUID tenantId) {
+        return queryVersion(VERSION_BY_TRACKING_NUMBER_SQL, trackingNumber, tenantId);
+    }
+    
+    @Override
+    public void updateEstimatedArrival(UUID deliveryId, LocalDateTime estimatedArrival) {
+        jdbcTemplate.update(UPDATE_ESTIMATED_ARRIVAL_SQL, Timestamp.valueOf(estimatedArrival), deliveryId);
+    }
+    
+    private Optional<LocalDateTime> queryVersion(String sql, Object... args) {
+        return jdbcTemplate.query(sql, (rs, rowNum) -> toLocalDateTime(rs.getTimestamp(1)), args)
+            .stream()
+            .filter(Objects::nonNull)
+            .findFirst();
+    }
+    
+    private static TrackingNumberRow mapTrackingNumber(ResultSet rs) throws SQLException {
+        return new TrackingNumberRow(
+            rs.getString("tracking_number"),
+            rs.getObject("tenant_id", UUID.class),
+            rs.getObject("id", UUID.class),
+            toLocalDateTime(rs.getTimestamp("created_at"))
+        );
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -14,7 +14,7 @@ import java.util.UUID;
  * Driver Repository
  */
 @Repository
-public interface DriverRepository extends JpaRepository<Driver, UUID> {
+public interface DriverRepository extends JpaRepository<Driver, UUID>, DriverRepositoryCustom {
     
     List<Driver> findByTenantId(UUID tenantId);
     
@@ -26,5 +26,11 @@ public interface DriverRepository extends JpaRepository<Driver, UUID> {
     );
     
     Optional<Driver> findByPhoneAndTenantId(String phone, UUID tenantId);
+    
+    /**
+     * All drivers as [id, vehicleType] rows
+     */
+    @Query("SELECT d.id, d.vehicleType FROM Driver d")
+    List<Object[]> findVehicleTypes();
 }
 
@@ -0,0 +1,61 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.Driver;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Custom Driver Repository spatial queries and batched heartbeat writes
+ */
+public interface DriverRepositoryCustom {
+    
+    /**
+     * Drivers within radiusMeters of a point, nearest first
+     * (geohash index prefilter, Haversine refinement)
+     */
+    List<NearbyDriverRow> findNearby(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        double radiusMeters,
+        Set<Driver.DriverStatus> statuses,
+        int limit
+    );
+    
+    /**
+     * Write the latest heartbeat positions in one UPDATE per chunk; rows already holding a newer
+     * position are left alone
+     * @return updated drivers whose row is OFFLINE (e.g. swept by another node)
+     */
+    List<UUID> updatePositions(List<PositionUpdate> updates);
+    
+    /**
+     * Set up to {@code limit} AVAILABLE drivers whose stored position is older than the cutoff
+     * OFFLINE; rows locked by a concurrent sweep on another node are skipped
+     * @return the drivers set OFFLINE
+     */
+    List<StaleDriver> markStaleOffline(LocalDateTime cutoff, int limit);
+    
+    /**
+     * Set an OFFLINE driver AVAILABLE
+     * @return false if the driver was not OFFLINE
+     */
+    boolean markAvailableIfOffline(UUID driverId);
+    
+    record PositionUpdate(UUID driverId, BigDecimal latitude, BigDecimal longitude, LocalDateTime at) {}
+    
+    record StaleDriver(UUID driverId, UUID tenantId) {}
+    
+    record NearbyDriverRow(
+        UUID id,
+        Driver.DriverStatus status,
+        double latitude,
+        double longitude,
+        double distanceMeters,
+        LocalDateTime lastLocationUpdate
+    ) {}
+}
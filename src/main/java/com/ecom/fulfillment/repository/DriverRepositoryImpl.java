@@ -0,0 +1,113 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.Driver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link DriverRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class DriverRepositoryImpl implements DriverRepositoryCustom {
+    
+    private static final String UPDATE_POSITIONS_PREFIX =
+        "WITH updated AS (UPDATE drivers d SET current_latitude = v.latitude, current_longitude = v.longitude, " +
+        "last_location_update = v.at FROM (VALUES ";
+    private static final String POSITION_ROW = "(?::uuid, ?::numeric, ?::numeric, ?::timestamp)";
+    private static final String UPDATE_POSITIONS_SUFFIX =
+        ") AS v(id, latitude, longitude, at) " +
+        "WHERE d.id = v.id AND (d.last_location_update IS NULL OR d.last_location_update < v.at) " +
+        "RETURNING d.id, d.status) " +
+        "SELECT id FROM updated WHERE status = 'OFFLINE'";
+    private static final int COLUMNS = 4;
+    // Keeps each statement well below PostgreSQL's 32767 bind parameter limit
+    private static final int MULTI_ROW_CHUNK = 1000;
+    
+    private static final String MARK_STALE_OFFLINE_SQL =
+        "UPDATE drivers SET status = 'OFFLINE', updated_at = ? " +
+        "WHERE id IN ( " +
+        "    SELECT id FROM drivers " +
+        "    WHERE status = 'AVAILABLE' AND last_location_update < ? " +
+        "    LIMIT ? FOR UPDATE SKIP LOCKED " +
+        ") AND status = 'AVAILABLE' " +
+        "RETURNING id, tenant_id";
+    
+    private static final String MARK_AVAILABLE_SQL =
+        "UPDATE drivers SET status = 'AVAILABLE', updated_at = ? WHERE id = ? AND status = 'OFFLINE'";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public List<NearbyDriverRow> findNearby(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        double radiusMeters,
+        Set<Driver.DriverStatus> statuses,
+        int limit
+    ) {
+        SpatialQuery query = new SpatialQuery("current_latitude", "current_longitude", latitude, longitude)
+            .tenant("tenant_id", tenantId)
+            .in("status", statuses)
+            .near("geohash", latitude, longitude, radiusMeters);
+        String sql = query.sql(
+            "id, status, current_latitude, current_longitude, last_location_update", "drivers", radiusMeters, limit);
+        
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Timestamp lastUpdate = rs.getTimestamp("last_location_update");
+            return new NearbyDriverRow(
+                rs.getObject("id", UUID.class),
+                Driver.DriverStatus.valueOf(rs.getString("status")),
+                rs.getDouble("current_latitude"),
+                rs.getDouble("current_longitude"),
+                rs.getDouble("distance_meters"),
+                lastUpdate != null ? lastUpdate.toLocalDateTime() : null
+            );
+        }, query.args());
+    }
+    
+    @Override
+    public List<UUID> updatePositions(List<PositionUpdate> updates) {
+        List<UUID> offline = new ArrayList<>();
+        for (int from = 0; from < updates.size(); from += MULTI_ROW_CHUNK) {
+            List<PositionUpdate> chunk = updates.subList(from, Math.min(from + MULTI_ROW_CHUNK, updates.size()));
+            
+            StringBuilder sql = new StringBuilder(UPDATE_POSITIONS_PREFIX);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(POSITION_ROW);
+            }
+            sql.append(UPDATE_POSITIONS_SUFFIX);
+            
+            offline.addAll(jdbcTemplate.query(sql.toString(), ps -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    PositionUpdate update = chunk.get(i);
+                    int offset = i * COLUMNS;
+                    ps.setObject(offset + 1, update.driverId());
+                    ps.setBigDecimal(offset + 2, update.latitude());
+                    ps.setBigDecimal(offset + 3, update.longitude());
+                    ps.setTimestamp(offset + 4, Timestamp.valueOf(update.at()));
+                }
+            }, (rs, rowNum) -> rs.getObject("id", UUID.class)));
+        }
+        return offline;
+    }
+    
+    @Override
+    public List<StaleDriver> markStaleOffline(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query(MARK_STALE_OFFLINE_SQL,
+            (rs, rowNum) -> new StaleDriver(rs.getObject("id", UUID.class), rs.getObject("tenant_id", UUID.class)),
+            Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(cutoff), limit);
+    }
+    
+    @Override
+    public boolean markAvailableIfOffline(UUID driverId) {
+        return jdbcTemplate.update(MARK_AVAILABLE_SQL, Timestamp.valueOf(LocalDateTime.now()), driverId) == 1;
+    }
+}
@@ -1,11 +1,15 @@
 package com.ecom.fulfillment.repository;
 
 import com.ecom.fulfillment.entity.Fulfillment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,7 +18,7 @@ import java.util.UUID;
  * Fulfillment Repository
  */
 @Repository
-public interface FulfillmentRepository extends JpaRepository<Fulfillment, UUID> {
+public interface FulfillmentRepository extends JpaRepository<Fulfillment, UUID>, FulfillmentRepositoryCustom {
     
     Optional<Fulfillment> findByOrderIdAndTenantId(UUID orderId, UUID tenantId);
     
@@ -33,5 +37,53 @@ public interface FulfillmentRepository extends JpaRepository<Fulfillment, UUID>
         @Param("driverId") UUID driverId,
         @Param("tenantId") UUID tenantId
     );
+    
+    /**
+     * Tenants with fulfillments waiting for automatic dispatch
+     */
+    @Query("SELECT DISTINCT f.tenantId FROM Fulfillment f WHERE f.status = :status " +
+           "AND f.assignedDriverId IS NULL AND f.pickupLatitude IS NOT NULL AND f.pickupLongitude IS NOT NULL")
+    List<UUID> findTenantIdsAwaitingDispatch(@Param("status") Fulfillment.FulfillmentStatus status);
+    
+    /**
+     * Own-fleet fulfillments waiting for a driver, oldest first (none assigned, no provider delivery)
+     */
+    @Query("SELECT f FROM Fulfillment f WHERE f.tenantId = :tenantId AND f.status = :status " +
+           "AND f.assignedDriverId IS NULL AND f.pickupLatitude IS NOT NULL AND f.pickupLongitude IS NOT NULL " +
+           "AND f.deliveries IS EMPTY ORDER BY f.createdAt")
+    List<Fulfillment> findAwaitingDispatch(
+        @Param("tenantId") UUID tenantId,
+        @Param("status") Fulfillment.FulfillmentStatus status,
+        Pageable pageable
+    );
+    
+    /**
+     * Fulfillments in the given statuses per assigned driver across tenants, as [driverId, count] rows
+     */
+    @Query("SELECT f.assignedDriverId, COUNT(f) FROM Fulfillment f WHERE f.assignedDriverId IS NOT NULL " +
+           "AND f.status IN :statuses GROUP BY f.assignedDriverId")
+    List<Object[]> countActiveByDriver(
+        @Param("statuses") Collection<Fulfillment.FulfillmentStatus> statuses
+    );
+    
+    /**
+     * Assign a driver unless the fulfillment was assigned or changed meanwhile, or the driver
+     * already holds {@code capacity} fulfillments in the active statuses
+     * @return 1 if assigned, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE Fulfillment f SET f.assignedDriverId = :driverId, f.status = :assigned, f.updatedAt = :now " +
+           "WHERE f.id = :fulfillmentId AND f.status = :pending AND f.assignedDriverId IS NULL " +
+           "AND (SELECT COUNT(a) FROM Fulfillment a WHERE a.assignedDriverId = :driverId " +
+           "AND a.status IN :active) < :capacity")
+    int assignIfPending(
+        @Param("fulfillmentId") UUID fulfillmentId,
+        @Param("driverId") UUID driverId,
+        @Param("pending") Fulfillment.FulfillmentStatus pending,
+        @Param("assigned") Fulfillment.FulfillmentStatus assigned,
+        @Param("active") Collection<Fulfillment.FulfillmentStatus> active,
+        @Param("capacity") long capacity,
+        @Param("now") LocalDateTime now
+    );
 }
 
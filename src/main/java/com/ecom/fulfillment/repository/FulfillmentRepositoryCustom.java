@@ -0,0 +1,15 @@
+package com.ecom.fulfillment.repository;
+
+import java.util.UUID;
+
+/**
+ * Custom Fulfillment Repository locking for dispatch
+ */
+public interface FulfillmentRepositoryCustom {
+    
+    /**
+     * Wait for and hold the tenant's dispatch lock until the current transaction ends
+     * (PostgreSQL transaction-level advisory lock, shared by every node)
+     */
+    void lockDispatch(UUID tenantId);
+}
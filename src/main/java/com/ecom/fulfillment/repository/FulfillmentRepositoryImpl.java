@@ -0,0 +1,26 @@
+package com.ecom.fulfillment.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link FulfillmentRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class FulfillmentRepositoryImpl implements FulfillmentRepositoryCustom {
+    
+    // First key of the two-key advisory lock, so dispatch locks do not collide with other users
+    private static final int DISPATCH_LOCK_NAMESPACE = 0x44535054;
+    
+    private static final String LOCK_DISPATCH_SQL = "SELECT pg_advisory_xact_lock(?, hashtext(?))";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void lockDispatch(UUID tenantId) {
+        jdbcTemplate.query(LOCK_DISPATCH_SQL, (RowCallbackHandler) rs -> { }, DISPATCH_LOCK_NAMESPACE, tenantId.toString());
+    }
+}
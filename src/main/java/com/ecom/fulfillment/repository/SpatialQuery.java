@@ -0,0 +1,78 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.util.GeoHash;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SQL for geohash-prefiltered radius queries (V24 geohash columns)
+ *
+ * <p>The circle's bounding box is covered with at most {@value #MAX_PREFIXES} geohash prefixes;
+ * each becomes a LIKE 'prefix%' range on the (tenant_id, geohash) index, and only the rows found
+ * that way are measured with Haversine.
+ */
+final class SpatialQuery {
+    
+    private static final int MAX_PREFIXES = 32;
+    
+    private final StringBuilder where = new StringBuilder();
+    private final List<Object> args = new ArrayList<>();
+    private final String distance;
+    
+    /**
+     * Distance from (latitude, longitude) to the row's latColumn/lonColumn
+     */
+    SpatialQuery(String latColumn, String lonColumn, double latitude, double longitude) {
+        this.distance = "2 * 6371000 * asin(LEAST(1, sqrt(" +
+            "power(sin(radians(" + latColumn + " - ?) / 2), 2) + " +
+            "cos(radians(?)) * cos(radians(" + latColumn + ")) * " +
+            "power(sin(radians(" + lonColumn + " - ?) / 2), 2))))";
+        args.add(latitude);
+        args.add(latitude);
+        args.add(longitude);
+    }
+    
+    SpatialQuery tenant(String column, Object tenantId) {
+        where.append(" AND ").append(column).append(" = ?");
+        args.add(tenantId);
+        return this;
+    }
+    
+    SpatialQuery in(String column, Collection<?> values) {
+        if (values != null && !values.isEmpty()) {
+            where.append(" AND ").append(column).append(" IN (")
+                .append(String.join(", ", values.stream().map(v -> "?").toList()))
+                .append(")");
+            values.forEach(v -> args.add(v.toString()));
+        }
+        return this;
+    }
+    
+    SpatialQuery near(String geohashColumn, double latitude, double longitude, double radiusMeters) {
+        Set<String> prefixes = GeoHash.coverRadius(latitude, longitude, radiusMeters, MAX_PREFIXES);
+        where.append(" AND (")
+            .append(String.join(" OR ", prefixes.stream().map(p -> geohashColumn + " LIKE ?").toList()))
+            .append(")");
+        prefixes.forEach(p -> args.add(p + "%"));
+        return this;
+    }
+    
+    /**
+     * SELECT {columns}, distance FROM {table} WHERE ... AND distance <= radius ORDER BY distance LIMIT limit
+     */
+    String sql(String columns, String table, double radiusMeters, int limit) {
+        args.add(radiusMeters);
+        args.add(limit);
+        return "SELECT * FROM (" +
+            "SELECT " + columns + ", " + distance + " AS distance_meters FROM " + table +
+            " WHERE TRUE" + where +
+            ") c WHERE c.distance_meters <= ? ORDER BY c.distance_meters LIMIT ?";
+    }
+    
+    Object[] args() {
+        return args.toArray();
+    }
+}
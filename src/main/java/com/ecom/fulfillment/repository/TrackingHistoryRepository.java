@@ -1,11 +1,14 @@
 package com.ecom.fulfillment.repository;
 
 import com.ecom.fulfillment.entity.TrackingHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,12 +16,57 @@ import java.util.UUID;
  * Tracking History Repository
  */
 @Repository
-public interface TrackingHistoryRepository extends JpaRepository<TrackingHistory, UUID> {
+public interface TrackingHistoryRepository extends JpaRepository<TrackingHistory, UUID>,
+        TrackingHistoryRepositoryCustom {
+    
+    /*
+     * tracking_history is partitioned by day on created_at. Every query takes a lower bound
+     * (normally the delivery's creation time) so PostgreSQL only scans partitions from that
+     * day onwards instead of probing the index of every partition.
+     */
     
     @Query("SELECT th FROM TrackingHistory th WHERE th.deliveryId = :deliveryId " +
+           "AND th.createdAt >= :since " +
            "ORDER BY th.createdAt DESC")
     List<TrackingHistory> findByDeliveryIdOrderByCreatedAtDesc(
-        @Param("deliveryId") UUID deliveryId
+        @Param("deliveryId") UUID deliveryId,
+        @Param("since") LocalDateTime since
+    );
+    
+    /**
+     * Newest points first, limited by the pageable (first page of keyset pagination)
+     */
+    @Query("SELECT th FROM TrackingHistory th WHERE th.deliveryId = :deliveryId " +
+           "AND th.createdAt >= :since " +
+           "ORDER BY th.createdAt DESC, th.id DESC")
+    List<TrackingHistory> findLatestByDeliveryId(
+        @Param("deliveryId") UUID deliveryId,
+        @Param("since") LocalDateTime since,
+        Pageable pageable
+    );
+    
+    /**
+     * Points strictly older than the (before, beforeId) cursor, newest first
+     */
+    @Query("SELECT th FROM TrackingHistory th WHERE th.deliveryId = :deliveryId " +
+           "AND th.createdAt >= :since " +
+           "AND (th.createdAt < :before OR (th.createdAt = :before AND th.id < :beforeId)) " +
+           "ORDER BY th.createdAt DESC, th.id DESC")
+    List<TrackingHistory> findByDeliveryIdBefore(
+        @Param("deliveryId") UUID deliveryId,
+        @Param("since") LocalDateTime since,
+        @Param("before") LocalDateTime before,
+        @Param("beforeId") UUID beforeId,
+        Pageable pageable
+    );
+    
+    /**
+     * Remove a delivery's rows once they have been folded into its tracking trail
+     */
+    @Modifying
+    @Query("DELETE FROM TrackingHistory th WHERE th.deliveryId = :deliveryId AND th.createdAt >= :since")
+    int deleteByDeliveryId(
+        @Param("deliveryId") UUID deliveryId,
+        @Param("since") LocalDateTime since
     );
 }
-
@@ -0,0 +1,32 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.TrackingHistory;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Custom Tracking History Repository operations that bypass the persistence context
+ */
+public interface TrackingHistoryRepositoryCustom {
+    
+    /**
+     * Insert tracking history rows with a single JDBC batch.
+     * Rows must have deliveryId set; ids are generated if missing.
+     * Joins the caller's transaction.
+     */
+    void batchInsert(List<TrackingHistory> rows);
+    
+    /**
+     * Insert tracking history rows with multi-row INSERT statements (one round trip per chunk).
+     * Same contract as {@link #batchInsert(List)}; used by the write-behind flusher.
+     */
+    void insertMultiRow(List<TrackingHistory> rows);
+    
+    /**
+     * The newest {@code limit} points of each delivery in one query, newest first per delivery
+     */
+    List<TrackingHistory> findLatestByDeliveryIds(Collection<UUID> deliveryIds, LocalDateTime since, int limit);
+}
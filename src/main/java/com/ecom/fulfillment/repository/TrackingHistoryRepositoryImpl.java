@@ -0,0 +1,125 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.TrackingHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link TrackingHistoryRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class TrackingHistoryRepositoryImpl implements TrackingHistoryRepositoryCustom {
+    
+    private static final String INSERT_PREFIX =
+        "INSERT INTO tracking_history " +
+        "(id, delivery_id, latitude, longitude, location_description, status, updated_by, created_at) VALUES ";
+    private static final String VALUES_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SQL = INSERT_PREFIX + VALUES_ROW;
+    private static final int COLUMNS = 8;
+    // Keeps each statement well below PostgreSQL's 32767 bind parameter limit
+    private static final int MULTI_ROW_CHUNK = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void batchInsert(List<TrackingHistory> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bindRow(ps, 0, rows.get(i));
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+    
+    @Override
+    public void insertMultiRow(List<TrackingHistory> rows) {
+        for (int from = 0; from < rows.size(); from += MULTI_ROW_CHUNK) {
+            List<TrackingHistory> chunk = rows.subList(from, Math.min(from + MULTI_ROW_CHUNK, rows.size()));
+            
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + chunk.size() * (VALUES_ROW.length() + 2))
+                .append(INSERT_PREFIX);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(VALUES_ROW);
+            }
+            
+            jdbcTemplate.update(sql.toString(), ps -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    bindRow(ps, i * COLUMNS, chunk.get(i));
+                }
+            });
+        }
+    }
+    
+    @Override
+    public List<TrackingHistory> findLatestByDeliveryIds(Collection<UUID> deliveryIds, LocalDateTime since, int limit) {
+        if (deliveryIds.isEmpty()) {
+            return List.of();
+        }
+        
+        String sql = "SELECT id, delivery_id, latitude, longitude, location_description, status, updated_by, created_at " +
+            "FROM (SELECT th.*, ROW_NUMBER() OVER (PARTITION BY delivery_id ORDER BY created_at DESC, id DESC) AS rn " +
+            "FROM tracking_history th WHERE delivery_id IN (" +
+            String.join(", ", Collections.nCopies(deliveryIds.size(), "?")) +
+            ") AND created_at >= ?) latest WHERE rn <= ? ORDER BY delivery_id, created_at DESC, id DESC";
+        
+        List<Object> args = new ArrayList<>(deliveryIds);
+        args.add(Timestamp.valueOf(since));
+        args.add(limit);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapRow(rs), args.toArray());
+    }
+    
+    private static TrackingHistory mapRow(ResultSet rs) throws SQLException {
+        return TrackingHistory.builder()
+            .id(rs.getObject("id", UUID.class))
+            .deliveryId(rs.getObject("delivery_id", UUID.class))
+            .latitude(rs.getBigDecimal("latitude"))
+            .longitude(rs.getBigDecimal("longitude"))
+            .locationDescription(rs.getString("location_description"))
+            .status(rs.getString("status"))
+            .updatedBy(rs.getObject("updated_by", UUID.class))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+    }
+    
+    private static void bindRow(PreparedStatement ps, int offset, TrackingHistory row) throws SQLException {
+        if (row.getId() == null) {
+            row.setId(UUID.randomUUID());
+        }
+        LocalDateTime createdAt = row.getCreatedAt() != null ? row.getCreatedAt() : LocalDateTime.now();
+        
+        ps.setObject(offset + 1, row.getId());
+        ps.setObject(offset + 2, row.getDeliveryId());
+        ps.setBigDecimal(offset + 3, row.getLatitude());
+        ps.setBigDecimal(offset + 4, row.getLongitude());
+        ps.setString(offset + 5, row.getLocationDescription());
+        ps.setString(offset + 6, row.getStatus());
+        if (row.getUpdatedBy() != null) {
+            ps.setObject(offset + 7, row.getUpdatedBy());
+        } else {
+            ps.setNull(offset + 7, Types.OTHER);
+        }
+        ps.setTimestamp(offset + 8, Timestamp.valueOf(createdAt));
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecom.fulfillment.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Partition maintenance for the range-partitioned tracking_history table (daily partitions)
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrackingPartitionRepository {
+    
+    public static final String PARTITION_PREFIX = "tracking_history_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    // Arbitrary application-wide key so only one node runs maintenance at a time
+    private static final long MAINTENANCE_LOCK_KEY = 0x7472_6163_6b68L;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Take a transaction-scoped advisory lock; false if another node holds it
+     */
+    public boolean tryLockForMaintenance() {
+        Boolean locked = jdbcTemplate.queryForObject(
+            "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, MAINTENANCE_LOCK_KEY);
+        return Boolean.TRUE.equals(locked);
+    }
+    
+    /**
+     * Days that currently have a daily partition attached (the default partition is excluded)
+     */
+    public List<LocalDate> findDailyPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'tracking_history' AND c.relname LIKE ?",
+                String.class, PARTITION_PREFIX + "%")
+            .stream()
+            .map(name -> LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+            .sorted()
+            .toList();
+    }
+    
+    /**
+     * Create the partition for a day, moving that day's rows out of the default partition first
+     * 
+     * <p>Attaching a range that the default partition already has rows for fails, so the table is
+     * created detached, the rows are moved into it, and only then is it attached. Indexes and the
+     * foreign key are added by the attach.
+     */
+    public int createDailyPartition(LocalDate day) {
+        String name = partitionName(day);
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE tracking_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update(
+            "WITH moved AS (DELETE FROM tracking_history_default WHERE created_at >= ? AND created_at < ? RETURNING *) " +
+            "INSERT INTO " + name + " SELECT * FROM moved",
+            Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+        jdbcTemplate.execute(String.format(
+            "ALTER TABLE tracking_history ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+            name, day, day.plusDays(1)));
+        return moved;
+    }
+    
+    /**
+     * Detach and drop a day's partition. Both run in the caller's transaction, so the parent
+     * table stays locked until it commits; callers drop one partition per transaction.
+     */
+    public void dropDailyPartition(LocalDate day) {
+        String name = partitionName(day);
+        jdbcTemplate.execute("ALTER TABLE tracking_history DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+    }
+    
+    /**
+     * Delete one tenant's history in [from, to), pruned to the partitions of that range
+     */
+    public int deleteForTenantBetween(UUID tenantId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update(
+            "DELETE FROM tracking_history th USING deliveries d " +
+            "WHERE th.delivery_id = d.id AND d.tenant_id = ? AND th.created_at >= ? AND th.created_at < ?",
+            tenantId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+    
+    /**
+     * Delete history in [from, to) for tenants without their own retention policy
+     */
+    public int deleteForDefaultPolicyBetween(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update(
+            "DELETE FROM tracking_history th USING deliveries d " +
+            "WHERE th.delivery_id = d.id AND th.created_at >= ? AND th.created_at < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM tracking_retention_policies p WHERE p.tenant_id = d.tenant_id)",
+            Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+    
+    /**
+     * Rows that landed in the default partition are not covered by partition drops
+     */
+    public int deleteFromDefaultPartitionBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(
+            "DELETE FROM tracking_history_default WHERE created_at < ?", Timestamp.valueOf(cutoff));
+    }
+    
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.TrackingRetentionPolicy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Tracking Retention Policy Repository
+ */
+@Repository
+public interface TrackingRetentionPolicyRepository extends JpaRepository<TrackingRetentionPolicy, UUID> {
+}
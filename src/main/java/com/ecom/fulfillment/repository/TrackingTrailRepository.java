@@ -0,0 +1,33 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.TrackingTrail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Tracking Trail Repository
+ */
+@Repository
+public interface TrackingTrailRepository extends JpaRepository<TrackingTrail, UUID> {
+    
+    @Modifying
+    @Query("DELETE FROM TrackingTrail t WHERE t.tenantId = :tenantId AND t.lastPointAt < :cutoff")
+    int deleteByTenantIdAndLastPointAtBefore(
+        @Param("tenantId") UUID tenantId,
+        @Param("cutoff") LocalDateTime cutoff
+    );
+    
+    /**
+     * Expire trails of tenants without their own retention policy
+     */
+    @Modifying
+    @Query("DELETE FROM TrackingTrail t WHERE t.lastPointAt < :cutoff " +
+           "AND NOT EXISTS (SELECT 1 FROM TrackingRetentionPolicy p WHERE p.tenantId = t.tenantId)")
+    int deleteForDefaultPolicyBefore(@Param("cutoff") LocalDateTime cutoff);
+}
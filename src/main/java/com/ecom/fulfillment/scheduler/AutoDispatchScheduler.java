@@ -0,0 +1,54 @@
+package com.ecom.fulfillment.scheduler;
+
+import com.ecom.fulfillment.entity.Fulfillment;
+import com.ecom.fulfillment.repository.FulfillmentRepository;
+import com.ecom.fulfillment.service.DispatchEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scheduled automatic driver dispatch
+ * - One batch dispatch round per tenant with fulfillments waiting for a driver
+ * - A failing tenant does not stop the others
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AutoDispatchScheduler {
+    
+    private final FulfillmentRepository fulfillmentRepository;
+    private final DispatchEngine dispatchEngine;
+    
+    @Value("${fulfillment.dispatch.enabled:false}")
+    private boolean enabled;
+    
+    /**
+     * Dispatch waiting fulfillments - runs every 5 seconds by default
+     */
+    @Scheduled(fixedDelayString = "${fulfillment.dispatch.interval-ms:5000}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        
+        List<UUID> tenantIds = fulfillmentRepository.findTenantIdsAwaitingDispatch(Fulfillment.FulfillmentStatus.PENDING);
+        for (UUID tenantId : tenantIds) {
+            try {
+                DispatchEngine.Result result = dispatchEngine.dispatch(tenantId);
+                if (result.assigned() > 0 || result.conflicts() > 0 || result.dryRun() && result.solver() != null) {
+                    log.info("Dispatch round: tenantId={}, fulfillments={}, drivers={}, assigned={}, conflicts={}, solver={}, solveMs={}, dryRun={}",
+                        tenantId, result.fulfillments(), result.drivers(), result.assigned(), result.conflicts(),
+                        result.solver(), result.solveNanos() / 1_000_000.0, result.dryRun());
+                }
+            } catch (Exception e) {
+                log.error("Dispatch round failed: tenantId={}", tenantId, e);
+            }
+        }
+    }
+}
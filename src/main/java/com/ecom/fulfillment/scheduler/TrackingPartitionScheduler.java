@@ -0,0 +1,148 @@
+package com.ecom.fulfillment.scheduler;
+
+import com.ecom.fulfillment.entity.TrackingRetentionPolicy;
+import com.ecom.fulfillment.repository.TrackingPartitionRepository;
+import com.ecom.fulfillment.repository.TrackingRetentionPolicyRepository;
+import com.ecom.fulfillment.repository.TrackingTrailRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Scheduled maintenance for the partitioned tracking_history table
+ * - Create daily partitions ahead of time
+ * - Drop partitions older than the longest retention of any tenant
+ * - Delete rows past retention for tenants with a shorter policy
+ * - Delete compacted trails past their tenant's retention
+ *
+ * <p>Each step runs in its own transaction under the maintenance lock, so a failing partition
+ * creation does not hold back retention.
+ *
+ * <p>Daily partitions are shared by all tenants, so only the longest retention can be enforced by
+ * dropping partitions. Shorter tenant policies fall back to DELETE, limited to the
+ * partitions in the last {@code tenant-delete-days} days before the tenant's cutoff. Those
+ * partitions are closed (they no longer receive inserts), so the dead rows never fragment the
+ * partitions being written and their space is returned when the partition itself is dropped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingPartitionScheduler {
+    
+    private final TrackingPartitionRepository partitionRepository;
+    private final TrackingRetentionPolicyRepository retentionPolicyRepository;
+    private final TrackingTrailRepository trackingTrailRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${fulfillment.tracking.partitions.days-ahead:7}")
+    private int daysAhead;
+    
+    @Value("${fulfillment.tracking.retention.default-days:180}")
+    private int defaultRetentionDays;
+    
+    @Value("${fulfillment.tracking.retention.tenant-delete-days:3}")
+    private int tenantDeleteDays;
+    
+    /**
+     * Partition maintenance - runs hourly
+     */
+    @Scheduled(cron = "${fulfillment.tracking.partitions.cron:0 5 * * * *}")
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        
+        // Create upcoming partitions, one transaction per day
+        int created = 0;
+        int moved = 0;
+        for (LocalDate day = today; !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            LocalDate partitionDay = day;
+            try {
+                Integer rows = underLock(() -> partitionRepository.findDailyPartitions().contains(partitionDay)
+                    ? null
+                    : partitionRepository.createDailyPartition(partitionDay));
+                if (rows != null) {
+                    created++;
+                    moved += rows;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to create tracking_history partition for {}", partitionDay, e);
+            }
+        }
+        
+        // Whole partitions can only go once every tenant's retention has passed
+        List<TrackingRetentionPolicy> policies = retentionPolicyRepository.findAll();
+        int maxRetentionDays = policies.stream()
+            .mapToInt(TrackingRetentionPolicy::getRetentionDays)
+            .max()
+            .orElse(defaultRetentionDays);
+        maxRetentionDays = Math.max(maxRetentionDays, defaultRetentionDays);
+        
+        // One transaction per partition: the parent table stays locked until each drop commits
+        LocalDate dropBefore = today.minusDays(maxRetentionDays);
+        int dropped = 0;
+        for (LocalDate day : partitionRepository.findDailyPartitions()) {
+            if (day.isBefore(dropBefore)) {
+                Boolean done = underLock(() -> {
+                    partitionRepository.dropDailyPartition(day);
+                    return true;
+                });
+                if (done != null) {
+                    dropped++;
+                }
+            }
+        }
+        underLock(() -> partitionRepository.deleteFromDefaultPartitionBefore(dropBefore.atStartOfDay()));
+        
+        // Tenants with shorter retention lose rows inside partitions that are still attached
+        int deleted = 0;
+        for (TrackingRetentionPolicy policy : policies) {
+            if (policy.getRetentionDays() < maxRetentionDays) {
+                LocalDate cutoff = today.minusDays(policy.getRetentionDays());
+                deleted += orZero(underLock(() -> partitionRepository.deleteForTenantBetween(policy.getTenantId(),
+                    cutoff.minusDays(tenantDeleteDays).atStartOfDay(), cutoff.atStartOfDay())));
+            }
+        }
+        if (defaultRetentionDays < maxRetentionDays) {
+            LocalDate cutoff = today.minusDays(defaultRetentionDays);
+            deleted += orZero(underLock(() -> partitionRepository.deleteForDefaultPolicyBetween(
+                cutoff.minusDays(tenantDeleteDays).atStartOfDay(), cutoff.atStartOfDay())));
+        }
+        
+        // Trails live outside the partitions, so every tenant's retention applies to them directly
+        int trailsDeleted = orZero(underLock(() -> {
+            int count = 0;
+            for (TrackingRetentionPolicy policy : policies) {
+                count += trackingTrailRepository.deleteByTenantIdAndLastPointAtBefore(
+                    policy.getTenantId(), today.minusDays(policy.getRetentionDays()).atStartOfDay());
+            }
+            return count + trackingTrailRepository.deleteForDefaultPolicyBefore(
+                today.minusDays(defaultRetentionDays).atStartOfDay());
+        }));
+        
+        log.info("Tracking partitions maintained: created={}, rowsMovedFromDefault={}, dropped={}, expiredRowsDeleted={}, expiredTrailsDeleted={}",
+            created, moved, dropped, deleted, trailsDeleted);
+    }
+    
+    /**
+     * Run one maintenance step in its own transaction; null if another node holds the lock
+     */
+    private <T> T underLock(Supplier<T> step) {
+        return transactionTemplate.execute(status -> {
+            if (!partitionRepository.tryLockForMaintenance()) {
+                log.debug("Tracking partition maintenance running on another node, skipping step");
+                return null;
+            }
+            return step.get();
+        });
+    }
+    
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
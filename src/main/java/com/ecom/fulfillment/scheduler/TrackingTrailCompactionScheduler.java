@@ -0,0 +1,73 @@
+package com.ecom.fulfillment.scheduler;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.service.TrackingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scheduled compaction of tracking history for completed deliveries
+ * - Folds each DELIVERED/RETURNED delivery's tracking_history rows into one tracking_trails record
+ * - Waits a grace period after completion so late provider events are included
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingTrailCompactionScheduler {
+    
+    private final DeliveryRepository deliveryRepository;
+    private final TrackingService trackingService;
+    
+    @Value("${fulfillment.tracking.compaction.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${fulfillment.tracking.compaction.grace-hours:24}")
+    private long graceHours;
+    
+    @Value("${fulfillment.tracking.compaction.batch-size:200}")
+    private int batchSize;
+    
+    /**
+     * Compact completed deliveries - runs every 15 minutes by default.
+     * Each delivery is compacted in its own transaction.
+     */
+    @Scheduled(fixedDelayString = "${fulfillment.tracking.compaction.interval-ms:900000}")
+    public void compactCompletedDeliveries() {
+        if (!enabled) {
+            return;
+        }
+        
+        List<UUID> deliveryIds = deliveryRepository.findIdsPendingTrailCompaction(
+            EnumSet.of(Delivery.DeliveryStatus.DELIVERED, Delivery.DeliveryStatus.RETURNED),
+            LocalDateTime.now().minusHours(graceHours),
+            PageRequest.of(0, batchSize)
+        );
+        if (deliveryIds.isEmpty()) {
+            return;
+        }
+        
+        int compacted = 0;
+        for (UUID deliveryId : deliveryIds) {
+            try {
+                if (trackingService.compactTrackingHistory(deliveryId)) {
+                    compacted++;
+                }
+            } catch (Exception e) {
+                // Another node may have compacted it concurrently; it is retried on the next run otherwise
+                log.warn("Failed to compact tracking history: deliveryId={}", deliveryId, e);
+            }
+        }
+        
+        log.info("Compacted tracking history for {}/{} completed deliveries", compacted, deliveryIds.size());
+    }
+}
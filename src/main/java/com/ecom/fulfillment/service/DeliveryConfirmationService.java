@@ -1,5 +1,6 @@
 package com.ecom.fulfillment.service;
 
+import com.ecom.fulfillment.entity.Delivery;
 import com.ecom.fulfillment.model.request.ConfirmDeliveryRequest;
 import com.ecom.fulfillment.model.response.DeliveryConfirmationResponse;
 
@@ -62,6 +63,11 @@ public interface DeliveryConfirmationService {
         boolean isAgent
     );
     
+    /**
+     * Open a PENDING confirmation for a delivery whose driver has arrived (no-op if one exists)
+     */
+    void prepareConfirmation(Delivery delivery);
+    
     /**
      * Process reschedules and auto-returns
      * This should be called by a scheduled job
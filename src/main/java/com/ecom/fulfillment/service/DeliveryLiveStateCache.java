@@ -0,0 +1,374 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.Fulfillment;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Redis write-through cache of each delivery's live state (last known position and status)
+ *
+ * <p>Layout: hash {@code delivery:live:{deliveryId}} plus {@code delivery:tn:{trackingNumber}}
+ * pointing at the delivery id. Position/status fields are written after commit from every
+ * DeliveryTrackingChangedEvent and only move forward in time (guarded by updated_at inside a
+ * Lua script, so a late provider sync cannot overwrite a newer driver ping). The remaining
+ * fields (tenant, order, ETA) are filled on the first database read.
+ *
+ * <p>Entries live for the in-flight TTL (refreshed on every write) and switch to a short TTL
+ * once the delivery is DELIVERED or RETURNED. Redis failures are logged and treated as misses.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryLiveStateCache {
+    
+    private static final String LIVE_KEY_PREFIX = "delivery:live:";
+    private static final String TRACKING_NUMBER_KEY_PREFIX = "delivery:tn:";
+    private static final Set<Delivery.DeliveryStatus> TERMINAL_STATUSES =
+        EnumSet.of(Delivery.DeliveryStatus.DELIVERED, Delivery.DeliveryStatus.RETURNED);
+    
+    private static final String F_DELIVERY_ID = "delivery_id";
+    private static final String F_TENANT_ID = "tenant_id";
+    private static final String F_TRACKING_NUMBER = "tracking_number";
+    private static final String F_ORDER_ID = "order_id";
+    private static final String F_ESTIMATED_DELIVERY = "estimated_delivery";
+    private static final String F_CREATED_AT = "created_at";
+    private static final String F_STATUS = "status";
+    private static final String F_CURRENT_LOCATION = "current_location";
+    private static final String F_LATITUDE = "latitude";
+    private static final String F_LONGITUDE = "longitude";
+    private static final String F_UPDATED_AT = "updated_at";
+    private static final String F_VERSION = "version";
+    
+    /*
+     * KEYS[1] live hash, KEYS[2] tracking number key
+     * ARGV[1] version (updated_at in epoch micros), ARGV[2] ttl ms, ARGV[3] delivery id,
+     * ARGV[4] number of unconditional field pairs, then unconditional pairs, then guarded pairs.
+     * An empty value deletes the field.
+     */
+    private static final RedisScript<Long> WRITE_SCRIPT = new DefaultRedisScript<>(
+        "local function put(field, value) " +
+        "  if value == '' then redis.call('HDEL', KEYS[1], field) " +
+        "  else redis.call('HSET', KEYS[1], field, value) end " +
+        "end " +
+        "local fixed = tonumber(ARGV[4]) " +
+        "for i = 5, 4 + 2 * fixed, 2 do put(ARGV[i], ARGV[i + 1]) end " +
+        "local current = tonumber(redis.call('HGET', KEYS[1], 'version') or '-1') " +
+        "local applied = 0 " +
+        "if current <= tonumber(ARGV[1]) then " +
+        "  for i = 5 + 2 * fixed, #ARGV, 2 do put(ARGV[i], ARGV[i + 1]) end " +
+        "  redis.call('HSET', KEYS[1], 'version', ARGV[1]) " +
+        "  applied = 1 " +
+        "end " +
+        "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+        "if KEYS[2] ~= '' then redis.call('SET', KEYS[2], ARGV[3], 'PX', ARGV[2]) end " +
+        "return applied",
+        Long.class
+    );
+    
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.tracking.live-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${fulfillment.tracking.live-cache.ttl-ms:21600000}")
+    private long ttlMs;
+    
+    @Value("${fulfillment.tracking.live-cache.terminal-ttl-ms:300000}")
+    private long terminalTtlMs;
+    
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter errorCounter;
+    
+    @PostConstruct
+    void registerMetrics() {
+        hitCounter = Counter.builder("delivery.live_state.cache")
+            .tag("result", "hit")
+            .description("Live delivery state served from Redis")
+            .register(meterRegistry);
+        missCounter = Counter.builder("delivery.live_state.cache")
+            .tag("result", "miss")
+            .description("Live delivery state read from the database")
+            .register(meterRegistry);
+        errorCounter = Counter.builder("delivery.live_state.cache.errors")
+            .description("Redis failures while reading or writing live delivery state")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Write-through of committed position/status changes
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTrackingChanged(DeliveryTrackingChangedEvent event) {
+        if (!enabled || event.updatedAt() == null) {
+            return;
+        }
+        
+        List<String> fixed = new ArrayList<>();
+        add(fixed, F_DELIVERY_ID, event.deliveryId().toString());
+        if (event.tenantId() != null) {
+            add(fixed, F_TENANT_ID, event.tenantId().toString());
+        }
+        if (event.trackingNumber() != null) {
+            add(fixed, F_TRACKING_NUMBER, event.trackingNumber());
+        }
+        write(event.deliveryId(), event.trackingNumber(), event.status(), event.updatedAt(), fixed,
+            hotFields(event.status(), event.currentLocation(), event.latitude(), event.longitude(), event.updatedAt()));
+    }
+    
+    /**
+     * Fill the full entry after a database read (cache miss)
+     */
+    public void put(Delivery delivery, Fulfillment fulfillment) {
+        put(new LiveState(
+            delivery.getId(),
+            delivery.getTenantId(),
+            delivery.getTrackingNumber(),
+            fulfillment.getOrderId(),
+            delivery.getStatus(),
+            delivery.getCurrentLocation(),
+            delivery.getLatitude(),
+            delivery.getLongitude(),
+            fulfillment.getEstimatedDelivery(),
+            delivery.getCreatedAt(),
+            delivery.getUpdatedAt()
+        ));
+    }
+    
+    /**
+     * Fill the full entry from a projection read (cache miss)
+     */
+    public void put(LiveState state) {
+        if (!enabled || state.updatedAt() == null && state.createdAt() == null) {
+            return;
+        }
+        
+        LocalDateTime version = state.updatedAt() != null ? state.updatedAt() : state.createdAt();
+        List<String> fixed = new ArrayList<>();
+        add(fixed, F_DELIVERY_ID, state.deliveryId().toString());
+        add(fixed, F_TENANT_ID, state.tenantId().toString());
+        add(fixed, F_TRACKING_NUMBER, state.trackingNumber());
+        add(fixed, F_ORDER_ID, state.orderId() != null ? state.orderId().toString() : null);
+        add(fixed, F_ESTIMATED_DELIVERY, state.estimatedDelivery() != null ? state.estimatedDelivery().toString() : null);
+        add(fixed, F_CREATED_AT, state.createdAt() != null ? state.createdAt().toString() : null);
+        write(state.deliveryId(), state.trackingNumber(), state.status(), version, fixed,
+            hotFields(state.status(), state.currentLocation(), state.latitude(), state.longitude(), version));
+    }
+    
+    /**
+     * Complete entry (including tenant and order) by tracking number
+     */
+    public Optional<LiveState> findByTrackingNumber(String trackingNumber) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        
+        try {
+            String deliveryId = redisTemplate.opsForValue().get(TRACKING_NUMBER_KEY_PREFIX + trackingNumber);
+            Optional<LiveState> state = deliveryId == null
+                ? Optional.empty()
+                : toLiveState(redisTemplate.<String, String>opsForHash().entries(LIVE_KEY_PREFIX + deliveryId))
+                    .filter(LiveState::isComplete);
+            (state.isPresent() ? hitCounter : missCounter).increment();
+            return state;
+        } catch (DataAccessException e) {
+            errorCounter.increment();
+            missCounter.increment();
+            log.warn("Live state cache read failed: trackingNumber={}", trackingNumber, e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Whatever is cached for a tracking number, complete or not (used to resolve tenant/delivery ids)
+     */
+    public Optional<LiveState> findAnyByTrackingNumber(String trackingNumber) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        
+        try {
+            String deliveryId = redisTemplate.opsForValue().get(TRACKING_NUMBER_KEY_PREFIX + trackingNumber);
+            return deliveryId == null
+                ? Optional.empty()
+                : toLiveState(redisTemplate.<String, String>opsForHash().entries(LIVE_KEY_PREFIX + deliveryId));
+        } catch (DataAccessException e) {
+            errorCounter.increment();
+            log.warn("Live state cache read failed: trackingNumber={}", trackingNumber, e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Position/status of several deliveries in one pipelined round trip; missing ids are absent
+     */
+    public Map<UUID, LiveState> findAll(Collection<UUID> deliveryIds) {
+        if (!enabled || deliveryIds.isEmpty()) {
+            return Map.of();
+        }
+        
+        List<UUID> ids = List.copyOf(deliveryIds);
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (UUID id : ids) {
+                    connection.hashCommands().hGetAll((LIVE_KEY_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            
+            Map<UUID, LiveState> states = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                @SuppressWarnings("unchecked")
+                Map<String, String> entries = (Map<String, String>) results.get(i);
+                UUID id = ids.get(i);
+                toLiveState(entries).ifPresent(state -> states.put(id, state));
+            }
+            hitCounter.increment(states.size());
+            missCounter.increment(ids.size() - states.size());
+            return states;
+        } catch (DataAccessException e) {
+            errorCounter.increment();
+            missCounter.increment(ids.size());
+            log.warn("Live state cache read failed: deliveries={}", ids.size(), e);
+            return Map.of();
+        }
+    }
+    
+    private void write(
+        UUID deliveryId,
+        String trackingNumber,
+        Delivery.DeliveryStatus status,
+        LocalDateTime version,
+        List<String> fixed,
+        List<String> guarded
+    ) {
+        long ttl = status != null && TERMINAL_STATUSES.contains(status) ? terminalTtlMs : ttlMs;
+        List<String> args = new ArrayList<>(4 + fixed.size() + guarded.size());
+        args.add(Long.toString(toEpochMicros(version)));
+        args.add(Long.toString(ttl));
+        args.add(deliveryId.toString());
+        args.add(Integer.toString(fixed.size() / 2));
+        args.addAll(fixed);
+        args.addAll(guarded);
+        
+        try {
+            redisTemplate.execute(
+                WRITE_SCRIPT,
+                List.of(LIVE_KEY_PREFIX + deliveryId, trackingNumber != null ? TRACKING_NUMBER_KEY_PREFIX + trackingNumber : ""),
+                args.toArray()
+            );
+        } catch (DataAccessException e) {
+            errorCounter.increment();
+            log.warn("Live state cache write failed: deliveryId={}", deliveryId, e);
+        }
+    }
+    
+    private static List<String> hotFields(
+        Delivery.DeliveryStatus status,
+        String currentLocation,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime updatedAt
+    ) {
+        List<String> fields = new ArrayList<>(10);
+        add(fields, F_STATUS, status != null ? status.name() : null);
+        add(fields, F_CURRENT_LOCATION, currentLocation);
+        add(fields, F_LATITUDE, latitude != null ? latitude.toPlainString() : null);
+        add(fields, F_LONGITUDE, longitude != null ? longitude.toPlainString() : null);
+        add(fields, F_UPDATED_AT, updatedAt.toString());
+        return fields;
+    }
+    
+    private static void add(List<String> fields, String field, String value) {
+        fields.add(field);
+        fields.add(value != null ? value : "");
+    }
+    
+    private static Optional<LiveState> toLiveState(Map<String, String> entries) {
+        if (entries == null || entries.get(F_DELIVERY_ID) == null || entries.get(F_VERSION) == null) {
+            return Optional.empty();
+        }
+        
+        String status = entries.get(F_STATUS);
+        return Optional.of(new LiveState(
+            UUID.fromString(entries.get(F_DELIVERY_ID)),
+            uuid(entries.get(F_TENANT_ID)),
+            entries.get(F_TRACKING_NUMBER),
+            uuid(entries.get(F_ORDER_ID)),
+            status != null ? Delivery.DeliveryStatus.valueOf(status) : null,
+            entries.get(F_CURRENT_LOCATION),
+            decimal(entries.get(F_LATITUDE)),
+            decimal(entries.get(F_LONGITUDE)),
+            time(entries.get(F_ESTIMATED_DELIVERY)),
+            time(entries.get(F_CREATED_AT)),
+            time(entries.get(F_UPDATED_AT))
+        ));
+    }
+    
+    private static UUID uuid(String value) {
+        return value != null ? UUID.fromString(value) : null;
+    }
+    
+    private static BigDecimal decimal(String value) {
+        return value != null ? new BigDecimal(value) : null;
+    }
+    
+    private static LocalDateTime time(String value) {
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+    
+    private static long toEpochMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), time);
+    }
+    
+    /**
+     * Cached live state; tenantId/orderId/createdAt are only present once filled from the database
+     */
+    public record LiveState(
+        UUID deliveryId,
+        UUID tenantId,
+        String trackingNumber,
+        UUID orderId,
+        Delivery.DeliveryStatus status,
+        String currentLocation,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime estimatedDelivery,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+    ) {
+        public boolean isComplete() {
+            return tenantId != null && orderId != null && createdAt != null && status != null && updatedAt != null;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.ecom.fulfillment.service;
 
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.model.request.TrackDeliveryBatchRequest;
 import com.ecom.fulfillment.model.request.TrackDeliveryRequest;
 import com.ecom.fulfillment.model.response.DeliveryResponse;
+import com.ecom.fulfillment.model.response.NearbyDeliveryResponse;
 import com.ecom.fulfillment.model.response.TrackingResponse;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -17,11 +22,28 @@ public interface DeliveryService {
      */
     DeliveryResponse trackDelivery(UUID deliveryId, UUID driverId, UUID tenantId, TrackDeliveryRequest request);
     
+    /**
+     * Record a batch of buffered locations in one transaction (tracking)
+     */
+    DeliveryResponse trackDeliveryBatch(UUID deliveryId, UUID driverId, UUID tenantId, TrackDeliveryBatchRequest request);
+    
     /**
      * Get tracking information (public)
      */
     TrackingResponse getTracking(String trackingNumber, UUID tenantId);
     
+    /**
+     * Current version of the tracking information (for ETags), without building the response
+     * @return empty if the tracking number does not exist for the tenant
+     */
+    Optional<LocalDateTime> getTrackingVersion(String trackingNumber, UUID tenantId);
+    
+    /**
+     * Current version of a delivery (for ETags), without loading the entity
+     * @return empty if the delivery does not exist for the tenant
+     */
+    Optional<LocalDateTime> getDeliveryVersion(UUID deliveryId, UUID tenantId);
+    
     /**
      * Get delivery by ID
      */
@@ -32,13 +54,30 @@ public interface DeliveryService {
      */
     DeliveryResponse completeDelivery(UUID deliveryId, UUID driverId, UUID tenantId);
     
+    /**
+     * Deliveries whose current position is near a point, nearest first (geohash-indexed query)
+     * @param radiusMeters search radius; null for the default
+     * @param limit maximum number of deliveries; null for the default
+     * @param status delivery status to match; null for any
+     */
+    List<NearbyDeliveryResponse> getNearbyDeliveries(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        Double radiusMeters,
+        Integer limit,
+        Delivery.DeliveryStatus status
+    );
+    
     /**
      * Get deliveries for a driver
      */
     List<DeliveryResponse> getDeliveriesByDriver(UUID driverId, UUID tenantId);
     
     /**
-     * Create delivery with provider (third-party or own fleet)
+     * Create delivery with provider (third-party or own fleet) and mark the fulfillment ASSIGNED
+     * 
+     * <p>Must not be called inside a transaction: the provider is called between transactions.
      */
     DeliveryResponse createDeliveryWithProvider(
         UUID fulfillmentId, 
@@ -49,6 +88,8 @@ public interface DeliveryService {
     
     /**
      * Sync tracking from provider
+     * 
+     * <p>Must not be called inside a transaction, see {@link #createDeliveryWithProvider}.
      */
     DeliveryResponse syncTrackingFromProvider(UUID deliveryId, UUID tenantId);
 }
@@ -0,0 +1,295 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Driver;
+import com.ecom.fulfillment.entity.Fulfillment;
+import com.ecom.fulfillment.model.response.NearbyDriverResponse;
+import com.ecom.fulfillment.repository.FulfillmentRepository;
+import com.ecom.fulfillment.util.AssignmentSolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Automatic batch dispatch of own-fleet fulfillments to available drivers
+ *
+ * <p>One round per tenant takes the oldest unassigned PENDING fulfillments that have pickup
+ * coordinates and no provider delivery, finds the nearest AVAILABLE drivers of each through the
+ * driver location index and solves the whole batch as one assignment problem, so two
+ * fulfillments never compete for the same driver the way one-at-a-time nearest-driver
+ * assignment would. The cost of a pair is, in meters:
+ * <pre>
+ *   pickup distance + active fulfillments of the driver * load penalty - priority level * priority bonus
+ * </pre>
+ * with priority levels LOW 0, NORMAL 1, HIGH 2, URGENT 3. Pairs beyond the maximum pickup
+ * distance or with a driver at capacity ({@link DriverCapacityTracker}) are infeasible. As many
+ * fulfillments as possible are assigned, at the lowest total cost.
+ *
+ * <p>The Hungarian solver is optimal but cubic; when it exceeds the time budget the round falls
+ * back to greedy cheapest-pair-first. All assignments of a round are written in one transaction
+ * with a conditional update after reserving driver capacity, so fulfillments assigned manually
+ * (or by another node) meanwhile are skipped, not overwritten. The in-memory capacity counters
+ * are only this node's view; the transaction holds the tenant's dispatch advisory lock and the
+ * update also counts the driver's active fulfillments in the database, so dispatchers on
+ * different nodes cannot overbook a driver either. In dry-run mode assignments are only logged
+ * and measured.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DispatchEngine {
+    
+    private final FulfillmentRepository fulfillmentRepository;
+    private final DriverService driverService;
+    private final DriverCapacityTracker capacityTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.dispatch.dry-run:false}")
+    private boolean dryRun;
+    
+    @Value("${fulfillment.dispatch.solver:HUNGARIAN}")
+    private Solver solver;
+    
+    @Value("${fulfillment.dispatch.time-budget-ms:200}")
+    private long timeBudgetMs;
+    
+    @Value("${fulfillment.dispatch.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${fulfillment.dispatch.candidates-per-fulfillment:20}")
+    private int candidatesPerFulfillment;
+    
+    @Value("${fulfillment.dispatch.max-pickup-distance-meters:20000}")
+    private double maxPickupDistanceMeters;
+    
+    @Value("${fulfillment.dispatch.load-penalty-meters:2000}")
+    private double loadPenaltyMeters;
+    
+    @Value("${fulfillment.dispatch.priority-bonus-meters:3000}")
+    private double priorityBonusMeters;
+    
+    private DistributionSummary pickupDistance;
+    private DistributionSummary unassigned;
+    private Counter assignedCounter;
+    private Counter conflictCounter;
+    private Counter dryRunCounter;
+    private Counter fallbackCounter;
+    
+    @PostConstruct
+    void registerMetrics() {
+        pickupDistance = DistributionSummary.builder("dispatch.pickup.distance")
+            .description("Pickup distance of automatically dispatched fulfillments")
+            .baseUnit("meters")
+            .register(meterRegistry);
+        unassigned = DistributionSummary.builder("dispatch.unassigned")
+            .description("Fulfillments left without a driver per dispatch round")
+            .register(meterRegistry);
+        assignedCounter = assignmentCounter("assigned");
+        conflictCounter = assignmentCounter("conflict");
+        dryRunCounter = assignmentCounter("dry_run");
+        fallbackCounter = Counter.builder("dispatch.solver.fallback")
+            .description("Dispatch rounds that fell back to greedy after exceeding the time budget")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Run one dispatch round for a tenant
+     */
+    public Result dispatch(UUID tenantId) {
+        List<Fulfillment> pending = fulfillmentRepository.findAwaitingDispatch(
+            tenantId, Fulfillment.FulfillmentStatus.PENDING, PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) {
+            return new Result(tenantId, 0, 0, 0, 0, null, 0, dryRun);
+        }
+        
+        // Candidate drivers per fulfillment; columns are the union
+        List<List<NearbyDriverResponse>> candidates = new ArrayList<>(pending.size());
+        Map<UUID, Integer> columns = new LinkedHashMap<>();
+        for (Fulfillment fulfillment : pending) {
+            List<NearbyDriverResponse> nearby = driverService.getNearbyDrivers(
+                tenantId,
+                fulfillment.getPickupLatitude().doubleValue(),
+                fulfillment.getPickupLongitude().doubleValue(),
+                maxPickupDistanceMeters,
+                candidatesPerFulfillment,
+                Driver.DriverStatus.AVAILABLE
+            );
+            candidates.add(nearby);
+            for (NearbyDriverResponse driver : nearby) {
+                columns.putIfAbsent(driver.driverId(), columns.size());
+            }
+        }
+        if (columns.isEmpty()) {
+            unassigned.record(pending.size());
+            return new Result(tenantId, pending.size(), 0, 0, 0, null, 0, dryRun);
+        }
+        
+        double[][] cost = new double[pending.size()][columns.size()];
+        for (int row = 0; row < pending.size(); row++) {
+            Arrays.fill(cost[row], AssignmentSolver.INFEASIBLE);
+            double bonus = priorityLevel(pending.get(row)) * priorityBonusMeters;
+            for (NearbyDriverResponse driver : candidates.get(row)) {
+                int load = capacityTracker.openCount(driver.driverId());
+                if (load < capacityTracker.capacity(driver.driverId())) {
+                    cost[row][columns.get(driver.driverId())] = driver.distanceMeters() + load * loadPenaltyMeters - bonus;
+                }
+            }
+        }
+        
+        long started = System.nanoTime();
+        Solver used = solver;
+        int[] assignment = solver == Solver.HUNGARIAN
+            ? AssignmentSolver.hungarian(cost, started + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs))
+            : null;
+        if (assignment == null) {
+            if (solver == Solver.HUNGARIAN) {
+                fallbackCounter.increment();
+                log.warn("Dispatch solver exceeded time budget, falling back to greedy: tenantId={}, fulfillments={}, drivers={}",
+                    tenantId, pending.size(), columns.size());
+            }
+            used = Solver.GREEDY;
+            assignment = AssignmentSolver.greedy(cost);
+        }
+        long solveNanos = System.nanoTime() - started;
+        Timer.builder("dispatch.solve")
+            .description("Time to solve one dispatch round")
+            .tag("solver", used.name().toLowerCase())
+            .register(meterRegistry)
+            .record(solveNanos, TimeUnit.NANOSECONDS);
+        
+        UUID[] driverIds = columns.keySet().toArray(new UUID[0]);
+        List<Assignment> assignments = new ArrayList<>();
+        for (int row = 0; row < assignment.length; row++) {
+            if (assignment[row] < 0) {
+                continue;
+            }
+            UUID driverId = driverIds[assignment[row]];
+            double distance = candidates.get(row).stream()
+                .filter(driver -> driver.driverId().equals(driverId))
+                .findFirst()
+                .map(NearbyDriverResponse::distanceMeters)
+                .orElse(0.0);
+            assignments.add(new Assignment(pending.get(row).getId(), driverId, distance));
+        }
+        
+        int committed = commit(tenantId, assignments);
+        int conflicts = dryRun ? 0 : assignments.size() - committed;
+        unassigned.record(pending.size() - assignments.size());
+        
+        return new Result(tenantId, pending.size(), columns.size(), committed, conflicts, used, solveNanos, dryRun);
+    }
+    
+    private int commit(UUID tenantId, List<Assignment> assignments) {
+        if (assignments.isEmpty()) {
+            return 0;
+        }
+        
+        if (dryRun) {
+            for (Assignment assignment : assignments) {
+                log.info("Dispatch dry run: tenantId={}, fulfillmentId={}, driverId={}, pickupDistanceMeters={}",
+                    tenantId, assignment.fulfillmentId(), assignment.driverId(), assignment.pickupDistanceMeters());
+                pickupDistance.record(assignment.pickupDistanceMeters());
+            }
+            dryRunCounter.increment(assignments.size());
+            return 0;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Assignment> applied = transactionTemplate.execute(status -> {
+            // Serializes commit phases across nodes: each update's capacity count sees the others' rows
+            fulfillmentRepository.lockDispatch(tenantId);
+            List<Assignment> done = new ArrayList<>(assignments.size());
+            for (Assignment assignment : assignments) {
+                // Another assignment may have filled the driver since the costs were built
+                if (!capacityTracker.tryReserve(assignment.driverId())) {
+                    continue;
+                }
+                int updated = fulfillmentRepository.assignIfPending(
+                    assignment.fulfillmentId(),
+                    assignment.driverId(),
+                    Fulfillment.FulfillmentStatus.PENDING,
+                    Fulfillment.FulfillmentStatus.ASSIGNED,
+                    DriverCapacityTracker.ACTIVE_STATUSES,
+                    capacityTracker.capacity(assignment.driverId()),
+                    now
+                );
+                if (updated == 1) {
+                    done.add(assignment);
+                } else {
+                    capacityTracker.release(assignment.driverId());
+                }
+            }
+            return done;
+        });
+        
+        for (Assignment assignment : applied) {
+            log.info("Driver auto-assigned: fulfillmentId={}, driverId={}, pickupDistanceMeters={}",
+                assignment.fulfillmentId(), assignment.driverId(), assignment.pickupDistanceMeters());
+            pickupDistance.record(assignment.pickupDistanceMeters());
+        }
+        assignedCounter.increment(applied.size());
+        conflictCounter.increment(assignments.size() - applied.size());
+        return applied.size();
+    }
+    
+    private static int priorityLevel(Fulfillment fulfillment) {
+        String priority = fulfillment.getPriority();
+        if (priority == null) {
+            return 1;
+        }
+        return switch (priority) {
+            case "URGENT" -> 3;
+            case "HIGH" -> 2;
+            case "LOW" -> 0;
+            default -> 1;
+        };
+    }
+    
+    private Counter assignmentCounter(String result) {
+        return Counter.builder("dispatch.assignments")
+            .description("Automatic driver assignments by outcome")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    public enum Solver {
+        HUNGARIAN,
+        GREEDY
+    }
+    
+    private record Assignment(UUID fulfillmentId, UUID driverId, double pickupDistanceMeters) {}
+    
+    /**
+     * Outcome of one dispatch round
+     * @param assigned fulfillments assigned (0 in dry-run mode)
+     * @param conflicts assignments skipped because the fulfillment changed or the driver filled up meanwhile
+     * @param solver solver that produced the assignment; null if there was nothing to solve
+     */
+    public record Result(
+        UUID tenantId,
+        int fulfillments,
+        int drivers,
+        int assigned,
+        int conflicts,
+        Solver solver,
+        long solveNanos,
+        boolean dryRun
+    ) {}
+}
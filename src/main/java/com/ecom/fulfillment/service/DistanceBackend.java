@@ -0,0 +1,17 @@
+package com.ecom.fulfillment.service;
+
+/**
+ * Source of travel distance/duration between two points, behind {@link DistanceMatrixService}
+ *
+ * <p>Implementations must be thread-safe; the matrix service calls them from parallel workers.
+ * The active backend is chosen by name with fulfillment.distance-matrix.backend.
+ */
+public interface DistanceBackend {
+    
+    /**
+     * Backend name (e.g. "HAVERSINE")
+     */
+    String getName();
+    
+    DistanceMatrixService.Leg leg(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude);
+}
@@ -0,0 +1,27 @@
+package com.ecom.fulfillment.service;
+
+import java.util.List;
+
+/**
+ * Service for cached travel distances and durations between locations (hubs, pickup and
+ * delivery addresses, driver positions)
+ */
+public interface DistanceMatrixService {
+    
+    /**
+     * Travel distance and duration from one point to another
+     */
+    Leg leg(Point from, Point to);
+    
+    /**
+     * Travel distances and durations from every origin to every destination, indexed
+     * [origin][destination]; uncached cells are computed in parallel
+     */
+    Matrix matrix(List<Point> origins, List<Point> destinations);
+    
+    record Point(double latitude, double longitude) {}
+    
+    record Leg(double distanceMeters, double durationSeconds) {}
+    
+    record Matrix(double[][] distanceMeters, double[][] durationSeconds) {}
+}
@@ -0,0 +1,239 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Driver;
+import com.ecom.fulfillment.entity.Fulfillment;
+import com.ecom.fulfillment.repository.DriverRepository;
+import com.ecom.fulfillment.repository.FulfillmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-driver capacity: how many active fulfillments a driver may hold and how many they hold now
+ *
+ * <p>Capacity comes from the driver's vehicle type (fulfillment.drivers.capacity.*). Open counts
+ * live in memory, one AtomicLong per driver packing the open count (high 32 bits) and the
+ * reservations whose transaction has not finished yet (low 32 bits). {@link #tryReserve} is a
+ * compare-and-set that only succeeds below capacity, so concurrent assignments (manual or
+ * dispatch, any thread) can never take a driver past it; a rolled-back reservation is returned.
+ * Releases apply after commit.
+ *
+ * <p>Counts are reconciled against the active fulfillments in the database at startup and
+ * periodically. A driver is only reset if their counter did not change while the database was
+ * read, and in-flight reservations are added on top, so reconciliation never undercounts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverCapacityTracker {
+    
+    /**
+     * Fulfillment statuses that occupy a driver
+     */
+    public static final Set<Fulfillment.FulfillmentStatus> ACTIVE_STATUSES = EnumSet.of(
+        Fulfillment.FulfillmentStatus.ASSIGNED,
+        Fulfillment.FulfillmentStatus.PICKED_UP,
+        Fulfillment.FulfillmentStatus.IN_TRANSIT,
+        Fulfillment.FulfillmentStatus.OUT_FOR_DELIVERY
+    );
+    
+    private static final long OPEN_UNIT = 1L << 32;
+    private static final long PENDING_MASK = OPEN_UNIT - 1;
+    
+    private final DriverRepository driverRepository;
+    private final FulfillmentRepository fulfillmentRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.drivers.capacity.default:3}")
+    private int defaultCapacity;
+    
+    @Value("#{${fulfillment.drivers.capacity.by-vehicle-type:{:}}}")
+    private Map<String, Integer> capacityByVehicleType;
+    
+    private final Map<UUID, DriverLoad> loads = new ConcurrentHashMap<>();
+    
+    private Counter rejectedCounter;
+    private Counter correctedCounter;
+    
+    @PostConstruct
+    void registerMetrics() {
+        rejectedCounter = Counter.builder("driver.capacity.rejected")
+            .description("Assignments refused because the driver was at capacity")
+            .register(meterRegistry);
+        correctedCounter = Counter.builder("driver.capacity.reconciled")
+            .description("Driver open counts corrected by reconciliation")
+            .register(meterRegistry);
+    }
+    
+    public static boolean isActive(Fulfillment.FulfillmentStatus status) {
+        return status != null && ACTIVE_STATUSES.contains(status);
+    }
+    
+    /**
+     * Take one slot of the driver if below capacity; returned automatically if the current
+     * transaction rolls back
+     */
+    public boolean tryReserve(UUID driverId) {
+        DriverLoad load = load(driverId);
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        long delta = OPEN_UNIT + (inTransaction ? 1 : 0);
+        while (true) {
+            long state = load.state.get();
+            if (open(state) >= load.capacity) {
+                rejectedCounter.increment();
+                return false;
+            }
+            if (load.state.compareAndSet(state, state + delta)) {
+                break;
+            }
+        }
+        
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Committed: no longer in flight; rolled back: give the slot back as well
+                    load.state.addAndGet(status == STATUS_COMMITTED ? -1 : -(OPEN_UNIT + 1));
+                }
+            });
+        }
+        return true;
+    }
+    
+    /**
+     * Give back one slot of the driver (after commit when in a transaction)
+     */
+    public void release(UUID driverId) {
+        if (driverId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    decrement(driverId);
+                }
+            });
+        } else {
+            decrement(driverId);
+        }
+    }
+    
+    /**
+     * Release the driver's slot if a fulfillment status change takes it out of the active statuses
+     */
+    public void onStatusChange(UUID driverId, Fulfillment.FulfillmentStatus from, Fulfillment.FulfillmentStatus to) {
+        if (isActive(from) && !isActive(to)) {
+            release(driverId);
+        }
+    }
+    
+    public int openCount(UUID driverId) {
+        DriverLoad load = loads.get(driverId);
+        return load != null ? open(load.state.get()) : 0;
+    }
+    
+    public int capacity(UUID driverId) {
+        return load(driverId).capacity;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reconcile();
+    }
+    
+    @Scheduled(fixedDelayString = "${fulfillment.drivers.capacity.reconcile-interval-ms:60000}",
+        initialDelayString = "${fulfillment.drivers.capacity.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        long started = System.currentTimeMillis();
+        try {
+            Map<UUID, Long> before = new HashMap<>();
+            loads.forEach((id, load) -> before.put(id, load.state.get()));
+            
+            Map<UUID, Integer> counts = new HashMap<>();
+            for (Object[] row : fulfillmentRepository.countActiveByDriver(ACTIVE_STATUSES)) {
+                counts.put((UUID) row[0], ((Long) row[1]).intValue());
+            }
+            
+            int corrected = 0;
+            for (Object[] row : driverRepository.findVehicleTypes()) {
+                UUID driverId = (UUID) row[0];
+                DriverLoad load = loads.computeIfAbsent(driverId, id -> new DriverLoad(capacityFor((String) row[1])));
+                load.capacity = capacityFor((String) row[1]);
+                
+                Long snapshot = before.get(driverId);
+                long expected = snapshot != null ? snapshot : 0L;
+                // Reservations still in flight are not in the database yet
+                long pending = expected & PENDING_MASK;
+                long actual = (counts.getOrDefault(driverId, 0) + pending) * OPEN_UNIT + pending;
+                // Skipped if the counter moved during the read; the next run catches up
+                if (actual != expected && load.state.compareAndSet(expected, actual)) {
+                    corrected++;
+                    log.debug("Driver load corrected: driverId={}, open={} -> {}",
+                        driverId, open(expected), open(actual));
+                }
+            }
+            correctedCounter.increment(corrected);
+            log.debug("Driver capacity reconciled: drivers={}, corrected={}, tookMs={}",
+                loads.size(), corrected, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to reconcile driver capacity", e);
+        }
+    }
+    
+    private DriverLoad load(UUID driverId) {
+        DriverLoad load = loads.get(driverId);
+        if (load != null) {
+            return load;
+        }
+        // Drivers created since the last reconciliation
+        String vehicleType = driverRepository.findById(driverId).map(Driver::getVehicleType).orElse(null);
+        return loads.computeIfAbsent(driverId, id -> new DriverLoad(capacityFor(vehicleType)));
+    }
+    
+    private void decrement(UUID driverId) {
+        DriverLoad load = loads.get(driverId);
+        if (load == null) {
+            return;
+        }
+        load.state.updateAndGet(state -> open(state) > 0 ? state - OPEN_UNIT : state);
+    }
+    
+    private int capacityFor(String vehicleType) {
+        if (vehicleType == null || capacityByVehicleType == null) {
+            return defaultCapacity;
+        }
+        return capacityByVehicleType.getOrDefault(vehicleType.toUpperCase(Locale.ROOT), defaultCapacity);
+    }
+    
+    private static int open(long state) {
+        return (int) (state >>> 32);
+    }
+    
+    private static final class DriverLoad {
+        private final AtomicLong state = new AtomicLong();
+        private volatile int capacity;
+        
+        DriverLoad(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.error.exception.BusinessException;
+import com.ecom.error.model.ErrorCode;
+import com.ecom.fulfillment.entity.Driver;
+import com.ecom.fulfillment.event.DriverStateChangedEvent;
+import com.ecom.fulfillment.repository.DriverRepository;
+import com.ecom.fulfillment.repository.DriverRepositoryCustom;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory driver heartbeats with coalesced persistence
+ *
+ * <p>Each heartbeat replaces the driver's entry in a ConcurrentHashMap (lock-free reads, writes
+ * contend only on the driver's own bin) and moves the driver in the {@link DriverLocationIndex}
+ * and the {@link FleetSnapshotView}; the drivers row is not touched. A flusher writes the latest
+ * position of every driver that changed since the previous flush in one multi-row UPDATE, so a
+ * driver sending a heartbeat every few seconds costs one row write per flush interval instead of
+ * one per heartbeat. An entry is marked clean only if no newer heartbeat replaced it while it was
+ * being written.
+ *
+ * <p>The stale sweep runs in the database: every AVAILABLE driver whose stored position is older
+ * than the stale timeout is set OFFLINE, including drivers last seen by a node that has since
+ * stopped. Each node flushes its own positions first, so a driver it still hears from is never
+ * swept; nodes sweeping at the same time skip each other's locked rows. Stale entries are then
+ * dropped from memory. The next heartbeat of an OFFLINE driver sets them AVAILABLE again; a
+ * driver still reporting here but swept by another node is found by the flush, which returns the
+ * OFFLINE rows it wrote, and set AVAILABLE again there.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverHeartbeatStore {
+    
+    private final DriverRepository driverRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final FleetSnapshotView fleetSnapshotView;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.drivers.heartbeat.stale-after-ms:120000}")
+    private long staleAfterMs;
+    
+    @Value("${fulfillment.drivers.heartbeat.sweep-batch-size:1000}")
+    private int sweepBatchSize;
+    
+    private final Map<UUID, Heartbeat> heartbeats = new ConcurrentHashMap<>();
+    
+    private Timer flushTimer;
+    private DistributionSummary flushSize;
+    private Counter offlineCounter;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("driver.heartbeat.tracked", heartbeats, Map::size)
+            .description("Drivers with a recent heartbeat held in memory")
+            .register(meterRegistry);
+        flushTimer = Timer.builder("driver.heartbeat.flush")
+            .description("Latency of one batched driver position write")
+            .register(meterRegistry);
+        flushSize = DistributionSummary.builder("driver.heartbeat.flush.size")
+            .description("Driver positions written per flush")
+            .register(meterRegistry);
+        offlineCounter = Counter.builder("driver.heartbeat.offline")
+            .description("Drivers set OFFLINE after their heartbeat went stale")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Record a driver's current position
+     * @throws BusinessException if the driver does not exist or belongs to another tenant
+     */
+    public void record(UUID tenantId, UUID driverId, BigDecimal latitude, BigDecimal longitude) {
+        Heartbeat current = heartbeats.get(driverId);
+        Driver.DriverStatus status;
+        if (current == null) {
+            status = loadStatus(tenantId, driverId);
+        } else if (!current.tenantId().equals(tenantId)) {
+            throw new BusinessException(
+                ErrorCode.ACCESS_DENIED,
+                "Driver belongs to different tenant"
+            );
+        } else {
+            status = current.status();
+        }
+        Driver.DriverStatus online = status == Driver.DriverStatus.OFFLINE ? comeOnline(tenantId, driverId) : null;
+        
+        LocalDateTime now = LocalDateTime.now();
+        Heartbeat next = heartbeats.compute(driverId, (id, existing) -> {
+            Heartbeat base = existing != null ? existing : heartbeatOf(tenantId, driverId, status);
+            return (online != null ? base.withStatus(online) : base).moveTo(latitude, longitude, now);
+        });
+        DriverStateChangedEvent moved = new DriverStateChangedEvent(driverId, tenantId, next.status(), latitude, longitude, now);
+        driverLocationIndex.update(moved);
+        fleetSnapshotView.updateDriver(moved);
+    }
+    
+    /**
+     * Latest heartbeat held on this node, if recent
+     */
+    public Optional<Heartbeat> find(UUID driverId) {
+        return Optional.ofNullable(heartbeats.get(driverId));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDriverChanged(DriverStateChangedEvent event) {
+        if (event.status() != null) {
+            heartbeats.computeIfPresent(event.driverId(), (id, heartbeat) -> heartbeat.withStatus(event.status()));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${fulfillment.drivers.heartbeat.flush-interval-ms:1000}")
+    public void flush() {
+        List<Heartbeat> dirty = heartbeats.values().stream().filter(Heartbeat::dirty).toList();
+        if (dirty.isEmpty()) {
+            return;
+        }
+        
+        List<UUID> offline;
+        try {
+            offline = flushTimer.record(() -> driverRepository.updatePositions(dirty.stream()
+                .map(h -> new DriverRepositoryCustom.PositionUpdate(h.driverId(), h.latitude(), h.longitude(), h.seenAt()))
+                .toList()));
+            flushSize.record(dirty.size());
+            for (Heartbeat heartbeat : dirty) {
+                // Stays dirty if a newer heartbeat arrived during the write
+                heartbeats.replace(heartbeat.driverId(), heartbeat, heartbeat.clean());
+            }
+        } catch (Exception e) {
+            // Entries stay dirty and are retried on the next flush
+            log.error("Failed to flush driver heartbeats: drivers={}", dirty.size(), e);
+            return;
+        }
+        
+        // Still reporting here, but set OFFLINE elsewhere (another node's sweep): the cached status is stale
+        for (UUID driverId : offline) {
+            Heartbeat heartbeat = heartbeats.get(driverId);
+            if (heartbeat == null) {
+                continue;
+            }
+            try {
+                Driver.DriverStatus status = comeOnline(heartbeat.tenantId(), driverId);
+                heartbeats.computeIfPresent(driverId, (id, current) -> current.withStatus(status));
+            } catch (Exception e) {
+                log.warn("Failed to bring swept driver back online: driverId={}", driverId, e);
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${fulfillment.drivers.heartbeat.sweep-interval-ms:15000}")
+    public void sweepStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000);
+        // Positions held here must reach the table first, or their drivers would look stale
+        flush();
+        
+        List<DriverRepositoryCustom.StaleDriver> offline = new ArrayList<>();
+        try {
+            List<DriverRepositoryCustom.StaleDriver> batch;
+            do {
+                batch = driverRepository.markStaleOffline(cutoff, sweepBatchSize);
+                offline.addAll(batch);
+            } while (batch.size() == sweepBatchSize);
+        } catch (Exception e) {
+            // Drivers already set OFFLINE are still announced below; the rest wait for the next sweep
+            log.error("Failed to mark stale drivers offline: swept={}", offline.size(), e);
+        }
+        
+        for (Heartbeat heartbeat : heartbeats.values()) {
+            // Dirty entries are written first; a later sweep picks them up
+            if (!heartbeat.dirty() && heartbeat.seenAt().isBefore(cutoff)) {
+                heartbeats.remove(heartbeat.driverId(), heartbeat);
+            }
+        }
+        for (DriverRepositoryCustom.StaleDriver driver : offline) {
+            // A heartbeat that arrived meanwhile kept its entry; the driver's next one brings it back online
+            heartbeats.computeIfPresent(driver.driverId(), (id, h) -> h.withStatus(Driver.DriverStatus.OFFLINE));
+            eventPublisher.publishEvent(new DriverStateChangedEvent(
+                driver.driverId(), driver.tenantId(), Driver.DriverStatus.OFFLINE, null, null, null));
+        }
+        offlineCounter.increment(offline.size());
+        
+        if (!offline.isEmpty()) {
+            log.info("Drivers set offline after stale heartbeat: count={}", offline.size());
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+    
+    private Driver.DriverStatus loadStatus(UUID tenantId, UUID driverId) {
+        Driver driver = driverRepository.findById(driverId)
+            .orElseThrow(() -> new BusinessException(
+                ErrorCode.RESOURCE_NOT_FOUND,
+                "Driver not found: " + driverId
+            ));
+        
+        if (!driver.getTenantId().equals(tenantId)) {
+            throw new BusinessException(
+                ErrorCode.ACCESS_DENIED,
+                "Driver belongs to different tenant"
+            );
+        }
+        return driver.getStatus();
+    }
+    
+    /**
+     * Set an OFFLINE driver AVAILABLE; returns the driver's status afterwards
+     */
+    private Driver.DriverStatus comeOnline(UUID tenantId, UUID driverId) {
+        if (!driverRepository.markAvailableIfOffline(driverId)) {
+            // Changed elsewhere meanwhile (e.g. by an admin on another node)
+            return loadStatus(tenantId, driverId);
+        }
+        
+        log.info("Driver back online after heartbeat: driverId={}", driverId);
+        eventPublisher.publishEvent(new DriverStateChangedEvent(
+            driverId, tenantId, Driver.DriverStatus.AVAILABLE, null, null, null));
+        return Driver.DriverStatus.AVAILABLE;
+    }
+    
+    private static Heartbeat heartbeatOf(UUID tenantId, UUID driverId, Driver.DriverStatus status) {
+        return new Heartbeat(driverId, tenantId, status, null, null, null, false);
+    }
+    
+    /**
+     * A driver's latest heartbeat; dirty until written to the drivers table
+     */
+    public record Heartbeat(
+        UUID driverId,
+        UUID tenantId,
+        Driver.DriverStatus status,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime seenAt,
+        boolean dirty
+    ) {
+        
+        Heartbeat moveTo(BigDecimal newLatitude, BigDecimal newLongitude, LocalDateTime at) {
+            return new Heartbeat(driverId, tenantId, status, newLatitude, newLongitude, at, true);
+        }
+        
+        Heartbeat withStatus(Driver.DriverStatus newStatus) {
+            return newStatus == status
+                ? this
+                : new Heartbeat(driverId, tenantId, newStatus, latitude, longitude, seenAt, dirty);
+        }
+        
+        Heartbeat clean() {
+            return new Heartbeat(driverId, tenantId, status, latitude, longitude, seenAt, false);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Driver;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.event.DriverStateChangedEvent;
+import com.ecom.fulfillment.repository.DriverRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory spatial index of driver positions, per tenant
+ *
+ * <p>Drivers are bucketed into a uniform grid of {@value #CELL_DEGREES}° cells (about 1.1 km
+ * north-south). Nearest/radius queries walk rings of cells outwards from the query point and stop
+ * once the next ring cannot hold anything closer than what was found, so a query touches only
+ * the drivers around the point instead of the whole fleet.
+ *
+ * <p>Each driver's current entry lives in one map (the source of truth) and its id in the set of
+ * its cell. Moves update both under the driver's map bin, and readers ignore ids whose entry has
+ * meanwhile moved to another cell, so concurrent queries never see a driver twice.
+ *
+ * <p>Loaded from the drivers table on startup and kept current from driver changes and delivery
+ * location pings (after commit).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverLocationIndex {
+    
+    static final double CELL_DEGREES = 0.01;
+    private static final double METERS_PER_DEGREE = 111_320;
+    
+    private final DriverRepository driverRepository;
+    private final ProximityService proximityService;
+    private final MeterRegistry meterRegistry;
+    
+    private final Map<UUID, TenantGrid> tenants = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    
+    private Timer queryTimer;
+    
+    @PostConstruct
+    void registerMetrics() {
+        queryTimer = Timer.builder("driver.location_index.query")
+            .description("Latency of nearby driver queries")
+            .register(meterRegistry);
+        Gauge.builder("driver.location_index.size", tenants,
+                t -> t.values().stream().mapToInt(grid -> grid.drivers.size()).sum())
+            .description("Drivers held in the location index")
+            .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        List<Driver> drivers = driverRepository.findAll();
+        for (Driver driver : drivers) {
+            update(DriverStateChangedEvent.of(driver));
+        }
+        loaded = true;
+        log.info("Driver location index loaded: drivers={}, tookMs={}",
+            drivers.size(), System.currentTimeMillis() - started);
+    }
+    
+    /**
+     * False until the startup load has finished (callers fall back to the database)
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDriverChanged(DriverStateChangedEvent event) {
+        update(event);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTrackingChanged(DeliveryTrackingChangedEvent event) {
+        // Own-fleet pings are the driver's position; provider updates have no driver
+        if (event.driverId() == null || event.tenantId() == null) {
+            return;
+        }
+        updatePosition(event.tenantId(), event.driverId(), event.latitude(), event.longitude(), event.updatedAt());
+    }
+    
+    /**
+     * Apply a driver's status and, if present and newer, position
+     */
+    public void update(DriverStateChangedEvent event) {
+        TenantGrid grid = tenants.computeIfAbsent(event.tenantId(), id -> new TenantGrid());
+        grid.drivers.compute(event.driverId(), (id, current) -> {
+            DriverPosition next = current == null
+                ? new DriverPosition(id, event.status(), Double.NaN, Double.NaN, null)
+                : current.withStatus(event.status());
+            if (isNewer(next, event.latitude(), event.longitude(), event.updatedAt())) {
+                next = next.withPosition(event.latitude().doubleValue(), event.longitude().doubleValue(), event.updatedAt());
+            }
+            grid.move(current, next);
+            return next;
+        });
+    }
+    
+    /**
+     * Apply a position fix for a driver already known to the index (ignored if older than the current one)
+     */
+    public void updatePosition(UUID tenantId, UUID driverId, BigDecimal latitude, BigDecimal longitude, LocalDateTime at) {
+        TenantGrid grid = tenants.get(tenantId);
+        if (grid == null) {
+            return;
+        }
+        grid.drivers.computeIfPresent(driverId, (id, current) -> {
+            if (!isNewer(current, latitude, longitude, at)) {
+                return current;
+            }
+            DriverPosition next = current.withPosition(latitude.doubleValue(), longitude.doubleValue(), at);
+            grid.move(current, next);
+            return next;
+        });
+    }
+    
+    /**
+     * Up to k drivers with one of the given statuses within radiusMeters, nearest first
+     */
+    public List<Nearby> nearest(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        double radiusMeters,
+        int k,
+        Set<Driver.DriverStatus> statuses
+    ) {
+        TenantGrid grid = tenants.get(tenantId);
+        if (grid == null || k <= 0) {
+            return List.of();
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ProximityService.Anchor anchor = ProximityService.Anchor.of(latitude, longitude);
+        // Max-heap on distance holding the best k so far
+        PriorityQueue<Nearby> best = new PriorityQueue<>(Comparator.comparingDouble(Nearby::distanceMeters).reversed());
+        
+        int centerLat = cellIndex(latitude);
+        int centerLon = cellIndex(longitude);
+        int maxRing = ringsFor(latitude, radiusMeters);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Anything in this ring is at least (ring - 1) whole cells away
+            double ringMinDistance = Math.max(0, ring - 1) * minCellMeters(latitude, ring);
+            if (ringMinDistance > radiusMeters
+                || (best.size() == k && ringMinDistance > best.peek().distanceMeters())) {
+                break;
+            }
+            
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                boolean edgeRow = Math.abs(dLat) == ring;
+                for (int dLon = -ring; dLon <= ring; dLon += edgeRow ? 1 : 2 * ring) {
+                    long cell = cellKey(centerLat + dLat, centerLon + dLon);
+                    collect(grid, cell, anchor, radiusMeters, k, statuses, best);
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        
+        List<Nearby> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Nearby::distanceMeters));
+        sample.stop(queryTimer);
+        return result;
+    }
+    
+    private void collect(
+        TenantGrid grid,
+        long cell,
+        ProximityService.Anchor anchor,
+        double radiusMeters,
+        int k,
+        Set<Driver.DriverStatus> statuses,
+        PriorityQueue<Nearby> best
+    ) {
+        Set<UUID> ids = grid.cells.get(cell);
+        if (ids == null) {
+            return;
+        }
+        
+        for (UUID id : ids) {
+            DriverPosition position = grid.drivers.get(id);
+            // Skip ids caught mid-move (already indexed under their new cell)
+            if (position == null || !position.hasPosition() || position.cell() != cell
+                || (statuses != null && !statuses.contains(position.status()))) {
+                continue;
+            }
+            
+            double limit = best.size() == k ? Math.min(radiusMeters, best.peek().distanceMeters()) : radiusMeters;
+            if (!proximityService.isWithin(anchor, position.latitude(), position.longitude(), limit)) {
+                continue;
+            }
+            best.add(new Nearby(
+                position.driverId(),
+                position.status(),
+                position.latitude(),
+                position.longitude(),
+                proximityService.distanceMeters(anchor, position.latitude(), position.longitude()),
+                position.updatedAt()
+            ));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+    }
+    
+    private static boolean isNewer(DriverPosition current, BigDecimal latitude, BigDecimal longitude, LocalDateTime at) {
+        return latitude != null && longitude != null && at != null
+            && (current.updatedAt() == null || !at.isBefore(current.updatedAt()));
+    }
+    
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+    
+    private static long cellKey(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Narrowest cell side (meters) among rings up to {@code ring} around the latitude
+     */
+    private static double minCellMeters(double latitude, int ring) {
+        double farthestLat = Math.min(89, Math.abs(latitude) + (ring + 1) * CELL_DEGREES);
+        return CELL_DEGREES * METERS_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+    }
+    
+    private static int ringsFor(double latitude, double radiusMeters) {
+        // Grow the estimate until the ring bound covers the radius (cells narrow towards the poles)
+        int rings = (int) Math.ceil(radiusMeters / minCellMeters(latitude, 0)) + 1;
+        while ((rings - 1) * minCellMeters(latitude, rings) < radiusMeters) {
+            rings++;
+        }
+        return rings;
+    }
+    
+    private static final class TenantGrid {
+        private final Map<UUID, DriverPosition> drivers = new ConcurrentHashMap<>();
+        private final Map<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+        
+        /**
+         * Re-bucket a driver; called while holding the driver's bin in {@link #drivers}
+         */
+        void move(DriverPosition from, DriverPosition to) {
+            boolean hadCell = from != null && from.hasPosition();
+            if (hadCell && to.hasPosition() && from.cell() == to.cell()) {
+                return;
+            }
+            if (to.hasPosition()) {
+                cells.compute(to.cell(), (cell, ids) -> {
+                    Set<UUID> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                    set.add(to.driverId());
+                    return set;
+                });
+            }
+            if (hadCell) {
+                cells.computeIfPresent(from.cell(), (cell, ids) -> {
+                    ids.remove(from.driverId());
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+    
+    private record DriverPosition(
+        UUID driverId,
+        Driver.DriverStatus status,
+        double latitude,
+        double longitude,
+        LocalDateTime updatedAt
+    ) {
+        
+        boolean hasPosition() {
+            return !Double.isNaN(latitude);
+        }
+        
+        long cell() {
+            return cellKey(cellIndex(latitude), cellIndex(longitude));
+        }
+        
+        DriverPosition withStatus(Driver.DriverStatus newStatus) {
+            return newStatus == null || newStatus == status
+                ? this
+                : new DriverPosition(driverId, newStatus, latitude, longitude, updatedAt);
+        }
+        
+        DriverPosition withPosition(double newLatitude, double newLongitude, LocalDateTime at) {
+            return new DriverPosition(driverId, status, newLatitude, newLongitude, at);
+        }
+    }
+    
+    /**
+     * A driver found by a nearby query
+     */
+    public record Nearby(
+        UUID driverId,
+        Driver.DriverStatus status,
+        double latitude,
+        double longitude,
+        double distanceMeters,
+        LocalDateTime updatedAt
+    ) {}
+}
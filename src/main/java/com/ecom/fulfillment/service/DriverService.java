@@ -1,8 +1,11 @@
 package com.ecom.fulfillment.service;
 
+import com.ecom.fulfillment.entity.Driver;
 import com.ecom.fulfillment.model.request.CreateDriverRequest;
+import com.ecom.fulfillment.model.request.DriverHeartbeatRequest;
 import com.ecom.fulfillment.model.request.UpdateDriverRequest;
 import com.ecom.fulfillment.model.response.DriverResponse;
+import com.ecom.fulfillment.model.response.NearbyDriverResponse;
 
 import java.util.List;
 import java.util.UUID;
@@ -32,6 +35,26 @@ public interface DriverService {
      */
     List<DriverResponse> getAvailableDrivers(UUID tenantId);
     
+    /**
+     * Drivers near a point, nearest first (served from the in-memory location index)
+     * @param radiusMeters search radius; null for the default
+     * @param limit maximum number of drivers; null for the default
+     * @param status driver status to match; null for AVAILABLE
+     */
+    List<NearbyDriverResponse> getNearbyDrivers(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        Double radiusMeters,
+        Integer limit,
+        Driver.DriverStatus status
+    );
+    
+    /**
+     * Record the calling driver's current position (held in memory, persisted in batches)
+     */
+    void recordHeartbeat(UUID driverId, UUID tenantId, DriverHeartbeatRequest request);
+    
     /**
      * Update driver
      */
@@ -1,5 +1,8 @@
 package com.ecom.fulfillment.service;
 
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.model.response.EtaResponse;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -23,6 +26,17 @@ public interface ETAService {
      */
     LocalDateTime updateETA(UUID deliveryId, UUID tenantId);
     
+    /**
+     * ETA for delivery and tracking responses (caller has checked tenant access)
+     * @return null for completed deliveries or when no estimate is available
+     */
+    EtaResponse getResponseETA(Delivery delivery);
+    
+    /**
+     * Same as {@link #getResponseETA(Delivery)} when only the delivery's id and status are at hand
+     */
+    EtaResponse getResponseETA(UUID deliveryId, UUID tenantId, Delivery.DeliveryStatus status);
+    
     record ETAWithWindow(
         LocalDateTime estimatedArrival,
         LocalDateTime windowStart,
@@ -0,0 +1,357 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.Driver;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.event.DriverStateChangedEvent;
+import com.ecom.fulfillment.model.response.FleetSnapshotResponse;
+import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.repository.DriverRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory live map of every driver and active delivery, per tenant, with versioned deltas
+ *
+ * <p>Each change that moves an entry (position, status) stamps it with the next version of its
+ * tenant; a snapshot since version v is every entry stamped after v. Writes of one tenant are
+ * serialized (they are a few field copies), so a version handed to a client never has an
+ * unfinished write below it. Reads scan without locking.
+ *
+ * <p>Deliveries leaving the active statuses become tombstones so delta clients learn to drop
+ * them; tombstones are pruned after fulfillment.fleet-snapshot.tombstone-retention-ms, after
+ * which older versions get a full snapshot. Versions start at the process start time in
+ * microseconds, so a version from before a restart (or from a node that started earlier) is
+ * answered with a full snapshot too; deltas assume the client keeps talking to the same node.
+ *
+ * <p>Each entry also gets a small per-tenant ref, kept across its updates. The binary encoding
+ * sends the entry's UUID only in full snapshots and in the first delta after the entry appeared
+ * (or came back from a tombstone); every other delta row carries just the ref.
+ *
+ * <p>Single-node view: a node only sees the driver changes, heartbeats and tracking updates it
+ * handled itself, plus what was in the database when it started. With several instances, serve
+ * the live map from one of them (heartbeats and pings of every driver must reach it) until the
+ * view is fed from a shared stream.
+ *
+ * <p>Heading is the bearing between the last two positions at least
+ * {@value #MIN_HEADING_MOVE_METERS} m apart. Loaded from the database on startup and kept current
+ * from driver changes, heartbeats and delivery tracking changes (after commit).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FleetSnapshotView {
+    
+    public static final Set<Delivery.DeliveryStatus> ACTIVE_DELIVERY_STATUSES = EnumSet.of(
+        Delivery.DeliveryStatus.ASSIGNED,
+        Delivery.DeliveryStatus.PICKED_UP,
+        Delivery.DeliveryStatus.IN_TRANSIT,
+        Delivery.DeliveryStatus.OUT_FOR_DELIVERY
+    );
+    
+    private static final double MIN_HEADING_MOVE_METERS = 10;
+    private static final double COORDINATE_SCALE = 1e6;
+    
+    private final DriverRepository driverRepository;
+    private final DeliveryRepository deliveryRepository;
+    private final ProximityService proximityService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.fleet-snapshot.tombstone-retention-ms:600000}")
+    private long tombstoneRetentionMs;
+    
+    private final long epochVersion = System.currentTimeMillis() * 1000;
+    private final Map<UUID, TenantView> tenants = new ConcurrentHashMap<>();
+    
+    private Timer snapshotTimer;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("fleet.snapshot.entries", tenants,
+                t -> t.values().stream().mapToInt(v -> v.drivers.size() + v.deliveries.size()).sum())
+            .description("Drivers and deliveries held in the fleet live map")
+            .register(meterRegistry);
+        snapshotTimer = Timer.builder("fleet.snapshot.build")
+            .description("Time to build one fleet snapshot or delta")
+            .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        List<Driver> drivers = driverRepository.findAll();
+        for (Driver driver : drivers) {
+            updateDriver(DriverStateChangedEvent.of(driver));
+        }
+        List<Delivery> deliveries = deliveryRepository.findByStatusIn(ACTIVE_DELIVERY_STATUSES);
+        for (Delivery delivery : deliveries) {
+            updateDelivery(DeliveryTrackingChangedEvent.of(delivery));
+        }
+        log.info("Fleet snapshot view loaded: drivers={}, deliveries={}, tookMs={}",
+            drivers.size(), deliveries.size(), System.currentTimeMillis() - started);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDriverChanged(DriverStateChangedEvent event) {
+        updateDriver(event);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTrackingChanged(DeliveryTrackingChangedEvent event) {
+        updateDelivery(event);
+        // Own-fleet pings are the driver's position too
+        if (event.driverId() != null && event.tenantId() != null) {
+            TenantView view = tenants.get(event.tenantId());
+            if (view != null && view.drivers.containsKey(event.driverId())) {
+                updateDriver(new DriverStateChangedEvent(
+                    event.driverId(), event.tenantId(), null, event.latitude(), event.longitude(), event.updatedAt()));
+            }
+        }
+    }
+    
+    /**
+     * Apply a driver's status and, if present and newer, position
+     */
+    public void updateDriver(DriverStateChangedEvent event) {
+        if (event.tenantId() == null) {
+            return;
+        }
+        view(event.tenantId()).apply(true, event.driverId(), current -> merge(
+            current, event.driverId(), event.status(), event.latitude(), event.longitude(), event.updatedAt()));
+    }
+    
+    /**
+     * Apply a delivery change; deliveries that are no longer active are turned into tombstones
+     */
+    public void updateDelivery(DeliveryTrackingChangedEvent event) {
+        if (event.tenantId() == null) {
+            return;
+        }
+        boolean active = event.status() == null || ACTIVE_DELIVERY_STATUSES.contains(event.status());
+        TenantView view = active ? view(event.tenantId()) : tenants.get(event.tenantId());
+        if (view == null) {
+            return;
+        }
+        view.apply(false, event.deliveryId(), current -> {
+            if (active) {
+                return merge(current, event.deliveryId(), event.status(), event.latitude(), event.longitude(), event.updatedAt());
+            }
+            return current == null || current.isRemoved() ? current : current.remove(event.status(), LocalDateTime.now());
+        });
+    }
+    
+    /**
+     * Entries of the tenant changed after {@code since}, or all of them if since is null or too old
+     */
+    public FleetSnapshotResponse snapshot(UUID tenantId, Long since) {
+        long generatedAt = System.currentTimeMillis();
+        TenantView view = tenants.get(tenantId);
+        if (view == null) {
+            return new FleetSnapshotResponse(epochVersion, true, List.of(), List.of(), List.of(), generatedAt);
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long version = view.version();
+        boolean full = since == null || since < view.prunedThrough || since > version;
+        long after = full ? Long.MIN_VALUE : since;
+        
+        List<FleetSnapshotResponse.Row> drivers = rows(view.drivers, after);
+        List<FleetSnapshotResponse.Row> deliveries = rows(view.deliveries, after);
+        List<UUID> removed = new ArrayList<>();
+        if (!full) {
+            for (Entry entry : view.deliveries.values()) {
+                if (entry.isRemoved() && entry.version() > after) {
+                    removed.add(entry.id());
+                }
+            }
+        }
+        sample.stop(snapshotTimer);
+        return new FleetSnapshotResponse(version, full, drivers, deliveries, removed, generatedAt);
+    }
+    
+    @Scheduled(fixedDelayString = "${fulfillment.fleet-snapshot.prune-interval-ms:60000}")
+    public void pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(tombstoneRetentionMs * 1_000_000);
+        for (TenantView view : tenants.values()) {
+            view.prune(cutoff);
+        }
+    }
+    
+    private TenantView view(UUID tenantId) {
+        return tenants.computeIfAbsent(tenantId, id -> new TenantView(epochVersion));
+    }
+    
+    /**
+     * The entry after a status and/or position update; the same instance if nothing changed
+     */
+    private Entry merge(
+        Entry current,
+        UUID id,
+        Enum<?> status,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime at
+    ) {
+        Entry base = current != null && !current.isRemoved()
+            ? current
+            : new Entry(id, Double.NaN, Double.NaN, current != null ? current.status() : null, Double.NaN, null, 0, null, 0, 0);
+        Entry next = status != null && status != base.status() ? base.withStatus(status) : base;
+        
+        if (latitude != null && longitude != null && at != null
+                && (base.updatedAt() == null || !at.isBefore(base.updatedAt()))) {
+            double lat = latitude.doubleValue();
+            double lon = longitude.doubleValue();
+            double heading = next.heading();
+            if (next.hasPosition()) {
+                // A stationary driver's heartbeats do not put them into every delta
+                if (lat == next.latitude() && lon == next.longitude()) {
+                    return next;
+                }
+                if (proximityService.calculateDistance(next.latitude(), next.longitude(), lat, lon) >= MIN_HEADING_MOVE_METERS) {
+                    heading = proximityService.bearingDegrees(next.latitude(), next.longitude(), lat, lon);
+                }
+            }
+            next = next.withPosition(lat, lon, heading, at);
+        }
+        return next;
+    }
+    
+    private static List<FleetSnapshotResponse.Row> rows(Map<UUID, Entry> entries, long after) {
+        List<FleetSnapshotResponse.Row> rows = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.version() > after && entry.isVisible()) {
+                rows.add(entry.toRow(entry.introducedVersion() > after));
+            }
+        }
+        // Latitude order keeps consecutive rows close together (small deltas in the binary encoding)
+        rows.sort(Comparator.comparingDouble(FleetSnapshotResponse.Row::lat));
+        return rows;
+    }
+    
+    private static final class TenantView {
+        private final Map<UUID, Entry> drivers = new ConcurrentHashMap<>();
+        private final Map<UUID, Entry> deliveries = new ConcurrentHashMap<>();
+        private long version;
+        private int lastRef;
+        private volatile long prunedThrough;
+        
+        TenantView(long epochVersion) {
+            this.version = epochVersion;
+            this.prunedThrough = epochVersion;
+        }
+        
+        synchronized long version() {
+            return version;
+        }
+        
+        /**
+         * Replace an entry with the update's result, stamped with the next version if it changed;
+         * new entries get the next ref, and an entry becoming visible in snapshots (again) is
+         * introduced at that version
+         */
+        synchronized void apply(boolean driver, UUID id, UnaryOperator<Entry> update) {
+            Map<UUID, Entry> entries = driver ? drivers : deliveries;
+            Entry current = entries.get(id);
+            Entry next = update.apply(current);
+            if (next != null && next != current) {
+                long nextVersion = ++version;
+                int ref = current != null ? current.ref() : ++lastRef;
+                long introduced = current != null && current.isVisible() ? current.introducedVersion() : nextVersion;
+                entries.put(id, next.withRef(ref, introduced).withVersion(nextVersion));
+            }
+        }
+        
+        synchronized void prune(LocalDateTime cutoff) {
+            deliveries.values().removeIf(entry -> {
+                if (entry.isRemoved() && entry.removedAt().isBefore(cutoff)) {
+                    prunedThrough = Math.max(prunedThrough, entry.version());
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+    
+    private record Entry(
+        UUID id,
+        double latitude,
+        double longitude,
+        Enum<?> status,
+        double heading,
+        LocalDateTime updatedAt,
+        long version,
+        LocalDateTime removedAt,
+        int ref,
+        long introducedVersion
+    ) {
+        
+        boolean hasPosition() {
+            return !Double.isNaN(latitude);
+        }
+        
+        boolean isRemoved() {
+            return removedAt != null;
+        }
+        
+        boolean isVisible() {
+            return !isRemoved() && hasPosition();
+        }
+        
+        Entry withStatus(Enum<?> newStatus) {
+            return new Entry(id, latitude, longitude, newStatus, heading, updatedAt, version, null, ref, introducedVersion);
+        }
+        
+        Entry withPosition(double newLatitude, double newLongitude, double newHeading, LocalDateTime at) {
+            return new Entry(id, newLatitude, newLongitude, status, newHeading, at, version, null, ref, introducedVersion);
+        }
+        
+        Entry withVersion(long newVersion) {
+            return new Entry(id, latitude, longitude, status, heading, updatedAt, newVersion, removedAt, ref, introducedVersion);
+        }
+        
+        Entry withRef(int newRef, long newIntroducedVersion) {
+            return new Entry(id, latitude, longitude, status, heading, updatedAt, version, removedAt, newRef, newIntroducedVersion);
+        }
+        
+        Entry remove(Enum<?> finalStatus, LocalDateTime at) {
+            return new Entry(id, latitude, longitude, finalStatus, heading, updatedAt, version, at, ref, introducedVersion);
+        }
+        
+        FleetSnapshotResponse.Row toRow(boolean introduced) {
+            return new FleetSnapshotResponse.Row(
+                id,
+                Math.round(latitude * COORDINATE_SCALE) / COORDINATE_SCALE,
+                Math.round(longitude * COORDINATE_SCALE) / COORDINATE_SCALE,
+                status != null ? status.name() : null,
+                Double.isNaN(heading) ? null : (int) Math.round(heading) % 360,
+                updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0,
+                ref,
+                introduced
+            );
+        }
+    }
+}
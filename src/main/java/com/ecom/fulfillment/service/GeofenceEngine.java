@@ -0,0 +1,333 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.Fulfillment;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.repository.FulfillmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circular geofences around each in-flight delivery's pickup and delivery address
+ *
+ * <p>Fences are registered on a delivery's first evaluated ping (pickup from the fulfillment,
+ * drop-off from the delivery address and its proximity radius) and dropped once the delivery is
+ * completed. Each ping is tested against a precomputed latitude/longitude bounding box first;
+ * only pings inside the box pay for the exact Haversine test. Evaluation allocates nothing unless
+ * a fence is crossed, so it runs inline on the tracking path.
+ *
+ * <p>A fence is entered within its radius and left only beyond radius × exit-factor, so GPS
+ * jitter around the boundary does not produce enter/exit storms.
+ *
+ * <p>Inside a transaction the new inside/outside state is staged and only applied once the
+ * tracking write commits; later pings of the same transaction see the staged state. A rolled
+ * back ping therefore leaves the fences as they were, and its crossing is detected again on retry.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeofenceEngine {
+    
+    private static final double METERS_PER_DEGREE = 111_320;
+    private static final Set<Delivery.DeliveryStatus> TERMINAL_STATUSES = EnumSet.of(
+        Delivery.DeliveryStatus.DELIVERED,
+        Delivery.DeliveryStatus.FAILED,
+        Delivery.DeliveryStatus.RETURNED
+    );
+    
+    private final FulfillmentRepository fulfillmentRepository;
+    private final ProximityService proximityService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.geofence.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${fulfillment.geofence.pickup-radius-meters:150}")
+    private double pickupRadiusMeters;
+    
+    @Value("${fulfillment.geofence.dropoff-radius-meters:100}")
+    private double dropoffRadiusMeters;
+    
+    @Value("${fulfillment.geofence.exit-factor:1.25}")
+    private double exitFactor;
+    
+    private final Map<UUID, DeliveryFences> fences = new ConcurrentHashMap<>();
+    private final Map<FenceType, Map<Direction, Counter>> transitionCounters = new EnumMap<>(FenceType.class);
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("geofence.tracked", fences, Map::size)
+            .description("Deliveries with registered geofences")
+            .register(meterRegistry);
+        for (FenceType type : FenceType.values()) {
+            Map<Direction, Counter> byDirection = new EnumMap<>(Direction.class);
+            for (Direction direction : Direction.values()) {
+                byDirection.put(direction, Counter.builder("geofence.transitions")
+                    .description("Geofence crossings detected from location pings")
+                    .tag("fence", type.name())
+                    .tag("direction", direction.name())
+                    .register(meterRegistry));
+            }
+            transitionCounters.put(type, byDirection);
+        }
+    }
+    
+    /**
+     * Test a ping against the delivery's fences; returns the fences crossed (usually none)
+     */
+    public List<Transition> evaluate(Delivery delivery, BigDecimal latitude, BigDecimal longitude, LocalDateTime at) {
+        if (!enabled || latitude == null || longitude == null || TERMINAL_STATUSES.contains(delivery.getStatus())) {
+            return List.of();
+        }
+        
+        DeliveryFences deliveryFences = fences.get(delivery.getId());
+        if (deliveryFences == null) {
+            // Loaded outside the map so the fulfillment lookup does not hold a map bin
+            DeliveryFences registered = register(delivery);
+            DeliveryFences existing = fences.putIfAbsent(delivery.getId(), registered);
+            deliveryFences = existing != null ? existing : registered;
+        }
+        
+        Pending pending = pendingInTransaction(false);
+        FenceState state = pending != null && pending.states.containsKey(deliveryFences)
+            ? pending.states.get(deliveryFences)
+            : deliveryFences.state;
+        FenceState next = deliveryFences.evaluate(state, latitude.doubleValue(), longitude.doubleValue());
+        if (next.equals(state)) {
+            return List.of();
+        }
+        
+        List<Transition> transitions = new ArrayList<>(2);
+        if (next.insidePickup() != state.insidePickup()) {
+            transitions.add(new Transition(delivery.getId(), FenceType.PICKUP, direction(next.insidePickup()), at));
+        }
+        if (next.insideDropoff() != state.insideDropoff()) {
+            transitions.add(new Transition(delivery.getId(), FenceType.DROPOFF, direction(next.insideDropoff()), at));
+        }
+        
+        Pending staged = pending != null ? pending : pendingInTransaction(true);
+        if (staged != null) {
+            staged.states.put(deliveryFences, next);
+            staged.transitions.addAll(transitions);
+        } else {
+            deliveryFences.state = next;
+            count(transitions);
+        }
+        return transitions;
+    }
+    
+    /**
+     * The status a delivery moves to after the given crossings (never backwards)
+     *
+     * <p>Each qualifying crossing advances the status by a single step of
+     * ASSIGNED → PICKED_UP → IN_TRANSIT → OUT_FOR_DELIVERY, so no intermediate status is skipped.
+     * Leaving the pickup advances at most to IN_TRANSIT; reaching the delivery address advances
+     * at most to OUT_FOR_DELIVERY. Any other status is left alone.
+     */
+    public static Delivery.DeliveryStatus statusAfter(Delivery.DeliveryStatus current, List<Transition> transitions) {
+        Delivery.DeliveryStatus status = current;
+        for (Transition transition : transitions) {
+            if (transition.fence() == FenceType.PICKUP && transition.direction() == Direction.EXIT) {
+                status = advance(status, Delivery.DeliveryStatus.IN_TRANSIT);
+            } else if (transition.fence() == FenceType.DROPOFF && transition.direction() == Direction.ENTER) {
+                status = advance(status, Delivery.DeliveryStatus.OUT_FOR_DELIVERY);
+            }
+        }
+        return status;
+    }
+    
+    private static Delivery.DeliveryStatus advance(Delivery.DeliveryStatus status, Delivery.DeliveryStatus cap) {
+        if (status.ordinal() >= cap.ordinal()) {
+            return status;
+        }
+        return Delivery.DeliveryStatus.values()[status.ordinal() + 1];
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTrackingChanged(DeliveryTrackingChangedEvent event) {
+        if (event.status() != null && TERMINAL_STATUSES.contains(event.status())) {
+            fences.remove(event.deliveryId());
+        }
+    }
+    
+    private static Direction direction(boolean inside) {
+        return inside ? Direction.ENTER : Direction.EXIT;
+    }
+    
+    private void count(List<Transition> transitions) {
+        for (Transition transition : transitions) {
+            transitionCounters.get(transition.fence()).get(transition.direction()).increment();
+        }
+    }
+    
+    /**
+     * Fence states staged by the current transaction, applied after it commits (null outside one,
+     * or if nothing was staged yet and {@code create} is false)
+     */
+    private Pending pendingInTransaction(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.states.forEach((deliveryFences, state) -> deliveryFences.state = state);
+                    count(created.transitions);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(GeofenceEngine.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+    
+    private DeliveryFences register(Delivery delivery) {
+        Fence pickup = null;
+        Fulfillment fulfillment = delivery.getFulfillmentId() != null
+            ? fulfillmentRepository.findById(delivery.getFulfillmentId()).orElse(null)
+            : null;
+        if (fulfillment != null && fulfillment.getPickupLatitude() != null && fulfillment.getPickupLongitude() != null) {
+            pickup = fence(FenceType.PICKUP, fulfillment.getPickupLatitude(), fulfillment.getPickupLongitude(),
+                pickupRadiusMeters);
+        }
+        
+        Fence dropoff = null;
+        if (delivery.getDeliveryAddressLatitude() != null && delivery.getDeliveryAddressLongitude() != null) {
+            double radius = delivery.getProximityRadiusMeters() != null
+                ? delivery.getProximityRadiusMeters()
+                : dropoffRadiusMeters;
+            dropoff = fence(FenceType.DROPOFF, delivery.getDeliveryAddressLatitude(), delivery.getDeliveryAddressLongitude(),
+                radius);
+        }
+        
+        log.debug("Geofences registered: deliveryId={}, pickup={}, dropoff={}",
+            delivery.getId(), pickup != null, dropoff != null);
+        return new DeliveryFences(pickup, dropoff);
+    }
+    
+    private Fence fence(FenceType type, BigDecimal latitude, BigDecimal longitude, double radiusMeters) {
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        double exitRadius = radiusMeters * exitFactor;
+        // Box around the exit radius; anything outside it is outside both radii
+        double dLat = exitRadius / METERS_PER_DEGREE;
+        double dLon = dLat / Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        return new Fence(
+            type,
+            ProximityService.Anchor.of(lat, lon),
+            radiusMeters,
+            exitRadius,
+            lat - dLat,
+            lat + dLat,
+            lon - dLon,
+            lon + dLon
+        );
+    }
+    
+    public enum FenceType {
+        PICKUP,
+        DROPOFF
+    }
+    
+    public enum Direction {
+        ENTER,
+        EXIT
+    }
+    
+    /**
+     * A fence crossed by a ping
+     */
+    public record Transition(UUID deliveryId, FenceType fence, Direction direction, LocalDateTime at) {}
+    
+    private record Fence(
+        FenceType type,
+        ProximityService.Anchor center,
+        double enterRadius,
+        double exitRadius,
+        double minLatitude,
+        double maxLatitude,
+        double minLongitude,
+        double maxLongitude
+    ) {
+        
+        boolean inBox(double latitude, double longitude) {
+            return latitude >= minLatitude && latitude <= maxLatitude
+                && longitude >= minLongitude && longitude <= maxLongitude;
+        }
+    }
+    
+    /**
+     * Whether the last committed ping was inside each fence
+     */
+    private record FenceState(boolean insidePickup, boolean insideDropoff) {
+        static final FenceState OUTSIDE = new FenceState(false, false);
+    }
+    
+    private static final class Pending {
+        private final Map<DeliveryFences, FenceState> states = new HashMap<>();
+        private final List<Transition> transitions = new ArrayList<>();
+    }
+    
+    /**
+     * Fences of one delivery and their committed state
+     */
+    private final class DeliveryFences {
+        private final Fence pickup;
+        private final Fence dropoff;
+        private volatile FenceState state = FenceState.OUTSIDE;
+        
+        DeliveryFences(Fence pickup, Fence dropoff) {
+            this.pickup = pickup;
+            this.dropoff = dropoff;
+        }
+        
+        /**
+         * The state after a ping, without applying it
+         */
+        FenceState evaluate(FenceState from, double latitude, double longitude) {
+            boolean inPickup = pickup != null && isInside(pickup, from.insidePickup(), latitude, longitude);
+            boolean inDropoff = dropoff != null && isInside(dropoff, from.insideDropoff(), latitude, longitude);
+            return inPickup == from.insidePickup() && inDropoff == from.insideDropoff()
+                ? from
+                : new FenceState(inPickup, inDropoff);
+        }
+        
+        private boolean isInside(Fence fence, boolean wasInside, double latitude, double longitude) {
+            if (!fence.inBox(latitude, longitude)) {
+                return false;
+            }
+            double radius = wasInside ? fence.exitRadius() : fence.enterRadius();
+            return proximityService.distanceMeters(fence.center(), latitude, longitude) <= radius;
+        }
+    }
+}
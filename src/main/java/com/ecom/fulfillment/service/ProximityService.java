@@ -1,5 +1,8 @@
 package com.ecom.fulfillment.service;
 
+import com.ecom.fulfillment.util.DistanceKernel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -8,13 +11,43 @@ import java.util.UUID;
 
 /**
  * Service for calculating proximity and distance between GPS coordinates
+ *
+ * <p>The core API works on primitive doubles in meters. An {@link Anchor} caches the radians and
+ * cos(lat) of a point that is compared against many others, and radius checks reject far points
+ * with a latitude-only bound and an equirectangular estimate before paying for Haversine.
+ * Checks against many candidates at once go through {@link DistanceKernel} (SIMD when available).
+ * BigDecimal only appears in the result records that are persisted.
  */
 @Service
+@Slf4j
 public class ProximityService {
     
     private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double EARTH_RADIUS_METERS = EARTH_RADIUS_KM * 1000;
     private static final int DEFAULT_PROXIMITY_RADIUS = 50; // meters
     private static final int MAX_LOCATION_ACCURACY = 10; // meters
+    // Equirectangular estimates are only trusted to reject points this far out
+    private static final double PRECHECK_MAX_RADIUS_METERS = 50_000;
+    // Safety margin on the estimate (projection error grows with distance and latitude)
+    private static final double PRECHECK_MARGIN = 1.1;
+    private static final double ALTERNATE_LOCATION_THRESHOLD_METERS = 100;
+    
+    @PostConstruct
+    void logDistanceKernel() {
+        // The Vector API kernel needs the vector-api build profile and --add-modules at runtime
+        log.info("Batch distance kernel: {}", DistanceKernel.isVectorized() ? "Vector API" : "scalar");
+    }
+    
+    /**
+     * Reference point with precomputed trigonometry, for repeated checks against one location
+     */
+    public record Anchor(double latitude, double longitude, double latRadians, double lonRadians, double cosLat) {
+        
+        public static Anchor of(double latitude, double longitude) {
+            double latRadians = Math.toRadians(latitude);
+            return new Anchor(latitude, longitude, latRadians, Math.toRadians(longitude), Math.cos(latRadians));
+        }
+    }
     
     /**
      * Calculate distance between two GPS coordinates using Haversine formula
@@ -25,21 +58,65 @@ public class ProximityService {
      * @return distance in meters
      */
     public double calculateDistance(
-        double lat1, double lon1, 
+        double lat1, double lon1,
         double lat2, double lon2
     ) {
-        double dLat = Math.toRadians(lat2 - lat1);
+        double lat1Radians = Math.toRadians(lat1);
+        return haversine(lat1Radians, Math.toRadians(lon1), Math.cos(lat1Radians), lat2, lon2);
+    }
+    
+    /**
+     * Haversine distance in meters from an anchor (no trigonometry for the anchor side)
+     */
+    public double distanceMeters(Anchor from, double lat, double lon) {
+        return haversine(from.latRadians(), from.lonRadians(), from.cosLat(), lat, lon);
+    }
+    
+    /**
+     * Initial great-circle bearing from the first point to the second, in degrees clockwise from
+     * north [0, 360)
+     */
+    public double bearingDegrees(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Radians = Math.toRadians(lat1);
+        double lat2Radians = Math.toRadians(lat2);
         double dLon = Math.toRadians(lon2 - lon1);
-        
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1)) * 
-                   Math.cos(Math.toRadians(lat2)) *
-                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        double distanceKm = EARTH_RADIUS_KM * c;
-        
-        return distanceKm * 1000; // Convert to meters
+        double y = Math.sin(dLon) * Math.cos(lat2Radians);
+        double x = Math.cos(lat1Radians) * Math.sin(lat2Radians)
+            - Math.sin(lat1Radians) * Math.cos(lat2Radians) * Math.cos(dLon);
+        return (Math.toDegrees(Math.atan2(y, x)) + 360) % 360;
+    }
+    
+    /**
+     * Distance in meters from a point to each candidate (parallel latitude/longitude arrays)
+     */
+    public double[] distancesMeters(double lat, double lon, double[] latitudes, double[] longitudes) {
+        return DistanceKernel.distances(lat, lon, latitudes, longitudes);
+    }
+    
+    /**
+     * Index of the first candidate within radiusMeters of the point, or -1
+     */
+    public int firstWithin(double lat, double lon, double[] latitudes, double[] longitudes, double radiusMeters) {
+        return DistanceKernel.firstWithin(lat, lon, latitudes, longitudes, radiusMeters);
+    }
+    
+    /**
+     * True if the point is within radiusMeters of the anchor (exact Haversine for points near the edge)
+     */
+    public boolean isWithin(Anchor from, double lat, double lon, double radiusMeters) {
+        if (radiusMeters <= PRECHECK_MAX_RADIUS_METERS) {
+            double dLat = Math.toRadians(lat) - from.latRadians();
+            // The latitude difference alone is a lower bound on the distance
+            double limit = radiusMeters * PRECHECK_MARGIN / EARTH_RADIUS_METERS;
+            if (Math.abs(dLat) > limit) {
+                return false;
+            }
+            double dLon = Math.IEEEremainder(Math.toRadians(lon) - from.lonRadians(), 2 * Math.PI) * from.cosLat();
+            if (dLat * dLat + dLon * dLon > limit * limit) {
+                return false;
+            }
+        }
+        return distanceMeters(from, lat, lon) <= radiusMeters;
     }
     
     /**
@@ -56,8 +133,7 @@ public class ProximityService {
         double pointLat, double pointLon,
         int proximityRadius
     ) {
-        double distance = calculateDistance(targetLat, targetLon, pointLat, pointLon);
-        return distance <= proximityRadius;
+        return isWithin(Anchor.of(targetLat, targetLon), pointLat, pointLon, proximityRadius);
     }
     
     /**
@@ -77,21 +153,16 @@ public class ProximityService {
         double customerLat, double customerLon,
         int proximityRadius
     ) {
-        boolean agentInProximity = isWithinProximity(
-            deliveryLat, deliveryLon, agentLat, agentLon, proximityRadius
-        );
-        boolean customerInProximity = isWithinProximity(
-            deliveryLat, deliveryLon, customerLat, customerLon, proximityRadius
-        );
-        
-        return agentInProximity && customerInProximity;
+        Anchor delivery = Anchor.of(deliveryLat, deliveryLon);
+        return isWithin(delivery, agentLat, agentLon, proximityRadius)
+            && isWithin(delivery, customerLat, customerLon, proximityRadius);
     }
     
     /**
      * Check if agent and customer are close to each other
      * This is the KEY check - parties must be in proximity to each other (anywhere)
      * Not limited to delivery address - they can meet at any location
-     * 
+     *
      * @param agentLat Agent latitude
      * @param agentLon Agent longitude
      * @param customerLat Customer latitude
@@ -104,14 +175,13 @@ public class ProximityService {
         double customerLat, double customerLon,
         int maxDistance
     ) {
-        double distance = calculateDistance(agentLat, agentLon, customerLat, customerLon);
-        return distance <= maxDistance;
+        return isWithin(Anchor.of(agentLat, agentLon), customerLat, customerLon, maxDistance);
     }
     
     /**
      * Verify proximity between parties and record actual delivery location
      * This supports flexible delivery - parties can meet anywhere, not just at delivery address
-     * 
+     *
      * @param agentLat Agent latitude
      * @param agentLon Agent longitude
      * @param customerLat Customer latitude
@@ -127,15 +197,25 @@ public class ProximityService {
         double scheduledDeliveryLat, double scheduledDeliveryLon,
         int proximityRadius
     ) {
-        // KEY CHECK: Are parties close to each other? (anywhere)
-        boolean partiesInProximity = arePartiesClose(
-            agentLat, agentLon, customerLat, customerLon, proximityRadius
-        );
-        
-        // Calculate distance between parties
-        double distanceBetweenParties = calculateDistance(
-            agentLat, agentLon, customerLat, customerLon
-        );
+        return measureParties(
+            agentLat, agentLon,
+            customerLat, customerLon,
+            scheduledDeliveryLat, scheduledDeliveryLon,
+            proximityRadius
+        ).toResult();
+    }
+    
+    /**
+     * Primitive core of {@link #verifyAndRecordLocation}; distances in meters, nothing boxed
+     */
+    public PartiesMeasurement measureParties(
+        double agentLat, double agentLon,
+        double customerLat, double customerLon,
+        double scheduledDeliveryLat, double scheduledDeliveryLon,
+        double proximityRadius
+    ) {
+        // KEY CHECK: Are parties close to each other? (anywhere) - the distance is recorded either way
+        double distanceBetweenParties = calculateDistance(agentLat, agentLon, customerLat, customerLon);
         
         // Calculate distance from scheduled address (for records)
         double actualLat = (agentLat + customerLat) / 2; // Midpoint
@@ -144,20 +224,46 @@ public class ProximityService {
             scheduledDeliveryLat, scheduledDeliveryLon, actualLat, actualLon
         );
         
-        // Determine location type
-        String locationType = distanceFromScheduled > 100 ? 
-            "ALTERNATE_LOCATION" : "SCHEDULED_ADDRESS";
-        
-        return new ProximityResult(
-            partiesInProximity,
-            roundDistance(distanceBetweenParties),
-            roundDistance(distanceFromScheduled),
-            locationType,
-            BigDecimal.valueOf(actualLat),
-            BigDecimal.valueOf(actualLon)
+        return new PartiesMeasurement(
+            distanceBetweenParties <= proximityRadius,
+            distanceBetweenParties,
+            distanceFromScheduled,
+            actualLat,
+            actualLon
         );
     }
     
+    /**
+     * Primitive proximity measurement (meters/degrees)
+     */
+    public record PartiesMeasurement(
+        boolean partiesInProximity,
+        double distanceBetweenParties,
+        double distanceFromScheduled,
+        double actualDeliveryLat,
+        double actualDeliveryLon
+    ) {
+        
+        public String locationType() {
+            return distanceFromScheduled > ALTERNATE_LOCATION_THRESHOLD_METERS
+                ? "ALTERNATE_LOCATION" : "SCHEDULED_ADDRESS";
+        }
+        
+        /**
+         * Persistence form (BigDecimal, distances rounded to centimeters)
+         */
+        public ProximityResult toResult() {
+            return new ProximityResult(
+                partiesInProximity,
+                round(distanceBetweenParties),
+                round(distanceFromScheduled),
+                locationType(),
+                BigDecimal.valueOf(actualDeliveryLat),
+                BigDecimal.valueOf(actualDeliveryLon)
+            );
+        }
+    }
+    
     /**
      * Result of proximity verification
      */
@@ -183,8 +289,7 @@ public class ProximityService {
      * Round distance to 2 decimal places
      */
     public BigDecimal roundDistance(double distance) {
-        return BigDecimal.valueOf(distance)
-            .setScale(2, RoundingMode.HALF_UP);
+        return round(distance);
     }
     
     /**
@@ -204,7 +309,7 @@ public class ProximityService {
     /**
      * Check if agent is in proximity with ANY of the alternate recipients
      * This is used when customer is not available and alternate recipient can receive order
-     * 
+     *
      * @param agentLat Agent latitude
      * @param agentLon Agent longitude
      * @param alternateRecipients List of alternate recipient locations (lat, lon pairs)
@@ -220,32 +325,32 @@ public class ProximityService {
             return new ProximityMatchResult(false, -1, null, null);
         }
         
-        // Check proximity with each alternate recipient
-        for (int i = 0; i < alternateRecipients.size(); i++) {
+        // One batch radius check over all alternates; missing coordinates are NaN and never match
+        int count = alternateRecipients.size();
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
             AlternateRecipientLocation alt = alternateRecipients.get(i);
-            if (alt.latitude() != null && alt.longitude() != null) {
-                double distance = calculateDistance(
-                    agentLat, agentLon,
-                    alt.latitude().doubleValue(), alt.longitude().doubleValue()
-                );
-                
-                if (distance <= proximityRadius) {
-                    return new ProximityMatchResult(
-                        true,
-                        i,
-                        roundDistance(distance),
-                        alt
-                    );
-                }
-            }
+            boolean located = alt.latitude() != null && alt.longitude() != null;
+            latitudes[i] = located ? alt.latitude().doubleValue() : Double.NaN;
+            longitudes[i] = located ? alt.longitude().doubleValue() : Double.NaN;
         }
         
-        return new ProximityMatchResult(false, -1, null, null);
+        int match = firstWithin(agentLat, agentLon, latitudes, longitudes, proximityRadius);
+        if (match < 0) {
+            return new ProximityMatchResult(false, -1, null, null);
+        }
+        return new ProximityMatchResult(
+            true,
+            match,
+            round(calculateDistance(agentLat, agentLon, latitudes[match], longitudes[match])),
+            alternateRecipients.get(match)
+        );
     }
     
     /**
      * Verify proximity between agent and alternate recipient
-     * 
+     *
      * @param agentLat Agent latitude
      * @param agentLon Agent longitude
      * @param alternateLat Alternate recipient latitude
@@ -288,5 +393,17 @@ public class ProximityService {
         String name,
         String phoneNumber
     ) {}
+    
+    private static double haversine(double lat1Radians, double lon1Radians, double cosLat1, double lat2, double lon2) {
+        double lat2Radians = Math.toRadians(lat2);
+        double sinHalfDLat = Math.sin((lat2Radians - lat1Radians) / 2);
+        double sinHalfDLon = Math.sin((Math.toRadians(lon2) - lon1Radians) / 2);
+        
+        double a = sinHalfDLat * sinHalfDLat + cosLat1 * Math.cos(lat2Radians) * sinHalfDLon * sinHalfDLon;
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+    
+    private static BigDecimal round(double distance) {
+        return BigDecimal.valueOf(distance).setScale(2, RoundingMode.HALF_UP);
+    }
 }
-
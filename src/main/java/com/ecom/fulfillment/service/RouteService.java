@@ -0,0 +1,17 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.model.response.DriverRouteResponse;
+
+import java.util.UUID;
+
+/**
+ * Service for ordering a driver's open deliveries into a route
+ */
+public interface RouteService {
+    
+    /**
+     * Optimized stop order for a driver's open deliveries, from the driver's current position,
+     * with cumulative distance and ETA per stop
+     */
+    DriverRouteResponse getOptimizedRoute(UUID driverId, UUID tenantId);
+}
@@ -0,0 +1,21 @@
+package com.ecom.fulfillment.service;
+
+import java.util.UUID;
+
+/**
+ * Tracking Number Generator Interface
+ *
+ * <p>Implementations must be thread-safe and return values that are unique across all nodes
+ * and tenants without a database round trip (deliveries.tracking_number is unique).
+ * Replace the default by declaring another bean of this type.
+ */
+public interface TrackingNumberGenerator {
+    
+    /**
+     * Next tracking number
+     *
+     * @param tenantId Owning tenant (available to tenant-encoding formats)
+     * @return Tracking number, at most 100 characters
+     */
+    String next(UUID tenantId);
+}
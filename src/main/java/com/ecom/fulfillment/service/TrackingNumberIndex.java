@@ -0,0 +1,269 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.repository.DeliveryRepositoryCustom;
+import com.ecom.fulfillment.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global tracking number index for tenant-less (public) lookups
+ *
+ * <p>Tracking numbers are unique across tenants, so a number alone identifies the owning
+ * tenant and delivery. A Bloom filter of every known number rejects unknown (guessed, typo'd,
+ * bot-generated) numbers in memory without touching PostgreSQL; resolved numbers are kept in a
+ * bounded map so repeat lookups are a single hash probe.
+ *
+ * <p>The filter is loaded on startup and topped up every refresh interval by a keyset scan over
+ * deliveries(created_at, id). The scan restarts a little before the previous high-water mark so
+ * rows committed late (created_at taken before a slow commit) are not missed. Deliveries created
+ * on this node are added immediately; ones created on other nodes since the last refresh are
+ * found through the live state cache, which is written on creation. The filter is rebuilt at
+ * twice the size once it holds more numbers than it was sized for; numbers added while a rebuild
+ * is scanning go into both filters so the swap cannot drop them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingNumberIndex {
+    
+    // Tracking numbers are at most 100 characters (deliveries.tracking_number)
+    private static final int MAX_TRACKING_NUMBER_LENGTH = 100;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    
+    private final DeliveryRepository deliveryRepository;
+    private final DeliveryLiveStateCache liveStateCache;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.tracking.index.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${fulfillment.tracking.index.expected-insertions:1000000}")
+    private long expectedInsertions;
+    
+    @Value("${fulfillment.tracking.index.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${fulfillment.tracking.index.load-batch-size:10000}")
+    private int loadBatchSize;
+    
+    @Value("${fulfillment.tracking.index.refresh-overlap-ms:300000}")
+    private long refreshOverlapMs;
+    
+    @Value("${fulfillment.tracking.index.cache-size:100000}")
+    private int cacheSize;
+    
+    private final Map<String, Entry> resolved = new ConcurrentHashMap<>();
+    
+    // Null until the first load completes; lookups go to the database until then
+    private volatile BloomFilter filter;
+    // Set while rebuild() scans into a new filter, cleared only after it replaced filter
+    private volatile BloomFilter building;
+    private LocalDateTime highWaterMark = EPOCH;
+    
+    private Counter rejectedCounter;
+    private Counter cachedCounter;
+    private Counter liveCacheCounter;
+    private Counter databaseCounter;
+    private Counter falsePositiveCounter;
+    
+    @PostConstruct
+    void registerMetrics() {
+        rejectedCounter = lookupCounter("rejected");
+        cachedCounter = lookupCounter("cached");
+        liveCacheCounter = lookupCounter("live_cache");
+        databaseCounter = lookupCounter("database");
+        falsePositiveCounter = lookupCounter("false_positive");
+        Gauge.builder("tracking.index.size", this, index -> {
+                BloomFilter current = index.filter;
+                return current != null ? current.insertions() : 0;
+            })
+            .description("Tracking numbers in the public lookup Bloom filter")
+            .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        
+        try {
+            rebuild(expectedInsertions);
+        } catch (Exception e) {
+            log.error("Failed to load tracking number index, public lookups fall back to the database", e);
+        }
+    }
+    
+    @Scheduled(
+        fixedDelayString = "${fulfillment.tracking.index.refresh-interval-ms:30000}",
+        initialDelayString = "${fulfillment.tracking.index.refresh-interval-ms:30000}"
+    )
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        
+        try {
+            BloomFilter current = filter;
+            if (current == null) {
+                rebuild(expectedInsertions);
+            } else if (current.isSaturated()) {
+                rebuild(Math.max(expectedInsertions, current.insertions() * 2));
+            } else {
+                synchronized (this) {
+                    highWaterMark = scan(current, highWaterMark.minusNanos(refreshOverlapMs * 1_000_000));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh tracking number index", e);
+        }
+    }
+    
+    /**
+     * Owner of a tracking number, without tenant context
+     * @return empty if the number does not exist
+     */
+    public Optional<Entry> resolve(String trackingNumber) {
+        if (trackingNumber == null || trackingNumber.isBlank() || trackingNumber.length() > MAX_TRACKING_NUMBER_LENGTH) {
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+        
+        Entry entry = resolved.get(trackingNumber);
+        if (entry != null) {
+            cachedCounter.increment();
+            return Optional.of(entry);
+        }
+        
+        BloomFilter current = enabled ? filter : null;
+        if (current != null && !current.mightContain(trackingNumber)) {
+            // Possibly created on another node since the last refresh
+            Optional<Entry> live = liveStateCache.findAnyByTrackingNumber(trackingNumber)
+                .filter(state -> state.tenantId() != null)
+                .map(state -> new Entry(state.tenantId(), state.deliveryId()));
+            if (live.isEmpty()) {
+                rejectedCounter.increment();
+                return live;
+            }
+            liveCacheCounter.increment();
+            add(trackingNumber);
+            remember(trackingNumber, live.get());
+            return live;
+        }
+        
+        Optional<Entry> found = deliveryRepository.findTrackingNumber(trackingNumber)
+            .map(row -> new Entry(row.tenantId(), row.deliveryId()));
+        if (found.isPresent()) {
+            databaseCounter.increment();
+            remember(trackingNumber, found.get());
+        } else {
+            falsePositiveCounter.increment();
+        }
+        return found;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTrackingChanged(DeliveryTrackingChangedEvent event) {
+        if (event.trackingNumber() == null || event.tenantId() == null) {
+            return;
+        }
+        
+        if (add(event.trackingNumber())) {
+            remember(event.trackingNumber(), new Entry(event.tenantId(), event.deliveryId()));
+        }
+    }
+    
+    private synchronized void rebuild(long capacity) {
+        long started = System.currentTimeMillis();
+        BloomFilter next = new BloomFilter(capacity, falsePositiveRate);
+        building = next;
+        try {
+            LocalDateTime mark = scan(next, EPOCH);
+            filter = next;
+            highWaterMark = mark;
+        } finally {
+            building = null;
+        }
+        log.info("Tracking number index loaded: numbers={}, capacity={}, tookMs={}",
+            next.insertions(), capacity, System.currentTimeMillis() - started);
+    }
+    
+    /**
+     * Add every tracking number created after {@code from}; returns the new high-water mark
+     */
+    private LocalDateTime scan(BloomFilter target, LocalDateTime from) {
+        LocalDateTime createdAt = from;
+        UUID id = MIN_UUID;
+        List<DeliveryRepositoryCustom.TrackingNumberRow> rows;
+        do {
+            rows = deliveryRepository.findTrackingNumbersAfter(createdAt, id, loadBatchSize);
+            for (DeliveryRepositoryCustom.TrackingNumberRow row : rows) {
+                target.put(row.trackingNumber());
+            }
+            if (!rows.isEmpty()) {
+                DeliveryRepositoryCustom.TrackingNumberRow last = rows.get(rows.size() - 1);
+                createdAt = last.createdAt();
+                id = last.deliveryId();
+            }
+        } while (rows.size() == loadBatchSize);
+        
+        return createdAt.isAfter(highWaterMark) ? createdAt : highWaterMark;
+    }
+    
+    /**
+     * @return true if the number was new to the live filter
+     */
+    private boolean add(String trackingNumber) {
+        // Read building first: once it is cleared, filter already points at the rebuilt filter
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        boolean added = current != null && current.put(trackingNumber);
+        if (next != null && next != current) {
+            next.put(trackingNumber);
+        }
+        return added;
+    }
+    
+    private void remember(String trackingNumber, Entry entry) {
+        // Tracking number ownership never changes, so entries only leave to bound memory
+        if (resolved.size() >= cacheSize) {
+            Iterator<String> it = resolved.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        resolved.put(trackingNumber, entry);
+    }
+    
+    private Counter lookupCounter(String result) {
+        return Counter.builder("tracking.index.lookups")
+            .description("Public tracking number lookups by how they were answered")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    public record Entry(UUID tenantId, UUID deliveryId) {}
+}
@@ -0,0 +1,207 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jitter/downsampling filter in front of tracking_history persistence
+ *
+ * <p>A location ping is dropped when, compared to the last accepted point of the delivery:
+ * <ul>
+ *   <li>it is older (out of order),</li>
+ *   <li>it implies a speed above max-speed (GPS jump), or</li>
+ *   <li>it moved less than min-distance or arrived sooner than min-interval,
+ *       unless max-interval has passed (so a parked driver still reports periodically).</li>
+ * </ul>
+ * Pings carrying a status change, or without coordinates, always pass.
+ *
+ * <p>The last accepted point is kept per node and seeded from the delivery's stored position,
+ * so a delivery moving between nodes only loses a little filtering precision. Inside a
+ * transaction an accepted point is the reference for later pings of the same transaction
+ * (a batch) but only becomes the node-wide reference after commit, so a rolled-back ping
+ * does not cause the next one to be dropped as redundant. Past max-tracked-deliveries the least
+ * recently pinged delivery is forgotten and re-seeded from its stored position if it pings again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingPointFilter {
+    
+    private static final String METRIC = "tracking.points";
+    
+    private final ProximityService proximityService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.tracking.filter.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${fulfillment.tracking.filter.min-distance-meters:10}")
+    private double minDistanceMeters;
+    
+    @Value("${fulfillment.tracking.filter.min-interval-ms:5000}")
+    private long minIntervalMs;
+    
+    @Value("${fulfillment.tracking.filter.max-interval-ms:60000}")
+    private long maxIntervalMs;
+    
+    @Value("${fulfillment.tracking.filter.max-speed-mps:70}")
+    private double maxSpeedMps;
+    
+    @Value("${fulfillment.tracking.filter.max-tracked-deliveries:100000}")
+    private int maxTrackedDeliveries;
+    
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+    private LruCache<UUID, AcceptedPoint> lastAccepted;
+    
+    @PostConstruct
+    void init() {
+        lastAccepted = new LruCache<>(maxTrackedDeliveries);
+    }
+    
+    /**
+     * Decide whether a ping should be persisted; accepted pings become the new reference point
+     */
+    public boolean accept(
+        Delivery delivery,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        String status,
+        LocalDateTime recordedAt
+    ) {
+        UUID tenantId = delivery.getTenantId();
+        if (!enabled || status != null || latitude == null || longitude == null) {
+            return accepted(delivery.getId(), tenantId, latitude, longitude, recordedAt);
+        }
+        
+        Map<UUID, AcceptedPoint> pending = pendingInTransaction();
+        AcceptedPoint previous = pending != null && pending.containsKey(delivery.getId())
+            ? pending.get(delivery.getId())
+            : lastAccepted.get(delivery.getId());
+        if (previous == null && delivery.getLatitude() != null && delivery.getLongitude() != null
+            && delivery.getUpdatedAt() != null) {
+            previous = new AcceptedPoint(
+                delivery.getLatitude().doubleValue(),
+                delivery.getLongitude().doubleValue(),
+                delivery.getUpdatedAt(),
+                true
+            );
+        }
+        if (previous == null) {
+            return accepted(delivery.getId(), tenantId, latitude, longitude, recordedAt);
+        }
+        
+        long elapsedMs = Duration.between(previous.recordedAt(), recordedAt).toMillis();
+        double distance = proximityService.calculateDistance(
+            previous.latitude(), previous.longitude(), latitude.doubleValue(), longitude.doubleValue());
+        
+        // A seeded reference is timestamped by the server (any update of the row) while batch
+        // points carry device time, so only the distance rule is applied against it
+        if (previous.seeded()) {
+            elapsedMs = Math.max(elapsedMs, 0);
+        } else if (elapsedMs < 0) {
+            return dropped(tenantId, "out_of_order");
+        }
+        
+        // Teleport check; a zero interval with real movement is also impossible
+        if (!previous.seeded() && distance > minDistanceMeters
+            && (elapsedMs == 0 || distance / (elapsedMs / 1000.0) > maxSpeedMps)) {
+            return dropped(tenantId, "speed");
+        }
+        
+        if (elapsedMs < maxIntervalMs
+            && (distance < minDistanceMeters || (!previous.seeded() && elapsedMs < minIntervalMs))) {
+            return dropped(tenantId, "redundant");
+        }
+        
+        return accepted(delivery.getId(), tenantId, latitude, longitude, recordedAt);
+    }
+    
+    /**
+     * Forget a delivery once it can no longer receive pings
+     */
+    public void evict(UUID deliveryId) {
+        lastAccepted.remove(deliveryId);
+    }
+    
+    private boolean accepted(UUID deliveryId, UUID tenantId, BigDecimal latitude, BigDecimal longitude, LocalDateTime recordedAt) {
+        if (latitude != null && longitude != null) {
+            AcceptedPoint point = new AcceptedPoint(latitude.doubleValue(), longitude.doubleValue(), recordedAt, false);
+            Map<UUID, AcceptedPoint> pending = pendingInTransaction();
+            if (pending != null) {
+                pending.put(deliveryId, point);
+            } else {
+                remember(deliveryId, point);
+            }
+        }
+        counter(tenantId, "accepted", "none").increment();
+        return true;
+    }
+    
+    private void remember(UUID deliveryId, AcceptedPoint point) {
+        lastAccepted.put(deliveryId, point);
+    }
+    
+    /**
+     * Points accepted in the current transaction, applied to lastAccepted after commit;
+     * null outside a transaction
+     */
+    @SuppressWarnings("unchecked")
+    private Map<UUID, AcceptedPoint> pendingInTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<UUID, AcceptedPoint> pending = (Map<UUID, AcceptedPoint>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<UUID, AcceptedPoint> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.forEach(TrackingPointFilter.this::remember);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TrackingPointFilter.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+    
+    private boolean dropped(UUID tenantId, String reason) {
+        counter(tenantId, "dropped", reason).increment();
+        return false;
+    }
+    
+    private Counter counter(UUID tenantId, String result, String reason) {
+        return counters.computeIfAbsent(new CounterKey(tenantId, result, reason), key -> Counter.builder(METRIC)
+            .tag("tenant", tenantId != null ? tenantId.toString() : "unknown")
+            .tag("result", result)
+            .tag("reason", reason)
+            .description("Location pings accepted or dropped by the tracking point filter")
+            .register(meterRegistry));
+    }
+    
+    private record AcceptedPoint(double latitude, double longitude, LocalDateTime recordedAt, boolean seeded) {}
+    
+    private record CounterKey(UUID tenantId, String result, String reason) {}
+}
@@ -1,8 +1,13 @@
 package com.ecom.fulfillment.service;
 
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.model.response.TrackingHistoryPageResponse;
 import com.ecom.fulfillment.model.response.TrackingHistoryResponse;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -14,5 +19,41 @@ public interface TrackingService {
      * Get tracking history for a delivery
      */
     List<TrackingHistoryResponse> getTrackingHistory(UUID deliveryId, UUID tenantId);
+    
+    /**
+     * Get a page of tracking history, newest first, using a (before, beforeId) keyset cursor
+     */
+    TrackingHistoryPageResponse getTrackingHistoryPage(
+        UUID deliveryId,
+        UUID tenantId,
+        LocalDateTime before,
+        UUID beforeId,
+        Integer limit
+    );
+    
+    /**
+     * Get the latest points embedded in delivery/tracking responses (no tenant check, caller verifies)
+     */
+    List<TrackingHistoryResponse> getRecentTrackingHistory(Delivery delivery);
+    
+    /**
+     * Same as {@link #getRecentTrackingHistory(Delivery)} for callers that only hold cached delivery state
+     */
+    List<TrackingHistoryResponse> getRecentTrackingHistory(
+        UUID deliveryId,
+        Delivery.DeliveryStatus status,
+        LocalDateTime deliveryCreatedAt
+    );
+    
+    /**
+     * {@link #getRecentTrackingHistory(Delivery)} for many deliveries with one history query,
+     * keyed by delivery id (for list endpoints)
+     */
+    Map<UUID, List<TrackingHistoryResponse>> getRecentTrackingHistory(Collection<Delivery> deliveries);
+    
+    /**
+     * Fold a completed delivery's tracking history into its compacted trail and delete the rows
+     * @return false if the delivery is not completed or has nothing to compact
+     */
+    boolean compactTrackingHistory(UUID deliveryId);
 }
-
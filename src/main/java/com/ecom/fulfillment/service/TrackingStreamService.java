@@ -0,0 +1,20 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.model.response.TrackingResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * Tracking Stream Service Interface
+ * Live location/status updates for a delivery over Server-Sent Events
+ */
+public interface TrackingStreamService {
+    
+    /**
+     * Subscribe to live tracking updates for a delivery whose tracking number is already resolved.
+     * Sends the snapshot first, or only the missed updates when lastEventId can be resumed; updates
+     * are TrackingResponses without the tracking history.
+     */
+    SseEmitter subscribe(UUID deliveryId, TrackingResponse snapshot, String lastEventId);
+}
@@ -0,0 +1,322 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.TrackingHistory;
+import com.ecom.fulfillment.event.DeliveryStatusUpdatedEvent;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.repository.TrackingHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for location pings (opt-in via fulfillment.tracking.write-behind.enabled)
+ *
+ * <p>Pings are queued in memory and a single background writer flushes them in large batches:
+ * one multi-row INSERT into tracking_history plus one guarded position update per delivery,
+ * in the same transaction. The Delivery row therefore never points at a location that is not
+ * in tracking_history. One DeliveryStatusUpdatedEvent (Kafka) and one DeliveryTrackingChangedEvent
+ * (live streams) per delivery are published after commit.
+ *
+ * <p>When the queue is full, {@link #offer} returns false after a short wait and the caller
+ * writes synchronously (backpressure). Remaining pings are drained on shutdown: offers hold a
+ * read lock while they check running and enqueue, and stop() takes the write lock to clear it,
+ * so every accepted ping is queued before the writer can see the buffer stopped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingWriteBehindBuffer {
+    
+    private static final String DELIVERY_STATUS_UPDATED_TOPIC = "delivery-status-updated";
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+    
+    private final TrackingHistoryRepository trackingHistoryRepository;
+    private final DeliveryRepository deliveryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.tracking.write-behind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${fulfillment.tracking.write-behind.capacity:10000}")
+    private int capacity;
+    
+    @Value("${fulfillment.tracking.write-behind.flush-size:500}")
+    private int flushSize;
+    
+    @Value("${fulfillment.tracking.write-behind.flush-interval-ms:250}")
+    private long flushIntervalMs;
+    
+    @Value("${fulfillment.tracking.write-behind.offer-timeout-ms:20}")
+    private long offerTimeoutMs;
+    
+    @Value("${fulfillment.tracking.write-behind.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+    
+    private BlockingQueue<PendingPing> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+    
+    private Timer flushTimer;
+    private DistributionSummary flushBatchSize;
+    private Counter rejectedCounter;
+    private Counter droppedCounter;
+    
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        
+        queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("tracking.write_behind.queue.depth", queue, BlockingQueue::size)
+            .description("Location pings waiting to be flushed")
+            .register(meterRegistry);
+        flushTimer = Timer.builder("tracking.write_behind.flush")
+            .description("Latency of one write-behind flush (insert + position update)")
+            .register(meterRegistry);
+        flushBatchSize = DistributionSummary.builder("tracking.write_behind.flush.size")
+            .description("Pings written per flush")
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder("tracking.write_behind.rejected")
+            .description("Pings written synchronously because the queue was full")
+            .register(meterRegistry);
+        droppedCounter = Counter.builder("tracking.write_behind.dropped")
+            .description("Pings lost after repeated flush failures")
+            .register(meterRegistry);
+        
+        running = true;
+        writer = new Thread(this::runWriter, "tracking-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        
+        log.info("Tracking write-behind enabled: capacity={}, flushSize={}, flushIntervalMs={}",
+            capacity, flushSize, flushIntervalMs);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Queue a ping for asynchronous persistence
+     * @return false if the buffer is disabled, stopping or still full after the offer timeout;
+     *         the caller must then persist the ping itself
+     */
+    public boolean offer(Delivery delivery, TrackingHistory row) {
+        if (!running) {
+            return false;
+        }
+        
+        PendingPing ping = new PendingPing(
+            delivery.getId(),
+            delivery.getTenantId(),
+            delivery.getFulfillmentId(),
+            delivery.getDriverId(),
+            delivery.getTrackingNumber(),
+            delivery.getStatus(),
+            row
+        );
+        
+        stopLock.readLock().lock();
+        try {
+            if (!running) {
+                return false;
+            }
+            if (queue.offer(ping, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopLock.readLock().unlock();
+        }
+        
+        rejectedCounter.increment();
+        return false;
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (!running) {
+            return;
+        }
+        
+        // Waits for offers in progress; later ones see running == false and write synchronously
+        stopLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        log.info("Draining tracking write-behind buffer: pending={}", queue.size());
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        if (!queue.isEmpty()) {
+            log.error("Tracking write-behind buffer not fully drained on shutdown: remaining={}", queue.size());
+        }
+    }
+    
+    private void runWriter() {
+        List<PendingPing> batch = new ArrayList<>(flushSize);
+        
+        // Keep going after stop() until everything accepted so far is written
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPing first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Collect until the batch is full or the flush interval has elapsed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < flushSize && running) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingPing next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                queue.drainTo(batch, flushSize - batch.size());
+                
+                flushWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!running) {
+                    break;
+                }
+            } catch (Exception e) {
+                log.error("Unexpected error in tracking write-behind writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void flushWithRetry(List<PendingPing> batch) {
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                flush(batch);
+                return;
+            } catch (Exception e) {
+                log.warn("Tracking write-behind flush failed: size={}, attempt={}", batch.size(), attempt, e);
+            }
+        }
+        
+        droppedCounter.increment(batch.size());
+        log.error("Dropping {} tracking pings after {} failed flush attempts", batch.size(), MAX_FLUSH_ATTEMPTS);
+    }
+    
+    private void flush(List<PendingPing> batch) {
+        List<TrackingHistory> rows = new ArrayList<>(batch.size());
+        // Newest ping per delivery, plus how many pings it summarizes
+        Map<UUID, PendingPing> newest = new LinkedHashMap<>();
+        Map<UUID, PendingPing> oldest = new LinkedHashMap<>();
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        for (PendingPing ping : batch) {
+            rows.add(ping.row());
+            newest.merge(ping.deliveryId(), ping,
+                (a, b) -> b.row().getCreatedAt().isBefore(a.row().getCreatedAt()) ? a : b);
+            oldest.putIfAbsent(ping.deliveryId(), ping);
+            counts.merge(ping.deliveryId(), 1, Integer::sum);
+        }
+        
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            trackingHistoryRepository.insertMultiRow(rows);
+            for (PendingPing ping : newest.values()) {
+                TrackingHistory row = ping.row();
+                deliveryRepository.updateLatestPosition(
+                    ping.deliveryId(),
+                    row.getLatitude(),
+                    row.getLongitude(),
+                    row.getLocationDescription(),
+                    row.getCreatedAt()
+                );
+            }
+        }));
+        flushBatchSize.record(rows.size());
+        
+        for (PendingPing ping : newest.values()) {
+            publish(ping, counts.get(ping.deliveryId()), oldest.get(ping.deliveryId()).row().getCreatedAt());
+        }
+    }
+    
+    private void publish(PendingPing ping, int pointCount, LocalDateTime firstPointAt) {
+        try {
+            TrackingHistory row = ping.row();
+            DeliveryStatusUpdatedEvent event = DeliveryStatusUpdatedEvent.ofBatch(
+                ping.deliveryId(),
+                ping.fulfillmentId(),
+                ping.driverId(),
+                ping.status(),
+                row.getLatitude(),
+                row.getLongitude(),
+                row.getCreatedAt(),
+                pointCount,
+                firstPointAt
+            );
+            kafkaTemplate.send(DELIVERY_STATUS_UPDATED_TOPIC, ping.deliveryId().toString(), event);
+            
+            eventPublisher.publishEvent(new DeliveryTrackingChangedEvent(
+                ping.deliveryId(),
+                ping.tenantId(),
+                ping.driverId(),
+                ping.trackingNumber(),
+                ping.status(),
+                row.getLocationDescription(),
+                row.getLatitude(),
+                row.getLongitude(),
+                row.getCreatedAt()
+            ));
+        } catch (Exception e) {
+            log.error("Failed to publish DeliveryStatusUpdated event: deliveryId={}", ping.deliveryId(), e);
+        }
+    }
+    
+    private record PendingPing(
+        UUID deliveryId,
+        UUID tenantId,
+        UUID fulfillmentId,
+        UUID driverId,
+        String trackingNumber,
+        Delivery.DeliveryStatus status,
+        TrackingHistory row
+    ) {}
+}
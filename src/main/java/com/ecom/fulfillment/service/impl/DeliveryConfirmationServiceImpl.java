@@ -4,6 +4,7 @@ import com.ecom.error.exception.BusinessException;
 import com.ecom.error.model.ErrorCode;
 import com.ecom.fulfillment.entity.Delivery;
 import com.ecom.fulfillment.entity.DeliveryConfirmation;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
 import com.ecom.fulfillment.model.request.ConfirmDeliveryRequest;
 import com.ecom.fulfillment.model.response.DeliveryConfirmationResponse;
 import com.ecom.fulfillment.repository.AgeVerificationRepository;
@@ -13,6 +14,7 @@ import com.ecom.fulfillment.service.DeliveryConfirmationService;
 import com.ecom.fulfillment.service.ProximityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +35,7 @@ public class DeliveryConfirmationServiceImpl implements DeliveryConfirmationServ
     private final DeliveryRepository deliveryRepository;
     private final ProximityService proximityService;
     private final AgeVerificationRepository ageVerificationRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     private static final int DEFAULT_PROXIMITY_RADIUS = 50; // meters
     private static final int CONFIRMATION_TIMEOUT_MINUTES = 5;
@@ -229,6 +232,17 @@ public class DeliveryConfirmationServiceImpl implements DeliveryConfirmationServ
         return toResponse(confirmation, canConfirm, timeRemaining, isInProximity);
     }
     
+    @Override
+    @Transactional
+    public void prepareConfirmation(Delivery delivery) {
+        if (confirmationRepository.findByDeliveryId(delivery.getId()).isPresent()) {
+            return;
+        }
+        
+        confirmationRepository.save(createNewConfirmation(delivery, delivery.getTenantId()));
+        log.info("Delivery confirmation opened on arrival: deliveryId={}", delivery.getId());
+    }
+    
     @Override
     @Transactional
     public void processReschedules(UUID tenantId) {
@@ -263,7 +277,9 @@ public class DeliveryConfirmationServiceImpl implements DeliveryConfirmationServ
                 .orElse(null);
             if (delivery != null) {
                 delivery.setStatus(Delivery.DeliveryStatus.RETURNED);
+                delivery.setUpdatedAt(LocalDateTime.now());
                 deliveryRepository.save(delivery);
+                eventPublisher.publishEvent(DeliveryTrackingChangedEvent.of(delivery));
             }
             
             log.info("Auto-returned delivery: deliveryId={}", conf.getDeliveryId());
@@ -302,15 +318,15 @@ public class DeliveryConfirmationServiceImpl implements DeliveryConfirmationServ
         int proximityRadius = delivery.getProximityRadiusMeters() != null ?
             delivery.getProximityRadiusMeters() : DEFAULT_PROXIMITY_RADIUS;
         
-        // Verify proximity between parties (flexible location)
-        ProximityService.ProximityResult result = proximityService.verifyAndRecordLocation(
+        // Verify proximity between parties (flexible location); BigDecimal only when persisting
+        ProximityService.PartiesMeasurement measurement = proximityService.measureParties(
             agentLat, agentLon,
             customerLat, customerLon,
             deliveryLat, deliveryLon,
             proximityRadius
         );
         
-        if (result.partiesInProximity()) {
+        if (measurement.partiesInProximity()) {
             // Check age verification if required
             if (Boolean.TRUE.equals(confirmation.getRequiresAgeVerification())) {
                 // Check if age is verified (for customer OR alternate recipient)
@@ -326,6 +342,7 @@ public class DeliveryConfirmationServiceImpl implements DeliveryConfirmationServ
             }
             
             // Both confirmed and in proximity - DELIVERED
+            ProximityService.ProximityResult result = measurement.toResult();
             confirmation.setProximityVerified(true);
             confirmation.setDistanceBetweenParties(result.distanceBetweenParties());
             confirmation.setDistanceToDeliveryAddress(result.distanceFromScheduled());
@@ -337,7 +354,9 @@ public class DeliveryConfirmationServiceImpl implements DeliveryConfirmationServ
             
             // Update delivery status
             delivery.setStatus(Delivery.DeliveryStatus.DELIVERED);
+            delivery.setUpdatedAt(LocalDateTime.now());
             deliveryRepository.save(delivery);
+            eventPublisher.publishEvent(DeliveryTrackingChangedEvent.of(delivery));
             
             log.info("Delivery completed: deliveryId={}, distance={}m", 
                 delivery.getId(), result.distanceBetweenParties());
@@ -345,7 +364,7 @@ public class DeliveryConfirmationServiceImpl implements DeliveryConfirmationServ
             // Both confirmed but not in proximity - CONFLICT
             confirmation.setConfirmationStatus(DeliveryConfirmation.ConfirmationStatus.CONFLICT);
             log.warn("Delivery conflict: parties not in proximity, distance={}m", 
-                result.distanceBetweenParties());
+                Math.round(measurement.distanceBetweenParties()));
         }
     }
     
@@ -365,7 +384,9 @@ public class DeliveryConfirmationServiceImpl implements DeliveryConfirmationServ
             confirmation.setAutoReturnInitiated(true);
             confirmation.setConfirmationStatus(DeliveryConfirmation.ConfirmationStatus.RETURNED);
             delivery.setStatus(Delivery.DeliveryStatus.RETURNED);
+            delivery.setUpdatedAt(LocalDateTime.now());
             deliveryRepository.save(delivery);
+            eventPublisher.publishEvent(DeliveryTrackingChangedEvent.of(delivery));
             log.info("Auto-returning delivery after {} attempts: deliveryId={}", 
                 rescheduleCount, delivery.getId());
         }
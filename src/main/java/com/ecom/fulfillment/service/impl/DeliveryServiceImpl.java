@@ -6,29 +6,55 @@ import com.ecom.fulfillment.entity.Delivery;
 import com.ecom.fulfillment.entity.Fulfillment;
 import com.ecom.fulfillment.entity.TrackingHistory;
 import com.ecom.fulfillment.event.DeliveryCompletedEvent;
+import com.ecom.fulfillment.event.DeliveryGeofenceEvent;
 import com.ecom.fulfillment.event.DeliveryStatusUpdatedEvent;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.model.request.TrackDeliveryBatchRequest;
 import com.ecom.fulfillment.model.request.TrackDeliveryRequest;
 import com.ecom.fulfillment.model.response.DeliveryResponse;
+import com.ecom.fulfillment.model.response.NearbyDeliveryResponse;
 import com.ecom.fulfillment.model.response.TrackingHistoryResponse;
 import com.ecom.fulfillment.model.response.TrackingResponse;
 import com.ecom.fulfillment.entity.DeliveryProvider;
 import com.ecom.fulfillment.provider.DeliveryProviderService;
+import com.ecom.fulfillment.provider.ProviderCallExecutor;
 import com.ecom.fulfillment.provider.dto.CreateShipmentRequest;
 import com.ecom.fulfillment.provider.dto.CreateShipmentResponse;
 import com.ecom.fulfillment.repository.DeliveryProviderRepository;
 import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.repository.DeliveryRepositoryCustom;
 import com.ecom.fulfillment.repository.FulfillmentRepository;
 import com.ecom.fulfillment.repository.TrackingHistoryRepository;
+import com.ecom.fulfillment.service.DeliveryConfirmationService;
+import com.ecom.fulfillment.service.DeliveryLiveStateCache;
 import com.ecom.fulfillment.service.DeliveryService;
+import com.ecom.fulfillment.service.DriverCapacityTracker;
+import com.ecom.fulfillment.service.ETAService;
+import com.ecom.fulfillment.service.GeofenceEngine;
 import com.ecom.fulfillment.service.ProviderSelectionService;
+import com.ecom.fulfillment.service.TrackingNumberGenerator;
+import com.ecom.fulfillment.service.TrackingPointFilter;
+import com.ecom.fulfillment.service.TrackingService;
+import com.ecom.fulfillment.service.TrackingWriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -45,51 +71,97 @@ public class DeliveryServiceImpl implements DeliveryService {
     private final TrackingHistoryRepository trackingHistoryRepository;
     private final DeliveryProviderRepository providerRepository;
     private final ProviderSelectionService providerSelectionService;
+    private final TrackingService trackingService;
+    private final TrackingWriteBehindBuffer writeBehindBuffer;
+    private final DeliveryLiveStateCache liveStateCache;
+    private final TrackingPointFilter trackingPointFilter;
+    private final TrackingNumberGenerator trackingNumberGenerator;
+    private final GeofenceEngine geofenceEngine;
+    private final ETAService etaService;
+    private final DeliveryConfirmationService deliveryConfirmationService;
+    private final DriverCapacityTracker capacityTracker;
+    private final ProviderCallExecutor providerCallExecutor;
+    private final TransactionTemplate transactionTemplate;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
     
     private static final String DELIVERY_STATUS_UPDATED_TOPIC = "delivery-status-updated";
     private static final String DELIVERY_COMPLETED_TOPIC = "delivery-completed";
+    private static final String DELIVERY_GEOFENCE_TOPIC = "delivery-geofence";
+    // Statuses whose history may live in a compacted tracking trail
+    private static final Set<Delivery.DeliveryStatus> TRAIL_STATUSES =
+        EnumSet.of(Delivery.DeliveryStatus.DELIVERED, Delivery.DeliveryStatus.RETURNED);
+    
+    @Value("${fulfillment.tracking.recent-history-limit:20}")
+    private int recentHistoryLimit;
+    
+    @Value("${fulfillment.tracking.projection-read.enabled:true}")
+    private boolean projectionReadEnabled;
+    
+    @Value("${fulfillment.deliveries.nearby.default-radius-meters:5000}")
+    private double defaultNearbyRadiusMeters;
+    
+    @Value("${fulfillment.deliveries.nearby.max-radius-meters:50000}")
+    private double maxNearbyRadiusMeters;
+    
+    @Value("${fulfillment.deliveries.nearby.default-limit:50}")
+    private int defaultNearbyLimit;
+    
+    @Value("${fulfillment.deliveries.nearby.max-limit:500}")
+    private int maxNearbyLimit;
     
     @Override
     @Transactional
     public DeliveryResponse trackDelivery(UUID deliveryId, UUID driverId, UUID tenantId, TrackDeliveryRequest request) {
         log.info("Tracking delivery: deliveryId={}, driverId={}", deliveryId, driverId);
         
-        Delivery delivery = deliveryRepository.findById(deliveryId)
-            .orElseThrow(() -> new BusinessException(
-                ErrorCode.RESOURCE_NOT_FOUND,
-                "Delivery not found: " + deliveryId
-            ));
+        Delivery delivery = loadTrackableDelivery(deliveryId, driverId, tenantId);
+        LocalDateTime now = LocalDateTime.now();
         
-        // Verify tenant
-        if (!delivery.getTenantId().equals(tenantId)) {
-            throw new BusinessException(
-                ErrorCode.ACCESS_DENIED,
-                "Delivery belongs to different tenant"
-            );
+        // Parked/jittering pings are not worth a row, an event and a transaction
+        if (!trackingPointFilter.accept(delivery, request.latitude(), request.longitude(), request.status(), now)) {
+            log.debug("Location ping filtered: deliveryId={}", deliveryId);
+            return toResponse(delivery);
         }
         
-        // Verify driver (only for own fleet deliveries)
-        if (delivery.getDeliveryType() == Delivery.DeliveryType.OWN_FLEET) {
-            if (delivery.getDriverId() == null || !delivery.getDriverId().equals(driverId)) {
-                throw new BusinessException(
-                    ErrorCode.ACCESS_DENIED,
-                    "Delivery is not assigned to this driver"
-                );
+        // An explicit status first, then whatever fence crossings imply on top of it
+        List<GeofenceEngine.Transition> transitions =
+            geofenceEngine.evaluate(delivery, request.latitude(), request.longitude(), now);
+        Delivery.DeliveryStatus requested = request.status() != null
+            ? Delivery.DeliveryStatus.valueOf(request.status())
+            : delivery.getStatus();
+        Delivery.DeliveryStatus newStatus = GeofenceEngine.statusAfter(requested, transitions);
+        String statusChange = request.status() != null || newStatus != delivery.getStatus() ? newStatus.name() : null;
+        
+        // Plain location pings go through the write-behind buffer when enabled;
+        // status changes and fence crossings are always written synchronously
+        if (request.status() == null && transitions.isEmpty() && writeBehindBuffer.isEnabled()) {
+            TrackingHistory pending = TrackingHistory.builder()
+                .deliveryId(delivery.getId())
+                .latitude(request.latitude())
+                .longitude(request.longitude())
+                .locationDescription(request.locationDescription())
+                .updatedBy(driverId)
+                .createdAt(now)
+                .build();
+            if (writeBehindBuffer.offer(delivery, pending)) {
+                log.debug("Delivery location queued: deliveryId={}", deliveryId);
+                return toResponse(delivery, delivery.getStatus(), request.locationDescription(),
+                    request.latitude(), request.longitude(), now);
             }
-        } else {
-            // For third-party providers, tracking is handled via webhooks/sync
-            log.warn("Attempting to track third-party delivery manually: deliveryId={}", deliveryId);
+            log.debug("Write-behind buffer full, writing synchronously: deliveryId={}", deliveryId);
         }
         
         // Update delivery location
         delivery.setCurrentLocation(request.locationDescription());
         delivery.setLatitude(request.latitude());
         delivery.setLongitude(request.longitude());
-        if (request.status() != null) {
-            delivery.setStatus(Delivery.DeliveryStatus.valueOf(request.status()));
+        if (statusChange != null) {
+            delivery.setStatus(newStatus);
         }
-        delivery.setUpdatedAt(LocalDateTime.now());
+        delivery.setUpdatedAt(now);
+        prepareArrival(delivery, transitions);
         
         // Create tracking history entry
         TrackingHistory trackingHistory = TrackingHistory.builder()
@@ -97,18 +169,21 @@ public class DeliveryServiceImpl implements DeliveryService {
             .latitude(request.latitude())
             .longitude(request.longitude())
             .locationDescription(request.locationDescription())
-            .status(request.status())
+            .status(statusChange)
             .updatedBy(driverId)
-            .createdAt(LocalDateTime.now())
+            .createdAt(now)
             .build();
         
+        // Persist through the owning side only; never touch delivery.getTrackingHistory() on the write path
         trackingHistoryRepository.save(trackingHistory);
-        delivery.getTrackingHistory().add(trackingHistory);
         
         Delivery savedDelivery = deliveryRepository.save(delivery);
         
         log.info("Delivery location updated: deliveryId={}", deliveryId);
         
+        // Live tracking streams are notified after commit
+        eventPublisher.publishEvent(DeliveryTrackingChangedEvent.of(savedDelivery));
+        
         // Publish DeliveryStatusUpdated event
         try {
             DeliveryStatusUpdatedEvent event = DeliveryStatusUpdatedEvent.of(
@@ -124,6 +199,100 @@ public class DeliveryServiceImpl implements DeliveryService {
         } catch (Exception e) {
             log.error("Failed to publish DeliveryStatusUpdated event: deliveryId={}", savedDelivery.getId(), e);
         }
+        publishGeofenceEvents(savedDelivery, transitions);
+        
+        return toResponse(savedDelivery);
+    }
+    
+    @Override
+    @Transactional
+    public DeliveryResponse trackDeliveryBatch(
+        UUID deliveryId,
+        UUID driverId,
+        UUID tenantId,
+        TrackDeliveryBatchRequest request
+    ) {
+        List<TrackDeliveryBatchRequest.TrackingPoint> points = request.points();
+        log.info("Tracking delivery batch: deliveryId={}, driverId={}, points={}", deliveryId, driverId, points.size());
+        
+        Delivery delivery = loadTrackableDelivery(deliveryId, driverId, tenantId);
+        
+        // Build all accepted history rows up front and write them with one JDBC batch
+        LocalDateTime now = LocalDateTime.now();
+        List<TrackingHistory> rows = new ArrayList<>(points.size());
+        Delivery.DeliveryStatus latestStatus = null;
+        List<GeofenceEngine.Transition> transitions = new ArrayList<>();
+        TrackDeliveryBatchRequest.TrackingPoint newest = null;
+        for (TrackDeliveryBatchRequest.TrackingPoint point : points) {
+            LocalDateTime recordedAt = point.recordedAt() != null ? point.recordedAt() : now;
+            if (!trackingPointFilter.accept(delivery, point.latitude(), point.longitude(), point.status(), recordedAt)) {
+                continue;
+            }
+            
+            // The status a point carries is its explicit one or the one its fence crossings imply
+            List<GeofenceEngine.Transition> crossed =
+                geofenceEngine.evaluate(delivery, point.latitude(), point.longitude(), recordedAt);
+            transitions.addAll(crossed);
+            Delivery.DeliveryStatus current = latestStatus != null ? latestStatus : delivery.getStatus();
+            Delivery.DeliveryStatus pointStatus = GeofenceEngine.statusAfter(
+                point.status() != null ? Delivery.DeliveryStatus.valueOf(point.status()) : current, crossed);
+            String statusChange = point.status() != null || pointStatus != current ? pointStatus.name() : null;
+            if (statusChange != null) {
+                latestStatus = pointStatus;
+            }
+            newest = point;
+            rows.add(TrackingHistory.builder()
+                .deliveryId(deliveryId)
+                .latitude(point.latitude())
+                .longitude(point.longitude())
+                .locationDescription(point.locationDescription())
+                .status(statusChange)
+                .updatedBy(driverId)
+                .createdAt(recordedAt)
+                .build());
+        }
+        
+        if (rows.isEmpty()) {
+            log.debug("All batch points filtered: deliveryId={}, points={}", deliveryId, points.size());
+            return toResponse(delivery);
+        }
+        
+        trackingHistoryRepository.batchInsert(rows);
+        
+        // Update delivery once with the newest accepted point
+        delivery.setCurrentLocation(newest.locationDescription());
+        delivery.setLatitude(newest.latitude());
+        delivery.setLongitude(newest.longitude());
+        if (latestStatus != null) {
+            delivery.setStatus(latestStatus);
+        }
+        delivery.setUpdatedAt(now);
+        prepareArrival(delivery, transitions);
+        
+        Delivery savedDelivery = deliveryRepository.save(delivery);
+        
+        log.info("Delivery location batch recorded: deliveryId={}, points={}", deliveryId, rows.size());
+        
+        eventPublisher.publishEvent(DeliveryTrackingChangedEvent.of(savedDelivery));
+        
+        // Publish a single DeliveryStatusUpdated event summarizing the batch
+        try {
+            DeliveryStatusUpdatedEvent event = DeliveryStatusUpdatedEvent.ofBatch(
+                savedDelivery.getId(),
+                savedDelivery.getFulfillmentId(),
+                savedDelivery.getDriverId(),
+                savedDelivery.getStatus(),
+                savedDelivery.getLatitude(),
+                savedDelivery.getLongitude(),
+                savedDelivery.getUpdatedAt(),
+                rows.size(),
+                rows.get(0).getCreatedAt()
+            );
+            kafkaTemplate.send(DELIVERY_STATUS_UPDATED_TOPIC, savedDelivery.getId().toString(), event);
+        } catch (Exception e) {
+            log.error("Failed to publish DeliveryStatusUpdated event: deliveryId={}", savedDelivery.getId(), e);
+        }
+        publishGeofenceEvents(savedDelivery, transitions);
         
         return toResponse(savedDelivery);
     }
@@ -133,6 +302,85 @@ public class DeliveryServiceImpl implements DeliveryService {
     public TrackingResponse getTracking(String trackingNumber, UUID tenantId) {
         log.debug("Getting tracking info: trackingNumber={}", trackingNumber);
         
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String path = "cache";
+        try {
+            // Hot path: live state from Redis, only the recent points come from the database
+            Optional<DeliveryLiveStateCache.LiveState> cached = liveStateCache.findByTrackingNumber(trackingNumber)
+                .filter(state -> state.tenantId().equals(tenantId));
+            if (cached.isPresent()) {
+                DeliveryLiveStateCache.LiveState state = cached.get();
+                return new TrackingResponse(
+                    trackingNumber,
+                    state.orderId(),
+                    state.status(),
+                    state.currentLocation(),
+                    state.latitude(),
+                    state.longitude(),
+                    state.estimatedDelivery(),
+                    trackingService.getRecentTrackingHistory(state.deliveryId(), state.status(), state.createdAt()),
+                    state.updatedAt(),
+                    etaService.getResponseETA(state.deliveryId(), tenantId, state.status())
+                );
+            }
+            
+            if (projectionReadEnabled) {
+                path = "projection";
+                return getTrackingFromProjection(trackingNumber, tenantId);
+            }
+            path = "entity";
+            return getTrackingFromEntities(trackingNumber, tenantId);
+        } finally {
+            sample.stop(meterRegistry.timer("tracking.lookup", "path", path));
+        }
+    }
+    
+    /**
+     * One round trip: delivery, fulfillment and latest points mapped straight into the response
+     */
+    private TrackingResponse getTrackingFromProjection(String trackingNumber, UUID tenantId) {
+        DeliveryRepositoryCustom.TrackingView view = deliveryRepository
+            .findTrackingView(trackingNumber, tenantId, recentHistoryLimit)
+            .orElseThrow(() -> new BusinessException(
+                ErrorCode.RESOURCE_NOT_FOUND,
+                "Tracking not found for number: " + trackingNumber
+            ));
+        
+        liveStateCache.put(new DeliveryLiveStateCache.LiveState(
+            view.deliveryId(),
+            view.tenantId(),
+            view.trackingNumber(),
+            view.orderId(),
+            view.status(),
+            view.currentLocation(),
+            view.latitude(),
+            view.longitude(),
+            view.estimatedDelivery(),
+            view.createdAt(),
+            view.updatedAt()
+        ));
+        
+        // Completed deliveries may have been compacted into a trail, which the projection does not read
+        List<TrackingHistoryResponse> history = view.recentHistory();
+        if (history.size() < recentHistoryLimit && TRAIL_STATUSES.contains(view.status())) {
+            history = trackingService.getRecentTrackingHistory(view.deliveryId(), view.status(), view.createdAt());
+        }
+        
+        return new TrackingResponse(
+            view.trackingNumber(),
+            view.orderId(),
+            view.status(),
+            view.currentLocation(),
+            view.latitude(),
+            view.longitude(),
+            view.estimatedDelivery(),
+            history,
+            view.updatedAt(),
+            etaService.getResponseETA(view.deliveryId(), view.tenantId(), view.status())
+        );
+    }
+    
+    private TrackingResponse getTrackingFromEntities(String trackingNumber, UUID tenantId) {
         Delivery delivery = deliveryRepository.findByTrackingNumberAndTenantId(trackingNumber, tenantId)
             .orElseThrow(() -> new BusinessException(
                 ErrorCode.RESOURCE_NOT_FOUND,
@@ -145,20 +393,10 @@ public class DeliveryServiceImpl implements DeliveryService {
                 "Fulfillment not found: " + delivery.getFulfillmentId()
             ));
         
-        List<TrackingHistoryResponse> history = trackingHistoryRepository
-            .findByDeliveryIdOrderByCreatedAtDesc(delivery.getId())
-            .stream()
-            .map(th -> new TrackingHistoryResponse(
-                th.getId(),
-                th.getDeliveryId(),
-                th.getLatitude(),
-                th.getLongitude(),
-                th.getLocationDescription(),
-                th.getStatus(),
-                th.getUpdatedBy(),
-                th.getCreatedAt()
-            ))
-            .collect(Collectors.toList());
+        liveStateCache.put(delivery, fulfillment);
+        
+        // Latest points only; older history is served by the paginated history endpoint
+        List<TrackingHistoryResponse> history = trackingService.getRecentTrackingHistory(delivery);
         
         return new com.ecom.fulfillment.model.response.TrackingResponse(
             delivery.getTrackingNumber(),
@@ -169,10 +407,25 @@ public class DeliveryServiceImpl implements DeliveryService {
             delivery.getLongitude(),
             fulfillment.getEstimatedDelivery(),
             history,
-            delivery.getUpdatedAt()
+            delivery.getUpdatedAt(),
+            etaService.getResponseETA(delivery)
         );
     }
     
+    @Override
+    public Optional<LocalDateTime> getTrackingVersion(String trackingNumber, UUID tenantId) {
+        // Same source order as getTracking, so the version never runs ahead of the response
+        Optional<LocalDateTime> cached = liveStateCache.findByTrackingNumber(trackingNumber)
+            .filter(state -> state.tenantId().equals(tenantId))
+            .map(DeliveryLiveStateCache.LiveState::updatedAt);
+        return cached.isPresent() ? cached : deliveryRepository.findVersionByTrackingNumber(trackingNumber, tenantId);
+    }
+    
+    @Override
+    public Optional<LocalDateTime> getDeliveryVersion(UUID deliveryId, UUID tenantId) {
+        return deliveryRepository.findVersion(deliveryId, tenantId);
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public DeliveryResponse getDeliveryById(UUID deliveryId, UUID tenantId, List<String> userRoles) {
@@ -237,6 +490,8 @@ public class DeliveryServiceImpl implements DeliveryService {
                 "Fulfillment not found: " + delivery.getFulfillmentId()
             ));
         
+        capacityTracker.onStatusChange(
+            fulfillment.getAssignedDriverId(), fulfillment.getStatus(), Fulfillment.FulfillmentStatus.DELIVERED);
         fulfillment.setStatus(Fulfillment.FulfillmentStatus.DELIVERED);
         fulfillment.setActualDelivery(LocalDateTime.now());
         fulfillment.setUpdatedAt(LocalDateTime.now());
@@ -244,6 +499,10 @@ public class DeliveryServiceImpl implements DeliveryService {
         
         log.info("Delivery completed: deliveryId={}", deliveryId);
         
+        trackingPointFilter.evict(deliveryId);
+        
+        eventPublisher.publishEvent(DeliveryTrackingChangedEvent.of(savedDelivery));
+        
         // Publish DeliveryCompleted event
         try {
             DeliveryCompletedEvent event = DeliveryCompletedEvent.of(
@@ -261,17 +520,69 @@ public class DeliveryServiceImpl implements DeliveryService {
         return toResponse(savedDelivery);
     }
     
+    @Override
+    public List<NearbyDeliveryResponse> getNearbyDeliveries(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        Double radiusMeters,
+        Integer limit,
+        Delivery.DeliveryStatus status
+    ) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BusinessException(
+                ErrorCode.INVALID_REQUEST,
+                "Invalid coordinates: lat=" + latitude + ", lon=" + longitude
+            );
+        }
+        
+        double radius = radiusMeters == null ? defaultNearbyRadiusMeters : radiusMeters;
+        if (radius <= 0 || radius > maxNearbyRadiusMeters) {
+            throw new BusinessException(
+                ErrorCode.INVALID_REQUEST,
+                "Radius must be between 0 and " + maxNearbyRadiusMeters + " meters"
+            );
+        }
+        int max = limit == null ? defaultNearbyLimit : Math.max(1, Math.min(limit, maxNearbyLimit));
+        
+        return deliveryRepository.findNearby(
+                tenantId, latitude, longitude, radius, status != null ? EnumSet.of(status) : null, max)
+            .stream()
+            .map(row -> new NearbyDeliveryResponse(
+                row.id(),
+                row.trackingNumber(),
+                row.driverId(),
+                row.status(),
+                row.latitude(),
+                row.longitude(),
+                Math.round(row.distanceMeters() * 10) / 10.0,
+                row.updatedAt()
+            ))
+            .collect(Collectors.toList());
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public List<DeliveryResponse> getDeliveriesByDriver(UUID driverId, UUID tenantId) {
-        return deliveryRepository.findByDriverIdAndTenantIdAndStatus(driverId, tenantId, null)
-            .stream()
-            .map(this::toResponse)
+        List<Delivery> deliveries = deliveryRepository.findByDriverIdAndTenantIdAndStatus(driverId, tenantId, null);
+        
+        // Position/status from the live state cache when it is at least as recent as the row
+        Map<UUID, DeliveryLiveStateCache.LiveState> live = liveStateCache.findAll(
+            deliveries.stream().map(Delivery::getId).toList());
+        // Recent points of all deliveries in one query instead of one per delivery
+        Map<UUID, List<TrackingHistoryResponse>> history = trackingService.getRecentTrackingHistory(deliveries);
+        
+        return deliveries.stream()
+            .map(delivery -> toResponse(delivery, live.get(delivery.getId()), history.get(delivery.getId())))
             .collect(Collectors.toList());
     }
     
+    /**
+     * Load, call, persist: the provider is called between two short transactions so no
+     * connection is held while waiting on it. The delivery and the fulfillment's ASSIGNED status
+     * are written in the same transaction; if it fails, the provider shipment is cancelled.
+     */
     @Override
-    @Transactional
     public DeliveryResponse createDeliveryWithProvider(
         UUID fulfillmentId, 
         UUID tenantId, 
@@ -281,6 +592,170 @@ public class DeliveryServiceImpl implements DeliveryService {
         log.info("Creating delivery with provider: fulfillmentId={}, providerCode={}, isIntercity={}", 
             fulfillmentId, providerCode, isIntercity);
         
+        // Load: validate and build the shipment request
+        ShipmentPlan plan = transactionTemplate.execute(status -> {
+            Fulfillment fulfillment = loadTenantFulfillment(fulfillmentId, tenantId);
+            
+            // Select provider
+            DeliveryProvider provider = providerSelectionService.selectProvider(
+                tenantId, isIntercity, providerCode
+            );
+            
+            // Create shipment request (TODO: Get address details from AddressBook service)
+            CreateShipmentRequest shipmentRequest = new CreateShipmentRequest(
+                fulfillment.getOrderId(),
+                fulfillmentId,
+                tenantId,
+                null,  // TODO: Get pickup address
+                null,  // TODO: Get delivery address
+                null,  // TODO: Get package details
+                null,  // TODO: Get COD amount
+                isIntercity ? "INTERCITY" : "INTRACITY"
+            );
+            return new ShipmentPlan(provider, shipmentRequest);
+        });
+        
+        // Call: create shipment with provider, outside any transaction
+        String code = plan.provider().getProviderCode().name();
+        DeliveryProviderService providerService = providerSelectionService.getProviderService(code);
+        CreateShipmentResponse shipmentResponse = ProviderCallExecutor.await(providerCallExecutor.call(
+            code, "create_shipment", () -> providerService.createShipmentAsync(plan.request())));
+        
+        // Persist: create delivery record
+        DeliveryResponse response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                Fulfillment fulfillment = loadTenantFulfillment(fulfillmentId, tenantId);
+                
+                Delivery delivery = Delivery.builder()
+                    .fulfillment(fulfillment)
+                    .deliveryType(plan.provider().getProviderCode() == DeliveryProvider.ProviderCode.OWN_FLEET 
+                        ? Delivery.DeliveryType.OWN_FLEET 
+                        : Delivery.DeliveryType.THIRD_PARTY)
+                    .driverId(null)  // Will be set for OWN_FLEET
+                    .provider(plan.provider())
+                    .providerTrackingId(shipmentResponse.providerTrackingId())
+                    .tenantId(tenantId)
+                    .status(Delivery.DeliveryStatus.ASSIGNED)
+                    .trackingNumber(trackingNumberGenerator.next(tenantId))
+                    .providerStatus(shipmentResponse.status())
+                    .createdAt(LocalDateTime.now())
+                    .build();
+                
+                Delivery savedDelivery = deliveryRepository.save(delivery);
+                
+                fulfillment.setStatus(Fulfillment.FulfillmentStatus.ASSIGNED);
+                fulfillment.setUpdatedAt(LocalDateTime.now());
+                fulfillmentRepository.save(fulfillment);
+                
+                // Registers the tracking number for public lookups (index, live state cache)
+                eventPublisher.publishEvent(DeliveryTrackingChangedEvent.of(savedDelivery));
+                return toResponse(savedDelivery);
+            });
+        } catch (RuntimeException e) {
+            // The provider already holds the shipment; cancel it rather than leave it orphaned
+            log.error("Delivery not saved after provider shipment, cancelling: fulfillmentId={}, providerTrackingId={}", 
+                fulfillmentId, shipmentResponse.providerTrackingId(), e);
+            if (shipmentResponse.providerTrackingId() != null) {
+                providerCallExecutor.call(code, "cancel_shipment",
+                        () -> providerService.cancelShipmentAsync(shipmentResponse.providerTrackingId()))
+                    .exceptionally(cancelError -> {
+                        log.error("Orphaned provider shipment: provider={}, providerTrackingId={}", 
+                            code, shipmentResponse.providerTrackingId(), cancelError);
+                        return null;
+                    });
+            }
+            throw e;
+        }
+        
+        log.info("Delivery created with provider: deliveryId={}, providerTrackingId={}", 
+            response.id(), shipmentResponse.providerTrackingId());
+        
+        return response;
+    }
+    
+    /**
+     * Load, call, persist, as in {@link #createDeliveryWithProvider}
+     */
+    @Override
+    public DeliveryResponse syncTrackingFromProvider(UUID deliveryId, UUID tenantId) {
+        log.info("Syncing tracking from provider: deliveryId={}", deliveryId);
+        
+        // Load: resolve the provider and its tracking ID
+        TrackingTarget target = transactionTemplate.execute(status -> {
+            Delivery delivery = loadTenantDelivery(deliveryId, tenantId);
+            
+            if (delivery.getDeliveryType() == Delivery.DeliveryType.OWN_FLEET) {
+                log.debug("Own fleet delivery, tracking handled internally");
+                return new TrackingTarget(null, null, toResponse(delivery));
+            }
+            
+            if (delivery.getProviderTrackingId() == null) {
+                throw new BusinessException(
+                    ErrorCode.INVALID_OPERATION,
+                    "No provider tracking ID found"
+                );
+            }
+            return new TrackingTarget(delivery.getProvider().getProviderCode().name(), delivery.getProviderTrackingId(), null);
+        });
+        if (target.ownFleet() != null) {
+            return target.ownFleet();
+        }
+        
+        // Call: get tracking from provider, outside any transaction
+        DeliveryProviderService providerService = providerSelectionService.getProviderService(target.providerCode());
+        com.ecom.fulfillment.provider.dto.TrackingResponse providerTracking = ProviderCallExecutor.await(
+            providerCallExecutor.call(target.providerCode(), "get_tracking",
+                () -> providerService.getTrackingAsync(target.providerTrackingId())));
+        
+        // Persist: apply the provider state to a freshly loaded row
+        return transactionTemplate.execute(status -> {
+            Delivery delivery = loadTenantDelivery(deliveryId, tenantId);
+            
+            // Update delivery with provider status
+            delivery.setProviderStatus(providerTracking.status());
+            delivery.setCurrentLocation(providerTracking.currentLocation());
+            delivery.setLatitude(providerTracking.latitude());
+            delivery.setLongitude(providerTracking.longitude());
+            
+            // Map provider status to our status
+            if (providerTracking.status() != null) {
+                try {
+                    delivery.setStatus(Delivery.DeliveryStatus.valueOf(providerTracking.status()));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Unknown provider status: {}", providerTracking.status());
+                }
+            }
+            
+            delivery.setUpdatedAt(LocalDateTime.now());
+            
+            // Create tracking history entry
+            if (providerTracking.trackingEvents() != null && !providerTracking.trackingEvents().isEmpty()) {
+                var latestEvent = providerTracking.trackingEvents().get(0);
+                TrackingHistory trackingHistory = TrackingHistory.builder()
+                    .delivery(delivery)
+                    .latitude(providerTracking.latitude())
+                    .longitude(providerTracking.longitude())
+                    .locationDescription(latestEvent.location())
+                    .status(latestEvent.status())
+                    .updatedBy(null)  // Provider update
+                    .createdAt(latestEvent.eventTime() != null ? latestEvent.eventTime() : LocalDateTime.now())
+                    .build();
+                trackingHistoryRepository.save(trackingHistory);
+            }
+            
+            Delivery savedDelivery = deliveryRepository.save(delivery);
+            
+            log.info("Tracking synced from provider: deliveryId={}, status={}", 
+                savedDelivery.getId(), providerTracking.status());
+            
+            eventPublisher.publishEvent(DeliveryTrackingChangedEvent.of(savedDelivery));
+            
+            return toResponse(savedDelivery);
+        });
+    }
+    
+    private Fulfillment loadTenantFulfillment(UUID fulfillmentId, UUID tenantId) {
         Fulfillment fulfillment = fulfillmentRepository.findById(fulfillmentId)
             .orElseThrow(() -> new BusinessException(
                 ErrorCode.RESOURCE_NOT_FOUND,
@@ -293,60 +768,10 @@ public class DeliveryServiceImpl implements DeliveryService {
                 "Fulfillment belongs to different tenant"
             );
         }
-        
-        // Select provider
-        DeliveryProvider provider = providerSelectionService.selectProvider(
-            tenantId, isIntercity, providerCode
-        );
-        
-        DeliveryProviderService providerService = providerSelectionService.getProviderService(
-            provider.getProviderCode().name()
-        );
-        
-        // Create shipment request (TODO: Get address details from AddressBook service)
-        CreateShipmentRequest shipmentRequest = new CreateShipmentRequest(
-            fulfillment.getOrderId(),
-            fulfillmentId,
-            tenantId,
-            null,  // TODO: Get pickup address
-            null,  // TODO: Get delivery address
-            null,  // TODO: Get package details
-            null,  // TODO: Get COD amount
-            isIntercity ? "INTERCITY" : "INTRACITY"
-        );
-        
-        // Create shipment with provider
-        CreateShipmentResponse shipmentResponse = providerService.createShipment(shipmentRequest);
-        
-        // Create delivery record
-        Delivery delivery = Delivery.builder()
-            .fulfillment(fulfillment)
-            .deliveryType(provider.getProviderCode() == DeliveryProvider.ProviderCode.OWN_FLEET 
-                ? Delivery.DeliveryType.OWN_FLEET 
-                : Delivery.DeliveryType.THIRD_PARTY)
-            .driverId(null)  // Will be set for OWN_FLEET
-            .provider(provider)
-            .providerTrackingId(shipmentResponse.providerTrackingId())
-            .tenantId(tenantId)
-            .status(Delivery.DeliveryStatus.ASSIGNED)
-            .trackingNumber("TRK-" + fulfillmentId.toString().substring(0, 8).toUpperCase())
-            .providerStatus(shipmentResponse.status())
-            .createdAt(LocalDateTime.now())
-            .build();
-        
-        Delivery savedDelivery = deliveryRepository.save(delivery);
-        
-        log.info("Delivery created with provider: deliveryId={}, providerTrackingId={}", 
-            savedDelivery.getId(), shipmentResponse.providerTrackingId());
-        
-        return toResponse(savedDelivery);
+        return fulfillment;
     }
     
-    @Override
-    @Transactional
-    public DeliveryResponse syncTrackingFromProvider(UUID deliveryId, UUID tenantId) {
-        log.info("Syncing tracking from provider: deliveryId={}", deliveryId);
-        
+    private Delivery loadTenantDelivery(UUID deliveryId, UUID tenantId) {
         Delivery delivery = deliveryRepository.findById(deliveryId)
             .orElseThrow(() -> new BusinessException(
                 ErrorCode.RESOURCE_NOT_FOUND,
@@ -359,95 +784,146 @@ public class DeliveryServiceImpl implements DeliveryService {
                 "Delivery belongs to different tenant"
             );
         }
+        return delivery;
+    }
+    
+    /**
+     * Load a delivery for a location update and verify tenant and driver assignment
+     */
+    private Delivery loadTrackableDelivery(UUID deliveryId, UUID driverId, UUID tenantId) {
+        Delivery delivery = deliveryRepository.findById(deliveryId)
+            .orElseThrow(() -> new BusinessException(
+                ErrorCode.RESOURCE_NOT_FOUND,
+                "Delivery not found: " + deliveryId
+            ));
         
-        if (delivery.getDeliveryType() == Delivery.DeliveryType.OWN_FLEET) {
-            log.debug("Own fleet delivery, tracking handled internally");
-            return toResponse(delivery);
-        }
-        
-        if (delivery.getProviderTrackingId() == null) {
+        // Verify tenant
+        if (!delivery.getTenantId().equals(tenantId)) {
             throw new BusinessException(
-                ErrorCode.INVALID_OPERATION,
-                "No provider tracking ID found"
+                ErrorCode.ACCESS_DENIED,
+                "Delivery belongs to different tenant"
             );
         }
         
-        // Get provider service
-        DeliveryProviderService providerService = providerSelectionService.getProviderService(
-            delivery.getProvider().getProviderCode().name()
-        );
-        
-        // Get tracking from provider
-        com.ecom.fulfillment.provider.dto.TrackingResponse providerTracking = providerService.getTracking(
-            delivery.getProviderTrackingId()
-        );
-        
-        // Update delivery with provider status
-        delivery.setProviderStatus(providerTracking.status());
-        delivery.setCurrentLocation(providerTracking.currentLocation());
-        delivery.setLatitude(providerTracking.latitude());
-        delivery.setLongitude(providerTracking.longitude());
-        
-        // Map provider status to our status
-        if (providerTracking.status() != null) {
-            try {
-                delivery.setStatus(Delivery.DeliveryStatus.valueOf(providerTracking.status()));
-            } catch (IllegalArgumentException e) {
-                log.warn("Unknown provider status: {}", providerTracking.status());
+        // Verify driver (only for own fleet deliveries)
+        if (delivery.getDeliveryType() == Delivery.DeliveryType.OWN_FLEET) {
+            if (delivery.getDriverId() == null || !delivery.getDriverId().equals(driverId)) {
+                throw new BusinessException(
+                    ErrorCode.ACCESS_DENIED,
+                    "Delivery is not assigned to this driver"
+                );
             }
+        } else {
+            // For third-party providers, tracking is handled via webhooks/sync
+            log.warn("Attempting to track third-party delivery manually: deliveryId={}", deliveryId);
         }
         
-        delivery.setUpdatedAt(LocalDateTime.now());
-        
-        // Create tracking history entry
-        if (providerTracking.trackingEvents() != null && !providerTracking.trackingEvents().isEmpty()) {
-            var latestEvent = providerTracking.trackingEvents().get(0);
-            TrackingHistory trackingHistory = TrackingHistory.builder()
-                .delivery(delivery)
-                .latitude(providerTracking.latitude())
-                .longitude(providerTracking.longitude())
-                .locationDescription(latestEvent.location())
-                .status(latestEvent.status())
-                .updatedBy(null)  // Provider update
-                .createdAt(latestEvent.eventTime() != null ? latestEvent.eventTime() : LocalDateTime.now())
-                .build();
-            trackingHistoryRepository.save(trackingHistory);
+        return delivery;
+    }
+    
+    /**
+     * Reaching the delivery address opens the dual confirmation so both parties can confirm right away
+     */
+    private void prepareArrival(Delivery delivery, List<GeofenceEngine.Transition> transitions) {
+        for (GeofenceEngine.Transition transition : transitions) {
+            if (transition.fence() == GeofenceEngine.FenceType.DROPOFF
+                && transition.direction() == GeofenceEngine.Direction.ENTER) {
+                deliveryConfirmationService.prepareConfirmation(delivery);
+                log.info("Driver arrived at delivery address: deliveryId={}", delivery.getId());
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Fence crossings go to Kafka for customer notifications ("driver has arrived")
+     */
+    private void publishGeofenceEvents(Delivery delivery, List<GeofenceEngine.Transition> transitions) {
+        for (GeofenceEngine.Transition transition : transitions) {
+            try {
+                kafkaTemplate.send(DELIVERY_GEOFENCE_TOPIC, delivery.getId().toString(),
+                    DeliveryGeofenceEvent.of(delivery, transition));
+            } catch (Exception e) {
+                log.error("Failed to publish DeliveryGeofence event: deliveryId={}", delivery.getId(), e);
+            }
         }
-        
-        Delivery savedDelivery = deliveryRepository.save(delivery);
-        
-        log.info("Tracking synced from provider: deliveryId={}, status={}", 
-            savedDelivery.getId(), providerTracking.status());
-        
-        return toResponse(savedDelivery);
     }
     
     private DeliveryResponse toResponse(Delivery delivery) {
+        return toResponse(
+            delivery,
+            delivery.getStatus(),
+            delivery.getCurrentLocation(),
+            delivery.getLatitude(),
+            delivery.getLongitude(),
+            delivery.getUpdatedAt()
+        );
+    }
+    
+    /**
+     * Response from the fresher of the row and the cached live state, with preloaded history
+     */
+    private DeliveryResponse toResponse(
+        Delivery delivery,
+        DeliveryLiveStateCache.LiveState state,
+        List<TrackingHistoryResponse> history
+    ) {
+        boolean useRow = state == null || state.updatedAt() == null
+            || (delivery.getUpdatedAt() != null && state.updatedAt().isBefore(delivery.getUpdatedAt()));
+        return toResponse(
+            delivery,
+            useRow || state.status() == null ? delivery.getStatus() : state.status(),
+            useRow ? delivery.getCurrentLocation() : state.currentLocation(),
+            useRow ? delivery.getLatitude() : state.latitude(),
+            useRow ? delivery.getLongitude() : state.longitude(),
+            useRow ? delivery.getUpdatedAt() : state.updatedAt(),
+            history != null ? history : List.of()
+        );
+    }
+    
+    /**
+     * Build a response with an explicit current state (e.g. a ping still in the write-behind buffer)
+     */
+    private DeliveryResponse toResponse(
+        Delivery delivery,
+        Delivery.DeliveryStatus status,
+        String currentLocation,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime updatedAt
+    ) {
+        return toResponse(delivery, status, currentLocation, latitude, longitude, updatedAt,
+            trackingService.getRecentTrackingHistory(delivery));
+    }
+    
+    private DeliveryResponse toResponse(
+        Delivery delivery,
+        Delivery.DeliveryStatus status,
+        String currentLocation,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime updatedAt,
+        List<TrackingHistoryResponse> history
+    ) {
         return new DeliveryResponse(
             delivery.getId(),
             delivery.getFulfillmentId(),
             delivery.getDriverId(),
             delivery.getTenantId(),
-            delivery.getCurrentLocation(),
-            delivery.getLatitude(),
-            delivery.getLongitude(),
-            delivery.getStatus(),
+            currentLocation,
+            latitude,
+            longitude,
+            status,
             delivery.getTrackingNumber(),
-            delivery.getTrackingHistory().stream()
-                .map(th -> new TrackingHistoryResponse(
-                    th.getId(),
-                    th.getDeliveryId(),
-                    th.getLatitude(),
-                    th.getLongitude(),
-                    th.getLocationDescription(),
-                    th.getStatus(),
-                    th.getUpdatedBy(),
-                    th.getCreatedAt()
-                ))
-                .collect(Collectors.toList()),
+            history,
             delivery.getCreatedAt(),
-            delivery.getUpdatedAt()
+            updatedAt,
+            etaService.getResponseETA(delivery)
         );
     }
+    
+    private record ShipmentPlan(DeliveryProvider provider, CreateShipmentRequest request) {}
+    
+    // Either a provider to ask, or the response for an own-fleet delivery
+    private record TrackingTarget(String providerCode, String providerTrackingId, DeliveryResponse ownFleet) {}
 }
-
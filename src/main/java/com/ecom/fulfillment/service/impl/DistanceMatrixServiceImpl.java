@@ -0,0 +1,200 @@
+package com.ecom.fulfillment.service.impl;
+
+import com.ecom.fulfillment.service.DistanceBackend;
+import com.ecom.fulfillment.service.DistanceMatrixService;
+import com.ecom.fulfillment.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Distance Matrix Service Implementation
+ *
+ * <p>Points are snapped to square-ish geocells of fulfillment.distance-matrix.cell-meters and legs
+ * are computed between cell centers, so every point in a cell shares the cached value. Cells are
+ * cached per (origin cell, destination cell) in a bounded LRU cache; distances are not assumed to
+ * be symmetric. A matrix call looks up all cells first and sends only the distinct missing pairs
+ * to the backend, in parallel once there are enough of them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DistanceMatrixServiceImpl implements DistanceMatrixService {
+    
+    private static final double METERS_PER_DEGREE = 111_320;
+    
+    private final List<DistanceBackend> backends;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.distance-matrix.backend:HAVERSINE}")
+    private String backendName;
+    
+    @Value("${fulfillment.distance-matrix.cell-meters:50}")
+    private double cellMeters;
+    
+    @Value("${fulfillment.distance-matrix.cache-size:200000}")
+    private int cacheSize;
+    
+    @Value("${fulfillment.distance-matrix.parallel-threshold:64}")
+    private int parallelThreshold;
+    
+    private DistanceBackend backend;
+    private double cellDegrees;
+    private LruCache<CellPair, Leg> cache;
+    
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Timer computeTimer;
+    
+    @PostConstruct
+    void init() {
+        backend = backends.stream()
+            .filter(b -> b.getName().equalsIgnoreCase(backendName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown distance backend: " + backendName
+                + ", available: " + backends.stream().map(DistanceBackend::getName).toList()));
+        cellDegrees = cellMeters / METERS_PER_DEGREE;
+        cache = new LruCache<>(cacheSize);
+        
+        hitCounter = cacheCounter("hit");
+        missCounter = cacheCounter("miss");
+        Gauge.builder("distance.matrix.cache.hit.ratio", this, DistanceMatrixServiceImpl::hitRatio)
+            .description("Share of distance matrix cells answered from the cache since startup")
+            .register(meterRegistry);
+        Gauge.builder("distance.matrix.cache.size", this, s -> s.cache.size())
+            .description("Cached distance matrix cells")
+            .register(meterRegistry);
+        computeTimer = Timer.builder("distance.matrix.compute")
+            .description("Time to compute the missing cells of one matrix request")
+            .tag("backend", backend.getName().toLowerCase())
+            .register(meterRegistry);
+        log.info("Distance matrix backend: {}, cellMeters={}, cacheSize={}", backend.getName(), cellMeters, cacheSize);
+    }
+    
+    @Override
+    public Leg leg(Point from, Point to) {
+        CellPair key = new CellPair(cell(from), cell(to));
+        Leg leg = cache.get(key);
+        if (leg != null) {
+            hitCounter.increment();
+            return leg;
+        }
+        missCounter.increment();
+        leg = compute(key);
+        cache.put(key, leg);
+        return leg;
+    }
+    
+    @Override
+    public Matrix matrix(List<Point> origins, List<Point> destinations) {
+        long[] originCells = origins.stream().mapToLong(this::cell).toArray();
+        long[] destinationCells = destinations.stream().mapToLong(this::cell).toArray();
+        Leg[][] legs = new Leg[originCells.length][destinationCells.length];
+        
+        Set<CellPair> missing = new HashSet<>();
+        int hits = 0;
+        for (int i = 0; i < originCells.length; i++) {
+            for (int j = 0; j < destinationCells.length; j++) {
+                CellPair key = new CellPair(originCells[i], destinationCells[j]);
+                legs[i][j] = cache.get(key);
+                if (legs[i][j] != null) {
+                    hits++;
+                } else {
+                    missing.add(key);
+                }
+            }
+        }
+        hitCounter.increment(hits);
+        
+        if (!missing.isEmpty()) {
+            missCounter.increment(missing.size());
+            long started = System.nanoTime();
+            Map<CellPair, Leg> computed = missing.size() >= parallelThreshold
+                ? missing.parallelStream().collect(Collectors.toConcurrentMap(Function.identity(), this::compute))
+                : computeSequential(missing);
+            computeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            computed.forEach(cache::put);
+            
+            for (int i = 0; i < originCells.length; i++) {
+                for (int j = 0; j < destinationCells.length; j++) {
+                    if (legs[i][j] == null) {
+                        legs[i][j] = computed.get(new CellPair(originCells[i], destinationCells[j]));
+                    }
+                }
+            }
+        }
+        
+        double[][] distances = new double[legs.length][destinationCells.length];
+        double[][] durations = new double[legs.length][destinationCells.length];
+        for (int i = 0; i < legs.length; i++) {
+            for (int j = 0; j < destinationCells.length; j++) {
+                distances[i][j] = legs[i][j].distanceMeters();
+                durations[i][j] = legs[i][j].durationSeconds();
+            }
+        }
+        return new Matrix(distances, durations);
+    }
+    
+    private Map<CellPair, Leg> computeSequential(Set<CellPair> pairs) {
+        Map<CellPair, Leg> computed = new HashMap<>();
+        for (CellPair pair : pairs) {
+            computed.put(pair, compute(pair));
+        }
+        return computed;
+    }
+    
+    private Leg compute(CellPair pair) {
+        if (pair.from() == pair.to()) {
+            return new Leg(0, 0);
+        }
+        return backend.leg(centerLatitude(pair.from()), centerLongitude(pair.from()),
+            centerLatitude(pair.to()), centerLongitude(pair.to()));
+    }
+    
+    /**
+     * Geocell of a point: latitude and longitude cell indexes packed into one long
+     */
+    private long cell(Point point) {
+        long latIndex = (long) Math.floor(point.latitude() / cellDegrees);
+        long lonIndex = (long) Math.floor(point.longitude() / cellDegrees);
+        return (latIndex << 32) | (lonIndex & 0xFFFFFFFFL);
+    }
+    
+    private double centerLatitude(long cell) {
+        return ((int) (cell >> 32) + 0.5) * cellDegrees;
+    }
+    
+    private double centerLongitude(long cell) {
+        return ((int) cell + 0.5) * cellDegrees;
+    }
+    
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total > 0 ? hits / total : 0;
+    }
+    
+    private Counter cacheCounter(String result) {
+        return Counter.builder("distance.matrix.cache")
+            .description("Distance matrix cells by cache outcome")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    private record CellPair(long from, long to) {}
+}
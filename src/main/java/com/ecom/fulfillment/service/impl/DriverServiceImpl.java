@@ -3,18 +3,28 @@ package com.ecom.fulfillment.service.impl;
 import com.ecom.error.exception.BusinessException;
 import com.ecom.error.model.ErrorCode;
 import com.ecom.fulfillment.entity.Driver;
+import com.ecom.fulfillment.event.DriverStateChangedEvent;
 import com.ecom.fulfillment.model.request.CreateDriverRequest;
+import com.ecom.fulfillment.model.request.DriverHeartbeatRequest;
 import com.ecom.fulfillment.model.request.UpdateDriverRequest;
 import com.ecom.fulfillment.model.response.DriverResponse;
+import com.ecom.fulfillment.model.response.NearbyDriverResponse;
 import com.ecom.fulfillment.repository.DriverRepository;
+import com.ecom.fulfillment.service.DriverHeartbeatStore;
+import com.ecom.fulfillment.service.DriverLocationIndex;
 import com.ecom.fulfillment.service.DriverService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,6 +37,21 @@ import java.util.stream.Collectors;
 public class DriverServiceImpl implements DriverService {
     
     private final DriverRepository driverRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final DriverHeartbeatStore driverHeartbeatStore;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${fulfillment.drivers.nearby.default-radius-meters:5000}")
+    private double defaultNearbyRadiusMeters;
+    
+    @Value("${fulfillment.drivers.nearby.max-radius-meters:50000}")
+    private double maxNearbyRadiusMeters;
+    
+    @Value("${fulfillment.drivers.nearby.default-limit:10}")
+    private int defaultNearbyLimit;
+    
+    @Value("${fulfillment.drivers.nearby.max-limit:100}")
+    private int maxNearbyLimit;
     
     @Override
     @Transactional
@@ -54,6 +79,7 @@ public class DriverServiceImpl implements DriverService {
             .build();
         
         Driver savedDriver = driverRepository.save(driver);
+        eventPublisher.publishEvent(DriverStateChangedEvent.of(savedDriver));
         
         log.info("Driver created: driverId={}", savedDriver.getId());
         
@@ -97,6 +123,65 @@ public class DriverServiceImpl implements DriverService {
             .collect(Collectors.toList());
     }
     
+    @Override
+    public List<NearbyDriverResponse> getNearbyDrivers(
+        UUID tenantId,
+        double latitude,
+        double longitude,
+        Double radiusMeters,
+        Integer limit,
+        Driver.DriverStatus status
+    ) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BusinessException(
+                ErrorCode.INVALID_REQUEST,
+                "Invalid coordinates: lat=" + latitude + ", lon=" + longitude
+            );
+        }
+        
+        double radius = radiusMeters == null ? defaultNearbyRadiusMeters : radiusMeters;
+        if (radius <= 0 || radius > maxNearbyRadiusMeters) {
+            throw new BusinessException(
+                ErrorCode.INVALID_REQUEST,
+                "Radius must be between 0 and " + maxNearbyRadiusMeters + " meters"
+            );
+        }
+        int k = limit == null ? defaultNearbyLimit : Math.max(1, Math.min(limit, maxNearbyLimit));
+        
+        Set<Driver.DriverStatus> statuses = EnumSet.of(status != null ? status : Driver.DriverStatus.AVAILABLE);
+        if (!driverLocationIndex.isLoaded()) {
+            // Cold start: geohash-indexed query against the drivers table
+            return driverRepository.findNearby(tenantId, latitude, longitude, radius, statuses, k)
+                .stream()
+                .map(row -> new NearbyDriverResponse(
+                    row.id(),
+                    row.status(),
+                    row.latitude(),
+                    row.longitude(),
+                    Math.round(row.distanceMeters() * 10) / 10.0,
+                    row.lastLocationUpdate()
+                ))
+                .collect(Collectors.toList());
+        }
+        
+        return driverLocationIndex.nearest(tenantId, latitude, longitude, radius, k, statuses)
+            .stream()
+            .map(nearby -> new NearbyDriverResponse(
+                nearby.driverId(),
+                nearby.status(),
+                nearby.latitude(),
+                nearby.longitude(),
+                Math.round(nearby.distanceMeters() * 10) / 10.0,
+                nearby.updatedAt()
+            ))
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public void recordHeartbeat(UUID driverId, UUID tenantId, DriverHeartbeatRequest request) {
+        driverHeartbeatStore.record(tenantId, driverId, request.latitude(), request.longitude());
+    }
+    
     @Override
     @Transactional
     public DriverResponse updateDriver(UUID driverId, UUID tenantId, UpdateDriverRequest request) {
@@ -137,6 +222,7 @@ public class DriverServiceImpl implements DriverService {
         driver.setUpdatedAt(LocalDateTime.now());
         
         Driver savedDriver = driverRepository.save(driver);
+        eventPublisher.publishEvent(DriverStateChangedEvent.of(savedDriver));
         
         log.info("Driver updated: driverId={}", driverId);
         
@@ -144,6 +230,8 @@ public class DriverServiceImpl implements DriverService {
     }
     
     private DriverResponse toResponse(Driver driver) {
+        // Positions received since the last flush are only in memory
+        Optional<DriverHeartbeatStore.Heartbeat> heartbeat = driverHeartbeatStore.find(driver.getId());
         return new DriverResponse(
             driver.getId(),
             driver.getTenantId(),
@@ -153,6 +241,9 @@ public class DriverServiceImpl implements DriverService {
             driver.getVehicleType(),
             driver.getVehicleNumber(),
             driver.getStatus(),
+            heartbeat.map(DriverHeartbeatStore.Heartbeat::latitude).orElse(driver.getCurrentLatitude()),
+            heartbeat.map(DriverHeartbeatStore.Heartbeat::longitude).orElse(driver.getCurrentLongitude()),
+            heartbeat.map(DriverHeartbeatStore.Heartbeat::seenAt).orElse(driver.getLastLocationUpdate()),
             driver.getCreatedAt(),
             driver.getUpdatedAt()
         );
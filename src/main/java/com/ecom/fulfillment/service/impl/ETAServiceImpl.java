@@ -0,0 +1,377 @@
+package com.ecom.fulfillment.service.impl;
+
+import com.ecom.error.exception.BusinessException;
+import com.ecom.error.model.ErrorCode;
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.DeliveryPreference;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.model.response.EtaResponse;
+import com.ecom.fulfillment.repository.DeliveryPreferenceRepository;
+import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.service.ETAService;
+import com.ecom.fulfillment.service.ProximityService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ETA Service Implementation
+ *
+ * <p>Keeps per in-flight delivery the last position, a running speed estimate and the ETA.
+ * Each location ping updates them in O(1): the segment from the previous point gives a speed
+ * sample folded into an exponentially weighted moving average, and the ETA is the straight-line
+ * distance to the delivery address (times a detour factor) at that speed, never slower than the
+ * minimum speed so a parked driver does not push the ETA out indefinitely. No tracking history
+ * is read.
+ *
+ * <p>ETAs are served from memory. Delivery.estimatedArrival is written only when the ETA has
+ * moved by more than the persist threshold since it was last written. State is dropped once
+ * the delivery is completed, and rebuilt from the delivery row on first use after a restart.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ETAServiceImpl implements ETAService {
+    
+    private static final Set<Delivery.DeliveryStatus> TERMINAL_STATUSES = EnumSet.of(
+        Delivery.DeliveryStatus.DELIVERED,
+        Delivery.DeliveryStatus.FAILED,
+        Delivery.DeliveryStatus.RETURNED
+    );
+    private static final DateTimeFormatter HOUR_MINUTE = DateTimeFormatter.ofPattern("h:mm", Locale.ENGLISH);
+    private static final DateTimeFormatter HOUR_MINUTE_MERIDIEM = DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH);
+    
+    private final DeliveryRepository deliveryRepository;
+    private final DeliveryPreferenceRepository preferenceRepository;
+    private final ProximityService proximityService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.eta.default-speed-kmh:20}")
+    private double defaultSpeedKmh;
+    
+    @Value("${fulfillment.eta.min-speed-kmh:5}")
+    private double minSpeedKmh;
+    
+    @Value("${fulfillment.eta.ewma-alpha:0.3}")
+    private double alpha;
+    
+    @Value("${fulfillment.eta.detour-factor:1.3}")
+    private double detourFactor;
+    
+    @Value("${fulfillment.eta.max-segment-speed-mps:70}")
+    private double maxSegmentSpeedMps;
+    
+    @Value("${fulfillment.eta.persist-threshold-seconds:120}")
+    private long persistThresholdSeconds;
+    
+    @Value("${fulfillment.eta.window-minutes:15}")
+    private long windowMinutes;
+    
+    private final Map<UUID, EtaState> states = new ConcurrentHashMap<>();
+    
+    private Counter persistedCounter;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("eta.tracked", states, Map::size)
+            .description("In-flight deliveries with an ETA held in memory")
+            .register(meterRegistry);
+        persistedCounter = Counter.builder("eta.persisted")
+            .description("ETA changes written to deliveries.estimated_arrival")
+            .register(meterRegistry);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTrackingChanged(DeliveryTrackingChangedEvent event) {
+        if (event.status() != null && TERMINAL_STATUSES.contains(event.status())) {
+            states.remove(event.deliveryId());
+            return;
+        }
+        if (event.latitude() == null || event.longitude() == null || event.updatedAt() == null) {
+            return;
+        }
+        
+        try {
+            EtaState state = states.get(event.deliveryId());
+            if (state == null) {
+                // Destination and window come from the database once per delivery
+                state = deliveryRepository.findById(event.deliveryId()).map(this::initialState).orElse(null);
+                if (state == null) {
+                    return;
+                }
+                states.putIfAbsent(event.deliveryId(), state);
+            }
+            
+            double latitude = event.latitude().doubleValue();
+            double longitude = event.longitude().doubleValue();
+            EtaState updated = states.computeIfPresent(event.deliveryId(),
+                (id, current) -> advance(current, latitude, longitude, event.updatedAt()));
+            if (updated != null) {
+                persistIfMoved(event.deliveryId(), updated);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to update ETA: deliveryId={}", event.deliveryId(), e);
+        }
+    }
+    
+    @Override
+    public LocalDateTime calculateETA(UUID deliveryId, UUID tenantId) {
+        return stateFor(deliveryId, tenantId).estimatedArrival();
+    }
+    
+    @Override
+    public ETAWithWindow getETAWithWindow(UUID deliveryId, UUID tenantId) {
+        return withWindow(stateFor(deliveryId, tenantId));
+    }
+    
+    @Override
+    public EtaResponse getResponseETA(Delivery delivery) {
+        if (TERMINAL_STATUSES.contains(delivery.getStatus())) {
+            return null;
+        }
+        
+        try {
+            EtaState state = states.get(delivery.getId());
+            if (state == null) {
+                state = states.merge(delivery.getId(), initialState(delivery), (existing, fresh) -> existing);
+            }
+            return toResponse(withWindow(state));
+        } catch (Exception e) {
+            // An ETA decorates the response; it never fails it
+            log.warn("Failed to compute ETA: deliveryId={}", delivery.getId(), e);
+            return null;
+        }
+    }
+    
+    @Override
+    public EtaResponse getResponseETA(UUID deliveryId, UUID tenantId, Delivery.DeliveryStatus status) {
+        if (status != null && TERMINAL_STATUSES.contains(status)) {
+            return null;
+        }
+        
+        try {
+            return toResponse(getETAWithWindow(deliveryId, tenantId));
+        } catch (Exception e) {
+            log.warn("Failed to compute ETA: deliveryId={}", deliveryId, e);
+            return null;
+        }
+    }
+    
+    @Override
+    public LocalDateTime updateETA(UUID deliveryId, UUID tenantId) {
+        EtaState state = stateFor(deliveryId, tenantId);
+        if (Double.isNaN(state.latitude())) {
+            return state.estimatedArrival();
+        }
+        
+        // Time has passed since the last ping at the same position and speed
+        EtaState updated = states.computeIfPresent(deliveryId, (id, current) ->
+            current.withEstimate(estimate(current, current.latitude(), current.longitude(), current.speedMps(), LocalDateTime.now())));
+        if (updated == null) {
+            return state.estimatedArrival();
+        }
+        persistIfMoved(deliveryId, updated);
+        return updated.estimatedArrival();
+    }
+    
+    private ETAWithWindow withWindow(EtaState state) {
+        LocalDateTime eta = state.estimatedArrival();
+        if (eta == null) {
+            return new ETAWithWindow(null, state.windowStart(), state.windowEnd(), state.timeWindow(), null);
+        }
+        
+        // Without a customer window, a band around the ETA
+        LocalDateTime windowStart = state.windowStart() != null ? state.windowStart() : eta.minusMinutes(windowMinutes);
+        LocalDateTime windowEnd = state.windowEnd() != null ? state.windowEnd() : eta.plusMinutes(windowMinutes);
+        String timeWindow = state.timeWindow() != null ? state.timeWindow() : format(windowStart, windowEnd);
+        int minutesRemaining = (int) Math.max(0, Duration.between(LocalDateTime.now(), eta).toMinutes());
+        return new ETAWithWindow(eta, windowStart, windowEnd, timeWindow, minutesRemaining);
+    }
+    
+    private EtaState stateFor(UUID deliveryId, UUID tenantId) {
+        EtaState state = states.get(deliveryId);
+        if (state == null) {
+            Delivery delivery = deliveryRepository.findById(deliveryId)
+                .orElseThrow(() -> new BusinessException(
+                    ErrorCode.RESOURCE_NOT_FOUND,
+                    "Delivery not found: " + deliveryId
+                ));
+            state = initialState(delivery);
+            if (!TERMINAL_STATUSES.contains(delivery.getStatus())) {
+                state = states.merge(deliveryId, state, (existing, fresh) -> existing);
+            }
+        }
+        
+        if (!state.tenantId().equals(tenantId)) {
+            throw new BusinessException(
+                ErrorCode.ACCESS_DENIED,
+                "Delivery belongs to different tenant"
+            );
+        }
+        return state;
+    }
+    
+    private EtaState initialState(Delivery delivery) {
+        double destinationLatitude = delivery.getDeliveryAddressLatitude() != null
+            ? delivery.getDeliveryAddressLatitude().doubleValue() : Double.NaN;
+        double destinationLongitude = delivery.getDeliveryAddressLongitude() != null
+            ? delivery.getDeliveryAddressLongitude().doubleValue() : Double.NaN;
+        
+        LocalDateTime windowStart = null;
+        LocalDateTime windowEnd = null;
+        String timeWindow = null;
+        DeliveryPreference preference = preferenceRepository.findByDeliveryId(delivery.getId())
+            .or(() -> preferenceRepository.findByFulfillmentId(delivery.getFulfillmentId()))
+            .filter(p -> !Boolean.FALSE.equals(p.getIsActive()))
+            .orElse(null);
+        if (preference != null) {
+            LocalDate date = preference.getScheduledDeliveryDate() != null
+                ? preference.getScheduledDeliveryDate()
+                : LocalDate.now();
+            windowStart = preference.getScheduledDeliveryTimeStart() != null
+                ? date.atTime(preference.getScheduledDeliveryTimeStart()) : null;
+            windowEnd = preference.getScheduledDeliveryTimeEnd() != null
+                ? date.atTime(preference.getScheduledDeliveryTimeEnd()) : null;
+            timeWindow = preference.getDeliveryTimeWindow();
+        }
+        
+        EtaState state = new EtaState(
+            delivery.getTenantId(),
+            destinationLatitude,
+            destinationLongitude,
+            Double.NaN,
+            Double.NaN,
+            null,
+            defaultSpeedKmh / 3.6,
+            delivery.getEstimatedArrival(),
+            delivery.getEstimatedArrival(),
+            windowStart,
+            windowEnd,
+            timeWindow
+        );
+        if (delivery.getLatitude() == null || delivery.getLongitude() == null) {
+            return state;
+        }
+        
+        LocalDateTime at = delivery.getUpdatedAt() != null ? delivery.getUpdatedAt() : delivery.getCreatedAt();
+        return advance(state, delivery.getLatitude().doubleValue(), delivery.getLongitude().doubleValue(), at);
+    }
+    
+    /**
+     * Fold in one position fix: EWMA speed over the segment from the previous fix, then a new ETA
+     */
+    private EtaState advance(EtaState state, double latitude, double longitude, LocalDateTime at) {
+        if (state.at() != null && !at.isAfter(state.at())) {
+            // Out of order or duplicate
+            return state;
+        }
+        
+        double speed = state.speedMps();
+        if (state.at() != null) {
+            double seconds = Duration.between(state.at(), at).toMillis() / 1000.0;
+            double meters = proximityService.distanceMeters(
+                ProximityService.Anchor.of(state.latitude(), state.longitude()), latitude, longitude);
+            double sample = meters / seconds;
+            if (seconds >= 1 && sample <= maxSegmentSpeedMps) {
+                speed = alpha * sample + (1 - alpha) * speed;
+            }
+        }
+        return state.movedTo(latitude, longitude, at, speed, estimate(state, latitude, longitude, speed, at));
+    }
+    
+    private LocalDateTime estimate(EtaState state, double latitude, double longitude, double speedMps, LocalDateTime at) {
+        if (Double.isNaN(state.destinationLatitude())) {
+            return state.estimatedArrival();
+        }
+        
+        double remaining = proximityService.distanceMeters(
+            ProximityService.Anchor.of(state.destinationLatitude(), state.destinationLongitude()), latitude, longitude)
+            * detourFactor;
+        double seconds = remaining / Math.max(speedMps, minSpeedKmh / 3.6);
+        return at.plusSeconds(Math.round(seconds));
+    }
+    
+    private void persistIfMoved(UUID deliveryId, EtaState state) {
+        LocalDateTime eta = state.estimatedArrival();
+        LocalDateTime persisted = state.persistedArrival();
+        if (eta == null || (persisted != null
+            && Math.abs(Duration.between(persisted, eta).toSeconds()) <= persistThresholdSeconds)) {
+            return;
+        }
+        
+        deliveryRepository.updateEstimatedArrival(deliveryId, eta);
+        states.computeIfPresent(deliveryId, (id, current) -> current.withPersisted(eta));
+        persistedCounter.increment();
+    }
+    
+    private static EtaResponse toResponse(ETAWithWindow eta) {
+        if (eta.estimatedArrival() == null && eta.windowStart() == null) {
+            return null;
+        }
+        return new EtaResponse(
+            eta.estimatedArrival(),
+            eta.windowStart(),
+            eta.windowEnd(),
+            eta.timeWindow(),
+            eta.minutesRemaining()
+        );
+    }
+    
+    private static String format(LocalDateTime start, LocalDateTime end) {
+        boolean sameHalfOfDay = (start.getHour() < 12) == (end.getHour() < 12);
+        return (sameHalfOfDay ? start.format(HOUR_MINUTE) : start.format(HOUR_MINUTE_MERIDIEM))
+            + "-" + end.format(HOUR_MINUTE_MERIDIEM);
+    }
+    
+    /**
+     * Per-delivery ETA state; latitude/longitude are NaN until the first position fix
+     */
+    private record EtaState(
+        UUID tenantId,
+        double destinationLatitude,
+        double destinationLongitude,
+        double latitude,
+        double longitude,
+        LocalDateTime at,
+        double speedMps,
+        LocalDateTime estimatedArrival,
+        LocalDateTime persistedArrival,
+        LocalDateTime windowStart,
+        LocalDateTime windowEnd,
+        String timeWindow
+    ) {
+        
+        EtaState movedTo(double newLatitude, double newLongitude, LocalDateTime newAt, double newSpeed, LocalDateTime eta) {
+            return new EtaState(tenantId, destinationLatitude, destinationLongitude, newLatitude, newLongitude,
+                newAt, newSpeed, eta, persistedArrival, windowStart, windowEnd, timeWindow);
+        }
+        
+        EtaState withEstimate(LocalDateTime eta) {
+            return new EtaState(tenantId, destinationLatitude, destinationLongitude, latitude, longitude,
+                at, speedMps, eta, persistedArrival, windowStart, windowEnd, timeWindow);
+        }
+        
+        EtaState withPersisted(LocalDateTime persisted) {
+            return new EtaState(tenantId, destinationLatitude, destinationLongitude, latitude, longitude,
+                at, speedMps, estimatedArrival, persisted, windowStart, windowEnd, timeWindow);
+        }
+    }
+}
@@ -14,12 +14,16 @@ import com.ecom.fulfillment.repository.DeliveryRepository;
 import com.ecom.fulfillment.repository.DriverRepository;
 import com.ecom.fulfillment.repository.FulfillmentRepository;
 import com.ecom.fulfillment.service.DeliveryService;
+import com.ecom.fulfillment.service.DriverCapacityTracker;
+import com.ecom.fulfillment.service.ETAService;
 import com.ecom.fulfillment.service.FulfillmentService;
+import com.ecom.fulfillment.service.TrackingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -37,8 +41,12 @@ public class FulfillmentServiceImpl implements FulfillmentService {
     private final FulfillmentRepository fulfillmentRepository;
     private final DeliveryRepository deliveryRepository;
     private final DriverRepository driverRepository;
+    private final DriverCapacityTracker capacityTracker;
     private final DeliveryService deliveryService;
+    private final TrackingService trackingService;
+    private final ETAService etaService;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
     
     private static final String FULFILLMENT_CREATED_TOPIC = "fulfillment-created";
     
@@ -62,6 +70,8 @@ public class FulfillmentServiceImpl implements FulfillmentService {
             .tenantId(tenantId)
             .status(Fulfillment.FulfillmentStatus.PENDING)
             .pickupLocation(request.pickupLocation())
+            .pickupLatitude(request.pickupLatitude())
+            .pickupLongitude(request.pickupLongitude())
             .deliveryAddressId(request.deliveryAddressId())
             .estimatedDelivery(request.estimatedDelivery())
             .createdAt(LocalDateTime.now())
@@ -167,6 +177,20 @@ public class FulfillmentServiceImpl implements FulfillmentService {
                 "Driver not found: " + request.driverId()
             ));
         
+        UUID previousDriverId = fulfillment.getAssignedDriverId();
+        boolean active = DriverCapacityTracker.isActive(fulfillment.getStatus());
+        if (!(active && request.driverId().equals(previousDriverId))) {
+            if (!capacityTracker.tryReserve(request.driverId())) {
+                throw new BusinessException(
+                    ErrorCode.INVALID_OPERATION,
+                    "Driver has no free capacity: " + request.driverId()
+                );
+            }
+            if (active && previousDriverId != null) {
+                capacityTracker.release(previousDriverId);
+            }
+        }
+        
         fulfillment.setAssignedDriverId(request.driverId());
         fulfillment.setStatus(Fulfillment.FulfillmentStatus.ASSIGNED);
         fulfillment.setUpdatedAt(LocalDateTime.now());
@@ -178,8 +202,11 @@ public class FulfillmentServiceImpl implements FulfillmentService {
         return toResponse(savedFulfillment);
     }
     
+    /**
+     * Not transactional: the delivery is created through a provider call that must run outside
+     * a transaction; the delivery and the ASSIGNED status are then committed together
+     */
     @Override
-    @Transactional
     public FulfillmentResponse assignProvider(
         UUID fulfillmentId, 
         UUID tenantId, 
@@ -217,18 +244,20 @@ public class FulfillmentServiceImpl implements FulfillmentService {
             );
         }
         
-        // Create delivery with provider
+        // Create delivery with provider; also marks the fulfillment ASSIGNED in the same transaction
         deliveryService.createDeliveryWithProvider(fulfillmentId, tenantId, providerCode, isIntercity);
         
-        // Update fulfillment status
-        fulfillment.setStatus(Fulfillment.FulfillmentStatus.ASSIGNED);
-        fulfillment.setUpdatedAt(LocalDateTime.now());
-        
-        Fulfillment savedFulfillment = fulfillmentRepository.save(fulfillment);
+        // Respond from a fresh copy; the one loaded above is stale by now
+        FulfillmentResponse response = transactionTemplate.execute(status -> fulfillmentRepository.findById(fulfillmentId)
+            .map(this::toResponse)
+            .orElseThrow(() -> new BusinessException(
+                ErrorCode.RESOURCE_NOT_FOUND,
+                "Fulfillment not found: " + fulfillmentId
+            )));
         
         log.info("Provider assigned: fulfillmentId={}, providerCode={}", fulfillmentId, providerCode);
         
-        return toResponse(savedFulfillment);
+        return response;
     }
     
     @Override
@@ -264,6 +293,7 @@ public class FulfillmentServiceImpl implements FulfillmentService {
             );
         }
         
+        capacityTracker.onStatusChange(fulfillment.getAssignedDriverId(), fulfillment.getStatus(), request.status());
         fulfillment.setStatus(request.status());
         fulfillment.setUpdatedAt(LocalDateTime.now());
         
@@ -346,20 +376,10 @@ public class FulfillmentServiceImpl implements FulfillmentService {
             delivery.getLongitude(),
             delivery.getStatus(),
             delivery.getTrackingNumber(),
-            delivery.getTrackingHistory().stream()
-                .map(th -> new com.ecom.fulfillment.model.response.TrackingHistoryResponse(
-                    th.getId(),
-                    th.getDeliveryId(),
-                    th.getLatitude(),
-                    th.getLongitude(),
-                    th.getLocationDescription(),
-                    th.getStatus(),
-                    th.getUpdatedBy(),
-                    th.getCreatedAt()
-                ))
-                .collect(Collectors.toList()),
+            trackingService.getRecentTrackingHistory(delivery),
             delivery.getCreatedAt(),
-            delivery.getUpdatedAt()
+            delivery.getUpdatedAt(),
+            etaService.getResponseETA(delivery)
         );
     }
 }
@@ -0,0 +1,35 @@
+package com.ecom.fulfillment.service.impl;
+
+import com.ecom.fulfillment.service.DistanceBackend;
+import com.ecom.fulfillment.service.DistanceMatrixService;
+import com.ecom.fulfillment.service.ProximityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Great-circle distance times a road factor, at a constant average speed
+ */
+@Component
+@RequiredArgsConstructor
+public class HaversineDistanceBackend implements DistanceBackend {
+    
+    private final ProximityService proximityService;
+    
+    @Value("${fulfillment.distance-matrix.haversine.road-factor:1.3}")
+    private double roadFactor;
+    
+    @Value("${fulfillment.distance-matrix.haversine.average-speed-kmh:25}")
+    private double averageSpeedKmh;
+    
+    @Override
+    public String getName() {
+        return "HAVERSINE";
+    }
+    
+    @Override
+    public DistanceMatrixService.Leg leg(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double meters = proximityService.calculateDistance(fromLatitude, fromLongitude, toLatitude, toLongitude) * roadFactor;
+        return new DistanceMatrixService.Leg(meters, meters / (averageSpeedKmh / 3.6));
+    }
+}
@@ -0,0 +1,315 @@
+package com.ecom.fulfillment.service.impl;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.DeliveryPreference;
+import com.ecom.fulfillment.model.response.DriverRouteResponse;
+import com.ecom.fulfillment.repository.DeliveryPreferenceRepository;
+import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.repository.DriverRepository;
+import com.ecom.fulfillment.service.DistanceMatrixService;
+import com.ecom.fulfillment.service.DriverHeartbeatStore;
+import com.ecom.fulfillment.service.RouteService;
+import com.ecom.fulfillment.util.RouteOptimizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route Service Implementation
+ *
+ * <p>Stops are the delivery addresses of the driver's open deliveries, with time windows from
+ * their active delivery preference (scheduled date, or today, plus the scheduled start/end time).
+ * The route starts at the driver's latest heartbeat, else the position stored on the driver,
+ * else the first stop. Distances between them come from the {@link DistanceMatrixService}.
+ *
+ * <p>The optimized order is cached per driver until the stop set (deliveries, addresses or
+ * windows) changes; distances and ETAs are recomputed along the cached order on every request,
+ * so they follow the driver without re-optimizing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteServiceImpl implements RouteService {
+    
+    private static final Set<Delivery.DeliveryStatus> OPEN_STATUSES = EnumSet.of(
+        Delivery.DeliveryStatus.ASSIGNED,
+        Delivery.DeliveryStatus.PICKED_UP,
+        Delivery.DeliveryStatus.IN_TRANSIT,
+        Delivery.DeliveryStatus.OUT_FOR_DELIVERY
+    );
+    
+    private final DeliveryRepository deliveryRepository;
+    private final DeliveryPreferenceRepository preferenceRepository;
+    private final DriverRepository driverRepository;
+    private final DriverHeartbeatStore driverHeartbeatStore;
+    private final DistanceMatrixService distanceMatrixService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.routes.average-speed-kmh:25}")
+    private double averageSpeedKmh;
+    
+    @Value("${fulfillment.routes.service-minutes:5}")
+    private long serviceMinutes;
+    
+    @Value("${fulfillment.routes.time-budget-ms:100}")
+    private long timeBudgetMs;
+    
+    @Value("${fulfillment.routes.cache-size:10000}")
+    private int cacheSize;
+    
+    private final Map<UUID, CachedRoute> routes = new ConcurrentHashMap<>();
+    
+    private Timer optimizeTimer;
+    private Counter cacheHitCounter;
+    private Counter cacheMissCounter;
+    
+    @PostConstruct
+    void registerMetrics() {
+        optimizeTimer = Timer.builder("route.optimize")
+            .description("Time to optimize a driver's stop order")
+            .register(meterRegistry);
+        cacheHitCounter = cacheCounter("hit");
+        cacheMissCounter = cacheCounter("miss");
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public DriverRouteResponse getOptimizedRoute(UUID driverId, UUID tenantId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Delivery> open = deliveryRepository.findByDriverIdAndTenantIdAndStatus(driverId, tenantId, null)
+            .stream()
+            .filter(d -> OPEN_STATUSES.contains(d.getStatus()))
+            .sorted(Comparator.comparing(Delivery::getCreatedAt))
+            .toList();
+        
+        List<Delivery> routed = new ArrayList<>();
+        List<UUID> unrouted = new ArrayList<>();
+        for (Delivery delivery : open) {
+            if (delivery.getDeliveryAddressLatitude() != null && delivery.getDeliveryAddressLongitude() != null) {
+                routed.add(delivery);
+            } else {
+                unrouted.add(delivery.getId());
+            }
+        }
+        
+        Optional<double[]> position = driverPosition(driverId);
+        if (routed.isEmpty()) {
+            routes.remove(driverId);
+            return new DriverRouteResponse(
+                driverId,
+                position.map(p -> p[0]).orElse(null),
+                position.map(p -> p[1]).orElse(null),
+                List.of(),
+                0,
+                null,
+                unrouted,
+                now
+            );
+        }
+        
+        List<RouteOptimizer.Stop> stops = toStops(routed, now.toLocalDate());
+        double startLatitude = position.map(p -> p[0]).orElse(stops.get(0).latitude());
+        double startLongitude = position.map(p -> p[1]).orElse(stops.get(0).longitude());
+        double speedMps = averageSpeedKmh / 3.6;
+        long serviceSeconds = serviceMinutes * 60;
+        
+        double[][] distance = distanceMatrix(startLatitude, startLongitude, stops);
+        
+        List<StopKey> signature = signature(routed, stops);
+        CachedRoute cached = routes.get(driverId);
+        int[] order;
+        LocalDateTime optimizedAt;
+        if (cached != null && cached.signature().equals(signature)) {
+            cacheHitCounter.increment();
+            order = cached.order(routed);
+            optimizedAt = cached.optimizedAt();
+        } else {
+            cacheMissCounter.increment();
+            long started = System.nanoTime();
+            order = RouteOptimizer.optimize(
+                distance, stops, now, speedMps, serviceSeconds,
+                started + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs));
+            optimizeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            optimizedAt = now;
+            remember(driverId, new CachedRoute(signature, idsInOrder(routed, order), optimizedAt));
+            log.debug("Route optimized: driverId={}, stops={}", driverId, stops.size());
+        }
+        
+        RouteOptimizer.Plan plan = RouteOptimizer.evaluate(
+            distance, stops, order, now, speedMps, serviceSeconds);
+        List<DriverRouteResponse.RouteStop> routeStops = new ArrayList<>(order.length);
+        for (int i = 0; i < order.length; i++) {
+            Delivery delivery = routed.get(order[i]);
+            RouteOptimizer.Stop stop = stops.get(order[i]);
+            routeStops.add(new DriverRouteResponse.RouteStop(
+                i + 1,
+                delivery.getId(),
+                delivery.getTrackingNumber(),
+                delivery.getStatus(),
+                stop.latitude(),
+                stop.longitude(),
+                Math.round(plan.cumulativeMeters()[i]),
+                plan.arrivals()[i],
+                stop.windowStart(),
+                stop.windowEnd(),
+                plan.late()[i]
+            ));
+        }
+        
+        return new DriverRouteResponse(
+            driverId,
+            startLatitude,
+            startLongitude,
+            routeStops,
+            Math.round(plan.totalMeters()),
+            plan.arrivals()[order.length - 1].plusMinutes(serviceMinutes),
+            unrouted,
+            optimizedAt
+        );
+    }
+    
+    private Optional<double[]> driverPosition(UUID driverId) {
+        Optional<DriverHeartbeatStore.Heartbeat> heartbeat = driverHeartbeatStore.find(driverId);
+        if (heartbeat.isPresent()) {
+            return Optional.of(new double[] {
+                heartbeat.get().latitude().doubleValue(), heartbeat.get().longitude().doubleValue()});
+        }
+        return driverRepository.findById(driverId)
+            .filter(d -> d.getCurrentLatitude() != null && d.getCurrentLongitude() != null)
+            .map(d -> new double[] {d.getCurrentLatitude().doubleValue(), d.getCurrentLongitude().doubleValue()});
+    }
+    
+    private List<RouteOptimizer.Stop> toStops(List<Delivery> deliveries, LocalDate today) {
+        Map<UUID, DeliveryPreference> byDelivery = new HashMap<>();
+        Map<UUID, DeliveryPreference> byFulfillment = new HashMap<>();
+        for (DeliveryPreference preference : preferenceRepository.findActiveForDeliveries(
+                deliveries.stream().map(Delivery::getId).toList(),
+                deliveries.stream().map(Delivery::getFulfillmentId).toList())) {
+            if (preference.getDeliveryId() != null) {
+                byDelivery.put(preference.getDeliveryId(), preference);
+            }
+            byFulfillment.put(preference.getFulfillmentId(), preference);
+        }
+        
+        List<RouteOptimizer.Stop> stops = new ArrayList<>(deliveries.size());
+        for (Delivery delivery : deliveries) {
+            DeliveryPreference preference = byDelivery.getOrDefault(
+                delivery.getId(), byFulfillment.get(delivery.getFulfillmentId()));
+            LocalDate date = preference != null && preference.getScheduledDeliveryDate() != null
+                ? preference.getScheduledDeliveryDate()
+                : today;
+            stops.add(new RouteOptimizer.Stop(
+                delivery.getDeliveryAddressLatitude().doubleValue(),
+                delivery.getDeliveryAddressLongitude().doubleValue(),
+                preference != null ? atTime(date, preference.getScheduledDeliveryTimeStart()) : null,
+                preference != null ? atTime(date, preference.getScheduledDeliveryTimeEnd()) : null
+            ));
+        }
+        return stops;
+    }
+    
+    /**
+     * Road distances between the start (node 0) and the stops; stop-to-stop cells stay cached
+     * while the driver moves
+     */
+    private double[][] distanceMatrix(double startLatitude, double startLongitude, List<RouteOptimizer.Stop> stops) {
+        List<DistanceMatrixService.Point> points = new ArrayList<>(stops.size() + 1);
+        points.add(new DistanceMatrixService.Point(startLatitude, startLongitude));
+        for (RouteOptimizer.Stop stop : stops) {
+            points.add(new DistanceMatrixService.Point(stop.latitude(), stop.longitude()));
+        }
+        return distanceMatrixService.matrix(points, points).distanceMeters();
+    }
+    
+    private static LocalDateTime atTime(LocalDate date, LocalTime time) {
+        return time != null ? date.atTime(time) : null;
+    }
+    
+    private static List<StopKey> signature(List<Delivery> deliveries, List<RouteOptimizer.Stop> stops) {
+        List<StopKey> keys = new ArrayList<>(deliveries.size());
+        for (int i = 0; i < deliveries.size(); i++) {
+            Delivery delivery = deliveries.get(i);
+            keys.add(new StopKey(
+                delivery.getId(),
+                delivery.getDeliveryAddressLatitude(),
+                delivery.getDeliveryAddressLongitude(),
+                stops.get(i).windowStart(),
+                stops.get(i).windowEnd()
+            ));
+        }
+        keys.sort(Comparator.comparing(StopKey::deliveryId));
+        return keys;
+    }
+    
+    private static List<UUID> idsInOrder(List<Delivery> deliveries, int[] order) {
+        List<UUID> ids = new ArrayList<>(order.length);
+        for (int index : order) {
+            ids.add(deliveries.get(index).getId());
+        }
+        return ids;
+    }
+    
+    private void remember(UUID driverId, CachedRoute route) {
+        // Bounded; drivers without open deliveries are removed on their next request
+        if (routes.size() >= cacheSize && !routes.containsKey(driverId)) {
+            Iterator<UUID> it = routes.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        routes.put(driverId, route);
+    }
+    
+    private Counter cacheCounter(String result) {
+        return Counter.builder("route.cache")
+            .description("Route requests answered from the cached stop order")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    private record StopKey(
+        UUID deliveryId,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        LocalDateTime windowStart,
+        LocalDateTime windowEnd
+    ) {}
+    
+    private record CachedRoute(List<StopKey> signature, List<UUID> deliveryIds, LocalDateTime optimizedAt) {
+        
+        /**
+         * The cached order as indexes into the current delivery list (same stop set)
+         */
+        int[] order(List<Delivery> deliveries) {
+            Map<UUID, Integer> index = new HashMap<>();
+            for (int i = 0; i < deliveries.size(); i++) {
+                index.put(deliveries.get(i).getId(), i);
+            }
+            return deliveryIds.stream().mapToInt(index::get).toArray();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecom.fulfillment.service.impl;
+
+import com.ecom.fulfillment.service.TrackingNumberGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default tracking number generator: node id + time + sequence
+ *
+ * <p>A 63-bit value of 41 bits milliseconds since 2024-01-01 (good for ~69 years), 10 bits node id
+ * and 12 bits per-millisecond sequence, written as 13 Crockford base32 characters (no I, L, O, U)
+ * plus a Luhn mod 32 check character, e.g. {@code TRK-0A8P7GQ3M0M00E}. The check character lets
+ * clients catch every single-character typo and most adjacent swaps.
+ *
+ * <p>Time and sequence share one AtomicLong that only moves forward (CAS, no locks): more than
+ * 4096 numbers in a millisecond borrow from the next millisecond, and a clock that steps back
+ * keeps counting from the last value, so a node never repeats itself. Uniqueness across nodes
+ * requires distinct node ids (fulfillment.tracking.number.node-id, 0-1023). While it is unset the
+ * id is derived from the host name and process id with a warning, since another instance may
+ * share it; with require-node-id (the prod profile) startup fails instead.
+ */
+@Service
+@Slf4j
+public class SequenceTrackingNumberGenerator implements TrackingNumberGenerator {
+    
+    private static final String PREFIX = "TRK-";
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int BASE = ALPHABET.length;
+    private static final int DIGITS = 13;
+    
+    private static final long EPOCH_MS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    private final long nodeId;
+    // (milliseconds since EPOCH_MS << SEQUENCE_BITS) | sequence of the last issued number
+    private final AtomicLong state = new AtomicLong();
+    
+    public SequenceTrackingNumberGenerator(
+        @Value("${fulfillment.tracking.number.node-id:-1}") long nodeId,
+        @Value("${fulfillment.tracking.number.require-node-id:false}") boolean requireNodeId
+    ) {
+        if (nodeId < 0) {
+            if (requireNodeId) {
+                throw new IllegalStateException("fulfillment.tracking.number.node-id is not set; give every instance "
+                    + "a distinct id in 0-" + MAX_NODE_ID + " (e.g. the pod ordinal)");
+            }
+            nodeId = derivedNodeId();
+            log.warn("fulfillment.tracking.number.node-id is not set, derived {} from host and process; "
+                + "instances sharing it can issue duplicate tracking numbers", nodeId);
+        }
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Tracking number node id must be 0-" + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        log.info("Tracking number node id: {}", nodeId);
+    }
+    
+    @Override
+    public String next(UUID tenantId) {
+        long now = (System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS;
+        long tick = state.accumulateAndGet(now, (last, floor) -> Math.max(last + 1, floor));
+        
+        long millis = tick >>> SEQUENCE_BITS;
+        long value = (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (tick & SEQUENCE_MASK);
+        return format(value);
+    }
+    
+    private static long derivedNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        int hash = (host + "/" + ProcessHandle.current().pid()).hashCode();
+        return (hash ^ (hash >>> 16)) & MAX_NODE_ID;
+    }
+    
+    private static String format(long value) {
+        int[] digits = new int[DIGITS + 1];
+        for (int i = DIGITS - 1; i >= 0; i--) {
+            digits[i] = (int) (value & (BASE - 1));
+            value >>>= 5;
+        }
+        digits[DIGITS] = checkDigit(digits, DIGITS);
+        
+        char[] chars = new char[PREFIX.length() + DIGITS + 1];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = 0; i <= DIGITS; i++) {
+            chars[PREFIX.length() + i] = ALPHABET[digits[i]];
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * Luhn mod N check digit over the first {@code length} digits
+     */
+    private static int checkDigit(int[] digits, int length) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = length - 1; i >= 0; i--) {
+            int addend = doubled ? digits[i] * 2 : digits[i];
+            sum += addend / BASE + addend % BASE;
+            doubled = !doubled;
+        }
+        return (BASE - sum % BASE) % BASE;
+    }
+}
@@ -2,17 +2,36 @@ package com.ecom.fulfillment.service.impl;
 
 import com.ecom.error.exception.BusinessException;
 import com.ecom.error.model.ErrorCode;
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.TrackingHistory;
+import com.ecom.fulfillment.entity.TrackingTrail;
+import com.ecom.fulfillment.model.response.TrackingHistoryPageResponse;
 import com.ecom.fulfillment.model.response.TrackingHistoryResponse;
 import com.ecom.fulfillment.repository.DeliveryRepository;
 import com.ecom.fulfillment.repository.TrackingHistoryRepository;
+import com.ecom.fulfillment.repository.TrackingTrailRepository;
 import com.ecom.fulfillment.service.TrackingService;
+import com.ecom.fulfillment.util.TrackingTrailCodec;
+import com.ecom.fulfillment.util.TrailSimplifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,33 +42,262 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TrackingServiceImpl implements TrackingService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    // Largest UUID in PostgreSQL ordering, used when a cursor has no tie-breaker id
+    private static final UUID MAX_UUID = new UUID(-1L, -1L);
+    // Lower bound for tracking_history scans (enables partition pruning); the margin covers
+    // provider events timestamped slightly before the delivery row was created
+    private static final long HISTORY_LOOKBACK_MARGIN_DAYS = 1;
+    // Only these deliveries can have a compacted trail
+    private static final Set<Delivery.DeliveryStatus> COMPACTABLE_STATUSES =
+        EnumSet.of(Delivery.DeliveryStatus.DELIVERED, Delivery.DeliveryStatus.RETURNED);
+    private static final Comparator<TrackingHistory> NEWEST_FIRST =
+        Comparator.comparing(TrackingHistory::getCreatedAt).reversed();
+    
     private final TrackingHistoryRepository trackingHistoryRepository;
+    private final TrackingTrailRepository trackingTrailRepository;
     private final DeliveryRepository deliveryRepository;
     
+    @Value("${fulfillment.tracking.recent-history-limit:20}")
+    private int recentHistoryLimit;
+    
+    @Value("${fulfillment.tracking.simplify.compaction-tolerance-meters:2}")
+    private double compactionToleranceMeters;
+    
+    @Value("${fulfillment.tracking.simplify.serve-tolerance-meters:5}")
+    private double serveToleranceMeters;
+    
     @Override
     @Transactional(readOnly = true)
     public List<TrackingHistoryResponse> getTrackingHistory(UUID deliveryId, UUID tenantId) {
+        Delivery delivery = verifyDelivery(deliveryId, tenantId);
+        
+        List<TrackingHistory> rows = trackingHistoryRepository.findByDeliveryIdOrderByCreatedAtDesc(
+            deliveryId, historySince(delivery));
+        
+        // Full history is for drawing the route; paged/recent reads stay exact so cursors remain stable
+        return TrailSimplifier.simplify(withTrail(deliveryId, delivery.getStatus(), rows), serveToleranceMeters)
+            .stream()
+            .map(this::toResponse)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public TrackingHistoryPageResponse getTrackingHistoryPage(
+        UUID deliveryId,
+        UUID tenantId,
+        LocalDateTime before,
+        UUID beforeId,
+        Integer limit
+    ) {
+        Delivery delivery = verifyDelivery(deliveryId, tenantId);
+        LocalDateTime since = historySince(delivery);
+        
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        List<TrackingHistory> rows;
+        Optional<TrackingTrail> trail = findTrail(deliveryId, delivery.getStatus());
+        if (trail.isPresent()) {
+            // Compacted deliveries are paged in memory: the whole trail is decoded anyway
+            List<TrackingHistory> all = merge(trail.get(),
+                trackingHistoryRepository.findByDeliveryIdOrderByCreatedAtDesc(deliveryId, since));
+            int from = before == null ? 0 : positionAfter(all, before, beforeId);
+            rows = all.subList(from, Math.min(all.size(), from + pageSize + 1));
+        } else {
+            // Fetch one extra row to know whether another page exists
+            PageRequest page = PageRequest.of(0, pageSize + 1);
+            rows = before == null
+                ? trackingHistoryRepository.findLatestByDeliveryId(deliveryId, since, page)
+                : trackingHistoryRepository.findByDeliveryIdBefore(
+                    deliveryId, since, before, beforeId != null ? beforeId : MAX_UUID, page);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<TrackingHistory> items = hasMore ? rows.subList(0, pageSize) : rows;
+        TrackingHistory last = items.isEmpty() ? null : items.get(items.size() - 1);
+        
+        return new TrackingHistoryPageResponse(
+            items.stream().map(this::toResponse).collect(Collectors.toList()),
+            hasMore,
+            hasMore ? last.getCreatedAt() : null,
+            hasMore ? last.getId() : null
+        );
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<TrackingHistoryResponse> getRecentTrackingHistory(Delivery delivery) {
+        return getRecentTrackingHistory(delivery.getId(), delivery.getStatus(), delivery.getCreatedAt());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<TrackingHistoryResponse> getRecentTrackingHistory(
+        UUID deliveryId,
+        Delivery.DeliveryStatus status,
+        LocalDateTime deliveryCreatedAt
+    ) {
+        List<TrackingHistory> rows = trackingHistoryRepository.findLatestByDeliveryId(
+            deliveryId, historySince(deliveryCreatedAt), PageRequest.of(0, recentHistoryLimit));
+        
+        return withTrail(deliveryId, status, rows)
+            .stream()
+            .limit(recentHistoryLimit)
+            .map(this::toResponse)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, List<TrackingHistoryResponse>> getRecentTrackingHistory(Collection<Delivery> deliveries) {
+        if (deliveries.isEmpty()) {
+            return Map.of();
+        }
+        
+        LocalDateTime since = deliveries.stream()
+            .map(this::historySince)
+            .min(Comparator.naturalOrder())
+            .orElseThrow();
+        Map<UUID, List<TrackingHistory>> rowsByDelivery = trackingHistoryRepository.findLatestByDeliveryIds(
+                deliveries.stream().map(Delivery::getId).toList(), since, recentHistoryLimit)
+            .stream()
+            .collect(Collectors.groupingBy(TrackingHistory::getDeliveryId));
+        Map<UUID, TrackingTrail> trails = trackingTrailRepository.findAllById(deliveries.stream()
+                .filter(delivery -> COMPACTABLE_STATUSES.contains(delivery.getStatus()))
+                .map(Delivery::getId)
+                .toList())
+            .stream()
+            .collect(Collectors.toMap(TrackingTrail::getDeliveryId, Function.identity()));
+        
+        Map<UUID, List<TrackingHistoryResponse>> result = new HashMap<>();
+        for (Delivery delivery : deliveries) {
+            List<TrackingHistory> rows = rowsByDelivery.getOrDefault(delivery.getId(), List.of());
+            TrackingTrail trail = trails.get(delivery.getId());
+            result.put(delivery.getId(), (trail != null ? merge(trail, rows) : rows)
+                .stream()
+                .limit(recentHistoryLimit)
+                .map(this::toResponse)
+                .collect(Collectors.toList()));
+        }
+        return result;
+    }
+    
+    @Override
+    @Transactional
+    public boolean compactTrackingHistory(UUID deliveryId) {
+        Delivery delivery = deliveryRepository.findById(deliveryId).orElse(null);
+        if (delivery == null || !COMPACTABLE_STATUSES.contains(delivery.getStatus())) {
+            return false;
+        }
+        
+        LocalDateTime since = historySince(delivery);
+        List<TrackingHistory> rows = trackingHistoryRepository.findByDeliveryIdOrderByCreatedAtDesc(deliveryId, since);
+        Optional<TrackingTrail> existing = trackingTrailRepository.findById(deliveryId);
+        if (existing.isPresent() && rows.isEmpty()) {
+            // Updated without new rows; mark it current so it is not picked again
+            existing.get().setCompactedAt(LocalDateTime.now());
+            trackingTrailRepository.save(existing.get());
+            return false;
+        }
+        
+        // Late rows (e.g. provider events after completion) are merged into an existing trail
+        List<TrackingHistory> points = existing.map(trail -> merge(trail, rows)).orElse(rows);
+        points = new ArrayList<>(points);
+        points.sort(NEWEST_FIRST.reversed());
+        points = TrailSimplifier.simplify(points, compactionToleranceMeters);
+        
+        byte[] encoded = TrackingTrailCodec.encode(points);
+        TrackingTrail trail = existing.orElseGet(() -> TrackingTrail.builder()
+            .deliveryId(deliveryId)
+            .tenantId(delivery.getTenantId())
+            .build());
+        trail.setEncodingVersion(TrackingTrailCodec.VERSION);
+        trail.setPointCount(points.size());
+        trail.setFirstPointAt(points.isEmpty() ? null : points.get(0).getCreatedAt());
+        trail.setLastPointAt(points.isEmpty() ? null : points.get(points.size() - 1).getCreatedAt());
+        trail.setPoints(encoded);
+        trail.setCompactedAt(LocalDateTime.now());
+        trackingTrailRepository.save(trail);
+        
+        int deleted = trackingHistoryRepository.deleteByDeliveryId(deliveryId, since);
+        
+        log.debug("Compacted tracking history: deliveryId={}, points={}, rowsDeleted={}, bytes={}",
+            deliveryId, points.size(), deleted, encoded.length);
+        return true;
+    }
+    
+    private Delivery verifyDelivery(UUID deliveryId, UUID tenantId) {
         // Verify delivery exists and belongs to tenant
-        deliveryRepository.findById(deliveryId)
+        return deliveryRepository.findById(deliveryId)
             .filter(d -> d.getTenantId().equals(tenantId))
             .orElseThrow(() -> new BusinessException(
                 ErrorCode.RESOURCE_NOT_FOUND,
                 "Delivery not found: " + deliveryId
             ));
-        
-        return trackingHistoryRepository.findByDeliveryIdOrderByCreatedAtDesc(deliveryId)
-            .stream()
-            .map(th -> new TrackingHistoryResponse(
-                th.getId(),
-                th.getDeliveryId(),
-                th.getLatitude(),
-                th.getLongitude(),
-                th.getLocationDescription(),
-                th.getStatus(),
-                th.getUpdatedBy(),
-                th.getCreatedAt()
-            ))
-            .collect(Collectors.toList());
+    }
+    
+    private LocalDateTime historySince(Delivery delivery) {
+        return historySince(delivery.getCreatedAt());
+    }
+    
+    private LocalDateTime historySince(LocalDateTime deliveryCreatedAt) {
+        LocalDateTime createdAt = deliveryCreatedAt != null ? deliveryCreatedAt : LocalDateTime.now();
+        return createdAt.minusDays(HISTORY_LOOKBACK_MARGIN_DAYS);
+    }
+    
+    private Optional<TrackingTrail> findTrail(UUID deliveryId, Delivery.DeliveryStatus status) {
+        if (!COMPACTABLE_STATUSES.contains(status)) {
+            return Optional.empty();
+        }
+        return trackingTrailRepository.findById(deliveryId);
+    }
+    
+    /**
+     * Rows (newest first) plus the delivery's compacted trail, if any
+     */
+    private List<TrackingHistory> withTrail(UUID deliveryId, Delivery.DeliveryStatus status, List<TrackingHistory> rows) {
+        return findTrail(deliveryId, status)
+            .map(trail -> merge(trail, rows))
+            .orElse(rows);
+    }
+    
+    private List<TrackingHistory> merge(TrackingTrail trail, List<TrackingHistory> rows) {
+        List<TrackingHistory> points = new ArrayList<>(trail.getPointCount() + rows.size());
+        points.addAll(rows);
+        points.addAll(TrackingTrailCodec.decode(
+            trail.getDeliveryId(), trail.getEncodingVersion(), trail.getPoints()).reversed());
+        points.sort(NEWEST_FIRST);
+        return points;
+    }
+    
+    /**
+     * Index of the first point after the (before, beforeId) cursor in a newest-first list
+     */
+    private int positionAfter(List<TrackingHistory> points, LocalDateTime before, UUID beforeId) {
+        for (int i = 0; i < points.size(); i++) {
+            TrackingHistory point = points.get(i);
+            if (point.getCreatedAt().equals(before) && point.getId().equals(beforeId)) {
+                return i + 1;
+            }
+            if (point.getCreatedAt().isBefore(before)) {
+                return i;
+            }
+        }
+        return points.size();
+    }
+    
+    private TrackingHistoryResponse toResponse(TrackingHistory th) {
+        return new TrackingHistoryResponse(
+            th.getId(),
+            th.getDeliveryId(),
+            th.getLatitude(),
+            th.getLongitude(),
+            th.getLocationDescription(),
+            th.getStatus(),
+            th.getUpdatedBy(),
+            th.getCreatedAt()
+        );
     }
 }
-
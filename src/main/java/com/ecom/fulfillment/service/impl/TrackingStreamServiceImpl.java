@@ -0,0 +1,446 @@
+package com.ecom.fulfillment.service.impl;
+
+import com.ecom.error.exception.BusinessException;
+import com.ecom.error.model.ErrorCode;
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.model.response.EtaResponse;
+import com.ecom.fulfillment.model.response.TrackingResponse;
+import com.ecom.fulfillment.service.ETAService;
+import com.ecom.fulfillment.service.TrackingStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracking Stream Service Implementation
+ *
+ * <p>Fans out DeliveryTrackingChangedEvents in memory to every SSE subscriber of the delivery
+ * on this node. Each delivery keeps a small ring buffer of recent events numbered with a
+ * per-delivery sequence (the SSE event id), so a reconnecting client sending Last-Event-ID
+ * only receives what it missed. If the id cannot be resumed (buffer overrun, other node,
+ * restart) the client gets a fresh snapshot instead.
+ *
+ * <p>The stream is public, so clients only ever receive {@link TrackingResponse}s; the internal
+ * event (tenant, driver and delivery ids) stays in process.
+ *
+ * <p>Publishing only queues: each subscriber has a bounded queue drained by a fixed pool of
+ * sender threads, so a slow client never blocks the request that committed the update or
+ * other subscribers. A client whose queue overflows is disconnected and resumes from the
+ * replay buffer when it reconnects.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingStreamServiceImpl implements TrackingStreamService {
+    
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String TRACKING_EVENT = "tracking";
+    // Streams are closed by the server once the delivery can no longer change
+    private static final Set<Delivery.DeliveryStatus> FINAL_STATUSES =
+        EnumSet.of(Delivery.DeliveryStatus.DELIVERED, Delivery.DeliveryStatus.RETURNED);
+    
+    private final ETAService etaService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${fulfillment.tracking.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+    
+    @Value("${fulfillment.tracking.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    @Value("${fulfillment.tracking.stream.replay-size:32}")
+    private int replaySize;
+    
+    @Value("${fulfillment.tracking.stream.idle-retention-ms:120000}")
+    private long idleRetentionMs;
+    
+    @Value("${fulfillment.tracking.stream.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+    
+    @Value("${fulfillment.tracking.stream.sender-threads:8}")
+    private int senderThreads;
+    
+    @Value("${fulfillment.tracking.stream.max-queued-events:64}")
+    private int maxQueuedEvents;
+    
+    private final Map<UUID, DeliveryStream> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    
+    private ThreadPoolExecutor sender;
+    private ScheduledExecutorService heartbeats;
+    private Counter slowClientCounter;
+    
+    @PostConstruct
+    void start() {
+        // At most one drain task per subscriber is queued, so this bound is never the limiting one
+        sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(maxSubscribers), daemonThreads("tracking-stream-sender"));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("tracking-stream-heartbeat"));
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        
+        Gauge.builder("tracking.stream.subscribers", subscriberCount, AtomicInteger::get)
+            .description("Open live tracking (SSE) connections on this node")
+            .register(meterRegistry);
+        Gauge.builder("tracking.stream.send.queue", sender, executor -> executor.getQueue().size())
+            .description("Subscribers waiting for a sender thread")
+            .register(meterRegistry);
+        slowClientCounter = Counter.builder("tracking.stream.slow_clients")
+            .description("Subscribers disconnected because their send queue overflowed")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    public SseEmitter subscribe(UUID deliveryId, TrackingResponse snapshot, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new BusinessException(
+                ErrorCode.INVALID_OPERATION,
+                "Live tracking is at capacity, please poll the tracking endpoint instead"
+            );
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        // Touch inside compute so the idle sweep cannot drop the stream before we are added
+        DeliveryStream stream = streams.compute(deliveryId, (id, existing) -> {
+            DeliveryStream current = existing != null ? existing : new DeliveryStream();
+            current.touch();
+            return current;
+        });
+        
+        Subscriber subscriber = new Subscriber(emitter, stream);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        
+        stream.add(subscriber, parseEventId(lastEventId), snapshot, FINAL_STATUSES.contains(snapshot.status()));
+        
+        log.debug("Live tracking subscribed: deliveryId={}, subscribers={}", deliveryId, stream.size());
+        return emitter;
+    }
+    
+    /**
+     * Push committed tracking changes to subscribers. fallbackExecution covers publishers
+     * outside a transaction (the write-behind flusher publishes after its own commit).
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTrackingChanged(DeliveryTrackingChangedEvent event) {
+        DeliveryStream stream = streams.get(event.deliveryId());
+        if (stream == null) {
+            return;
+        }
+        
+        EtaResponse eta = etaService.getResponseETA(event.deliveryId(), event.tenantId(), event.status());
+        stream.publish(event, eta, FINAL_STATUSES.contains(event.status()));
+    }
+    
+    /**
+     * Queue a heartbeat for every subscriber (keeps proxies from closing idle connections and
+     * detects dead clients) and forget streams that have had no subscribers for a while
+     */
+    void sendHeartbeats() {
+        try {
+            long idleBefore = System.currentTimeMillis() - idleRetentionMs;
+            for (UUID deliveryId : streams.keySet()) {
+                streams.computeIfPresent(deliveryId, (id, stream) -> stream.isIdleSince(idleBefore) ? null : stream);
+            }
+            streams.values().forEach(DeliveryStream::heartbeat);
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            log.error("Live tracking heartbeat failed", e);
+        }
+    }
+    
+    @PreDestroy
+    void closeAll() {
+        heartbeats.shutdownNow();
+        sender.shutdownNow();
+        streams.values().forEach(DeliveryStream::completeAll);
+        streams.clear();
+    }
+    
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Subscribers and recent events of one delivery. Events are numbered and queued to every
+     * subscriber under the stream's lock, so a subscriber never sees events out of order or
+     * misses one between replay and going live; the actual writes happen on the sender pool.
+     */
+    private final class DeliveryStream {
+        
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private final Deque<SequencedEvent> recent = new ArrayDeque<>();
+        private long sequence;
+        private long lastActiveAt = System.currentTimeMillis();
+        // Not carried by the event; taken from the latest snapshot
+        private UUID orderId;
+        private LocalDateTime estimatedDelivery;
+        
+        synchronized void touch() {
+            lastActiveAt = System.currentTimeMillis();
+        }
+        
+        synchronized void add(Subscriber subscriber, Long lastEventId, TrackingResponse snapshot, boolean last) {
+            subscribers.add(subscriber);
+            lastActiveAt = System.currentTimeMillis();
+            orderId = snapshot.orderId();
+            estimatedDelivery = snapshot.estimatedDelivery();
+            
+            // Every event carries the full current state, so a replay only has to be gap-free
+            boolean resumable = lastEventId != null
+                && lastEventId >= 0
+                && lastEventId <= sequence
+                && (recent.isEmpty() || lastEventId >= recent.peekFirst().sequence() - 1);
+            if (resumable) {
+                for (SequencedEvent event : recent) {
+                    if (event.sequence() > lastEventId) {
+                        subscriber.offer(toSse(event));
+                    }
+                }
+            } else {
+                subscriber.offer(SseEmitter.event()
+                    .id(Long.toString(sequence))
+                    .name(SNAPSHOT_EVENT)
+                    .data(snapshot, MediaType.APPLICATION_JSON));
+            }
+            if (last) {
+                subscriber.completeWhenDrained();
+            }
+        }
+        
+        /**
+         * Release a subscriber; every removal path goes through here to keep the node-wide count exact
+         */
+        synchronized void remove(Subscriber subscriber) {
+            lastActiveAt = System.currentTimeMillis();
+            if (subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+        }
+        
+        synchronized int size() {
+            return subscribers.size();
+        }
+        
+        synchronized void publish(DeliveryTrackingChangedEvent event, EtaResponse eta, boolean last) {
+            SequencedEvent sequenced = new SequencedEvent(++sequence, toPublic(event, eta));
+            recent.addLast(sequenced);
+            while (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+            
+            for (Subscriber subscriber : List.copyOf(subscribers)) {
+                subscriber.offer(toSse(sequenced));
+                if (last) {
+                    subscriber.completeWhenDrained();
+                }
+            }
+        }
+        
+        synchronized void heartbeat() {
+            for (Subscriber subscriber : List.copyOf(subscribers)) {
+                subscriber.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+        
+        synchronized boolean isIdleSince(long timestamp) {
+            return subscribers.isEmpty() && lastActiveAt < timestamp;
+        }
+        
+        synchronized void completeAll() {
+            for (Subscriber subscriber : List.copyOf(subscribers)) {
+                subscriber.close();
+                subscriber.emitter.complete();
+            }
+        }
+        
+        private SseEmitter.SseEventBuilder toSse(SequencedEvent event) {
+            return SseEmitter.event()
+                .id(Long.toString(event.sequence()))
+                .name(TRACKING_EVENT)
+                .data(event.payload(), MediaType.APPLICATION_JSON);
+        }
+        
+        /**
+         * Updates carry the live fields; the tracking history is only part of the snapshot
+         */
+        private TrackingResponse toPublic(DeliveryTrackingChangedEvent event, EtaResponse eta) {
+            return new TrackingResponse(
+                event.trackingNumber(),
+                orderId,
+                event.status(),
+                event.currentLocation(),
+                event.latitude(),
+                event.longitude(),
+                estimatedDelivery,
+                null,
+                event.updatedAt(),
+                eta
+            );
+        }
+    }
+    
+    /**
+     * One SSE connection. Queued events are written by one drain task at a time on the sender
+     * pool, so they go out in order; a client that lets max-queued-events pile up is dropped.
+     */
+    private final class Subscriber implements Runnable {
+        
+        private final SseEmitter emitter;
+        private final DeliveryStream stream;
+        private final Deque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean completeWhenDrained;
+        private boolean closed;
+        
+        Subscriber(SseEmitter emitter, DeliveryStream stream) {
+            this.emitter = emitter;
+            this.stream = stream;
+        }
+        
+        void offer(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (closed || completeWhenDrained) {
+                    return;
+                }
+                if (queue.size() < maxQueuedEvents) {
+                    queue.addLast(event);
+                    if (scheduleDrain()) {
+                        return;
+                    }
+                }
+            }
+            slowClientCounter.increment();
+            log.debug("Live tracking client too slow, disconnecting");
+            fail(new IllegalStateException("Live tracking send queue overflow"));
+        }
+        
+        void completeWhenDrained() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                completeWhenDrained = true;
+                if (scheduleDrain()) {
+                    return;
+                }
+            }
+            fail(new IllegalStateException("Live tracking sender pool saturated"));
+        }
+        
+        /**
+         * Stop sending and release the slot (emitter callbacks, shutdown, failed sends)
+         */
+        void close() {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+            }
+            stream.remove(this);
+        }
+        
+        @Override
+        public void run() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                boolean complete;
+                synchronized (this) {
+                    event = closed ? null : queue.pollFirst();
+                    complete = event == null && completeWhenDrained && !closed;
+                    if (event == null) {
+                        draining = false;
+                        if (complete) {
+                            closed = true;
+                        }
+                    }
+                }
+                if (event == null) {
+                    if (complete) {
+                        stream.remove(this);
+                        emitter.complete();
+                    }
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away
+                    fail(e);
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * Submit a drain unless one is already pending; false if the sender pool refused it.
+         * Caller holds this subscriber's lock.
+         */
+        private boolean scheduleDrain() {
+            if (draining) {
+                return true;
+            }
+            try {
+                sender.execute(this);
+                draining = true;
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+        
+        private void fail(Throwable error) {
+            close();
+            emitter.completeWithError(error);
+        }
+    }
+    
+    private record SequencedEvent(long sequence, TrackingResponse payload) {}
+}
@@ -0,0 +1,161 @@
+package com.ecom.fulfillment.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Minimum-cost assignment of rows to columns (e.g. fulfillments to drivers)
+ *
+ * <p>Each row is assigned at most one column and vice versa. Pairs with an infeasible cost
+ * ({@link Double#POSITIVE_INFINITY}) are never assigned. {@link #hungarian} is optimal in
+ * O(n^2 m) for n = min(rows, columns) and gives up at a deadline; {@link #greedy} takes the
+ * cheapest remaining pair first in O(nm log nm) and is the fallback.
+ */
+public final class AssignmentSolver {
+    
+    public static final double INFEASIBLE = Double.POSITIVE_INFINITY;
+    
+    // Stand-in for infeasible pairs inside the Hungarian method; must dominate any sum of real costs
+    private static final double BIG = 1e12;
+    
+    private AssignmentSolver() {
+    }
+    
+    /**
+     * Optimal assignment (Kuhn-Munkres with potentials)
+     * @param cost cost[row][column], rectangular
+     * @param deadlineNanos {@link System#nanoTime()} after which to give up
+     * @return column per row (-1 if unassigned), or null if the deadline passed
+     */
+    public static int[] hungarian(double[][] cost, long deadlineNanos) {
+        int rows = cost.length;
+        int columns = rows == 0 ? 0 : cost[0].length;
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, -1);
+        if (rows == 0 || columns == 0) {
+            return assignment;
+        }
+        
+        // The method below needs n <= m; solve the transpose otherwise
+        boolean transposed = rows > columns;
+        int n = transposed ? columns : rows;
+        int m = transposed ? rows : columns;
+        
+        // 1-based arrays; p[j] = row matched to column j, 0 = none
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minV = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+        
+        for (int i = 1; i <= n; i++) {
+            if (System.nanoTime() > deadlineNanos) {
+                return null;
+            }
+            
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minV, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double c = transposed ? cost[j - 1][i0 - 1] : cost[i0 - 1][j - 1];
+                    double reduced = (c == INFEASIBLE ? BIG : c) - u[i0] - v[j];
+                    if (reduced < minV[j]) {
+                        minV[j] = reduced;
+                        way[j] = j0;
+                    }
+                    if (minV[j] < delta) {
+                        delta = minV[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minV[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            
+            // Flip the augmenting path
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        
+        for (int j = 1; j <= m; j++) {
+            if (p[j] == 0) {
+                continue;
+            }
+            int row = transposed ? j - 1 : p[j] - 1;
+            int column = transposed ? p[j] - 1 : j - 1;
+            // Forced matches on infeasible pairs are dropped
+            if (cost[row][column] != INFEASIBLE) {
+                assignment[row] = column;
+            }
+        }
+        return assignment;
+    }
+    
+    /**
+     * Cheapest-pair-first assignment
+     * @return column per row (-1 if unassigned)
+     */
+    public static int[] greedy(double[][] cost) {
+        int rows = cost.length;
+        int columns = rows == 0 ? 0 : cost[0].length;
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, -1);
+        
+        // Feasible pairs as row * columns + column, cheapest first
+        List<Integer> pairs = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (cost[r][c] != INFEASIBLE) {
+                    pairs.add(r * columns + c);
+                }
+            }
+        }
+        pairs.sort(Comparator.comparingDouble(pair -> cost[pair / columns][pair % columns]));
+        
+        boolean[] columnTaken = new boolean[columns];
+        for (int pair : pairs) {
+            int r = pair / columns;
+            int c = pair % columns;
+            if (assignment[r] < 0 && !columnTaken[c]) {
+                assignment[r] = c;
+                columnTaken[c] = true;
+            }
+        }
+        return assignment;
+    }
+    
+    /**
+     * Sum of the assigned pairs' costs
+     */
+    public static double totalCost(double[][] cost, int[] assignment) {
+        double total = 0;
+        for (int r = 0; r < assignment.length; r++) {
+            if (assignment[r] >= 0) {
+                total += cost[r][assignment[r]];
+            }
+        }
+        return total;
+    }
+}
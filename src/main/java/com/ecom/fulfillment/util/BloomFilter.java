@@ -0,0 +1,116 @@
+package com.ecom.fulfillment.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over strings
+ *
+ * <p>Bits live in an AtomicLongArray and are set with CAS, so {@link #put} and
+ * {@link #mightContain} can be called concurrently without locking. Probe positions use
+ * double hashing (h1 + i * h2) of a 64-bit FNV-1a hash finalized with the MurmurHash3 mixer.
+ */
+public final class BloomFilter {
+    
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private final AtomicLong insertions = new AtomicLong();
+    
+    /**
+     * @param expectedInsertions number of entries the filter is sized for
+     * @param falsePositiveRate target false positive rate at that size (e.g. 0.01)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing: insertions=" + expectedInsertions
+                + ", fpp=" + falsePositiveRate);
+        }
+        
+        long bitsNeeded = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bitsNeeded + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.capacity = expectedInsertions;
+    }
+    
+    /**
+     * @return true if the filter changed (the value was definitely not present before)
+     */
+    public boolean put(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = fmix64(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << (bit & 63);
+            while (true) {
+                long current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        // Re-adding a known value does not count towards saturation
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+        return changed;
+    }
+    
+    /**
+     * @return false if the value was definitely never added
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = fmix64(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * True once more values were added than the filter was sized for (false positive rate degrading)
+     */
+    public boolean isSaturated() {
+        return insertions.get() > capacity;
+    }
+    
+    public long insertions() {
+        return insertions.get();
+    }
+    
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return fmix64(hash);
+    }
+    
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
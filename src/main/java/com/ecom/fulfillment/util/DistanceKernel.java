@@ -0,0 +1,171 @@
+package com.ecom.fulfillment.util;
+
+/**
+ * Batch great-circle distances from one origin to many candidates
+ *
+ * <p>Candidates are passed as parallel (struct-of-arrays) latitude/longitude arrays in degrees.
+ * When the build includes the Vector API implementation ({@code -Pvector-api}), the JVM is started
+ * with {@code --add-modules jdk.incubator.vector} and the CPU offers more than one double lane,
+ * the Haversine terms are computed several candidates at a time; otherwise a scalar loop is used.
+ * Both give the same results up to floating-point rounding.
+ *
+ * <p>Radius checks compare the Haversine term {@code a} against sin^2(r / 2R) instead of taking
+ * asin/sqrt per candidate. Candidates with NaN coordinates never match.
+ */
+public final class DistanceKernel {
+    
+    static final double EARTH_RADIUS_METERS = 6_371_000;
+    static final double TO_RADIANS = Math.PI / 180;
+    
+    private static final String VECTOR_IMPLEMENTATION = "com.ecom.fulfillment.util.VectorDistanceKernel";
+    
+    /**
+     * The scalar loops, always available
+     */
+    static final Batch SCALAR = new Batch() {
+        @Override
+        public void distances(double latitude, double longitude, double[] latitudes, double[] longitudes, double[] out) {
+            distancesScalar(latitude, longitude, latitudes, longitudes, out, 0);
+        }
+        
+        @Override
+        public int firstWithin(double latitude, double longitude, double[] latitudes, double[] longitudes, double threshold) {
+            return firstWithinScalar(latitude, longitude, latitudes, longitudes, threshold, 0);
+        }
+    };
+    
+    private static final Batch VECTOR = loadVector();
+    private static final Batch BATCH = VECTOR != null ? VECTOR : SCALAR;
+    
+    private DistanceKernel() {
+    }
+    
+    /**
+     * True if the Vector API implementation is in use
+     */
+    public static boolean isVectorized() {
+        return VECTOR != null;
+    }
+    
+    /**
+     * The Vector API implementation, or null if it was not compiled in or cannot run on this JVM
+     */
+    static Batch vector() {
+        return VECTOR;
+    }
+    
+    /**
+     * Distance in meters from the origin to each candidate (NaN for NaN coordinates)
+     */
+    public static double[] distances(double latitude, double longitude, double[] latitudes, double[] longitudes) {
+        checkLengths(latitudes, longitudes);
+        double[] out = new double[latitudes.length];
+        BATCH.distances(latitude, longitude, latitudes, longitudes, out);
+        return out;
+    }
+    
+    /**
+     * Index of the first candidate within radiusMeters of the origin, or -1
+     */
+    public static int firstWithin(
+        double latitude,
+        double longitude,
+        double[] latitudes,
+        double[] longitudes,
+        double radiusMeters
+    ) {
+        checkLengths(latitudes, longitudes);
+        return BATCH.firstWithin(latitude, longitude, latitudes, longitudes, haversineThreshold(radiusMeters));
+    }
+    
+    /**
+     * Scalar distances for candidates [from, length) into out
+     */
+    static void distancesScalar(
+        double latitude,
+        double longitude,
+        double[] latitudes,
+        double[] longitudes,
+        double[] out,
+        int from
+    ) {
+        double lat1 = latitude * TO_RADIANS;
+        double lon1 = longitude * TO_RADIANS;
+        double cosLat1 = Math.cos(lat1);
+        for (int i = from; i < latitudes.length; i++) {
+            double a = haversineTerm(lat1, lon1, cosLat1, latitudes[i] * TO_RADIANS, longitudes[i] * TO_RADIANS);
+            out[i] = 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(Math.min(1, a)));
+        }
+    }
+    
+    /**
+     * Scalar radius check for candidates [from, length) against a precomputed Haversine threshold
+     */
+    static int firstWithinScalar(
+        double latitude,
+        double longitude,
+        double[] latitudes,
+        double[] longitudes,
+        double threshold,
+        int from
+    ) {
+        double lat1 = latitude * TO_RADIANS;
+        double lon1 = longitude * TO_RADIANS;
+        double cosLat1 = Math.cos(lat1);
+        for (int i = from; i < latitudes.length; i++) {
+            if (haversineTerm(lat1, lon1, cosLat1, latitudes[i] * TO_RADIANS, longitudes[i] * TO_RADIANS) <= threshold) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * The Haversine term a at which the distance equals radiusMeters
+     */
+    static double haversineThreshold(double radiusMeters) {
+        double half = radiusMeters / (2 * EARTH_RADIUS_METERS);
+        if (half >= Math.PI / 2) {
+            return 1;
+        }
+        double sin = Math.sin(Math.max(0, half));
+        return sin * sin;
+    }
+    
+    private static double haversineTerm(double lat1, double lon1, double cosLat1, double lat2, double lon2) {
+        double sinDLat = Math.sin((lat2 - lat1) / 2);
+        double sinDLon = Math.sin((lon2 - lon1) / 2);
+        return sinDLat * sinDLat + cosLat1 * Math.cos(lat2) * sinDLon * sinDLon;
+    }
+    
+    private static void checkLengths(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException(
+                "latitudes and longitudes differ in length: " + latitudes.length + " != " + longitudes.length);
+        }
+    }
+    
+    /**
+     * Loaded by name: the class only exists in builds with the vector-api profile
+     */
+    private static Batch loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (Batch) Class.forName(VECTOR_IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+    
+    /**
+     * One implementation of the batch loops; radius checks take a precomputed Haversine threshold
+     */
+    interface Batch {
+        
+        void distances(double latitude, double longitude, double[] latitudes, double[] longitudes, double[] out);
+        
+        int firstWithin(double latitude, double longitude, double[] latitudes, double[] longitudes, double threshold);
+    }
+}
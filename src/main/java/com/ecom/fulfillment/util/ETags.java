@@ -0,0 +1,62 @@
+package com.ecom.fulfillment.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Version-based entity tags for conditional GETs
+ *
+ * <p>Tags are weak (W/"...") because they identify a version of the delivery, not the exact bytes:
+ * the same version may be rendered slightly differently (e.g. before/after trail compaction).
+ */
+public final class ETags {
+    
+    private static final LocalDateTime EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+    
+    private ETags() {
+    }
+    
+    public static String of(LocalDateTime version) {
+        return "W/\"" + Long.toHexString(ChronoUnit.MICROS.between(EPOCH, version)) + "\"";
+    }
+    
+    /**
+     * Weak comparison of an If-None-Match header (single tag, list or *) against a tag
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        
+        String opaque = opaque(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+    
+    /**
+     * 200 with the tag of a version read before the body was built (the body is never older)
+     */
+    public static <T> ResponseEntity<T> ok(T body, Optional<LocalDateTime> version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        version.ifPresent(v -> builder.eTag(of(v)));
+        return builder.body(body);
+    }
+    
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
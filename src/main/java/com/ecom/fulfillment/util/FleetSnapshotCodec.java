@@ -0,0 +1,133 @@
+package com.ecom.fulfillment.util;
+
+import com.ecom.fulfillment.model.response.FleetSnapshotResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary encoding of a fleet snapshot ({@code application/octet-stream})
+ *
+ * <p>Layout (version 2), all integers are unsigned LEB128 varints, deltas are zigzag encoded:
+ * <pre>
+ * formatVersion, snapshot version, flags (bit 0 = full), generatedAt (epoch milliseconds)
+ * stringCount, then per string: byteLength, UTF-8 bytes   (statuses)
+ * driverCount, driver rows, deliveryCount, delivery rows
+ * removedCount, then 16 bytes per removed delivery id
+ * per row:
+ *   ref * 2 + 1, then 16 bytes id  (entry the client may not know yet, always in full snapshots)
+ *   or ref * 2                     (entry introduced earlier; look the id up by ref)
+ *   latitude delta, longitude delta (1e-6 degrees; the first row of a list is relative to 0)
+ *   status ref                     (0 = null, otherwise index + 1)
+ *   heading + 1                    (whole degrees; 0 = unknown)
+ *   age                            (seconds from lastUpdate to generatedAt, 0 if later)
+ * </pre>
+ * Refs are per tenant and stable for the node's lifetime; a client keeps the ref → id map from
+ * the last full snapshot and the introducing deltas, and drops it when it gets a full snapshot.
+ * Rows come sorted by latitude, so the latitude deltas stay small. A row takes about 28 bytes
+ * with its id and about 11 without, so a full 5,000-driver snapshot is about 140 KB once and a
+ * delta in which every driver moved about 55 KB (less with {@code Accept-Encoding: gzip}).
+ * lastUpdate is carried with second precision.
+ */
+public final class FleetSnapshotCodec {
+    
+    public static final int VERSION = 2;
+    
+    private static final int FLAG_FULL = 1;
+    private static final double COORDINATE_SCALE = 1e6;
+    
+    private FleetSnapshotCodec() {
+    }
+    
+    public static byte[] encode(FleetSnapshotResponse snapshot) {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> stringTable = new ArrayList<>();
+        for (FleetSnapshotResponse.Row row : snapshot.drivers()) {
+            intern(row.status(), strings, stringTable);
+        }
+        for (FleetSnapshotResponse.Row row : snapshot.deliveries()) {
+            intern(row.status(), strings, stringTable);
+        }
+        
+        int rows = snapshot.drivers().size() + snapshot.deliveries().size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + rows * 28 + snapshot.removedDeliveryIds().size() * 16);
+        writeVarLong(out, VERSION);
+        writeVarLong(out, snapshot.version());
+        writeVarLong(out, snapshot.full() ? FLAG_FULL : 0);
+        writeVarLong(out, snapshot.generatedAt());
+        
+        writeVarLong(out, stringTable.size());
+        for (String value : stringTable) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        
+        writeRows(out, snapshot.drivers(), strings, snapshot.generatedAt());
+        writeRows(out, snapshot.deliveries(), strings, snapshot.generatedAt());
+        
+        writeVarLong(out, snapshot.removedDeliveryIds().size());
+        for (UUID id : snapshot.removedDeliveryIds()) {
+            writeUuid(out, id);
+        }
+        return out.toByteArray();
+    }
+    
+    private static void writeRows(
+        ByteArrayOutputStream out,
+        List<FleetSnapshotResponse.Row> rows,
+        Map<String, Integer> strings,
+        long generatedAt
+    ) {
+        writeVarLong(out, rows.size());
+        long previousLat = 0;
+        long previousLon = 0;
+        for (FleetSnapshotResponse.Row row : rows) {
+            long lat = Math.round(row.lat() * COORDINATE_SCALE);
+            long lon = Math.round(row.lon() * COORDINATE_SCALE);
+            writeVarLong(out, ((long) row.ref() << 1) | (row.introduced() ? 1 : 0));
+            if (row.introduced()) {
+                writeUuid(out, row.id());
+            }
+            writeVarLong(out, zigzag(lat - previousLat));
+            writeVarLong(out, zigzag(lon - previousLon));
+            writeVarLong(out, row.status() != null ? strings.get(row.status()) + 1 : 0);
+            writeVarLong(out, row.heading() != null ? row.heading() + 1 : 0);
+            writeVarLong(out, Math.max(0, (generatedAt - row.lastUpdate()) / 1000));
+            previousLat = lat;
+            previousLon = lon;
+        }
+    }
+    
+    private static void intern(String value, Map<String, Integer> index, List<String> table) {
+        if (value != null && !index.containsKey(value)) {
+            index.put(value, table.size());
+            table.add(value);
+        }
+    }
+    
+    private static void writeUuid(ByteArrayOutputStream out, UUID id) {
+        out.writeBytes(ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array());
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
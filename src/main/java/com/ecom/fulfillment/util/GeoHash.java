@@ -0,0 +1,113 @@
+package com.ecom.fulfillment.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and area covering (same encoding as the geohash_encode SQL function, V24)
+ */
+public final class GeoHash {
+    
+    /** Precision stored in the geohash columns (about 4.8 m x 4.8 m) */
+    public static final int STORED_PRECISION = 9;
+    
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final double METERS_PER_DEGREE = 111_320;
+    
+    private GeoHash() {
+    }
+    
+    public static String encode(double latitude, double longitude, int precision) {
+        double latMin = -90;
+        double latMax = 90;
+        double lonMin = -180;
+        double lonMax = 180;
+        
+        char[] hash = new char[precision];
+        boolean even = true;
+        for (int i = 0; i < precision; i++) {
+            int ch = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                double mid;
+                if (even) {
+                    mid = (lonMin + lonMax) / 2;
+                    if (longitude >= mid) {
+                        ch = ch * 2 + 1;
+                        lonMin = mid;
+                    } else {
+                        ch = ch * 2;
+                        lonMax = mid;
+                    }
+                } else {
+                    mid = (latMin + latMax) / 2;
+                    if (latitude >= mid) {
+                        ch = ch * 2 + 1;
+                        latMin = mid;
+                    } else {
+                        ch = ch * 2;
+                        latMax = mid;
+                    }
+                }
+                even = !even;
+            }
+            hash[i] = BASE32[ch];
+        }
+        return new String(hash);
+    }
+    
+    /**
+     * Geohash prefixes whose cells together cover the bounding box, at the finest precision
+     * that needs no more than maxCells prefixes (always at least precision 1)
+     */
+    public static Set<String> cover(double minLat, double minLon, double maxLat, double maxLon, int maxCells) {
+        minLat = Math.max(-90, minLat);
+        maxLat = Math.min(90, maxLat);
+        minLon = Math.max(-180, minLon);
+        maxLon = Math.min(180, maxLon);
+        
+        int precision = STORED_PRECISION;
+        while (precision > 1 && cellCount(minLat, minLon, maxLat, maxLon, precision) > maxCells) {
+            precision--;
+        }
+        
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        Set<String> prefixes = new LinkedHashSet<>();
+        // Step through cell rows/columns, always including the far edges
+        for (double lat = minLat; ; lat = Math.min(maxLat, lat + height)) {
+            for (double lon = minLon; ; lon = Math.min(maxLon, lon + width)) {
+                prefixes.add(encode(lat, lon, precision));
+                if (lon >= maxLon) {
+                    break;
+                }
+            }
+            if (lat >= maxLat) {
+                break;
+            }
+        }
+        return prefixes;
+    }
+    
+    /**
+     * Prefixes covering a circle (its bounding box)
+     */
+    public static Set<String> coverRadius(double latitude, double longitude, double radiusMeters, int maxCells) {
+        double dLat = radiusMeters / METERS_PER_DEGREE;
+        double dLon = radiusMeters / (METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        return cover(latitude - dLat, longitude - dLon, latitude + dLat, longitude + dLon, maxCells);
+    }
+    
+    private static long cellCount(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        long rows = (long) Math.ceil((maxLat - minLat) / cellHeight(precision)) + 1;
+        long columns = (long) Math.ceil((maxLon - minLon) / cellWidth(precision)) + 1;
+        return rows * columns;
+    }
+    
+    private static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+    
+    private static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecom.fulfillment.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded thread-safe LRU cache
+ *
+ * <p>Keys are spread over independently locked segments, each an access-ordered LinkedHashMap
+ * evicting its least recently used entry when full, so concurrent readers of different keys
+ * rarely contend. Recency is per segment, which approximates global LRU for well-spread keys.
+ */
+public final class LruCache<K, V> {
+    
+    private static final int SEGMENTS = 16;
+    
+    private final Segment<K, V>[] segments;
+    
+    @SuppressWarnings("unchecked")
+    public LruCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        int perSegment = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+    }
+    
+    public V get(K key) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+    
+    public void put(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+    
+    public V remove(K key) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+    
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+    
+    private Segment<K, V> segment(K key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+    
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private final int maxSize;
+        
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
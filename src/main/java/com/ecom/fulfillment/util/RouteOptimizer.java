@@ -0,0 +1,229 @@
+package com.ecom.fulfillment.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stop ordering for a single driver's route (open path from the driver's position, no return)
+ *
+ * <p>A nearest-neighbour tour is improved with 2-opt (segment reversal) and Or-opt (moving runs of
+ * up to three stops) until no move helps or the deadline passes. Moves are scored on the whole
+ * route: driving distance plus a penalty for every second a stop is reached after its time window
+ * ends. Arriving before a window opens means waiting until it does. Distances come from the
+ * caller as a matrix over the start (node 0) and the stops (node i + 1); travel time assumes a
+ * constant average speed.
+ */
+public final class RouteOptimizer {
+    
+    // One minute late weighs as much as 3 km of extra driving
+    private static final double LATE_PENALTY_METERS_PER_SECOND = 50;
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+    
+    private RouteOptimizer() {
+    }
+    
+    /**
+     * A stop with an optional time window (either bound may be null)
+     */
+    public record Stop(double latitude, double longitude, LocalDateTime windowStart, LocalDateTime windowEnd) {}
+    
+    /**
+     * Per-stop timing of a route, indexed by position in the route
+     */
+    public record Plan(
+        int[] order,
+        double[] cumulativeMeters,
+        LocalDateTime[] arrivals,
+        boolean[] late,
+        double totalMeters
+    ) {}
+    
+    /**
+     * Visiting order of the stops, starting at node 0 of the distance matrix at departure
+     * @param distance meters from node to node; node 0 is the start, stop i is node i + 1
+     * @param deadlineNanos {@link System#nanoTime()} after which improvement stops
+     */
+    public static int[] optimize(
+        double[][] distance,
+        List<Stop> stops,
+        LocalDateTime departure,
+        double speedMps,
+        long serviceSeconds,
+        long deadlineNanos
+    ) {
+        Route route = new Route(distance, stops, departure, speedMps, serviceSeconds);
+        int[] order = route.nearestNeighbour();
+        if (order.length < 3) {
+            return order;
+        }
+        
+        double best = route.cost(order);
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadlineNanos) {
+            improved = false;
+            
+            // 2-opt: reverse order[i..j]
+            for (int i = 0; i < order.length - 1 && System.nanoTime() < deadlineNanos; i++) {
+                for (int j = i + 1; j < order.length; j++) {
+                    reverse(order, i, j);
+                    double cost = route.cost(order);
+                    if (cost < best - 1e-6) {
+                        best = cost;
+                        improved = true;
+                    } else {
+                        reverse(order, i, j);
+                    }
+                }
+            }
+            
+            // Or-opt: move order[i..i+len) to before position k of the remainder
+            for (int len = 1; len <= MAX_OR_OPT_SEGMENT && len < order.length; len++) {
+                for (int i = 0; i + len <= order.length && System.nanoTime() < deadlineNanos; i++) {
+                    for (int k = 0; k <= order.length - len; k++) {
+                        if (k == i) {
+                            continue;
+                        }
+                        int[] candidate = moveSegment(order, i, len, k);
+                        double cost = route.cost(candidate);
+                        if (cost < best - 1e-6) {
+                            best = cost;
+                            order = candidate;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+        return order;
+    }
+    
+    /**
+     * Cumulative distance and arrival time of each stop when visited in the given order
+     */
+    public static Plan evaluate(
+        double[][] distance,
+        List<Stop> stops,
+        int[] order,
+        LocalDateTime departure,
+        double speedMps,
+        long serviceSeconds
+    ) {
+        Route route = new Route(distance, stops, departure, speedMps, serviceSeconds);
+        double[] cumulative = new double[order.length];
+        LocalDateTime[] arrivals = new LocalDateTime[order.length];
+        boolean[] late = new boolean[order.length];
+        
+        double meters = 0;
+        double clock = 0;
+        int previous = 0;
+        for (int position = 0; position < order.length; position++) {
+            int node = order[position] + 1;
+            double leg = route.distance[previous][node];
+            meters += leg;
+            clock += leg / speedMps;
+            cumulative[position] = meters;
+            arrivals[position] = departure.plusSeconds(Math.round(clock));
+            late[position] = clock > route.windowEnd[node];
+            clock = Math.max(clock, route.windowStart[node]) + serviceSeconds;
+            previous = node;
+        }
+        return new Plan(order, cumulative, arrivals, late, meters);
+    }
+    
+    private static void reverse(int[] order, int i, int j) {
+        while (i < j) {
+            int tmp = order[i];
+            order[i++] = order[j];
+            order[j--] = tmp;
+        }
+    }
+    
+    private static int[] moveSegment(int[] order, int from, int length, int to) {
+        int[] rest = new int[order.length - length];
+        int r = 0;
+        for (int p = 0; p < order.length; p++) {
+            if (p < from || p >= from + length) {
+                rest[r++] = order[p];
+            }
+        }
+        int[] result = new int[order.length];
+        System.arraycopy(rest, 0, result, 0, to);
+        System.arraycopy(order, from, result, to, length);
+        System.arraycopy(rest, to, result, to + length, rest.length - to);
+        return result;
+    }
+    
+    /**
+     * Distance matrix and windows (seconds after departure); node 0 is the start, stop i is node i + 1
+     */
+    private static final class Route {
+        private final double[][] distance;
+        private final double[] windowStart;
+        private final double[] windowEnd;
+        private final double speedMps;
+        private final long serviceSeconds;
+        
+        Route(double[][] distance, List<Stop> stops,
+              LocalDateTime departure, double speedMps, long serviceSeconds) {
+            int n = stops.size() + 1;
+            if (distance.length != n) {
+                throw new IllegalArgumentException("Distance matrix has " + distance.length + " nodes, expected " + n);
+            }
+            windowStart = new double[n];
+            windowEnd = new double[n];
+            windowEnd[0] = Double.POSITIVE_INFINITY;
+            for (int i = 1; i < n; i++) {
+                Stop stop = stops.get(i - 1);
+                windowStart[i] = stop.windowStart() != null ? seconds(departure, stop.windowStart()) : 0;
+                windowEnd[i] = stop.windowEnd() != null ? seconds(departure, stop.windowEnd()) : Double.POSITIVE_INFINITY;
+            }
+            
+            this.distance = distance;
+            this.speedMps = speedMps;
+            this.serviceSeconds = serviceSeconds;
+        }
+        
+        int[] nearestNeighbour() {
+            int n = distance.length - 1;
+            int[] order = new int[n];
+            boolean[] visited = new boolean[n + 1];
+            int current = 0;
+            for (int position = 0; position < n; position++) {
+                int next = -1;
+                for (int node = 1; node <= n; node++) {
+                    if (!visited[node] && (next < 0 || distance[current][node] < distance[current][next])) {
+                        next = node;
+                    }
+                }
+                visited[next] = true;
+                order[position] = next - 1;
+                current = next;
+            }
+            return order;
+        }
+        
+        double cost(int[] order) {
+            double meters = 0;
+            double clock = 0;
+            double lateSeconds = 0;
+            int previous = 0;
+            for (int stop : order) {
+                int node = stop + 1;
+                double leg = distance[previous][node];
+                meters += leg;
+                clock += leg / speedMps;
+                if (clock > windowEnd[node]) {
+                    lateSeconds += clock - windowEnd[node];
+                }
+                clock = Math.max(clock, windowStart[node]) + serviceSeconds;
+                previous = node;
+            }
+            return meters + lateSeconds * LATE_PENALTY_METERS_PER_SECOND;
+        }
+        
+        private static double seconds(LocalDateTime departure, LocalDateTime at) {
+            return Duration.between(departure, at).toSeconds();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.ecom.fulfillment.util;
+
+import com.ecom.fulfillment.entity.TrackingHistory;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary encoding of a delivery's tracking history (oldest point first)
+ *
+ * <p>Layout (version 1), all integers are unsigned LEB128 varints, deltas are zigzag encoded:
+ * <pre>
+ * pointCount
+ * stringCount, then per string: byteLength, UTF-8 bytes   (descriptions and statuses)
+ * uuidCount, then 16 bytes per UUID                        (updatedBy)
+ * per point:
+ *   flags                          bit 0 = has position
+ *   timestamp delta (microseconds; the first point is relative to the epoch)
+ *   latitude delta, longitude delta (1e-8 degrees, only with a position)
+ *   description ref, status ref, updatedBy ref             (0 = null, otherwise index + 1)
+ * </pre>
+ * Coordinates and timestamps round-trip exactly (the columns are DECIMAL(.., 8) and
+ * microsecond TIMESTAMP). Row ids are not stored; decoded points get an id derived from the
+ * delivery id and the point's timestamp (plus its rank among points with the same timestamp),
+ * so ids stay the same when late rows are merged into the trail or points are simplified away.
+ */
+public final class TrackingTrailCodec {
+    
+    public static final short VERSION = 1;
+    
+    private static final int FLAG_HAS_POSITION = 1;
+    private static final int COORDINATE_SCALE = 8;
+    
+    private TrackingTrailCodec() {
+    }
+    
+    /**
+     * Encode points ordered oldest first
+     */
+    public static byte[] encode(List<TrackingHistory> points) {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> stringTable = new ArrayList<>();
+        Map<UUID, Integer> uuids = new HashMap<>();
+        List<UUID> uuidTable = new ArrayList<>();
+        for (TrackingHistory point : points) {
+            intern(point.getLocationDescription(), strings, stringTable);
+            intern(point.getStatus(), strings, stringTable);
+            intern(point.getUpdatedBy(), uuids, uuidTable);
+        }
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + points.size() * 12);
+        writeVarLong(out, points.size());
+        
+        writeVarLong(out, stringTable.size());
+        for (String value : stringTable) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        
+        writeVarLong(out, uuidTable.size());
+        ByteBuffer uuidBytes = ByteBuffer.allocate(16);
+        for (UUID value : uuidTable) {
+            uuidBytes.clear();
+            uuidBytes.putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+            out.writeBytes(uuidBytes.array());
+        }
+        
+        long previousMicros = 0;
+        long previousLat = 0;
+        long previousLon = 0;
+        for (TrackingHistory point : points) {
+            boolean hasPosition = point.getLatitude() != null && point.getLongitude() != null;
+            out.write(hasPosition ? FLAG_HAS_POSITION : 0);
+            
+            long micros = toEpochMicros(point.getCreatedAt());
+            writeVarLong(out, zigzag(micros - previousMicros));
+            previousMicros = micros;
+            
+            if (hasPosition) {
+                long lat = toFixedPoint(point.getLatitude());
+                long lon = toFixedPoint(point.getLongitude());
+                writeVarLong(out, zigzag(lat - previousLat));
+                writeVarLong(out, zigzag(lon - previousLon));
+                previousLat = lat;
+                previousLon = lon;
+            }
+            
+            writeVarLong(out, ref(point.getLocationDescription(), strings));
+            writeVarLong(out, ref(point.getStatus(), strings));
+            writeVarLong(out, ref(point.getUpdatedBy(), uuids));
+        }
+        
+        return out.toByteArray();
+    }
+    
+    /**
+     * Decode a trail into detached TrackingHistory instances, oldest first
+     */
+    public static List<TrackingHistory> decode(UUID deliveryId, short version, byte[] data) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported tracking trail encoding version: " + version);
+        }
+        
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            int pointCount = readCount(in);
+            
+            String[] stringTable = new String[readCount(in)];
+            for (int i = 0; i < stringTable.length; i++) {
+                byte[] bytes = new byte[readCount(in)];
+                in.get(bytes);
+                stringTable[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            
+            UUID[] uuidTable = new UUID[readCount(in)];
+            for (int i = 0; i < uuidTable.length; i++) {
+                uuidTable[i] = new UUID(in.getLong(), in.getLong());
+            }
+            
+            List<TrackingHistory> points = new ArrayList<>(pointCount);
+            long micros = 0;
+            long lat = 0;
+            long lon = 0;
+            int sameTimestamp = 0;
+            for (int i = 0; i < pointCount; i++) {
+                int flags = in.get();
+                long delta = unzigzag(readVarLong(in));
+                micros += delta;
+                sameTimestamp = i > 0 && delta == 0 ? sameTimestamp + 1 : 0;
+                
+                BigDecimal latitude = null;
+                BigDecimal longitude = null;
+                if ((flags & FLAG_HAS_POSITION) != 0) {
+                    lat += unzigzag(readVarLong(in));
+                    lon += unzigzag(readVarLong(in));
+                    latitude = BigDecimal.valueOf(lat, COORDINATE_SCALE);
+                    longitude = BigDecimal.valueOf(lon, COORDINATE_SCALE);
+                }
+                
+                points.add(TrackingHistory.builder()
+                    .id(pointId(deliveryId, micros, sameTimestamp))
+                    .deliveryId(deliveryId)
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .locationDescription(lookup(stringTable, readCount(in)))
+                    .status(lookup(stringTable, readCount(in)))
+                    .updatedBy(lookup(uuidTable, readCount(in)))
+                    .createdAt(fromEpochMicros(micros))
+                    .build());
+            }
+            return points;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt tracking trail for delivery: " + deliveryId, e);
+        }
+    }
+    
+    private static <T> void intern(T value, Map<T, Integer> index, List<T> table) {
+        if (value != null && !index.containsKey(value)) {
+            index.put(value, table.size());
+            table.add(value);
+        }
+    }
+    
+    private static <T> long ref(T value, Map<T, Integer> index) {
+        return value == null ? 0 : index.get(value) + 1;
+    }
+    
+    private static <T> T lookup(T[] table, int ref) {
+        return ref == 0 ? null : table[ref - 1];
+    }
+    
+    private static UUID pointId(UUID deliveryId, long epochMicros, int rank) {
+        return UUID.nameUUIDFromBytes((deliveryId + ":" + epochMicros + ":" + rank).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static long toFixedPoint(BigDecimal degrees) {
+        return degrees.setScale(COORDINATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    private static long toEpochMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), time);
+    }
+    
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(micros, ChronoUnit.MICROS);
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in tracking trail");
+    }
+    
+    private static int readCount(ByteBuffer in) {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed length in tracking trail: " + value);
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,135 @@
+package com.ecom.fulfillment.util;
+
+import com.ecom.fulfillment.entity.TrackingHistory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Douglas-Peucker simplification of a tracking trail
+ *
+ * <p>Points with a status change or no coordinates are anchors and always kept, as are the
+ * first and last positioned points. Location descriptions do not make a point an anchor:
+ * ordinary driver pings carry one. Between consecutive anchors, points
+ * closer than the tolerance to the simplified line are removed. Distances use a local
+ * equirectangular projection, which is accurate to well under a meter over city-scale segments.
+ */
+public final class TrailSimplifier {
+    
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    
+    private TrailSimplifier() {
+    }
+    
+    /**
+     * @param points trail in chronological order (either direction)
+     * @param toleranceMeters maximum deviation of a removed point from the simplified trail; 0 disables
+     * @return kept points in the original order
+     */
+    public static List<TrackingHistory> simplify(List<TrackingHistory> points, double toleranceMeters) {
+        if (toleranceMeters <= 0 || points.size() < 3) {
+            return points;
+        }
+        
+        int n = points.size();
+        boolean[] keep = new boolean[n];
+        int firstPositioned = -1;
+        int lastPositioned = -1;
+        for (int i = 0; i < n; i++) {
+            TrackingHistory point = points.get(i);
+            if (!hasPosition(point)) {
+                keep[i] = true;
+                continue;
+            }
+            if (firstPositioned < 0) {
+                firstPositioned = i;
+            }
+            lastPositioned = i;
+            keep[i] = point.getStatus() != null;
+        }
+        if (firstPositioned < 0) {
+            return points;
+        }
+        keep[firstPositioned] = true;
+        keep[lastPositioned] = true;
+        
+        // Simplify each run between consecutive positioned anchors
+        int anchor = firstPositioned;
+        for (int i = firstPositioned + 1; i <= lastPositioned; i++) {
+            if (keep[i] && hasPosition(points.get(i))) {
+                simplifyRange(points, keep, anchor, i, toleranceMeters);
+                anchor = i;
+            }
+        }
+        
+        List<TrackingHistory> kept = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                kept.add(points.get(i));
+            }
+        }
+        return kept;
+    }
+    
+    private static void simplifyRange(List<TrackingHistory> points, boolean[] keep, int from, int to, double tolerance) {
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[] {from, to});
+        
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int start = range[0];
+            int end = range[1];
+            if (end - start < 2) {
+                continue;
+            }
+            
+            TrackingHistory a = points.get(start);
+            TrackingHistory b = points.get(end);
+            double cosLat = Math.cos(Math.toRadians(a.getLatitude().doubleValue()));
+            
+            int farthest = -1;
+            double maxDistance = tolerance;
+            for (int i = start + 1; i < end; i++) {
+                TrackingHistory p = points.get(i);
+                if (!hasPosition(p)) {
+                    continue;
+                }
+                double distance = distanceToSegment(p, a, b, cosLat);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                ranges.push(new int[] {start, farthest});
+                ranges.push(new int[] {farthest, end});
+            }
+        }
+    }
+    
+    /**
+     * Distance in meters from p to segment a-b, in a plane centered on a
+     */
+    private static double distanceToSegment(TrackingHistory p, TrackingHistory a, TrackingHistory b, double cosLat) {
+        double ax = a.getLongitude().doubleValue();
+        double ay = a.getLatitude().doubleValue();
+        double bx = (b.getLongitude().doubleValue() - ax) * cosLat * METERS_PER_DEGREE;
+        double by = (b.getLatitude().doubleValue() - ay) * METERS_PER_DEGREE;
+        double px = (p.getLongitude().doubleValue() - ax) * cosLat * METERS_PER_DEGREE;
+        double py = (p.getLatitude().doubleValue() - ay) * METERS_PER_DEGREE;
+        
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared));
+        double dx = px - t * bx;
+        double dy = py - t * by;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+    
+    private static boolean hasPosition(TrackingHistory point) {
+        return point.getLatitude() != null && point.getLongitude() != null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecom.fulfillment.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation of {@link DistanceKernel}; only loaded when jdk.incubator.vector is present
+ *
+ * <p>Full vectors of candidates go through the SIMD loop, the remaining tail through the scalar one.
+ * Compiled only with the {@code vector-api} Maven profile, see the pom.
+ */
+final class VectorDistanceKernel implements DistanceKernel.Batch {
+    
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    
+    VectorDistanceKernel() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("No SIMD lanes for doubles: " + SPECIES);
+        }
+    }
+    
+    @Override
+    public void distances(double latitude, double longitude, double[] latitudes, double[] longitudes, double[] out) {
+        double lat1 = latitude * DistanceKernel.TO_RADIANS;
+        double lon1 = longitude * DistanceKernel.TO_RADIANS;
+        double cosLat1 = Math.cos(lat1);
+        int bound = SPECIES.loopBound(latitudes.length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            haversineTerm(lat1, lon1, cosLat1, latitudes, longitudes, i)
+                .min(1.0)
+                .lanewise(VectorOperators.SQRT)
+                .lanewise(VectorOperators.ASIN)
+                .mul(2 * DistanceKernel.EARTH_RADIUS_METERS)
+                .intoArray(out, i);
+        }
+        DistanceKernel.distancesScalar(latitude, longitude, latitudes, longitudes, out, i);
+    }
+    
+    @Override
+    public int firstWithin(double latitude, double longitude, double[] latitudes, double[] longitudes, double threshold) {
+        double lat1 = latitude * DistanceKernel.TO_RADIANS;
+        double lon1 = longitude * DistanceKernel.TO_RADIANS;
+        double cosLat1 = Math.cos(lat1);
+        int bound = SPECIES.loopBound(latitudes.length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> within = haversineTerm(lat1, lon1, cosLat1, latitudes, longitudes, i)
+                .compare(VectorOperators.LE, threshold);
+            if (within.anyTrue()) {
+                return i + within.firstTrue();
+            }
+        }
+        return DistanceKernel.firstWithinScalar(latitude, longitude, latitudes, longitudes, threshold, i);
+    }
+    
+    /**
+     * sin^2(dLat/2) + cos(lat1) cos(lat2) sin^2(dLon/2) for one vector of candidates starting at offset
+     */
+    private static DoubleVector haversineTerm(
+        double lat1,
+        double lon1,
+        double cosLat1,
+        double[] latitudes,
+        double[] longitudes,
+        int offset
+    ) {
+        DoubleVector lat2 = DoubleVector.fromArray(SPECIES, latitudes, offset).mul(DistanceKernel.TO_RADIANS);
+        DoubleVector lon2 = DoubleVector.fromArray(SPECIES, longitudes, offset).mul(DistanceKernel.TO_RADIANS);
+        DoubleVector sinDLat = lat2.sub(lat1).mul(0.5).lanewise(VectorOperators.SIN);
+        DoubleVector sinDLon = lon2.sub(lon1).mul(0.5).lanewise(VectorOperators.SIN);
+        return sinDLon.mul(sinDLon)
+            .mul(lat2.lanewise(VectorOperators.COS).mul(cosLat1))
+            .add(sinDLat.mul(sinDLat));
+    }
+}
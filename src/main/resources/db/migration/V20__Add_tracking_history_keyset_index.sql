@@ -0,0 +1,7 @@
+-- Composite index backing "latest N points" and keyset pagination of tracking history
+-- (WHERE delivery_id = ? ORDER BY created_at DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_tracking_history_delivery_created_id
+    ON tracking_history(delivery_id, created_at DESC, id DESC);
+
+-- Superseded by the composite index (delivery_id is its leading column)
+DROP INDEX IF EXISTS idx_tracking_history_delivery_id;
@@ -0,0 +1,64 @@
+-- Convert tracking_history into a range-partitioned table (one partition per day on created_at)
+-- Future partitions are created and expired ones detached by TrackingPartitionScheduler
+
+ALTER TABLE tracking_history RENAME TO tracking_history_legacy;
+ALTER INDEX IF EXISTS tracking_history_pkey RENAME TO tracking_history_legacy_pkey;
+ALTER INDEX IF EXISTS idx_tracking_history_delivery_created_id RENAME TO idx_tracking_history_legacy_delivery_created_id;
+ALTER INDEX IF EXISTS idx_tracking_history_created_at RENAME TO idx_tracking_history_legacy_created_at;
+
+-- The partition key must be part of the primary key
+CREATE TABLE tracking_history (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    delivery_id UUID NOT NULL,
+    latitude DECIMAL(10, 8),
+    longitude DECIMAL(11, 8),
+    location_description VARCHAR(500),
+    status VARCHAR(50),
+    updated_by UUID,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_tracking_history PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_tracking_history_delivery FOREIGN KEY (delivery_id) REFERENCES deliveries(id) ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+-- Catches rows outside any daily partition (e.g. very old provider events)
+CREATE TABLE IF NOT EXISTS tracking_history_default PARTITION OF tracking_history DEFAULT;
+
+-- Daily partitions for recent data (up to 90 days back) and the next 7 days
+DO $$
+DECLARE
+    first_day DATE;
+    day DATE;
+BEGIN
+    SELECT GREATEST(COALESCE(MIN(created_at)::date, CURRENT_DATE), CURRENT_DATE - 90)
+    INTO first_day
+    FROM tracking_history_legacy;
+    
+    day := first_day;
+    WHILE day <= CURRENT_DATE + 7 LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF tracking_history FOR VALUES FROM (%L) TO (%L)',
+            'tracking_history_p' || to_char(day, 'YYYYMMDD'),
+            day,
+            day + 1
+        );
+        day := day + 1;
+    END LOOP;
+END $$;
+
+INSERT INTO tracking_history (id, delivery_id, latitude, longitude, location_description, status, updated_by, created_at)
+SELECT id, delivery_id, latitude, longitude, location_description, status, updated_by, created_at
+FROM tracking_history_legacy;
+
+DROP TABLE tracking_history_legacy;
+
+-- Partitioned index (created on every partition); time-range filters are served by partition pruning
+CREATE INDEX IF NOT EXISTS idx_tracking_history_delivery_created_id
+    ON tracking_history(delivery_id, created_at DESC, id DESC);
+
+-- Per-tenant retention for tracking history (tenants without a row use the configured default)
+CREATE TABLE IF NOT EXISTS tracking_retention_policies (
+    tenant_id UUID PRIMARY KEY,
+    retention_days INTEGER NOT NULL CHECK (retention_days > 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP
+);
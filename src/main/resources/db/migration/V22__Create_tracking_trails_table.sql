@@ -0,0 +1,18 @@
+-- Compacted tracking history for completed deliveries (one row per delivery)
+-- points holds the delta/zigzag-varint encoded trail written by TrackingTrailCodec
+CREATE TABLE IF NOT EXISTS tracking_trails (
+    delivery_id UUID PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    encoding_version SMALLINT NOT NULL,
+    point_count INTEGER NOT NULL,
+    first_point_at TIMESTAMP,
+    last_point_at TIMESTAMP,
+    points BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_tracking_trail_delivery FOREIGN KEY (delivery_id) REFERENCES deliveries(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_tracking_trail_tenant_last_point ON tracking_trails(tenant_id, last_point_at);
+
+-- Trails are already compressed; skip TOAST compression attempts
+ALTER TABLE tracking_trails ALTER COLUMN points SET STORAGE EXTERNAL;
@@ -0,0 +1,2 @@
+-- Keyset scans over deliveries by creation time (tracking number index loading/refresh)
+CREATE INDEX IF NOT EXISTS idx_delivery_created_at_id ON deliveries(created_at, id);
@@ -0,0 +1,93 @@
+-- Geohash cells for index-backed spatial prefiltering without PostGIS.
+-- Radius/bounding-box queries cover the area with a handful of geohash prefixes
+-- (LIKE 'prefix%' on a pattern_ops index) and refine the candidates with Haversine.
+
+CREATE OR REPLACE FUNCTION geohash_encode(lat DOUBLE PRECISION, lon DOUBLE PRECISION, chars INT)
+RETURNS VARCHAR AS $$
+DECLARE
+    base32 CONSTANT TEXT := '0123456789bcdefghjkmnpqrstuvwxyz';
+    lat_min DOUBLE PRECISION := -90;
+    lat_max DOUBLE PRECISION := 90;
+    lon_min DOUBLE PRECISION := -180;
+    lon_max DOUBLE PRECISION := 180;
+    mid DOUBLE PRECISION;
+    result TEXT := '';
+    bits INT := 0;
+    ch INT := 0;
+    even BOOLEAN := TRUE;
+BEGIN
+    WHILE length(result) < chars LOOP
+        IF even THEN
+            mid := (lon_min + lon_max) / 2;
+            IF lon >= mid THEN
+                ch := ch * 2 + 1;
+                lon_min := mid;
+            ELSE
+                ch := ch * 2;
+                lon_max := mid;
+            END IF;
+        ELSE
+            mid := (lat_min + lat_max) / 2;
+            IF lat >= mid THEN
+                ch := ch * 2 + 1;
+                lat_min := mid;
+            ELSE
+                ch := ch * 2;
+                lat_max := mid;
+            END IF;
+        END IF;
+        even := NOT even;
+        bits := bits + 1;
+        IF bits = 5 THEN
+            result := result || substr(base32, ch + 1, 1);
+            bits := 0;
+            ch := 0;
+        END IF;
+    END LOOP;
+    RETURN result;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE STRICT;
+
+-- Drivers: current position
+ALTER TABLE drivers ADD COLUMN IF NOT EXISTS geohash VARCHAR(12);
+
+CREATE OR REPLACE FUNCTION drivers_set_geohash() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.geohash := geohash_encode(NEW.current_latitude, NEW.current_longitude, 9);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_drivers_geohash ON drivers;
+CREATE TRIGGER trg_drivers_geohash
+    BEFORE INSERT OR UPDATE OF current_latitude, current_longitude ON drivers
+    FOR EACH ROW EXECUTE FUNCTION drivers_set_geohash();
+
+UPDATE drivers
+SET geohash = geohash_encode(current_latitude, current_longitude, 9)
+WHERE current_latitude IS NOT NULL AND current_longitude IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_driver_tenant_geohash
+    ON drivers(tenant_id, geohash varchar_pattern_ops);
+
+-- Deliveries: current position
+ALTER TABLE deliveries ADD COLUMN IF NOT EXISTS geohash VARCHAR(12);
+
+CREATE OR REPLACE FUNCTION deliveries_set_geohash() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.geohash := geohash_encode(NEW.latitude, NEW.longitude, 9);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_deliveries_geohash ON deliveries;
+CREATE TRIGGER trg_deliveries_geohash
+    BEFORE INSERT OR UPDATE OF latitude, longitude ON deliveries
+    FOR EACH ROW EXECUTE FUNCTION deliveries_set_geohash();
+
+UPDATE deliveries
+SET geohash = geohash_encode(latitude, longitude, 9)
+WHERE latitude IS NOT NULL AND longitude IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_delivery_tenant_geohash
+    ON deliveries(tenant_id, geohash varchar_pattern_ops);
@@ -0,0 +1,11 @@
+-- Pickup coordinates for automatic driver dispatch (pickup distance)
+ALTER TABLE fulfillments ADD COLUMN IF NOT EXISTS pickup_latitude DECIMAL(10, 8);
+ALTER TABLE fulfillments ADD COLUMN IF NOT EXISTS pickup_longitude DECIMAL(11, 8);
+
+COMMENT ON COLUMN fulfillments.pickup_latitude IS 'Pickup latitude (auto-dispatch)';
+COMMENT ON COLUMN fulfillments.pickup_longitude IS 'Pickup longitude (auto-dispatch)';
+
+-- Dispatch candidates: unassigned PENDING fulfillments per tenant, oldest first
+CREATE INDEX IF NOT EXISTS idx_fulfillment_dispatch
+    ON fulfillments(tenant_id, created_at)
+    WHERE status = 'PENDING' AND assigned_driver_id IS NULL;
@@ -0,0 +1,5 @@
+-- When a trail was last (re)compacted; rows that arrive for the delivery afterwards bump
+-- deliveries.updated_at past it, which queues the delivery for another compaction
+ALTER TABLE tracking_trails ADD COLUMN IF NOT EXISTS compacted_at TIMESTAMP;
+UPDATE tracking_trails SET compacted_at = created_at WHERE compacted_at IS NULL;
+ALTER TABLE tracking_trails ALTER COLUMN compacted_at SET NOT NULL;
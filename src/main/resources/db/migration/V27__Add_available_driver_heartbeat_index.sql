@@ -0,0 +1,4 @@
+-- Backs the stale heartbeat sweep (WHERE status = 'AVAILABLE' AND last_location_update < ?)
+CREATE INDEX IF NOT EXISTS idx_driver_available_last_location_update
+    ON drivers(last_location_update)
+    WHERE status = 'AVAILABLE';
@@ -0,0 +1,76 @@
+package com.ecom.fulfillment.provider;
+
+import com.ecom.error.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderCallExecutorTest {
+    
+    private ProviderCallExecutor executor;
+    
+    @BeforeEach
+    void setUp() {
+        executor = new ProviderCallExecutor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executor, "defaultTimeoutMs", 50L);
+        ReflectionTestUtils.setField(executor, "timeoutMs", Map.of());
+        ReflectionTestUtils.setField(executor, "defaultMaxConcurrentCalls", 1);
+        ReflectionTestUtils.setField(executor, "maxConcurrentCalls", Map.of());
+    }
+    
+    @Test
+    void timedOutCallKeepsItsPermitUntilItFinishes() throws Exception {
+        CountDownLatch provider = new CountDownLatch(1);
+        BusinessException timeout = assertThrows(BusinessException.class, () -> ProviderCallExecutor.await(
+            executor.call("bluedart", "create_shipment", () -> blocking(provider, "late"))));
+        assertTrue(timeout.getMessage().contains("did not respond"), timeout.getMessage());
+        
+        // The blocking call is still running, so the provider is still saturated
+        BusinessException busy = assertThrows(BusinessException.class, () -> ProviderCallExecutor.await(
+            executor.call("bluedart", "get_tracking", () -> Mono.just("ok"))));
+        assertTrue(busy.getMessage().contains("busy"), busy.getMessage());
+        
+        provider.countDown();
+        assertEquals("ok", awaitPermit());
+    }
+    
+    @Test
+    void releasesThePermitOnFailure() {
+        assertThrows(BusinessException.class, () -> ProviderCallExecutor.await(
+            executor.call("bluedart", "create_shipment", () -> Mono.error(new IllegalStateException("down")))));
+        
+        assertEquals("ok", ProviderCallExecutor.await(executor.call("bluedart", "get_tracking", () -> Mono.just("ok"))));
+    }
+    
+    private String awaitPermit() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                return ProviderCallExecutor.await(executor.call("bluedart", "get_tracking", () -> Mono.just("ok")));
+            } catch (BusinessException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+    
+    private static Mono<String> blocking(CountDownLatch latch, String result) {
+        return Mono.fromCallable(() -> {
+            latch.await();
+            return result;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+}
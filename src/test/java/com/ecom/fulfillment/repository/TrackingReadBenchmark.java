@@ -0,0 +1,196 @@
+package com.ecom.fulfillment.repository;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.Fulfillment;
+import com.ecom.fulfillment.entity.TrackingHistory;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public tracking read: single-query projection vs the entity path it replaces
+ *
+ * <p>Runs against a throwaway PostgreSQL container (Docker required) migrated with the real
+ * Flyway scripts. The entity path issues the same three reads as
+ * {@code DeliveryServiceImpl.getTrackingFromEntities}: delivery by tracking number, fulfillment by
+ * id and the latest history page. Run {@link #main} after {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrackingReadBenchmark {
+    
+    private static final int DELIVERIES = 1_000;
+    private static final int HISTORY_LIMIT = 20;
+    
+    private static final String DELIVERY_JPQL =
+        "SELECT d FROM Delivery d WHERE d.trackingNumber = :trackingNumber AND d.tenantId = :tenantId";
+    
+    // Same query as TrackingHistoryRepository.findLatestByDeliveryId
+    private static final String HISTORY_JPQL =
+        "SELECT th FROM TrackingHistory th WHERE th.deliveryId = :deliveryId " +
+        "AND th.createdAt >= :since " +
+        "ORDER BY th.createdAt DESC, th.id DESC";
+    
+    @Param({"50", "2000"})
+    private int pointsPerDelivery;
+    
+    private PostgreSQLContainer<?> postgres;
+    private HikariDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private EntityManagerFactory entityManagerFactory;
+    private DeliveryRepositoryImpl projectionRepository;
+    
+    private UUID tenantId;
+    private List<String> trackingNumbers;
+    private Random random;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setMaximumPoolSize(4);
+        
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        seed(new JdbcTemplate(dataSource));
+        
+        projectionRepository = new DeliveryRepositoryImpl(new JdbcTemplate(dataSource));
+        
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.ecom.fulfillment.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "validate"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        entityManagerFactory = entityManagerFactoryBean.getObject();
+        
+        random = new Random(42);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+        postgres.stop();
+    }
+    
+    @Benchmark
+    public Object projection() {
+        return projectionRepository.findTrackingView(nextTrackingNumber(), tenantId, HISTORY_LIMIT).orElseThrow();
+    }
+    
+    @Benchmark
+    public void entity(Blackhole blackhole) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            Delivery delivery = entityManager.createQuery(DELIVERY_JPQL, Delivery.class)
+                .setParameter("trackingNumber", nextTrackingNumber())
+                .setParameter("tenantId", tenantId)
+                .getSingleResult();
+            blackhole.consume(entityManager.find(Fulfillment.class, delivery.getFulfillmentId()));
+            blackhole.consume(entityManager.createQuery(HISTORY_JPQL, TrackingHistory.class)
+                .setParameter("deliveryId", delivery.getId())
+                .setParameter("since", delivery.getCreatedAt().minusDays(1))
+                .setMaxResults(HISTORY_LIMIT)
+                .getResultList());
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+    
+    private String nextTrackingNumber() {
+        return trackingNumbers.get(random.nextInt(trackingNumbers.size()));
+    }
+    
+    private void seed(JdbcTemplate jdbcTemplate) {
+        tenantId = UUID.randomUUID();
+        trackingNumbers = new ArrayList<>(DELIVERIES);
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(6);
+        
+        List<Object[]> fulfillments = new ArrayList<>(DELIVERIES);
+        List<Object[]> deliveries = new ArrayList<>(DELIVERIES);
+        List<UUID> deliveryIds = new ArrayList<>(DELIVERIES);
+        for (int i = 0; i < DELIVERIES; i++) {
+            UUID fulfillmentId = UUID.randomUUID();
+            UUID deliveryId = UUID.randomUUID();
+            String trackingNumber = "BENCH" + i;
+            fulfillments.add(new Object[]{
+                fulfillmentId, UUID.randomUUID(), tenantId, "IN_TRANSIT", UUID.randomUUID(), Timestamp.valueOf(createdAt)});
+            deliveries.add(new Object[]{
+                deliveryId, fulfillmentId, tenantId, "OUT_FOR_DELIVERY", trackingNumber, Timestamp.valueOf(createdAt)});
+            deliveryIds.add(deliveryId);
+            trackingNumbers.add(trackingNumber);
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO fulfillments (id, order_id, tenant_id, status, delivery_address_id, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)", fulfillments);
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO deliveries (id, fulfillment_id, tenant_id, status, tracking_number, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)", deliveries);
+        
+        Random points = new Random(7);
+        for (UUID deliveryId : deliveryIds) {
+            List<Object[]> rows = new ArrayList<>(pointsPerDelivery);
+            for (int i = 0; i < pointsPerDelivery; i++) {
+                rows.add(new Object[]{
+                    deliveryId,
+                    12.9716 + points.nextDouble() * 0.1,
+                    77.5946 + points.nextDouble() * 0.1,
+                    "OUT_FOR_DELIVERY",
+                    Timestamp.valueOf(createdAt.plusSeconds(i * 5L))
+                });
+            }
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO tracking_history (delivery_id, latitude, longitude, status, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)", rows);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(TrackingReadBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Driver;
+import com.ecom.fulfillment.event.DriverStateChangedEvent;
+import com.ecom.fulfillment.model.response.FleetSnapshotResponse;
+import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.repository.DriverRepository;
+import com.ecom.fulfillment.util.FleetSnapshotCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class FleetSnapshotViewTest {
+    
+    private static final UUID TENANT_ID = UUID.randomUUID();
+    private static final LocalDateTime BASE = LocalDateTime.now().minusHours(3);
+    
+    private FleetSnapshotView view;
+    private int tick;
+    
+    @BeforeEach
+    void setUp() {
+        view = new FleetSnapshotView(
+            mock(DriverRepository.class), mock(DeliveryRepository.class), new ProximityService(), new SimpleMeterRegistry());
+        view.registerMetrics();
+    }
+    
+    @Test
+    void fullSnapshotIntroducesEveryEntry() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        move(first, 12.97, 77.59);
+        move(second, 12.98, 77.60);
+        
+        FleetSnapshotResponse full = view.snapshot(TENANT_ID, null);
+        
+        assertTrue(full.full());
+        assertEquals(2, full.drivers().size());
+        assertTrue(full.drivers().stream().allMatch(FleetSnapshotResponse.Row::introduced));
+        assertEquals(2, full.drivers().stream().mapToInt(FleetSnapshotResponse.Row::ref).distinct().count());
+    }
+    
+    @Test
+    void deltaSendsOnlyRefsForKnownEntries() {
+        UUID known = UUID.randomUUID();
+        move(known, 12.97, 77.59);
+        FleetSnapshotResponse full = view.snapshot(TENANT_ID, null);
+        
+        move(known, 12.971, 77.591);
+        UUID added = UUID.randomUUID();
+        move(added, 12.99, 77.61);
+        FleetSnapshotResponse delta = view.snapshot(TENANT_ID, full.version());
+        
+        assertFalse(delta.full());
+        FleetSnapshotResponse.Row knownRow = row(delta, known);
+        assertFalse(knownRow.introduced());
+        assertEquals(row(full, known).ref(), knownRow.ref());
+        assertTrue(row(delta, added).introduced());
+    }
+    
+    @Test
+    void entryIsIntroducedWhenItFirstGetsAPosition() {
+        UUID driverId = UUID.randomUUID();
+        view.updateDriver(new DriverStateChangedEvent(driverId, TENANT_ID, Driver.DriverStatus.OFFLINE, null, null, null));
+        FleetSnapshotResponse full = view.snapshot(TENANT_ID, null);
+        assertTrue(full.drivers().isEmpty());
+        
+        move(driverId, 12.97, 77.59);
+        FleetSnapshotResponse delta = view.snapshot(TENANT_ID, full.version());
+        
+        assertTrue(row(delta, driverId).introduced());
+    }
+    
+    @Test
+    void deltaRowsWithoutIdsStaySmall() {
+        List<UUID> drivers = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            UUID driverId = UUID.randomUUID();
+            drivers.add(driverId);
+            move(driverId, 12.9 + (i % 100) * 0.004, 77.5 + (i / 100) * 0.008);
+        }
+        FleetSnapshotResponse full = view.snapshot(TENANT_ID, null);
+        
+        for (int i = 0; i < drivers.size(); i++) {
+            move(drivers.get(i), 12.9 + (i % 100) * 0.004 + 0.0003, 77.5 + (i / 100) * 0.008 + 0.0003);
+        }
+        FleetSnapshotResponse delta = view.snapshot(TENANT_ID, full.version());
+        
+        assertEquals(5_000, delta.drivers().size());
+        int fullBytes = FleetSnapshotCodec.encode(full).length;
+        int deltaBytes = FleetSnapshotCodec.encode(delta).length;
+        assertTrue(deltaBytes < 5_000 * 16, "delta bytes: " + deltaBytes);
+        assertTrue(deltaBytes < fullBytes / 2, "full " + fullBytes + " vs delta " + deltaBytes);
+    }
+    
+    private void move(UUID driverId, double latitude, double longitude) {
+        view.updateDriver(new DriverStateChangedEvent(
+            driverId, TENANT_ID, Driver.DriverStatus.AVAILABLE,
+            BigDecimal.valueOf(latitude), BigDecimal.valueOf(longitude), BASE.plusSeconds(++tick)));
+    }
+    
+    private static FleetSnapshotResponse.Row row(FleetSnapshotResponse snapshot, UUID id) {
+        return snapshot.drivers().stream().filter(row -> row.id().equals(id)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.entity.Delivery;
+import com.ecom.fulfillment.entity.Fulfillment;
+import com.ecom.fulfillment.repository.FulfillmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GeofenceEngineTest {
+    
+    private static final BigDecimal PICKUP_LATITUDE = new BigDecimal("12.9716");
+    private static final BigDecimal PICKUP_LONGITUDE = new BigDecimal("77.5946");
+    private static final BigDecimal DROPOFF_LATITUDE = new BigDecimal("12.9900");
+    private static final BigDecimal DROPOFF_LONGITUDE = new BigDecimal("77.6100");
+    private static final BigDecimal BETWEEN_LATITUDE = new BigDecimal("12.9800");
+    private static final BigDecimal BETWEEN_LONGITUDE = new BigDecimal("77.6020");
+    private static final LocalDateTime AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+    
+    private GeofenceEngine engine;
+    private Delivery delivery;
+    
+    @BeforeEach
+    void setUp() {
+        FulfillmentRepository fulfillmentRepository = mock(FulfillmentRepository.class);
+        UUID fulfillmentId = UUID.randomUUID();
+        when(fulfillmentRepository.findById(fulfillmentId)).thenReturn(Optional.of(Fulfillment.builder()
+            .id(fulfillmentId)
+            .pickupLatitude(PICKUP_LATITUDE)
+            .pickupLongitude(PICKUP_LONGITUDE)
+            .build()));
+        
+        engine = new GeofenceEngine(fulfillmentRepository, new ProximityService(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "pickupRadiusMeters", 150.0);
+        ReflectionTestUtils.setField(engine, "dropoffRadiusMeters", 100.0);
+        ReflectionTestUtils.setField(engine, "exitFactor", 1.25);
+        engine.registerMetrics();
+        
+        delivery = Delivery.builder()
+            .id(UUID.randomUUID())
+            .fulfillmentId(fulfillmentId)
+            .status(Delivery.DeliveryStatus.ASSIGNED)
+            .deliveryAddressLatitude(DROPOFF_LATITUDE)
+            .deliveryAddressLongitude(DROPOFF_LONGITUDE)
+            .build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void advancesOneStepPerCrossing() {
+        GeofenceEngine.Transition leftPickup = transition(GeofenceEngine.FenceType.PICKUP, GeofenceEngine.Direction.EXIT);
+        GeofenceEngine.Transition reachedDropoff = transition(GeofenceEngine.FenceType.DROPOFF, GeofenceEngine.Direction.ENTER);
+        
+        assertEquals(Delivery.DeliveryStatus.PICKED_UP,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.ASSIGNED, List.of(leftPickup)));
+        assertEquals(Delivery.DeliveryStatus.IN_TRANSIT,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.PICKED_UP, List.of(leftPickup)));
+        assertEquals(Delivery.DeliveryStatus.IN_TRANSIT,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.IN_TRANSIT, List.of(leftPickup)));
+        
+        assertEquals(Delivery.DeliveryStatus.PICKED_UP,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.ASSIGNED, List.of(reachedDropoff)));
+        assertEquals(Delivery.DeliveryStatus.OUT_FOR_DELIVERY,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.IN_TRANSIT, List.of(reachedDropoff)));
+        assertEquals(Delivery.DeliveryStatus.OUT_FOR_DELIVERY,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.OUT_FOR_DELIVERY, List.of(reachedDropoff)));
+        assertEquals(Delivery.DeliveryStatus.IN_TRANSIT,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.ASSIGNED, List.of(leftPickup, reachedDropoff)));
+    }
+    
+    @Test
+    void neverMovesBackwardsOrOutOfATerminalStatus() {
+        GeofenceEngine.Transition enteredPickup = transition(GeofenceEngine.FenceType.PICKUP, GeofenceEngine.Direction.ENTER);
+        GeofenceEngine.Transition leftDropoff = transition(GeofenceEngine.FenceType.DROPOFF, GeofenceEngine.Direction.EXIT);
+        GeofenceEngine.Transition reachedDropoff = transition(GeofenceEngine.FenceType.DROPOFF, GeofenceEngine.Direction.ENTER);
+        
+        assertEquals(Delivery.DeliveryStatus.OUT_FOR_DELIVERY,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.OUT_FOR_DELIVERY, List.of(enteredPickup, leftDropoff)));
+        assertEquals(Delivery.DeliveryStatus.FAILED,
+            GeofenceEngine.statusAfter(Delivery.DeliveryStatus.FAILED, List.of(reachedDropoff)));
+    }
+    
+    @Test
+    void detectsEachCrossingOnceOutsideATransaction() {
+        assertEquals(List.of(GeofenceEngine.Direction.ENTER), directions(ping(PICKUP_LATITUDE, PICKUP_LONGITUDE)));
+        assertEquals(List.of(), ping(PICKUP_LATITUDE, PICKUP_LONGITUDE));
+        assertEquals(List.of(GeofenceEngine.Direction.EXIT), directions(ping(BETWEEN_LATITUDE, BETWEEN_LONGITUDE)));
+        assertEquals(List.of(), ping(BETWEEN_LATITUDE, BETWEEN_LONGITUDE));
+    }
+    
+    @Test
+    void rolledBackCrossingIsDetectedAgain() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(1, ping(PICKUP_LATITUDE, PICKUP_LONGITUDE).size());
+        // Later pings of the same transaction see the staged state
+        assertEquals(List.of(), ping(PICKUP_LATITUDE, PICKUP_LONGITUDE));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        
+        assertEquals(1, ping(PICKUP_LATITUDE, PICKUP_LONGITUDE).size());
+    }
+    
+    @Test
+    void committedCrossingIsApplied() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(1, ping(PICKUP_LATITUDE, PICKUP_LONGITUDE).size());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        
+        assertEquals(List.of(), ping(PICKUP_LATITUDE, PICKUP_LONGITUDE));
+        assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+    
+    private List<GeofenceEngine.Transition> ping(BigDecimal latitude, BigDecimal longitude) {
+        return engine.evaluate(delivery, latitude, longitude, AT);
+    }
+    
+    private static List<GeofenceEngine.Direction> directions(List<GeofenceEngine.Transition> transitions) {
+        return transitions.stream().map(GeofenceEngine.Transition::direction).toList();
+    }
+    
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+    
+    private GeofenceEngine.Transition transition(GeofenceEngine.FenceType fence, GeofenceEngine.Direction direction) {
+        return new GeofenceEngine.Transition(delivery.getId(), fence, direction, AT);
+    }
+}
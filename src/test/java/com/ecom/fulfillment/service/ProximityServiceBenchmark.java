@@ -0,0 +1,209 @@
+package com.ecom.fulfillment.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProximityService} primitive/anchor API vs the BigDecimal-returning code it replaced
+ *
+ * <p>The legacy methods below are copies of the previous implementation. {@code near}
+ * puts the second party within ~40 m of the first (every check pays for Haversine), {@code far}
+ * spreads it over a ~40 km city box (the prechecks reject it). Run {@link #main} after
+ * {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProximityServiceBenchmark {
+    
+    private static final double ORIGIN_LATITUDE = 12.9716;
+    private static final double ORIGIN_LONGITUDE = 77.5946;
+    private static final int PAIRS = 1024;
+    private static final int RADIUS_METERS = 50;
+    private static final int ALTERNATES = 5;
+    
+    @Param({"near", "far"})
+    private String spread;
+    
+    private final ProximityService proximityService = new ProximityService();
+    
+    private double[] agentLatitudes;
+    private double[] agentLongitudes;
+    private double[] partyLatitudes;
+    private double[] partyLongitudes;
+    private List<ProximityService.AlternateRecipientLocation> alternates;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double offset = "near".equals(spread) ? 0.0003 : 0.35;
+        agentLatitudes = new double[PAIRS];
+        agentLongitudes = new double[PAIRS];
+        partyLatitudes = new double[PAIRS];
+        partyLongitudes = new double[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            agentLatitudes[i] = ORIGIN_LATITUDE + random.nextDouble() * 0.35;
+            agentLongitudes[i] = ORIGIN_LONGITUDE + random.nextDouble() * 0.35;
+            partyLatitudes[i] = agentLatitudes[i] + (random.nextDouble() - 0.5) * offset;
+            partyLongitudes[i] = agentLongitudes[i] + (random.nextDouble() - 0.5) * offset;
+        }
+        alternates = new ArrayList<>(ALTERNATES);
+        for (int i = 0; i < ALTERNATES; i++) {
+            alternates.add(new ProximityService.AlternateRecipientLocation(
+                UUID.randomUUID(),
+                BigDecimal.valueOf(partyLatitudes[i]),
+                BigDecimal.valueOf(partyLongitudes[i]),
+                BigDecimal.TEN,
+                "Recipient " + i,
+                null
+            ));
+        }
+    }
+    
+    @Benchmark
+    public boolean legacyRadiusCheck() {
+        int i = nextIndex();
+        return legacyDistance(agentLatitudes[i], agentLongitudes[i], partyLatitudes[i], partyLongitudes[i])
+            <= RADIUS_METERS;
+    }
+    
+    @Benchmark
+    public boolean anchoredRadiusCheck() {
+        int i = nextIndex();
+        return proximityService.isWithinProximity(
+            agentLatitudes[i], agentLongitudes[i], partyLatitudes[i], partyLongitudes[i], RADIUS_METERS);
+    }
+    
+    @Benchmark
+    public Object legacyMeasureParties() {
+        int i = nextIndex();
+        return legacyVerifyAndRecordLocation(
+            agentLatitudes[i], agentLongitudes[i],
+            partyLatitudes[i], partyLongitudes[i],
+            ORIGIN_LATITUDE, ORIGIN_LONGITUDE,
+            RADIUS_METERS
+        );
+    }
+    
+    @Benchmark
+    public Object primitiveMeasureParties() {
+        int i = nextIndex();
+        return proximityService.measureParties(
+            agentLatitudes[i], agentLongitudes[i],
+            partyLatitudes[i], partyLongitudes[i],
+            ORIGIN_LATITUDE, ORIGIN_LONGITUDE,
+            RADIUS_METERS
+        );
+    }
+    
+    @Benchmark
+    public Object legacyAlternates() {
+        int i = nextIndex();
+        return legacyCheckProximityWithAlternates(agentLatitudes[i], agentLongitudes[i], alternates, RADIUS_METERS);
+    }
+    
+    @Benchmark
+    public Object batchedAlternates() {
+        int i = nextIndex();
+        return proximityService.checkProximityWithAlternates(
+            agentLatitudes[i], agentLongitudes[i], alternates, RADIUS_METERS);
+    }
+    
+    private int nextIndex() {
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+    
+    private static double legacyDistance(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(Math.toRadians(lat1)) *
+                   Math.cos(Math.toRadians(lat2)) *
+                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return 6371.0 * c * 1000;
+    }
+    
+    private static ProximityService.ProximityResult legacyVerifyAndRecordLocation(
+        double agentLat, double agentLon,
+        double customerLat, double customerLon,
+        double scheduledDeliveryLat, double scheduledDeliveryLon,
+        int proximityRadius
+    ) {
+        boolean partiesInProximity = legacyDistance(agentLat, agentLon, customerLat, customerLon) <= proximityRadius;
+        double distanceBetweenParties = legacyDistance(agentLat, agentLon, customerLat, customerLon);
+        
+        double actualLat = (agentLat + customerLat) / 2;
+        double actualLon = (agentLon + customerLon) / 2;
+        double distanceFromScheduled = legacyDistance(scheduledDeliveryLat, scheduledDeliveryLon, actualLat, actualLon);
+        
+        String locationType = distanceFromScheduled > 100 ?
+            "ALTERNATE_LOCATION" : "SCHEDULED_ADDRESS";
+        
+        return new ProximityService.ProximityResult(
+            partiesInProximity,
+            legacyRound(distanceBetweenParties),
+            legacyRound(distanceFromScheduled),
+            locationType,
+            BigDecimal.valueOf(actualLat),
+            BigDecimal.valueOf(actualLon)
+        );
+    }
+    
+    private static ProximityService.ProximityMatchResult legacyCheckProximityWithAlternates(
+        double agentLat, double agentLon,
+        List<ProximityService.AlternateRecipientLocation> alternateRecipients,
+        int proximityRadius
+    ) {
+        for (int i = 0; i < alternateRecipients.size(); i++) {
+            ProximityService.AlternateRecipientLocation alt = alternateRecipients.get(i);
+            if (alt.latitude() != null && alt.longitude() != null) {
+                double distance = legacyDistance(
+                    agentLat, agentLon,
+                    alt.latitude().doubleValue(), alt.longitude().doubleValue()
+                );
+                if (distance <= proximityRadius) {
+                    return new ProximityService.ProximityMatchResult(true, i, legacyRound(distance), alt);
+                }
+            }
+        }
+        return new ProximityService.ProximityMatchResult(false, -1, null, null);
+    }
+    
+    private static BigDecimal legacyRound(double distance) {
+        return BigDecimal.valueOf(distance).setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ProximityServiceBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
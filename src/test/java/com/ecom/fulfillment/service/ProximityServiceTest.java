@@ -0,0 +1,60 @@
+package com.ecom.fulfillment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProximityServiceTest {
+    
+    private static final double[] RADII = {50, 100, 500, 5_000, 50_000};
+    
+    private final ProximityService proximityService = new ProximityService();
+    
+    @Test
+    void anchoredChecksMatchPlainHaversine() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            double lat1 = random.nextDouble() * 170 - 85;
+            double lon1 = random.nextDouble() * 360 - 180;
+            // Mostly within a few radii of the first point so the edge cases get exercised
+            double scale = RADII[random.nextInt(RADII.length)] / 111_000.0 * 3;
+            double lat2 = Math.max(-90, Math.min(90, lat1 + (random.nextDouble() - 0.5) * scale));
+            double lon2 = wrap(lon1 + (random.nextDouble() - 0.5) * scale / Math.max(0.05, Math.cos(Math.toRadians(lat1))));
+            double radius = RADII[random.nextInt(RADII.length)];
+            
+            double expected = haversine(lat1, lon1, lat2, lon2);
+            assertEquals(expected, proximityService.calculateDistance(lat1, lon1, lat2, lon2), 1e-6);
+            assertEquals(expected <= radius,
+                proximityService.isWithin(ProximityService.Anchor.of(lat1, lon1), lat2, lon2, radius),
+                () -> "Radius decision differs for " + lat1 + "," + lon1 + " -> " + lat2 + "," + lon2);
+        }
+    }
+    
+    @Test
+    void measurePartiesMatchesVerifyAndRecordLocation() {
+        ProximityService.PartiesMeasurement measurement = proximityService.measureParties(
+            12.9716, 77.5946, 12.9718, 77.5947, 12.9700, 77.5900, 50);
+        ProximityService.ProximityResult result = proximityService.verifyAndRecordLocation(
+            12.9716, 77.5946, 12.9718, 77.5947, 12.9700, 77.5900, 50);
+        
+        assertEquals(result, measurement.toResult());
+        assertEquals(proximityService.roundDistance(haversine(12.9716, 77.5946, 12.9718, 77.5947)),
+            result.distanceBetweenParties());
+    }
+    
+    private static double wrap(double longitude) {
+        return ((longitude + 540) % 360) - 180;
+    }
+    
+    // The implementation ProximityService used before the anchor/precheck rewrite
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a)) * 1000;
+    }
+}
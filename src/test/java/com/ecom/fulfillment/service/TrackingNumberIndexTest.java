@@ -0,0 +1,200 @@
+package com.ecom.fulfillment.service;
+
+import com.ecom.fulfillment.event.DeliveryTrackingChangedEvent;
+import com.ecom.fulfillment.repository.DeliveryRepository;
+import com.ecom.fulfillment.repository.DeliveryRepositoryCustom.TrackingNumberRow;
+import com.ecom.fulfillment.util.BloomFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrackingNumberIndexTest {
+    
+    private static final UUID TENANT_ID = UUID.randomUUID();
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final Comparator<TrackingNumberRow> KEYSET =
+        Comparator.comparing(TrackingNumberRow::createdAt).thenComparing(TrackingNumberRow::deliveryId);
+    
+    // Committed deliveries, in keyset order
+    private final ConcurrentSkipListMap<TrackingNumberRow, Boolean> committed = new ConcurrentSkipListMap<>(KEYSET);
+    private final AtomicLong clock = new AtomicLong();
+    
+    private DeliveryRepository deliveryRepository;
+    private DeliveryLiveStateCache liveStateCache;
+    private TrackingNumberIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        deliveryRepository = mock(DeliveryRepository.class);
+        liveStateCache = mock(DeliveryLiveStateCache.class);
+        when(liveStateCache.findAnyByTrackingNumber(anyString())).thenReturn(Optional.empty());
+        when(deliveryRepository.findTrackingNumbersAfter(any(), any(), anyInt())).thenAnswer(invocation -> {
+            TrackingNumberRow from = new TrackingNumberRow(null, null, invocation.getArgument(1), invocation.getArgument(0));
+            return committed.tailMap(from, false).keySet().stream()
+                .limit(invocation.<Integer>getArgument(2))
+                .toList();
+        });
+        when(deliveryRepository.findTrackingNumber(anyString())).thenAnswer(invocation -> committed.keySet().stream()
+            .filter(row -> row.trackingNumber().equals(invocation.getArgument(0)))
+            .findFirst());
+        
+        index = new TrackingNumberIndex(deliveryRepository, liveStateCache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "expectedInsertions", 1_000L);
+        ReflectionTestUtils.setField(index, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(index, "loadBatchSize", 100);
+        ReflectionTestUtils.setField(index, "refreshOverlapMs", 300_000L);
+        ReflectionTestUtils.setField(index, "cacheSize", 10);
+        index.registerMetrics();
+    }
+    
+    @Test
+    void resolvesLoadedNumbersAndRejectsUnknownOnesWithoutTheDatabase() {
+        TrackingNumberRow known = commit("TRK-KNOWN");
+        for (int i = 0; i < 250; i++) {
+            commit("TRK" + i);
+        }
+        index.load();
+        
+        assertEquals(Optional.of(new TrackingNumberIndex.Entry(TENANT_ID, known.deliveryId())), index.resolve("TRK-KNOWN"));
+        assertEquals(Optional.empty(), index.resolve("TRK-UNKNOWN"));
+        verify(deliveryRepository, never()).findTrackingNumber("TRK-UNKNOWN");
+    }
+    
+    @Test
+    void picksUpNumbersCommittedSinceTheLastRefresh() {
+        index.load();
+        commit("TRK-LATE");
+        assertFalse(filter().mightContain("TRK-LATE"));
+        
+        index.refresh();
+        
+        assertTrue(filter().mightContain("TRK-LATE"));
+    }
+    
+    @Test
+    void rebuildsAtTwiceTheSizeOnceSaturated() {
+        for (int i = 0; i < 1_500; i++) {
+            commit("TRK" + i);
+        }
+        index.load();
+        BloomFilter saturated = filter();
+        assertTrue(saturated.isSaturated());
+        
+        index.refresh();
+        
+        BloomFilter rebuilt = filter();
+        assertNotSame(saturated, rebuilt);
+        assertFalse(rebuilt.isSaturated());
+        for (int i = 0; i < 1_500; i++) {
+            assertTrue(rebuilt.mightContain("TRK" + i));
+        }
+    }
+    
+    @Test
+    void keepsNumbersAddedWhileARebuildIsScanning() {
+        for (int i = 0; i < 1_500; i++) {
+            commit("TRK" + i);
+        }
+        index.load();
+        
+        // Committed with a created_at the rebuild scan has already passed, announced mid-scan
+        TrackingNumberRow late = new TrackingNumberRow("TRK-LATE", TENANT_ID, UUID.randomUUID(), BASE);
+        AtomicBoolean announced = new AtomicBoolean();
+        doAnswer(invocation -> {
+            TrackingNumberRow from = new TrackingNumberRow(null, null, invocation.getArgument(1), invocation.getArgument(0));
+            List<TrackingNumberRow> rows = committed.tailMap(from, false).keySet().stream()
+                .limit(invocation.<Integer>getArgument(2))
+                .toList();
+            if (!rows.isEmpty() && announced.compareAndSet(false, true)) {
+                committed.put(late, true);
+                index.onTrackingChanged(event(late));
+            }
+            return rows;
+        }).when(deliveryRepository).findTrackingNumbersAfter(any(), any(), anyInt());
+        
+        index.refresh();
+        
+        assertTrue(filter().mightContain("TRK-LATE"));
+    }
+    
+    @Test
+    void concurrentAnnouncementsSurviveRepeatedRebuilds() throws Exception {
+        index.load();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        List<Future<?>> writers = new ArrayList<>();
+        try {
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    try {
+                        for (int i = 0; i < 2_000; i++) {
+                            index.onTrackingChanged(event(commit(thread + "-" + i)));
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }));
+            }
+            // 8k numbers against a 1k filter: refreshes keep rebuilding while the writers run
+            while (done.getCount() > 0) {
+                index.refresh();
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        BloomFilter current = filter();
+        for (TrackingNumberRow row : committed.keySet()) {
+            assertTrue(current.mightContain(row.trackingNumber()), row.trackingNumber());
+        }
+    }
+    
+    private TrackingNumberRow commit(String trackingNumber) {
+        TrackingNumberRow row = new TrackingNumberRow(
+            trackingNumber, TENANT_ID, UUID.randomUUID(), BASE.plusNanos(clock.incrementAndGet() * 1_000));
+        committed.put(row, true);
+        return row;
+    }
+    
+    private BloomFilter filter() {
+        return (BloomFilter) ReflectionTestUtils.getField(index, "filter");
+    }
+    
+    private static DeliveryTrackingChangedEvent event(TrackingNumberRow row) {
+        return new DeliveryTrackingChangedEvent(
+            row.deliveryId(), row.tenantId(), null, row.trackingNumber(), null, null, null, null, row.createdAt());
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecom.fulfillment.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SequenceTrackingNumberGenerator} throughput on one thread and under contention
+ *
+ * <p>All threads share one generator, as the service does, so the contended case measures the CAS
+ * on its state. The previous {@code "TRK-" + fulfillment id prefix} scheme is included as a floor.
+ * Run {@link #main} after {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequenceTrackingNumberGeneratorBenchmark {
+    
+    private final SequenceTrackingNumberGenerator generator = new SequenceTrackingNumberGenerator(1, true);
+    private final UUID tenantId = UUID.randomUUID();
+    
+    @Benchmark
+    @Threads(1)
+    public String sequenceSingleThread() {
+        return generator.next(tenantId);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String sequenceContended() {
+        return generator.next(tenantId);
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public String fulfillmentIdPrefix() {
+        return "TRK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SequenceTrackingNumberGeneratorBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
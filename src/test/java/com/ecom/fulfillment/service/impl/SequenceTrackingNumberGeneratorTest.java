@@ -0,0 +1,113 @@
+package com.ecom.fulfillment.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequenceTrackingNumberGeneratorTest {
+    
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 125_000;
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final String PREFIX = "TRK-";
+    
+    @Test
+    void refusesToStartWithoutNodeIdWhenRequired() {
+        assertThrows(IllegalStateException.class, () -> new SequenceTrackingNumberGenerator(-1, true));
+        assertThrows(IllegalArgumentException.class, () -> new SequenceTrackingNumberGenerator(1024, false));
+    }
+    
+    @Test
+    void derivesANodeIdWhenUnset() {
+        String number = new SequenceTrackingNumberGenerator(-1, false).next(UUID.randomUUID());
+        
+        assertTrue(hasValidCheckCharacter(number), number);
+    }
+    
+    @Test
+    void writesPrefixedCrockfordNumbers() {
+        String number = new SequenceTrackingNumberGenerator(7, true).next(UUID.randomUUID());
+        
+        assertTrue(number.matches("TRK-[0-9A-HJKMNP-TV-Z]{14}"), number);
+    }
+    
+    @Test
+    void checkCharacterCatchesEverySingleCharacterChange() {
+        SequenceTrackingNumberGenerator generator = new SequenceTrackingNumberGenerator(7, true);
+        for (int n = 0; n < 100; n++) {
+            String number = generator.next(UUID.randomUUID());
+            assertTrue(hasValidCheckCharacter(number), number);
+            
+            for (int position = PREFIX.length(); position < number.length(); position++) {
+                for (char replacement : ALPHABET.toCharArray()) {
+                    if (replacement != number.charAt(position)) {
+                        String typo = number.substring(0, position) + replacement + number.substring(position + 1);
+                        assertFalse(hasValidCheckCharacter(typo), number + " -> " + typo);
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    void numbersAreUniqueAcrossThreadsAndNodes() throws Exception {
+        // Two nodes issuing at full speed in the same milliseconds, sequences overflowing into later ones
+        List<SequenceTrackingNumberGenerator> nodes = List.of(
+            new SequenceTrackingNumberGenerator(0, true), new SequenceTrackingNumberGenerator(1023, true));
+        Set<String> issued = ConcurrentHashMap.newKeySet(THREADS * PER_THREAD * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                SequenceTrackingNumberGenerator generator = nodes.get(t % nodes.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    UUID tenantId = UUID.randomUUID();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        issued.add(generator.next(tenantId));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(THREADS * PER_THREAD, issued.size());
+    }
+    
+    /**
+     * Luhn mod 32 validation: doubling every second digit from the right, check character included
+     */
+    private static boolean hasValidCheckCharacter(String number) {
+        String digits = number.substring(PREFIX.length());
+        int base = ALPHABET.length();
+        int sum = 0;
+        boolean doubled = false;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = ALPHABET.indexOf(digits.charAt(i));
+            int addend = doubled ? digit * 2 : digit;
+            sum += addend / base + addend % base;
+            doubled = !doubled;
+        }
+        return sum % base == 0;
+    }
+}
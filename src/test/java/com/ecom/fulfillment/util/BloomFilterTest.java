@@ -0,0 +1,91 @@
+package com.ecom.fulfillment.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+    
+    @Test
+    void hasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("TRK" + i);
+        }
+        
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("TRK" + i), "TRK" + i);
+        }
+    }
+    
+    @Test
+    void keepsFalsePositiveRateNearTargetAtCapacity() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("TRK" + i);
+        }
+        
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("MISS" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+    }
+    
+    @Test
+    void countsOnlyNewValuesTowardsSaturation() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(filter.put("TRK" + i));
+        }
+        assertFalse(filter.put("TRK0"));
+        assertFalse(filter.isSaturated());
+        
+        filter.put("TRK100");
+        assertTrue(filter.isSaturated());
+    }
+    
+    @Test
+    void concurrentPutsAreNotLost() throws Exception {
+        BloomFilter filter = new BloomFilter(200_000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 25_000; i++) {
+                        filter.put(thread + "-" + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < 25_000; i++) {
+                assertTrue(filter.mightContain(t + "-" + i));
+            }
+        }
+    }
+    
+    @Test
+    void rejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
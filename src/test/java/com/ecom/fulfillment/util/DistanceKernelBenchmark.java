@@ -0,0 +1,92 @@
+package com.ecom.fulfillment.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar vs Vector API {@link DistanceKernel} at 10, 1k and 100k candidates
+ *
+ * <p>Candidates are spread over a ~40 km city box. The radius checks use a radius nothing falls
+ * within, so both versions scan every candidate. Run {@link #main} after
+ * {@code mvn -Pvector-api test-compile}; without the profile the vector benchmarks fail at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class DistanceKernelBenchmark {
+    
+    private static final double ORIGIN_LATITUDE = 12.9716;
+    private static final double ORIGIN_LONGITUDE = 77.5946;
+    
+    @Param({"10", "1000", "100000"})
+    private int candidates;
+    
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] out;
+    private double threshold;
+    private DistanceKernel.Batch vector;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[candidates];
+        longitudes = new double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            latitudes[i] = ORIGIN_LATITUDE + 0.01 + random.nextDouble() * 0.35;
+            longitudes[i] = ORIGIN_LONGITUDE + 0.01 + random.nextDouble() * 0.35;
+        }
+        out = new double[candidates];
+        threshold = DistanceKernel.haversineThreshold(100);
+        vector = DistanceKernel.vector();
+        if (vector == null) {
+            throw new IllegalStateException("Vector API kernel unavailable, build with -Pvector-api");
+        }
+    }
+    
+    @Benchmark
+    public double[] scalarDistances() {
+        DistanceKernel.SCALAR.distances(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, latitudes, longitudes, out);
+        return out;
+    }
+    
+    @Benchmark
+    public double[] vectorDistances() {
+        vector.distances(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, latitudes, longitudes, out);
+        return out;
+    }
+    
+    @Benchmark
+    public int scalarFirstWithin() {
+        return DistanceKernel.SCALAR.firstWithin(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, latitudes, longitudes, threshold);
+    }
+    
+    @Benchmark
+    public int vectorFirstWithin() {
+        return vector.firstWithin(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, latitudes, longitudes, threshold);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(DistanceKernelBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}